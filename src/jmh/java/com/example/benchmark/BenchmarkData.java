@@ -0,0 +1,134 @@
+package com.example.benchmark;
+
+import com.example.model.*;
+import com.example.repository.*;
+import com.example.service.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Bygger samma objektgraf som Application och fyller den med syntetisk data.
+ * Samma seed ger samma data, så resultat kan jämföras mellan byggen.
+ */
+public class BenchmarkData {
+    public static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    public static final int DAYS = 365;
+
+    public final ProductRepository productRepository = new InMemoryProductRepository();
+    public final CustomerRepository customerRepository = new InMemoryCustomerRepository();
+    public final OrderRepository orderRepository = new InMemoryOrderRepository();
+    public final InventoryRepository inventoryRepository = new InMemoryInventoryRepository();
+    public final PaymentRepository paymentRepository = new InMemoryPaymentRepository();
+
+    public final ProductService productService = new ProductService(productRepository);
+    public final CustomerService customerService = new CustomerService(customerRepository);
+    public final InventoryService inventoryService = new InventoryService(inventoryRepository);
+    public final PaymentService paymentService = new PaymentService(paymentRepository);
+    public final OrderService orderService = new OrderService(orderRepository, inventoryService, paymentService);
+    public final CartService cartService = new CartService(inventoryService);
+    public final CSVImportService csvImportService =
+            new CSVImportService(orderService, productService, customerService, inventoryService);
+
+    public final List<Product> products = new ArrayList<>();
+    public final List<Customer> customers = new ArrayList<>();
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    public static String sku(int i) {
+        return "SKU" + i;
+    }
+
+    public static String email(int i) {
+        return "kund" + i + "@example.com";
+    }
+
+    public void addProducts(int count, int stock) {
+        for (int i = 0; i < count; i++) {
+            Product product = productService.createProduct(sku(i), "Produkt " + i, "Beskrivning " + i,
+                    Money.ofCents(1_000 + random.nextInt(10_000)));
+            inventoryService.addStock(product, stock);
+            products.add(product);
+        }
+    }
+
+    public void addCustomers(int count) {
+        for (int i = 0; i < count; i++) {
+            customers.add(customerService.createCustomer(email(i), "Kund " + i));
+        }
+    }
+
+    /**
+     * Sparar ordrar direkt i repositoryt, utspridda över ett år, 80 % PAID.
+     */
+    public void addOrders(int count) {
+        for (int i = 0; i < count; i++) {
+            Order order = new Order(customers.get(random.nextInt(customers.size())));
+            int lines = 1 + random.nextInt(3);
+            for (int l = 0; l < lines; l++) {
+                OrderItem item = new OrderItem(products.get(random.nextInt(products.size())), 1 + random.nextInt(3));
+                item.setOrder(order);
+                order.addItem(item);
+            }
+            order.setCreatedAt(START.plusMinutes(random.nextInt(DAYS * 24 * 60)));
+            order.setStatus(random.nextInt(10) < 8 ? OrderStatus.PAID : OrderStatus.CANCELLED);
+            orderRepository.save(order);
+        }
+    }
+
+    /**
+     * Skriver en orderfil i samma format som CSVImportService läser.
+     */
+    public void writeOrdersCsv(Path file, int rows) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("orderNumber,customerEmail,status,createdAt,items");
+            writer.newLine();
+            for (int i = 0; i < rows; i++) {
+                writer.write("ORD-" + i + ","
+                        + email(random.nextInt(customers.size())) + ","
+                        + (random.nextInt(10) < 8 ? "PAID" : "CANCELLED") + ","
+                        + START.plusMinutes(random.nextInt(DAYS * 24 * 60)) + ","
+                        + sku(random.nextInt(products.size())) + ":" + (1 + random.nextInt(3)) + "|"
+                        + sku(random.nextInt(products.size())) + ":1");
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Skriver en produktfil med count produkter, sku;name;description;price;stock
+     */
+    public void writeProductsCsv(Path file, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("sku,name,description,price,stock");
+            writer.newLine();
+            for (int i = 0; i < count; i++) {
+                writer.write(sku(i) + ",Produkt " + i + ",Beskrivning " + i + ","
+                        + (10 + random.nextInt(100)) + "." + (10 + random.nextInt(90)) + ","
+                        + random.nextInt(1_000));
+                writer.newLine();
+            }
+        }
+    }
+
+    public void writeCustomersCsv(Path file, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("email,name");
+            writer.newLine();
+            for (int i = 0; i < count; i++) {
+                writer.write(email(i) + ",Kund " + i);
+                writer.newLine();
+            }
+        }
+    }
+
+    public SplittableRandom random() {
+        return random;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.benchmark;
+
+import com.example.model.Customer;
+import com.example.model.Money;
+import com.example.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Skapar size produkter och kunder, en i taget med createProduct/createCustomer
+ * eller i block om 1 000 med createAll, samt importerar samma mängd från CSV.
+ * Varje mätning startar med tomma repositoryn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx32g")
+public class BulkInsertBenchmark {
+    private static final int BATCH = 1_000;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private Path productsFile;
+    private Path customersFile;
+    private BenchmarkData data;
+    private List<Product> products;
+    private List<Customer> customers;
+
+    @Setup(Level.Trial)
+    public void writeFiles() throws IOException {
+        BenchmarkData generator = new BenchmarkData();
+        productsFile = Files.createTempFile("products", ".csv");
+        customersFile = Files.createTempFile("customers", ".csv");
+        generator.writeProductsCsv(productsFile, size);
+        generator.writeCustomersCsv(customersFile, size);
+    }
+
+    @Setup(Level.Invocation)
+    public void freshServices() {
+        data = null;
+        System.gc();
+        data = new BenchmarkData();
+        data.csvImportService.setProgressInterval(Integer.MAX_VALUE);
+
+        products = new ArrayList<>(size);
+        customers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(new Product(BenchmarkData.sku(i), "Produkt " + i, "Beskrivning " + i,
+                    Money.ofCents(1_000 + i % 10_000)));
+            customers.add(new Customer(BenchmarkData.email(i), "Kund " + i));
+        }
+    }
+
+    @Benchmark
+    public long createProductsOneByOne() {
+        for (Product product : products) {
+            data.productService.createProduct(product.getSku(), product.getName(),
+                    product.getDescription(), product.getPrice());
+        }
+        return data.productRepository.count();
+    }
+
+    @Benchmark
+    public long createProductsInBatches() {
+        for (int from = 0; from < size; from += BATCH) {
+            data.productService.createAll(products.subList(from, Math.min(from + BATCH, size)));
+        }
+        return data.productRepository.count();
+    }
+
+    @Benchmark
+    public long createCustomersOneByOne() {
+        for (Customer customer : customers) {
+            data.customerService.createCustomer(customer.getEmail(), customer.getName());
+        }
+        return data.customerRepository.count();
+    }
+
+    @Benchmark
+    public long createCustomersInBatches() {
+        for (int from = 0; from < size; from += BATCH) {
+            data.customerService.createAll(customers.subList(from, Math.min(from + BATCH, size)));
+        }
+        return data.customerRepository.count();
+    }
+
+    @Benchmark
+    public long importProducts() {
+        data.csvImportService.importProducts(productsFile);
+        return data.productRepository.count();
+    }
+
+    @Benchmark
+    public long importCustomers() {
+        data.csvImportService.importCustomers(customersFile);
+        return data.customerRepository.count();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(productsFile);
+        Files.deleteIfExists(customersFile);
+    }
+}
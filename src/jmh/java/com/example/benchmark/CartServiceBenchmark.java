@@ -0,0 +1,60 @@
+package com.example.benchmark;
+
+import com.example.model.Customer;
+import com.example.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mäter addToCart mot en kundvagn av begränsad längd. Vagnen töms utanför mätningen
+ * när den nått CART_LINES rader, så att resultatet visar kostnaden per tillägg för
+ * katalogstorleken och inte hur lång vagnen hunnit bli.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class CartServiceBenchmark {
+
+    private static final int CART_LINES = 10;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private BenchmarkData data;
+    private int next;
+    private Customer customer;
+    private Product product;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new BenchmarkData();
+        data.addProducts(size, Integer.MAX_VALUE / 2);
+        data.addCustomers(1_000);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearCarts() {
+        for (Customer customer : data.customers) {
+            data.cartService.clearCart(customer);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void nextLine() {
+        next++;
+        customer = data.customers.get(Math.floorMod(next, data.customers.size()));
+        product = data.products.get(Math.floorMod(next * 31, size));
+        if (data.cartService.getCart(customer).size() >= CART_LINES) {
+            data.cartService.clearCart(customer);
+        }
+    }
+
+    @Benchmark
+    public void addToCart() {
+        data.cartService.addToCart(customer, product, 1);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.benchmark;
+
+import com.example.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class CheckoutBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private BenchmarkData data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new BenchmarkData();
+        data.addProducts(size, Integer.MAX_VALUE / 2);
+        data.addCustomers(1_000);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Order checkout() {
+        var random = java.util.concurrent.ThreadLocalRandom.current();
+        Customer customer = data.customers.get(random.nextInt(data.customers.size()));
+        List<OrderItem> items = List.of(
+                new OrderItem(data.products.get(random.nextInt(size)), 1),
+                new OrderItem(data.products.get(random.nextInt(size)), 2));
+        Order order = data.orderService.createOrder(customer, items);
+        return data.orderService.checkout(order.getId(), PaymentMethod.CARD);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importerar en genererad orderfil med 1, 4 och alla tolkartrådar, så att
+ * skalningen syns i samma körning. Varje mätning startar med nya tjänster
+ * så att ordrar och lager från förra körningen inte påverkar resultatet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class CsvImportBenchmark {
+
+    private static final int PRODUCTS = 1_000;
+    private static final int CUSTOMERS = 10_000;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    // Antal tolkartrådar; "max" är alla kärnor på maskinen
+    @Param({"1", "4", "max"})
+    public String threads;
+
+    private Path file;
+    private BenchmarkData data;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        BenchmarkData generator = new BenchmarkData();
+        generator.addProducts(PRODUCTS, 0);
+        generator.addCustomers(CUSTOMERS);
+        file = Files.createTempFile("orders", ".csv");
+        generator.writeOrdersCsv(file, size);
+    }
+
+    @Setup(Level.Invocation)
+    public void freshServices() {
+        data = new BenchmarkData();
+        data.addProducts(PRODUCTS, Integer.MAX_VALUE / 2);
+        data.addCustomers(CUSTOMERS);
+        data.csvImportService.setParallelism(threads.equals("max")
+                ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(threads));
+        data.csvImportService.setProgressInterval(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public long importOrders() {
+        data.csvImportService.importOrders(file);
+        return data.orderRepository.count();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
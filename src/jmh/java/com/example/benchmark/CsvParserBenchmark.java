@@ -0,0 +1,87 @@
+package com.example.benchmark;
+
+import com.example.helper.CsvTokenizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jämför CsvTokenizer med den tidigare tolkningen (String.split + trim + regex-split)
+ * på en orderfil, utan att spara något.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CsvParserBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        BenchmarkData generator = new BenchmarkData();
+        generator.addProducts(1_000, 0);
+        generator.addCustomers(10_000);
+        file = Files.createTempFile("orders", ".csv");
+        generator.writeOrdersCsv(file, size);
+    }
+
+    @Benchmark
+    public void splitParser(Blackhole blackhole) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",", 5);
+                blackhole.consume(parts[1].trim());
+                blackhole.consume(parts[2].trim());
+                blackhole.consume(LocalDateTime.parse(parts[3].trim()));
+                for (String part : parts[4].trim().split("\\|")) {
+                    String[] kv = part.split(":");
+                    blackhole.consume(kv[0].trim());
+                    blackhole.consume(Integer.parseInt(kv[1].trim()));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void tokenizer(Blackhole blackhole) throws IOException {
+        try (CsvTokenizer row = CsvTokenizer.open(file)) {
+            row.next();
+            while (row.next()) {
+                blackhole.consume(row.field(1));
+                blackhole.consume(row.field(2));
+                blackhole.consume(row.dateTimeField(3));
+                String items = row.field(4);
+                int start = 0;
+                while (start < items.length()) {
+                    int end = items.indexOf('|', start);
+                    if (end < 0) {
+                        end = items.length();
+                    }
+                    int colon = items.indexOf(':', start);
+                    blackhole.consume(items.substring(start, colon));
+                    blackhole.consume(Integer.parseInt(items, colon + 1, end, 10));
+                    start = end + 1;
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.benchmark;
+
+import com.example.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Genomströmning för lagerreservation och hela checkout på alla kärnor:
+ * HOT låter alla trådar köpa samma SKU:er, SPREAD sprider köpen över många SKU:er.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Threads(Threads.MAX)
+public class InventoryReservationBenchmark {
+
+    @Param({"HOT", "SPREAD"})
+    public String workload;
+
+    private static final int PRODUCTS = 10_000;
+    private static final int CUSTOMERS = 1_000;
+
+    private BenchmarkData data;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        data = new BenchmarkData();
+        data.addProducts(PRODUCTS, Integer.MAX_VALUE / 2);
+        data.addCustomers(CUSTOMERS);
+    }
+
+    @Benchmark
+    public void reserveStock() {
+        int index = workload.equals("HOT") ? 0 : ThreadLocalRandom.current().nextInt(PRODUCTS);
+        Product product = data.products.get(index);
+        data.inventoryService.reserveStock(product, 1);
+    }
+
+    /**
+     * createOrder plus checkout med två rader. HOT köper SKU 0 och 1 i varje order,
+     * så alla trådar reserverar samma två lagerposter i samma ordning.
+     */
+    @Benchmark
+    public Order checkout() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean hot = workload.equals("HOT");
+        Customer customer = data.customers.get(random.nextInt(CUSTOMERS));
+        List<OrderItem> items = List.of(
+                new OrderItem(data.products.get(hot ? 0 : random.nextInt(PRODUCTS)), 1),
+                new OrderItem(data.products.get(hot ? 1 : random.nextInt(PRODUCTS)), 1));
+        Order order = data.orderService.createOrder(customer, items);
+        return data.orderService.checkout(order.getId(), PaymentMethod.CARD);
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.benchmark;
+
+import com.example.model.*;
+import com.example.repository.*;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Minnesrepositoryna mot JDBC-repositoryna på en H2-fil, med och utan läscache:
+ * import i batchar (rader per sekund) och uppslag via index (mikrosekunder per anrop).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class JdbcRepositoryBenchmark {
+    private static final int BATCH = 1_000;
+    private static final int CACHE_SIZE = 10_000;
+
+    @Param({"memory", "jdbc", "cached"})
+    public String impl;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private Path directory;
+    private JdbcConnectionPool pool;
+    private ProductRepository productRepository;
+    private CustomerRepository customerRepository;
+    private OrderRepository orderRepository;
+
+    private final List<Product> products = new ArrayList<>();
+    private final List<Customer> customers = new ArrayList<>();
+    private final SplittableRandom random = new SplittableRandom(42);
+    private int next;
+    private int imported;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (!impl.equals("memory")) {
+            directory = Files.createTempDirectory("jdbc-bench");
+            pool = JdbcConnectionPool.create("jdbc:h2:" + directory.resolve("bench"), "sa", "");
+            JdbcSchema.create(pool);
+            productRepository = new JdbcProductRepository(pool);
+            customerRepository = new JdbcCustomerRepository(pool);
+            orderRepository = new JdbcOrderRepository(pool);
+            if (impl.equals("cached")) {
+                Duration ttl = Duration.ofMinutes(5);
+                productRepository = new CachingProductRepository(productRepository, CACHE_SIZE, ttl);
+                customerRepository = new CachingCustomerRepository(customerRepository, CACHE_SIZE, ttl);
+                orderRepository = new CachingOrderRepository(orderRepository, CACHE_SIZE, ttl);
+            }
+        } else {
+            productRepository = new InMemoryProductRepository();
+            customerRepository = new InMemoryCustomerRepository();
+            orderRepository = new InMemoryOrderRepository();
+        }
+
+        for (int from = 0; from < size; from += BATCH) {
+            products.addAll(productRepository.saveAll(newProducts(from, Math.min(BATCH, size - from))));
+        }
+        int customerCount = Math.max(1, size / 10);
+        for (int from = 0; from < customerCount; from += BATCH) {
+            List<Customer> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(customerCount, from + BATCH); i++) {
+                batch.add(new Customer(BenchmarkData.email(i), "Kund " + i));
+            }
+            customers.addAll(customerRepository.saveAll(batch));
+        }
+        for (int from = 0; from < size; from += BATCH) {
+            orderRepository.saveAll(newOrders(Math.min(BATCH, size - from)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (pool != null) {
+            pool.dispose();
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * En batch om 1000 nya produkter; resultatet är rader per sekund
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    public List<Product> importProducts() {
+        List<Product> saved = productRepository.saveAll(newProducts(size + imported, BATCH));
+        imported += BATCH;
+        return saved;
+    }
+
+    /**
+     * En batch om 1000 nya ordrar med en till tre rader var
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    public List<Order> importOrders() {
+        return orderRepository.saveAll(newOrders(BATCH));
+    }
+
+    @Benchmark
+    public Optional<Product> findBySku() {
+        next = (next + 7_919) % size;
+        return productRepository.findBySku(BenchmarkData.sku(next));
+    }
+
+    /**
+     * Nio av tio uppslag går till en procent av katalogen, som i en butik med
+     * populära produkter. Cachen (10 000 poster) rymmer de heta men inte alla.
+     */
+    @Benchmark
+    public Optional<Product> findBySkuSkewed() {
+        int i = random.nextInt(10) < 9 ? random.nextInt(size / 100) : random.nextInt(size);
+        return productRepository.findBySku(BenchmarkData.sku(i));
+    }
+
+    @Benchmark
+    public Optional<Customer> findByEmailSkewed() {
+        int i = random.nextInt(10) < 9 ? random.nextInt(customers.size() / 100) : random.nextInt(customers.size());
+        return customerRepository.findByEmail(BenchmarkData.email(i));
+    }
+
+    @Benchmark
+    public Optional<Order> findOrderByIdSkewed() {
+        long id = random.nextInt(10) < 9 ? 1 + random.nextInt(size / 100) : 1 + random.nextInt(size);
+        return orderRepository.findById(id);
+    }
+
+    @Benchmark
+    public List<Order> findByCustomerId() {
+        next = (next + 7_919) % customers.size();
+        return orderRepository.findByCustomerId(customers.get(next).getId());
+    }
+
+    /**
+     * En sida om 20 betalda ordrar mitt i id-intervallet
+     */
+    @Benchmark
+    public List<Order> findPageByStatusAfter() {
+        return orderRepository.findPageByStatusAfter(OrderStatus.PAID, (long) size / 2, 20);
+    }
+
+    @Benchmark
+    public List<Order> findByDateBetween() {
+        LocalDate day = BenchmarkData.START.toLocalDate().plusDays(next++ % BenchmarkData.DAYS);
+        return orderRepository.findByDateBetween(day, day);
+    }
+
+    private List<Product> newProducts(int first, int count) {
+        List<Product> batch = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            batch.add(new Product(BenchmarkData.sku(i), "Produkt " + i, "Beskrivning " + i,
+                    Money.ofCents(1_000 + random.nextInt(10_000))));
+        }
+        return batch;
+    }
+
+    private List<Order> newOrders(int count) {
+        List<Order> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Order order = new Order(customers.get(random.nextInt(customers.size())));
+            int lines = 1 + random.nextInt(3);
+            for (int l = 0; l < lines; l++) {
+                OrderItem item = new OrderItem(products.get(random.nextInt(products.size())), 1 + random.nextInt(3));
+                item.setOrder(order);
+                order.addItem(item);
+            }
+            order.setCreatedAt(BenchmarkData.START.plusMinutes(random.nextInt(BenchmarkData.DAYS * 24 * 60)));
+            order.setStatus(random.nextInt(10) < 8 ? OrderStatus.PAID : OrderStatus.CANCELLED);
+            batch.add(order);
+        }
+        return batch;
+    }
+}
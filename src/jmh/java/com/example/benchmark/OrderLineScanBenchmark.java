@@ -0,0 +1,89 @@
+package com.example.benchmark;
+
+import com.example.model.Order;
+import com.example.model.OrderItem;
+import com.example.model.OrderStatus;
+import com.example.model.Product;
+import com.example.repository.OrderLineStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Skanning av alla orderrader: objektgrafen via streams mot kolumnlagret.
+ * Båda varianterna räknar om från rådata varje gång.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class OrderLineScanBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private BenchmarkData data;
+    private OrderLineStore lines;
+    private final LocalDate from = BenchmarkData.START.toLocalDate();
+    private final LocalDate to = from.plusDays(BenchmarkData.DAYS - 1);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new BenchmarkData();
+        data.addProducts(1_000, 0);
+        data.addCustomers(10_000);
+        data.addOrders(size);
+        lines = data.orderRepository.orderLines();
+    }
+
+    @Benchmark
+    public Map<Product, Long> topProductsByStream() {
+        return data.orderRepository.findAll().stream()
+                .filter(o -> o.getStatus() == OrderStatus.PAID)
+                .flatMap(o -> o.getItems().stream())
+                .collect(Collectors.groupingBy(OrderItem::getProduct, Collectors.summingLong(OrderItem::getQuantity)))
+                .entrySet().stream()
+                .sorted(Map.Entry.<Product, Long>comparingByValue().reversed())
+                .limit(5)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    @Benchmark
+    public Map<Long, Long> topProductsByColumns() {
+        return lines.topProducts(5);
+    }
+
+    @Benchmark
+    public long revenueByStream() {
+        return data.orderRepository.findAll().stream()
+                .filter(o -> o.getStatus() == OrderStatus.PAID)
+                .filter(o -> !o.getCreatedAt().toLocalDate().isBefore(from) && !o.getCreatedAt().toLocalDate().isAfter(to))
+                .flatMap(o -> o.getItems().stream())
+                .mapToLong(item -> item.getLineTotal().cents())
+                .sum();
+    }
+
+    @Benchmark
+    public long revenueByColumns() {
+        return lines.revenueCents(from, to);
+    }
+
+    @Benchmark
+    public Map<Long, Long> revenuePerCustomerByStream() {
+        return data.orderRepository.findAll().stream()
+                .filter(o -> o.getStatus() == OrderStatus.PAID)
+                .collect(Collectors.groupingBy(o -> o.getCustomer().getId(),
+                        Collectors.summingLong((Order o) -> o.getTotal().cents())));
+    }
+
+    @Benchmark
+    public long[] revenuePerCustomerByColumns() {
+        return lines.revenueCentsByCustomer();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.benchmark;
+
+import com.example.model.Money;
+import com.example.model.OrderStatus;
+import com.example.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class OrderReportBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private BenchmarkData data;
+    private final LocalDate from = BenchmarkData.START.toLocalDate();
+    private final LocalDate to = from.plusDays(BenchmarkData.DAYS - 1);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new BenchmarkData();
+        data.addProducts(1_000, 0);
+        data.addCustomers(10_000);
+        data.addOrders(size);
+    }
+
+    @Benchmark
+    public Map<Product, Long> getTopProducts() {
+        return data.orderService.getTopProducts(5);
+    }
+
+    @Benchmark
+    public Money getTotalRevenue() {
+        return data.orderService.getTotalRevenue(from, to);
+    }
+
+    @Benchmark
+    public Money getTotalRevenueOneMonth() {
+        return data.orderService.getTotalRevenue(from.plusMonths(5), from.plusMonths(6).minusDays(1));
+    }
+
+    /**
+     * Jämförelse: den tidigare implementationen som filtrerar och summerar ordrarna
+     */
+    @Benchmark
+    public long getTotalRevenueByScan() {
+        return data.orderService.getOrdersByDateRange(from, to).stream()
+                .filter(o -> o.getStatus() == OrderStatus.PAID)
+                .mapToLong(o -> o.getTotal().cents())
+                .sum();
+    }
+}
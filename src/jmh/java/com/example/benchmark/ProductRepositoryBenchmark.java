@@ -0,0 +1,69 @@
+package com.example.benchmark;
+
+import com.example.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ProductRepositoryBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private BenchmarkData data;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new BenchmarkData();
+        data.addProducts(size, 0);
+    }
+
+    @Benchmark
+    public Optional<Product> findBySku() {
+        next = (next + 7_919) % size;
+        return data.productRepository.findBySku(BenchmarkData.sku(next));
+    }
+
+    @Benchmark
+    public List<Product> findByNameContaining() {
+        return data.productRepository.findByNameContaining("produkt 12345");
+    }
+
+    /**
+     * En sida om 20 produkter långt in i katalogen, kostnaden ska inte bero på size
+     */
+    @Benchmark
+    public List<Product> findPageAfter() {
+        return data.productRepository.findPageAfter((long) size / 2, 20);
+    }
+
+    @Benchmark
+    public List<Product> autocomplete() {
+        return data.productService.autocomplete("sku12", 10);
+    }
+
+    @Benchmark
+    public List<Product> search() {
+        return data.productRepository.search("beskrivning 9876");
+    }
+
+    /**
+     * Jämförelse: den tidigare linjära sökningen som gör om båda strängarna till gemener per produkt
+     */
+    @Benchmark
+    public List<Product> findByNameContainingByScan() {
+        String keyword = "produkt 12345";
+        return data.productRepository.findAll().stream()
+                .filter(p -> p.getName().toLowerCase().contains(keyword.toLowerCase()))
+                .toList();
+    }
+}
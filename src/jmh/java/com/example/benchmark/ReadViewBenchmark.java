@@ -0,0 +1,50 @@
+package com.example.benchmark;
+
+import com.example.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Läsning av hela produktkatalogen: kopierande findAll mot vy och forEach.
+ * Kör med -prof gc för att se allokeringen per anrop (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ReadViewBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private BenchmarkData data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new BenchmarkData();
+        data.addProducts(size, 0);
+    }
+
+    @Benchmark
+    public void findAll(Blackhole blackhole) {
+        for (Product product : data.productRepository.findAll()) {
+            blackhole.consume(product);
+        }
+    }
+
+    @Benchmark
+    public void findAllView(Blackhole blackhole) {
+        for (Product product : data.productRepository.findAllView()) {
+            blackhole.consume(product);
+        }
+    }
+
+    @Benchmark
+    public void forEach(Blackhole blackhole) {
+        data.productRepository.forEach(blackhole::consume);
+    }
+}
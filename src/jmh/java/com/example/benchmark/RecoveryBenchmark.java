@@ -0,0 +1,77 @@
+package com.example.benchmark;
+
+import com.example.storage.DurableStore;
+import com.example.storage.FsyncPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Återläsning vid start: hela historiken som logg, eller en snapshot utan loggsvans.
+ * Varje mätning läser in i nya, tomma repositoryn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class RecoveryBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"log", "snapshot"})
+    public String source;
+
+    private Path directory;
+    private BenchmarkData target;
+
+    @Setup(Level.Trial)
+    public void writeHistory() throws IOException {
+        directory = Files.createTempDirectory("recovery-benchmark");
+        BenchmarkData data = new BenchmarkData();
+        try (DurableStore store = store(data)) {
+            store.recover();
+            store.start();
+            data.addProducts(1_000, 1_000);
+            data.addCustomers(10_000);
+            data.addOrders(size);
+            if (source.equals("snapshot")) {
+                store.snapshot();
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyRepositories() {
+        target = null;
+        System.gc();
+        target = new BenchmarkData();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteHistory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public DurableStore.Recovery recover() throws IOException {
+        return store(target).recover();
+    }
+
+    private DurableStore store(BenchmarkData data) {
+        return new DurableStore(directory, FsyncPolicy.NEVER, 100,
+                data.productRepository, data.customerRepository, data.inventoryRepository,
+                data.orderRepository, data.paymentRepository);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.benchmark;
+
+import com.example.model.Category;
+import com.example.model.Product;
+import com.example.model.SalesReport;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Försäljningsrapport över hela orderhistoriken med olika antal trådar i rapportmotorn.
+ * threads=1 är den sekventiella varianten.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ReportEngineBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private BenchmarkData data;
+    private final List<Category> categories = new ArrayList<>();
+    private final LocalDate from = BenchmarkData.START.toLocalDate();
+    private final LocalDate to = from.plusDays(BenchmarkData.DAYS - 1);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new BenchmarkData();
+        data.addProducts(1_000, 0);
+        data.addCustomers(10_000);
+        data.addOrders(size);
+        data.orderService.setReportParallelism(threads);
+
+        for (int i = 0; i < 8; i++) {
+            categories.add(new Category("Kategori " + i));
+        }
+        for (Product product : data.products) {
+            categories.get((int) (product.getId() % categories.size())).addProduct(product);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.orderService.setReportParallelism(1);
+    }
+
+    @Benchmark
+    public SalesReport salesReport() {
+        return data.orderService.getSalesReport(from, to, 5, categories);
+    }
+}
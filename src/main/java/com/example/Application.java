@@ -4,9 +4,16 @@ import com.example.menu.MenuHandler;
 import com.example.model.*;
 import com.example.repository.*;
 import com.example.service.*;
+import com.example.storage.BinarySnapshot;
+import com.example.storage.DurableStore;
+import com.example.storage.FsyncPolicy;
+import org.h2.jdbcx.JdbcConnectionPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Scanner;
 
 public class Application {
@@ -14,13 +21,26 @@ public class Application {
 
     private final Scanner scanner = new Scanner(System.in);
 
+    // Läscache framför databasen, t.ex. -Dcache.size=10000 -Dcache.ttl.seconds=300 (0 stänger av)
+    private static final int CACHE_SIZE = Integer.getInteger("cache.size", 10_000);
+    private static final Duration CACHE_TTL = Duration.ofSeconds(Long.getLong("cache.ttl.seconds", 300));
+
+    // Databasanslutningar, bara om -Drepository=jdbc
+    private final JdbcConnectionPool connectionPool = openConnectionPool();
+
     // Repositories
-    private final ProductRepository productRepository = new ProductRepository();
-    private final CustomerRepository customerRepository = new CustomerRepository();
-    private final CategoryRepository categoryRepository = new CategoryRepository();
-    private final OrderRepository orderRepository = new OrderRepository();
-    private final InventoryRepository inventoryRepository = new InventoryRepository();
-    private final PaymentRepository paymentRepository = new PaymentRepository();
+    private final ProductRepository productRepository = connectionPool != null
+            ? withCache(new JdbcProductRepository(connectionPool)) : new InMemoryProductRepository();
+    private final CustomerRepository customerRepository = connectionPool != null
+            ? withCache(new JdbcCustomerRepository(connectionPool)) : new InMemoryCustomerRepository();
+    private final CategoryRepository categoryRepository = connectionPool != null
+            ? new JdbcCategoryRepository(connectionPool) : new InMemoryCategoryRepository();
+    private final OrderRepository orderRepository = connectionPool != null
+            ? withCache(new JdbcOrderRepository(connectionPool)) : new InMemoryOrderRepository();
+    private final InventoryRepository inventoryRepository = connectionPool != null
+            ? new JdbcInventoryRepository(connectionPool) : new InMemoryInventoryRepository();
+    private final PaymentRepository paymentRepository = connectionPool != null
+            ? new JdbcPaymentRepository(connectionPool, orderRepository) : new InMemoryPaymentRepository();
 
     // Services
     private final ProductService productService = new ProductService(productRepository);
@@ -32,14 +52,27 @@ public class Application {
     private final CSVImportService csvImportService =
             new CSVImportService(orderService, productService, customerService, inventoryService);
 
+    // Beständig lagring, bara om -Dwal.dir är satt
+    private DurableStore durableStore;
+
     // Menu Handler
     private final MenuHandler menuHandler;
 
     public Application() {
         logger.info("Applikationen startar. Initierar testdata...");
 
-        // Ladda testdata
-        initializeTestData();
+        // Antal tolkartrådar för CSV-import, t.ex. -Dimport.threads=8
+        csvImportService.setParallelism(Integer.getInteger("import.threads", 1));
+        // Antal trådar för rapporter, t.ex. -Dreport.threads=4
+        orderService.setReportParallelism(
+                Integer.getInteger("report.threads", Runtime.getRuntime().availableProcessors()));
+
+        // Läs in sparad data om beständighet är påslagen, annars en snapshot eller testdata.
+        // En databas är själv beständig och behöver ingen write-ahead-logg.
+        boolean restored = connectionPool != null ? hasDatabaseData() : openDurableStore();
+        if (!restored && !loadStartupSnapshot()) {
+            initializeTestData();
+        }
 
         // Skapa MenuHandler
         this.menuHandler = new MenuHandler(
@@ -52,24 +85,133 @@ public class Application {
                 csvImportService,
                 productRepository,
                 customerRepository,
+                categoryRepository,
                 orderRepository,
-                inventoryRepository
+                inventoryRepository,
+                paymentRepository,
+                durableStore
         );
     }
 
+    /**
+     * Öppnar en anslutningspool mot H2 om -Drepository=jdbc är satt, t.ex.
+     * -Djdbc.url=jdbc:h2:./data/ehandel -Djdbc.user=sa -Djdbc.password= -Djdbc.pool.size=10.
+     * Tabellerna skapas om de saknas.
+     */
+    private static JdbcConnectionPool openConnectionPool() {
+        if (!"jdbc".equalsIgnoreCase(System.getProperty("repository", "memory"))) {
+            return null;
+        }
+
+        String url = System.getProperty("jdbc.url", "jdbc:h2:./data/ehandel");
+        JdbcConnectionPool pool = JdbcConnectionPool.create(url,
+                System.getProperty("jdbc.user", "sa"), System.getProperty("jdbc.password", ""));
+        pool.setMaxConnections(Integer.getInteger("jdbc.pool.size", 10));
+        try {
+            JdbcSchema.create(pool);
+        } catch (RuntimeException e) {
+            pool.dispose();
+            throw e;
+        }
+        logger.info("Repositoryna använder databasen {}", url);
+        return pool;
+    }
+
+    private static ProductRepository withCache(ProductRepository repository) {
+        return CACHE_SIZE > 0 ? new CachingProductRepository(repository, CACHE_SIZE, CACHE_TTL) : repository;
+    }
+
+    private static CustomerRepository withCache(CustomerRepository repository) {
+        return CACHE_SIZE > 0 ? new CachingCustomerRepository(repository, CACHE_SIZE, CACHE_TTL) : repository;
+    }
+
+    private static OrderRepository withCache(OrderRepository repository) {
+        return CACHE_SIZE > 0 ? new CachingOrderRepository(repository, CACHE_SIZE, CACHE_TTL) : repository;
+    }
+
+    private boolean hasDatabaseData() {
+        if (productRepository.count() == 0 && customerRepository.count() == 0) {
+            return false;
+        }
+        System.out.printf("%nDatabasen innehåller %d produkter, %d kunder, %d ordrar%n",
+                productRepository.count(), customerRepository.count(), orderRepository.count());
+        return true;
+    }
+
+    /**
+     * Slår på write-ahead-logg och snapshots om -Dwal.dir är satt, t.ex.
+     * -Dwal.dir=data -Dwal.fsync=always|interval|never -Dwal.fsync.millis=100 -Dsnapshot.minutes=10.
+     * Returnerar true om sparad data lästes in.
+     */
+    private boolean openDurableStore() {
+        String directory = System.getProperty("wal.dir");
+        if (directory == null || directory.isBlank()) {
+            return false;
+        }
+
+        try {
+            durableStore = new DurableStore(Paths.get(directory),
+                    FsyncPolicy.parse(System.getProperty("wal.fsync", "interval")),
+                    Long.getLong("wal.fsync.millis", 100),
+                    productRepository, customerRepository, inventoryRepository,
+                    orderRepository, paymentRepository);
+            DurableStore.Recovery recovery = durableStore.recover();
+            durableStore.start();
+            durableStore.scheduleSnapshots(Duration.ofMinutes(Long.getLong("snapshot.minutes", 10)));
+
+            if (recovery.isEmpty()) {
+                return false;
+            }
+            System.out.printf("%nSparad data inläst från %s på %d ms: %d produkter, %d kunder, %d ordrar%n",
+                    directory, recovery.elapsed().toMillis(),
+                    productRepository.count(), customerRepository.count(), orderRepository.count());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Kunde inte läsa in sparad data: " + e.getMessage());
+            logger.error("Fel vid återläsning från {}", directory, e);
+            throw new IllegalStateException("Beständig lagring kunde inte öppnas", e);
+        }
+    }
+
+    /**
+     * Startar från en binär snapshot om -Dsnapshot.load=fil är satt.
+     * Returnerar true om snapshoten lästes in.
+     */
+    private boolean loadStartupSnapshot() {
+        String file = System.getProperty("snapshot.load");
+        if (file == null || file.isBlank()) {
+            return false;
+        }
+
+        try {
+            BinarySnapshot.Result result = BinarySnapshot.load(Paths.get(file), productRepository,
+                    customerRepository, inventoryRepository, orderRepository, paymentRepository);
+            if (durableStore != null) {
+                durableStore.snapshot();
+            }
+            System.out.printf("%nSnapshot %s inläst på %d ms: %d produkter, %d kunder, %d ordrar%n",
+                    file, result.elapsed().toMillis(), result.products(), result.customers(), result.orders());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Kunde inte läsa in snapshot: " + e.getMessage());
+            logger.error("Fel vid inläsning av snapshot {}", file, e);
+            throw new IllegalStateException("Snapshoten kunde inte läsas in", e);
+        }
+    }
+
     private void initializeTestData() {
         try {
             // Skapa produkter
-            Product p1 = productService.createProduct("LAPTOP001", "Dell XPS 13", "Bärbar dator 13 tum", 12999.00);
-            Product p2 = productService.createProduct("MOUSE001", "Logitech MX Master", "Trådlös mus", 899.00);
-            Product p3 = productService.createProduct("KEYBOARD001", "Keychron K2", "Mekaniskt tangentbord", 1299.00);
-            Product p4 = productService.createProduct("MONITOR001", "Samsung 27 tum", "4K skärm", 3499.00);
-            Product p5 = productService.createProduct("HEADSET001", "Sony WH-1000XM5", "Noise-cancelling hörlurar", 3999.00);
-            Product p6 = productService.createProduct("CHAIR001", "Herman Miller Aeron", "Ergonomisk kontorsstol", 8999.00);
-            Product p7 = productService.createProduct("DESK001", "IKEA Bekant", "Höj och sänkbart skrivbord", 4999.00);
-            Product p8 = productService.createProduct("WEBCAM001", "Logitech Brio", "4K webbkamera", 1799.00);
-            Product p9 = productService.createProduct("SPEAKER001", "Bose SoundLink", "Bluetooth högtalare", 1499.00);
-            Product p10 = productService.createProduct("TABLET001", "iPad Air", "Surfplatta 10.9 tum", 7999.00);
+            Product p1 = productService.createProduct("LAPTOP001", "Dell XPS 13", "Bärbar dator 13 tum", Money.parse("12999.00"));
+            Product p2 = productService.createProduct("MOUSE001", "Logitech MX Master", "Trådlös mus", Money.parse("899.00"));
+            Product p3 = productService.createProduct("KEYBOARD001", "Keychron K2", "Mekaniskt tangentbord", Money.parse("1299.00"));
+            Product p4 = productService.createProduct("MONITOR001", "Samsung 27 tum", "4K skärm", Money.parse("3499.00"));
+            Product p5 = productService.createProduct("HEADSET001", "Sony WH-1000XM5", "Noise-cancelling hörlurar", Money.parse("3999.00"));
+            Product p6 = productService.createProduct("CHAIR001", "Herman Miller Aeron", "Ergonomisk kontorsstol", Money.parse("8999.00"));
+            Product p7 = productService.createProduct("DESK001", "IKEA Bekant", "Höj och sänkbart skrivbord", Money.parse("4999.00"));
+            Product p8 = productService.createProduct("WEBCAM001", "Logitech Brio", "4K webbkamera", Money.parse("1799.00"));
+            Product p9 = productService.createProduct("SPEAKER001", "Bose SoundLink", "Bluetooth högtalare", Money.parse("1499.00"));
+            Product p10 = productService.createProduct("TABLET001", "iPad Air", "Surfplatta 10.9 tum", Money.parse("7999.00"));
 
             // Lägg till lager
             inventoryService.addStock(p1, 15);
@@ -97,8 +239,8 @@ public class Application {
             System.out.println("Produkter: 10");
             System.out.println("Kunder: 5");
             System.out.println("========================================");
-            System.out.println("\nTips: Gå till Systemhantering för att importera");
-            System.out.println("      Medium eller Large scenarios från CSV.");
+            System.out.println("\nTips: Gå till Systemhantering för att generera och");
+            System.out.println("      importera Medium eller Large scenarios från CSV.");
             System.out.println("========================================\n");
 
         } catch (Exception e) {
@@ -114,6 +256,12 @@ public class Application {
 
         menuHandler.runMainMenu();
 
+        if (durableStore != null) {
+            durableStore.close();
+        }
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
         scanner.close();
         logger.info("Programmet avslutas. Scanner stängd.");
     }
@@ -0,0 +1,7 @@
+package com.example.exception;
+
+public class DataAccessException extends RuntimeException {
+    public DataAccessException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
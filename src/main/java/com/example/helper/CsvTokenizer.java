@@ -0,0 +1,417 @@
+package com.example.helper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Återanvändbar CSV-läsare som går igenom en minnesmappad fil post för post.
+ * Fälten sparas som byteintervall i bufferten och tolkas direkt därifrån,
+ * så ingen String[] eller trimmad kopia skapas per rad. Citerade fält
+ * ("a, b" och "" som escape) stöds, även radbrytningar inom citattecken.
+ * Filen mappas i fönster så att även filer större än 2 GB kan läsas.
+ */
+public class CsvTokenizer implements AutoCloseable {
+    private static final int MAX_WINDOW = 1 << 28; // 256 MB
+
+    private static final int COMPLETE = 0;
+    private static final int INCOMPLETE = 1;
+    private static final int EOF = 2;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private long windowStart;
+    private ByteBuffer buffer;
+    private int position;
+
+    private int lineNumber;
+    private int nextLineNumber;
+
+    private int fieldCount;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private boolean[] fieldEscaped = new boolean[16];
+    private byte[] scratch = new byte[256];
+
+    private CsvTokenizer(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.nextLineNumber = 1;
+        map(0);
+        skipByteOrderMark();
+    }
+
+    /**
+     * Läser en redan avgränsad del av en fil, t.ex. ett block från {@link #nextChunk(int)}.
+     */
+    public CsvTokenizer(ByteBuffer region, int firstLineNumber) {
+        this.channel = null;
+        this.buffer = region;
+        this.fileSize = region.limit();
+        this.nextLineNumber = firstLineNumber;
+    }
+
+    public static CsvTokenizer open(Path path) throws IOException {
+        return new CsvTokenizer(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Går till nästa post. Returnerar false när filen är slut.
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            int status = scan();
+            if (status == COMPLETE) {
+                return true;
+            }
+            if (status == EOF) {
+                return false;
+            }
+            map(windowStart + position);
+        }
+    }
+
+    /**
+     * Skiljer ut upp till maxRecords hela poster som en egen läsare, utan att tolka
+     * fälten vidare. Används för att fördela filen på flera trådar.
+     * Returnerar null när filen är slut.
+     */
+    public CsvTokenizer nextChunk(int maxRecords) throws IOException {
+        while (true) {
+            int start = position;
+            int firstLineNumber = nextLineNumber;
+            int count = 0;
+            int status = COMPLETE;
+
+            while (count < maxRecords && (status = scan()) == COMPLETE) {
+                count++;
+            }
+
+            if (count > 0) {
+                ByteBuffer region = buffer.duplicate();
+                region.position(start).limit(position);
+                return new CsvTokenizer(region.slice(), firstLineNumber);
+            }
+            if (status == EOF) {
+                return null;
+            }
+            map(windowStart + position);
+        }
+    }
+
+    /**
+     * Radnumret (1-baserat) där aktuell post börjar
+     */
+    public int lineNumber() {
+        return lineNumber;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    public boolean isEmpty(int field) {
+        Objects.checkIndex(field, fieldCount);
+        return fieldEnds[field] == fieldStarts[field];
+    }
+
+    /**
+     * Fältets värde som trimmad sträng, utan omslutande citattecken
+     */
+    public String field(int field) {
+        Objects.checkIndex(field, fieldCount);
+        int start = fieldStarts[field];
+        int length = fieldEnds[field] - start;
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        String value = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        return fieldEscaped[field] ? value.replace("\"\"", "\"") : value;
+    }
+
+    public boolean startsWithIgnoreCase(int field, String asciiPrefix) {
+        Objects.checkIndex(field, fieldCount);
+        int start = fieldStarts[field];
+        if (fieldEnds[field] - start < asciiPrefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < asciiPrefix.length(); i++) {
+            int b = buffer.get(start + i);
+            if (Character.toLowerCase((char) b) != Character.toLowerCase(asciiPrefix.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int intField(int field) {
+        long value = longField(field);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Värdet får inte plats i en int: " + field(field));
+        }
+        return (int) value;
+    }
+
+    public long longField(int field) {
+        Objects.checkIndex(field, fieldCount);
+        int p = fieldStarts[field];
+        int end = fieldEnds[field];
+        if (p == end) {
+            throw new NumberFormatException("Tomt fält");
+        }
+
+        boolean negative = buffer.get(p) == '-';
+        if (negative || buffer.get(p) == '+') {
+            p++;
+        }
+        if (p == end || end - p > 18) {
+            return Long.parseLong(field(field));
+        }
+
+        long value = 0;
+        for (; p < end; p++) {
+            int digit = buffer.get(p) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Ogiltigt heltal: " + field(field));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Decimaltal som heltal med scale decimaler, t.ex. 59.5 med scale 2 blir 5950.
+     * Enkla tal tolkas direkt från bytes, andra format (exponent, fler decimaler
+     * än scale) går via BigDecimal och avrundas half-up.
+     */
+    public long decimalField(int field, int scale) {
+        Objects.checkIndex(field, fieldCount);
+        int p = fieldStarts[field];
+        int end = fieldEnds[field];
+        if (p == end) {
+            throw new NumberFormatException("Tomt fält");
+        }
+
+        boolean negative = buffer.get(p) == '-';
+        if (negative || buffer.get(p) == '+') {
+            p++;
+        }
+
+        long value = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; p < end; p++) {
+            byte b = buffer.get(p);
+            if (b == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (b >= '0' && b <= '9' && digits < 17 && decimals < scale) {
+                value = value * 10 + (b - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                return decimalFallback(field, scale);
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Ogiltigt decimaltal: " + field(field));
+        }
+
+        for (int i = Math.max(decimals, 0); i < scale; i++) {
+            value *= 10;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Tolkar yyyy-MM-ddTHH:mm och yyyy-MM-ddTHH:mm:ss direkt från bytes.
+     * Andra ISO-format går via LocalDateTime.parse.
+     */
+    public LocalDateTime dateTimeField(int field) {
+        Objects.checkIndex(field, fieldCount);
+        int p = fieldStarts[field];
+        int length = fieldEnds[field] - p;
+        if ((length != 16 && length != 19)
+                || buffer.get(p + 4) != '-' || buffer.get(p + 7) != '-' || buffer.get(p + 10) != 'T'
+                || buffer.get(p + 13) != ':' || (length == 19 && buffer.get(p + 16) != ':')) {
+            return LocalDateTime.parse(field(field));
+        }
+
+        return LocalDateTime.of(
+                digits(p, 4, field),
+                digits(p + 5, 2, field),
+                digits(p + 8, 2, field),
+                digits(p + 11, 2, field),
+                digits(p + 14, 2, field),
+                length == 19 ? digits(p + 17, 2, field) : 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private long decimalFallback(int field, int scale) {
+        try {
+            return new BigDecimal(field(field)).setScale(scale, RoundingMode.HALF_UP)
+                    .unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Värdet får inte plats i en long: " + field(field));
+        }
+    }
+
+    private int digits(int from, int count, int field) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DateTimeParseException("Ogiltigt datum", field(field), i - fieldStarts[field]);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Läser en post från aktuell position och registrerar fältens byteintervall.
+     * Positionen flyttas bara fram om posten är komplett.
+     */
+    private int scan() {
+        int limit = buffer.limit();
+        int p = position;
+        if (p >= limit) {
+            return atFileEnd() ? EOF : INCOMPLETE;
+        }
+
+        fieldCount = 0;
+        int lines = 1;
+        while (true) {
+            while (p < limit && isBlank(buffer.get(p))) {
+                p++;
+            }
+
+            int start;
+            int end;
+            boolean escaped = false;
+            if (p < limit && buffer.get(p) == '"') {
+                start = ++p;
+                while (true) {
+                    if (p >= limit) {
+                        if (!atFileEnd()) {
+                            return INCOMPLETE;
+                        }
+                        end = p;
+                        break;
+                    }
+                    byte b = buffer.get(p);
+                    if (b == '"') {
+                        if (p + 1 >= limit && !atFileEnd()) {
+                            return INCOMPLETE;
+                        }
+                        if (p + 1 < limit && buffer.get(p + 1) == '"') {
+                            escaped = true;
+                            p += 2;
+                            continue;
+                        }
+                        end = p++;
+                        break;
+                    }
+                    if (b == '\n') {
+                        lines++;
+                    }
+                    p++;
+                }
+                while (p < limit && buffer.get(p) != ',' && buffer.get(p) != '\n') {
+                    p++;
+                }
+            } else {
+                start = p;
+                while (p < limit && buffer.get(p) != ',' && buffer.get(p) != '\n') {
+                    p++;
+                }
+                end = p;
+                while (end > start && (isBlank(buffer.get(end - 1)) || buffer.get(end - 1) == '\r')) {
+                    end--;
+                }
+            }
+
+            addField(start, end, escaped);
+
+            if (p >= limit) {
+                if (!atFileEnd()) {
+                    return INCOMPLETE;
+                }
+                position = p;
+                break;
+            }
+            if (buffer.get(p) == '\n') {
+                position = p + 1;
+                break;
+            }
+            p++; // komma
+        }
+
+        lineNumber = nextLineNumber;
+        nextLineNumber += lines;
+        return COMPLETE;
+    }
+
+    private void addField(int start, int end, boolean escaped) {
+        if (fieldCount == fieldStarts.length) {
+            int size = fieldCount * 2;
+            fieldStarts = Arrays.copyOf(fieldStarts, size);
+            fieldEnds = Arrays.copyOf(fieldEnds, size);
+            fieldEscaped = Arrays.copyOf(fieldEscaped, size);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldEscaped[fieldCount] = escaped;
+        fieldCount++;
+    }
+
+    private boolean atFileEnd() {
+        return windowStart + buffer.limit() >= fileSize;
+    }
+
+    private void map(long offset) throws IOException {
+        if (channel == null) {
+            throw new IOException("Posten är inte komplett i blocket");
+        }
+        if (buffer != null && offset == windowStart) {
+            throw new IOException("En post är större än " + MAX_WINDOW + " bytes");
+        }
+
+        long size = Math.min(MAX_WINDOW, fileSize - offset);
+        buffer = size > 0
+                ? channel.map(FileChannel.MapMode.READ_ONLY, offset, size)
+                : ByteBuffer.allocate(0);
+        windowStart = offset;
+        position = 0;
+    }
+
+    private void skipByteOrderMark() {
+        if (buffer.limit() >= 3
+                && buffer.get(0) == (byte) 0xEF
+                && buffer.get(1) == (byte) 0xBB
+                && buffer.get(2) == (byte) 0xBF) {
+            position = 3;
+        }
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
@@ -1,9 +1,9 @@
 package com.example.helper;
 
+import com.example.model.Money;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.InputMismatchException;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 
@@ -36,24 +36,22 @@ public class InputHelper {
         }
     }
 
-    public double getDouble(String prompt) {
+    public Money getMoney(String prompt) {
         try {
             while (true) {
                 System.out.print(prompt);
+                String value = scan.nextLine().trim();
                 try {
-                    double value = scan.nextDouble();
-                    scan.nextLine();
-                    return value;
-                } catch (InputMismatchException e) {
-                    System.out.println("Fel input. Skriv ett nummer tack (använd punkt för decimaltal).");
-                    logger.warn("Ogiltig inmatning av double: {}", e.getMessage());
-                    scan.next();
+                    return Money.parse(value);
+                } catch (NumberFormatException e) {
+                    System.out.println("Fel input. Skriv ett belopp tack (t.ex. 199.50).");
+                    logger.warn("Ogiltig inmatning av belopp: {}", value);
                 }
             }
         } catch (NoSuchElementException | IllegalStateException e) {
-            System.out.println("Ett fel uppstod vid inläsning av nummer: " + e.getMessage());
-            logger.error("Fel i getDouble(): ", e);
-            return 0.0;
+            System.out.println("Ett fel uppstod vid inläsning av belopp: " + e.getMessage());
+            logger.error("Fel i getMoney(): ", e);
+            return Money.ZERO;
         }
     }
 
@@ -0,0 +1,366 @@
+package com.example.helper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Genererar produkt-, kund- och orderfiler i de format CSVImportService läser.
+ * Samma seed ger alltid samma filer. Raderna skrivs direkt till fil, så även
+ * tiotals miljoner ordrar kräver nästan inget minne.
+ * SKU-popularitet följer en Zipf-fördelning och ordertider har dygns- och
+ * veckorytm samt kampanjdagar med många fler ordrar.
+ */
+public class TestDataGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(TestDataGenerator.class);
+
+    public static final long DEFAULT_SEED = 42L;
+
+    public enum Scenario {
+        MEDIUM(1_000, 10_000, 100_000),
+        LARGE(100_000, 1_000_000, 10_000_000);
+
+        private final int products;
+        private final int customers;
+        private final int orders;
+
+        Scenario(int products, int customers, int orders) {
+            this.products = products;
+            this.customers = customers;
+            this.orders = orders;
+        }
+
+        public int getProducts() {
+            return products;
+        }
+
+        public int getCustomers() {
+            return customers;
+        }
+
+        public int getOrders() {
+            return orders;
+        }
+    }
+
+    private static final double ZIPF_EXPONENT = 1.07;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final int DAYS = 365;
+    private static final double ITEMS_PER_ORDER = 3.1;
+
+    // Andel av dygnets ordrar per timme (00-23), flest på kvällen
+    private static final int[] HOUR_WEIGHTS = {
+            2, 1, 1, 1, 1, 2, 3, 5, 7, 8, 9, 10, 11, 10, 9, 9, 10, 12, 15, 18, 20, 17, 10, 5
+    };
+
+    private static final String[] ADJECTIVES = {
+            "Trådlös", "Ergonomisk", "Kompakt", "Smart", "Robust", "Tyst", "Snabb", "Lätt", "Premium", "Mini"
+    };
+    private static final String[] NOUNS = {
+            "Mus", "Tangentbord", "Skärm", "Hörlurar", "Laddare", "Kabel", "Högtalare", "Webbkamera",
+            "Dockningsstation", "Surfplatta", "Laptop", "Router", "Minneskort", "Powerbank", "Kontorsstol"
+    };
+    private static final String[] CATEGORIES = {
+            "Datorer", "Tillbehör", "Gaming", "Ljud", "Nätverk", "Kablar", "Kontor", "Mobilt"
+    };
+    // Visningsnamn och ASCII-variant för email (validatorn tillåter bara \w)
+    private static final String[][] FIRST_NAMES = {
+            {"Anna", "anna"}, {"Erik", "erik"}, {"Maria", "maria"}, {"Johan", "johan"}, {"Linda", "linda"},
+            {"Åsa", "asa"}, {"Björn", "bjorn"}, {"Märta", "marta"}, {"Örjan", "orjan"}, {"Sofia", "sofia"},
+            {"Karl", "karl"}, {"Elin", "elin"}, {"Gustav", "gustav"}, {"Ida", "ida"}, {"Oskar", "oskar"}
+    };
+    private static final String[][] LAST_NAMES = {
+            {"Andersson", "andersson"}, {"Svensson", "svensson"}, {"Larsson", "larsson"}, {"Berg", "berg"},
+            {"Nilsson", "nilsson"}, {"Åberg", "aberg"}, {"Öberg", "oberg"}, {"Lindström", "lindstrom"},
+            {"Johansson", "johansson"}, {"Karlsson", "karlsson"}, {"Ström", "strom"}, {"Holm", "holm"}
+    };
+
+    private final long seed;
+
+    public TestDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Skriver {prefix}_product.csv, {prefix}_customer.csv och {prefix}_orders.csv i katalogen
+     */
+    public void generate(Path directory, String prefix, int products, int customers, int orders) throws IOException {
+        Files.createDirectories(directory);
+        writeProducts(directory.resolve(prefix + "_product.csv"), products, orders);
+        writeCustomers(directory.resolve(prefix + "_customer.csv"), customers);
+        writeOrders(directory.resolve(prefix + "_orders.csv"), orders, products, customers);
+    }
+
+    public void generate(Path directory, Scenario scenario) throws IOException {
+        generate(directory, scenario.name().toLowerCase(), scenario.getProducts(),
+                scenario.getCustomers(), scenario.getOrders());
+    }
+
+    public static String sku(int index) {
+        return String.format("GEN%08d", index);
+    }
+
+    public static String email(int index) {
+        return FIRST_NAMES[index % FIRST_NAMES.length][1] + "."
+                + LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length][1] + "."
+                + index + "@example.com";
+    }
+
+    /**
+     * Format: sku,name,description,price,stock,categories
+     * Lagret dimensioneras efter förväntad efterfrågan från expectedOrders ordrar,
+     * så att importerade PAID-ordrar även för de populäraste SKU:erna får plats.
+     */
+    public void writeProducts(Path file, int count, int expectedOrders) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        double normalization = 0;
+        for (int k = 1; k <= count; k++) {
+            normalization += Math.pow(k, -ZIPF_EXPONENT);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("sku,name,description,price,stock,categories");
+            writer.newLine();
+
+            StringBuilder line = new StringBuilder(128);
+            for (int i = 0; i < count; i++) {
+                line.setLength(0);
+                // Log-normalfördelat pris, mellan ca 30 och 30 000 kr
+                double price = Math.min(30_000, Math.max(29, Math.exp(6 + 1.4 * gaussian(random))));
+                line.append(sku(i)).append(',')
+                        .append(ADJECTIVES[random.nextInt(ADJECTIVES.length)]).append(' ')
+                        .append(NOUNS[random.nextInt(NOUNS.length)]).append(' ').append(i).append(',')
+                        .append("Genererad produkt ").append(i).append(',')
+                        .append(String.format(Locale.ROOT, "%.2f", price)).append(',')
+                        .append(expectedStock(i + 1, normalization, expectedOrders) + random.nextInt(100)).append(',')
+                        .append(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                if (random.nextInt(3) == 0) {
+                    line.append(';').append(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                }
+                writer.append(line);
+                writer.newLine();
+            }
+        }
+        logger.info("Genererade {} produkter till {}", count, file);
+    }
+
+    /**
+     * Format: email,name
+     */
+    public void writeCustomers(Path file, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("email,name");
+            writer.newLine();
+
+            for (int i = 0; i < count; i++) {
+                writer.write(email(i));
+                writer.write(',');
+                writer.write(FIRST_NAMES[i % FIRST_NAMES.length][0]);
+                writer.write(' ');
+                writer.write(LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length][0]);
+                writer.newLine();
+            }
+        }
+        logger.info("Genererade {} kunder till {}", count, file);
+    }
+
+    /**
+     * Format: orderNumber,customerEmail,status,createdAt,items (sku:qty|sku:qty)
+     */
+    public void writeOrders(Path file, int count, int products, int customers) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        ZipfSampler popularity = new ZipfSampler(products, ZIPF_EXPONENT);
+        double[] dayWeights = cumulative(dayWeights(random));
+        double[] hourWeights = cumulative(toDouble(HOUR_WEIGHTS));
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("orderNumber,customerEmail,status,createdAt,items");
+            writer.newLine();
+
+            StringBuilder line = new StringBuilder(128);
+            for (int i = 0; i < count; i++) {
+                line.setLength(0);
+
+                int day = pick(dayWeights, random);
+                int hour = pick(hourWeights, random);
+                LocalDateTime createdAt = FIRST_DAY.plusDays(day)
+                        .atTime(hour, random.nextInt(60), random.nextInt(60));
+
+                int roll = random.nextInt(100);
+                String status = roll < 85 ? "PAID" : roll < 95 ? "NEW" : "CANCELLED";
+
+                line.append("ORD-").append(i + 1).append(',')
+                        .append(email(random.nextInt(customers))).append(',')
+                        .append(status).append(',')
+                        .append(createdAt).append(',');
+
+                // 1-5 rader, de flesta ordrar har en eller två
+                int lines = 1;
+                while (lines < 5 && random.nextInt(100) < 35) {
+                    lines++;
+                }
+                for (int l = 0; l < lines; l++) {
+                    if (l > 0) {
+                        line.append('|');
+                    }
+                    line.append(sku(popularity.sample(random) - 1)).append(':').append(1 + random.nextInt(3));
+                }
+
+                writer.append(line);
+                writer.newLine();
+            }
+        }
+        logger.info("Genererade {} ordrar till {}", count, file);
+    }
+
+    // Förväntat antal sålda för Zipf-rang k, med marginal (ca 1,5 rader à 2 st per order)
+    private static long expectedStock(int rank, double normalization, int expectedOrders) {
+        double share = Math.pow(rank, -ZIPF_EXPONENT) / normalization;
+        return (long) Math.ceil(expectedOrders * ITEMS_PER_ORDER * share * 1.5);
+    }
+
+    // Veckodagsrytm plus slumpade kampanjdagar med 4-8 gånger fler ordrar
+    private static double[] dayWeights(SplittableRandom random) {
+        double[] weights = new double[DAYS];
+        for (int d = 0; d < DAYS; d++) {
+            int dayOfWeek = FIRST_DAY.plusDays(d).getDayOfWeek().getValue();
+            weights[d] = dayOfWeek >= 6 ? 0.8 : dayOfWeek == 1 ? 1.2 : 1.0;
+            if (random.nextInt(100) < 4) {
+                weights[d] *= 4 + random.nextInt(5);
+            }
+        }
+        return weights;
+    }
+
+    private static double[] toDouble(int[] values) {
+        double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] result = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            result[i] = sum;
+        }
+        return result;
+    }
+
+    private static int pick(double[] cumulative, SplittableRandom random) {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] <= target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller, SplittableRandom saknar nextGaussian i Java 17
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    /**
+     * Zipf-urval med rejection-inversion (Hörmann och Derflinger), O(1) per urval
+     * utan tabell, så det fungerar även för miljontals SKU:er. Ger 1..n där 1 är populärast.
+     */
+    private static final class ZipfSampler {
+        private final int n;
+        private final double exponent;
+        private final double hIntegralX1;
+        private final double hIntegralN;
+        private final double s;
+
+        ZipfSampler(int n, double exponent) {
+            this.n = n;
+            this.exponent = exponent;
+            this.hIntegralX1 = hIntegral(1.5) - 1.0;
+            this.hIntegralN = hIntegral(n + 0.5);
+            this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+        }
+
+        int sample(SplittableRandom random) {
+            while (true) {
+                double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+                double x = hIntegralInverse(u);
+                int k = (int) (x + 0.5);
+                if (k < 1) {
+                    k = 1;
+                } else if (k > n) {
+                    k = n;
+                }
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k;
+                }
+            }
+        }
+
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return helper2((1.0 - exponent) * logX) * logX;
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = Math.max(-1.0, x * (1.0 - exponent));
+            return Math.exp(helper1(t) * x);
+        }
+
+        // log1p(x)/x, stabil nära 0
+        private static double helper1(double x) {
+            return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+        }
+
+        // expm1(x)/x, stabil nära 0
+        private static double helper2(double x) {
+            return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1.0 + x * 0.5 * (1.0 + x / 3.0 * (1.0 + 0.25 * x));
+        }
+    }
+
+    /**
+     * Kör utan meny, t.ex:
+     * java ... com.example.helper.TestDataGenerator large incoming 42
+     * java ... com.example.helper.TestDataGenerator custom incoming 42 100000 1000000 50000000
+     */
+    public static void main(String[] args) throws IOException {
+        String scenario = args.length > 0 ? args[0].toLowerCase() : "medium";
+        Path directory = Paths.get(args.length > 1 ? args[1] : "incoming");
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+
+        TestDataGenerator generator = new TestDataGenerator(seed);
+        if (scenario.equals("custom")) {
+            if (args.length < 6) {
+                System.out.println("Användning: custom <katalog> <seed> <produkter> <kunder> <ordrar>");
+                return;
+            }
+            generator.generate(directory, "custom", Integer.parseInt(args[3]),
+                    Integer.parseInt(args[4]), Integer.parseInt(args[5]));
+        } else {
+            generator.generate(directory, Scenario.valueOf(scenario.toUpperCase()));
+        }
+        System.out.println("Testdata genererad i " + directory.toAbsolutePath());
+    }
+}
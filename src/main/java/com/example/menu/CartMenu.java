@@ -2,6 +2,7 @@ package com.example.menu;
 
 import com.example.helper.InputHelper;
 import com.example.model.Customer;
+import com.example.model.Money;
 import com.example.model.OrderItem;
 import com.example.model.Product;
 import com.example.service.CartService;
@@ -19,6 +20,7 @@ public class CartMenu {
     private final CartService cartService;
     private final ProductService productService;
     private final CustomerService customerService;
+    private final ProductPicker productPicker;
     private Customer currentCustomer;
 
     public CartMenu(InputHelper input, CartService cartService,
@@ -27,6 +29,7 @@ public class CartMenu {
         this.cartService = cartService;
         this.productService = productService;
         this.customerService = customerService;
+        this.productPicker = new ProductPicker(input, productService);
     }
 
     public void run() {
@@ -85,10 +88,11 @@ public class CartMenu {
             return;
         }
 
-        String sku = input.getString("\nAnge SKU: ").toUpperCase();
-
         try {
-            Product product = productService.getProductBySku(sku);
+            Product product = productPicker.pick("\nAnge SKU eller början av SKU/namn: ");
+            if (product == null) {
+                return;
+            }
 
             if (!product.isActive()) {
                 System.out.println("Produkten är inaktiv och kan inte köpas.");
@@ -96,7 +100,7 @@ public class CartMenu {
             }
 
             System.out.println("\nProdukt: " + product.getName());
-            System.out.printf("Pris: %.2f kr%n", product.getPrice());
+            System.out.printf("Pris: %s kr%n", product.getPrice());
 
             int quantity = input.getInt("Antal: ");
 
@@ -156,7 +160,7 @@ public class CartMenu {
         System.out.println("├──────────┼────────────────────────┼─────┼──────────┼───────────┤");
 
         for (OrderItem item : items) {
-            System.out.printf("│ %-8s │ %-22s │ %3d │ %8.2f │ %9.2f │%n",
+            System.out.printf("│ %-8s │ %-22s │ %3d │ %8s │ %9s │%n",
                     item.getProduct().getSku(),
                     truncate(item.getProduct().getName(), 22),
                     item.getQuantity(),
@@ -165,13 +169,13 @@ public class CartMenu {
         }
 
         System.out.println("└──────────┴────────────────────────┴─────┴──────────┴───────────┘");
-        System.out.printf("TOTALT: %.2f kr%n", cartService.getCartTotal(currentCustomer));
+        System.out.printf("TOTALT: %s kr%n", cartService.getCartTotal(currentCustomer));
     }
 
     private void showCartSummary() {
-        double total = cartService.getCartTotal(currentCustomer);
+        Money total = cartService.getCartTotal(currentCustomer);
         int itemCount = cartService.getCart(currentCustomer).size();
-        System.out.printf("\nKundvagn: %d artikel(ar), Summa: %.2f kr%n", itemCount, total);
+        System.out.printf("\nKundvagn: %d artikel(ar), Summa: %s kr%n", itemCount, total);
     }
 
     private void clearCart() {
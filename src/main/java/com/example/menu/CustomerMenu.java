@@ -15,11 +15,13 @@ public class CustomerMenu {
     private final InputHelper input;
     private final CustomerService customerService;
     private final EmailValidator emailValidator;
+    private final Pager pager;
 
     public CustomerMenu(InputHelper input, CustomerService customerService) {
         this.input = input;
         this.customerService = customerService;
         this.emailValidator = new EmailValidator();
+        this.pager = new Pager(input);
     }
 
     public void run() {
@@ -52,9 +54,9 @@ public class CustomerMenu {
 
     private void listCustomers() {
         System.out.println("\n--- Alla kunder ---");
-        List<Customer> customers = customerService.getAllCustomers();
+        long total = customerService.countCustomers();
 
-        if (customers.isEmpty()) {
+        if (total == 0) {
             System.out.println("Inga kunder finns.");
             return;
         }
@@ -63,22 +65,21 @@ public class CustomerMenu {
         System.out.println("│ ID   │ Namn                       │ Email                    │");
         System.out.println("├──────┼────────────────────────────┼──────────────────────────┤");
 
-        for (Customer c : customers) {
-            System.out.printf("│ %-4d │ %-26s │ %-24s │%n",
-                    c.getId(),
-                    truncate(c.getName(), 26),
-                    truncate(c.getEmail(), 24));
-        }
+        int shown = pager.show(customerService::getCustomersPage, Customer::getId, c ->
+                System.out.printf("│ %-4d │ %-26s │ %-24s │%n",
+                        c.getId(),
+                        truncate(c.getName(), 26),
+                        truncate(c.getEmail(), 24)));
 
         System.out.println("└──────┴────────────────────────────┴──────────────────────────┘");
-        System.out.printf("Totalt: %d kunder%n", customers.size());
+        System.out.printf("Visade %d av %d kunder%n", shown, total);
 
-        logger.info("Listad {} kunder", customers.size());
+        logger.info("Listad {} kunder", shown);
     }
 
     private void searchCustomer() {
         System.out.println("\n1. Sök på email");
-        System.out.println("2. Sök på namn");
+        System.out.println("2. Sök på namn eller email (del av)");
         int choice = input.getInt("Välj: ");
 
         try {
@@ -88,7 +89,7 @@ public class CustomerMenu {
                 System.out.println("\nKund hittad:");
                 System.out.println(customer);
             } else if (choice == 2) {
-                String keyword = input.getString("Namn (söksträng): ");
+                String keyword = input.getString("Namn eller email (söksträng): ");
                 List<Customer> results = customerService.searchCustomers(keyword);
 
                 if (results.isEmpty()) {
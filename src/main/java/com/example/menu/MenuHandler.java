@@ -3,6 +3,7 @@ package com.example.menu;
 import com.example.helper.InputHelper;
 import com.example.repository.*;
 import com.example.service.*;
+import com.example.storage.DurableStore;
 
 import java.util.Scanner;
 
@@ -25,17 +26,20 @@ public class MenuHandler {
                        CSVImportService csvImportService,
                        ProductRepository productRepository,
                        CustomerRepository customerRepository,
+                       CategoryRepository categoryRepository,
                        OrderRepository orderRepository,
-                       InventoryRepository inventoryRepository) {
+                       InventoryRepository inventoryRepository,
+                       PaymentRepository paymentRepository,
+                       DurableStore durableStore) {
 
         this.input = new InputHelper(scanner);
         this.productMenu = new ProductMenu(input, productService);
         this.customerMenu = new CustomerMenu(input, customerService);
         this.cartMenu = new CartMenu(input, cartService, productService, customerService);
         this.orderMenu = new OrderMenu(input, orderService, cartService, cartMenu);
-        this.reportMenu = new ReportMenu(input, orderService, inventoryService);
+        this.reportMenu = new ReportMenu(input, orderService, inventoryService, categoryRepository);
         this.systemMenu = new SystemMenu(input, csvImportService, productRepository,
-                customerRepository, orderRepository, inventoryRepository);
+                customerRepository, orderRepository, inventoryRepository, paymentRepository, durableStore);
     }
 
     public void runMainMenu() {
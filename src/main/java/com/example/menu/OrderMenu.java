@@ -18,6 +18,7 @@ public class OrderMenu {
     private final OrderService orderService;
     private final CartService cartService;
     private final CartMenu cartMenu;
+    private final Pager pager;
 
     public OrderMenu(InputHelper input, OrderService orderService,
                      CartService cartService, CartMenu cartMenu) {
@@ -25,6 +26,7 @@ public class OrderMenu {
         this.orderService = orderService;
         this.cartService = cartService;
         this.cartMenu = cartMenu;
+        this.pager = new Pager(input);
     }
 
     public void run() {
@@ -72,21 +74,21 @@ public class OrderMenu {
 
         // Visa kundvagn
         List<OrderItem> items = cartService.getCart(customer);
-        double total = cartService.getCartTotal(customer);
+        Money total = cartService.getCartTotal(customer);
 
         System.out.println("\n=== CHECKOUT ===");
         System.out.println("Kund: " + customer.getName() + " (" + customer.getEmail() + ")");
         System.out.println("\nProdukter:");
 
         for (OrderItem item : items) {
-            System.out.printf("  %dx %s @ %.2f kr = %.2f kr%n",
+            System.out.printf("  %dx %s @ %s kr = %s kr%n",
                     item.getQuantity(),
                     item.getProduct().getName(),
                     item.getUnitPrice(),
                     item.getLineTotal());
         }
 
-        System.out.printf("\nTotalt: %.2f kr%n", total);
+        System.out.printf("\nTotalt: %s kr%n", total);
 
         // Välj betalningsmetod
         System.out.println("\nVälj betalningsmetod:");
@@ -142,16 +144,14 @@ public class OrderMenu {
         System.out.println("4. Avbrutna (CANCELLED)");
         int choice = input.getInt("Välj: ");
 
-        List<Order> orders;
+        OrderStatus status = switch (choice) {
+            case 2 -> OrderStatus.NEW;
+            case 3 -> OrderStatus.PAID;
+            case 4 -> OrderStatus.CANCELLED;
+            default -> null;
+        };
 
-        switch (choice) {
-            case 2 -> orders = orderService.getOrdersByStatus(OrderStatus.NEW);
-            case 3 -> orders = orderService.getOrdersByStatus(OrderStatus.PAID);
-            case 4 -> orders = orderService.getOrdersByStatus(OrderStatus.CANCELLED);
-            default -> orders = orderService.getAllOrders();
-        }
-
-        if (orders.isEmpty()) {
+        if (orderService.getOrdersPage(status, null, 1).isEmpty()) {
             System.out.println("Inga ordrar hittades.");
             return;
         }
@@ -160,19 +160,19 @@ public class OrderMenu {
         System.out.println("│ ID   │ Kund               │ Datum            │ Status    │ Totalt    │");
         System.out.println("├──────┼────────────────────┼──────────────────┼───────────┼───────────┤");
 
-        for (Order o : orders) {
-            System.out.printf("│ %-4d │ %-18s │ %-16s │ %-9s │ %9.2f │%n",
-                    o.getId(),
-                    truncate(o.getCustomer().getName(), 18),
-                    o.getCreatedAt().format(FORMATTER),
-                    o.getStatus(),
-                    o.getTotal());
-        }
+        int shown = pager.show((afterId, limit) -> orderService.getOrdersPage(status, afterId, limit),
+                Order::getId, o ->
+                System.out.printf("│ %-4d │ %-18s │ %-16s │ %-9s │ %9s │%n",
+                        o.getId(),
+                        truncate(o.getCustomer().getName(), 18),
+                        o.getCreatedAt().format(FORMATTER),
+                        o.getStatus(),
+                        o.getTotal()));
 
         System.out.println("└──────┴────────────────────┴──────────────────┴───────────┴───────────┘");
-        System.out.printf("Totalt: %d ordrar%n", orders.size());
+        System.out.printf("Visade %d ordrar%n", shown);
 
-        logger.info("Listad {} ordrar", orders.size());
+        logger.info("Listad {} ordrar", shown);
     }
 
     private void showOrder() {
@@ -193,7 +193,7 @@ public class OrderMenu {
             System.out.println("├──────────┼────────────────────────┼─────┼──────────┼───────────┤");
 
             for (OrderItem item : order.getItems()) {
-                System.out.printf("│ %-8s │ %-22s │ %3d │ %8.2f │ %9.2f │%n",
+                System.out.printf("│ %-8s │ %-22s │ %3d │ %8s │ %9s │%n",
                         item.getProduct().getSku(),
                         truncate(item.getProduct().getName(), 22),
                         item.getQuantity(),
@@ -202,7 +202,7 @@ public class OrderMenu {
             }
 
             System.out.println("└──────────┴────────────────────────┴─────┴──────────┴───────────┘");
-            System.out.printf("\nTOTALT: %.2f kr%n", order.getTotal());
+            System.out.printf("\nTOTALT: %s kr%n", order.getTotal());
 
             logger.info("Visade order {}", orderId);
 
@@ -0,0 +1,46 @@
+package com.example.menu;
+
+import com.example.helper.InputHelper;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bläddrar igenom en lista sida för sida. Varje sida hämtas med föregående
+ * sidas sista id, så bara det som visas läses från tjänsten.
+ */
+class Pager {
+    static final int PAGE_SIZE = 20;
+
+    private final InputHelper input;
+
+    Pager(InputHelper input) {
+        this.input = input;
+    }
+
+    /**
+     * Skriver ut rader tills listan är slut eller användaren avbryter.
+     * fetch får (afterId, antal) och ska returnera nästa sida i id-ordning.
+     * Returnerar antalet utskrivna rader.
+     */
+    <T> int show(BiFunction<Long, Integer, List<T>> fetch, Function<T, Long> idOf, Consumer<T> printRow) {
+        int shown = 0;
+        Long afterId = null;
+        while (true) {
+            List<T> page = fetch.apply(afterId, PAGE_SIZE);
+            page.forEach(printRow);
+            shown += page.size();
+            if (page.size() < PAGE_SIZE) {
+                return shown;
+            }
+
+            String answer = input.getOptionalString("-- Enter = nästa sida, q = sluta -- ");
+            if (answer.equalsIgnoreCase("q")) {
+                return shown;
+            }
+            afterId = idOf.apply(page.get(page.size() - 1));
+        }
+    }
+}
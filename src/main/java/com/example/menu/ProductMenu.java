@@ -1,6 +1,7 @@
 package com.example.menu;
 
 import com.example.helper.InputHelper;
+import com.example.model.Money;
 import com.example.model.Product;
 import com.example.service.ProductService;
 import org.slf4j.Logger;
@@ -13,10 +14,14 @@ public class ProductMenu {
 
     private final InputHelper input;
     private final ProductService productService;
+    private final ProductPicker productPicker;
+    private final Pager pager;
 
     public ProductMenu(InputHelper input, ProductService productService) {
         this.input = input;
         this.productService = productService;
+        this.productPicker = new ProductPicker(input, productService);
+        this.pager = new Pager(input);
     }
 
     public void run() {
@@ -53,9 +58,9 @@ public class ProductMenu {
 
     private void listProducts() {
         System.out.println("\n--- Alla produkter ---");
-        List<Product> products = productService.getAllProducts();
+        long total = productService.countProducts();
 
-        if (products.isEmpty()) {
+        if (total == 0) {
             System.out.println("Inga produkter finns.");
             return;
         }
@@ -64,22 +69,21 @@ public class ProductMenu {
         System.out.println("│ SKU      │ Namn                       │ Pris     │ Status │");
         System.out.println("├──────────┼────────────────────────────┼──────────┼────────┤");
 
-        for (Product p : products) {
-            System.out.printf("│ %-8s │ %-26s │ %8.2f │ %-6s │%n",
-                    p.getSku(),
-                    truncate(p.getName(), 26),
-                    p.getPrice(),
-                    p.isActive() ? "Aktiv" : "Inaktiv");
-        }
+        int shown = pager.show(productService::getProductsPage, Product::getId, p ->
+                System.out.printf("│ %-8s │ %-26s │ %8s │ %-6s │%n",
+                        p.getSku(),
+                        truncate(p.getName(), 26),
+                        p.getPrice(),
+                        p.isActive() ? "Aktiv" : "Inaktiv"));
 
         System.out.println("└──────────┴────────────────────────────┴──────────┴────────┘");
-        System.out.printf("Totalt: %d produkter%n", products.size());
+        System.out.printf("Visade %d av %d produkter%n", shown, total);
 
-        logger.info("Listad {} produkter", products.size());
+        logger.info("Listad {} produkter", shown);
     }
 
     private void searchProducts() {
-        String keyword = input.getString("\nSök efter produkt (namn): ");
+        String keyword = input.getString("\nSök efter produkt (namn, SKU eller beskrivning): ");
         List<Product> results = productService.searchProducts(keyword);
 
         if (results.isEmpty()) {
@@ -99,7 +103,7 @@ public class ProductMenu {
         String sku = input.getString("SKU (ex: PROD001): ").toUpperCase();
         String name = input.getString("Produktnamn: ");
         String description = input.getString("Beskrivning: ");
-        double price = input.getDouble("Pris: ");
+        Money price = input.getMoney("Pris: ");
 
         try {
             Product product = productService.createProduct(sku, name, description, price);
@@ -113,10 +117,12 @@ public class ProductMenu {
     }
 
     private void updateProduct() {
-        String sku = input.getString("\nAnge SKU för produkt att uppdatera: ").toUpperCase();
-
         try {
-            Product existing = productService.getProductBySku(sku);
+            Product existing = productPicker.pick("\nAnge SKU (eller början av SKU/namn) för produkt att uppdatera: ");
+            if (existing == null) {
+                return;
+            }
+            String sku = existing.getSku();
             System.out.println("\nNuvarande produkt:");
             System.out.println(existing);
 
@@ -125,9 +131,9 @@ public class ProductMenu {
             String description = input.getOptionalString("Beskrivning [" + existing.getDescription() + "]: ");
             String priceStr = input.getOptionalString("Pris [" + existing.getPrice() + "]: ");
 
-            Double price = null;
+            Money price = null;
             if (!priceStr.isEmpty()) {
-                price = Double.parseDouble(priceStr);
+                price = Money.parse(priceStr);
             }
 
             Product updated = productService.updateProduct(
@@ -148,9 +154,12 @@ public class ProductMenu {
     }
 
     private void disableProduct() {
-        String sku = input.getString("\nAnge SKU för produkt att inaktivera: ").toUpperCase();
-
         try {
+            Product product = productPicker.pick("\nAnge SKU (eller början av SKU/namn) för produkt att inaktivera: ");
+            if (product == null) {
+                return;
+            }
+            String sku = product.getSku();
             productService.disableProduct(sku);
             System.out.println(" Produkt inaktiverad: " + sku);
             logger.info("Produkt inaktiverad: {}", sku);
@@ -0,0 +1,56 @@
+package com.example.menu;
+
+import com.example.exception.ProductNotFoundException;
+import com.example.helper.InputHelper;
+import com.example.model.Product;
+import com.example.service.ProductService;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Låter användaren ange en exakt SKU eller början av SKU/namn och välja bland förslagen
+ */
+class ProductPicker {
+    private static final int MAX_SUGGESTIONS = 10;
+
+    private final InputHelper input;
+    private final ProductService productService;
+
+    ProductPicker(InputHelper input, ProductService productService) {
+        this.input = input;
+        this.productService = productService;
+    }
+
+    /**
+     * Returnerar vald produkt, eller null om användaren avbryter
+     */
+    Product pick(String prompt) {
+        String text = input.getString(prompt);
+
+        Optional<Product> exact = productService.findBySku(text.toUpperCase());
+        if (exact.isPresent()) {
+            return exact.get();
+        }
+
+        List<Product> suggestions = productService.autocomplete(text, MAX_SUGGESTIONS);
+        if (suggestions.isEmpty()) {
+            throw new ProductNotFoundException("Ingen aktiv produkt matchar '" + text + "'");
+        }
+        if (suggestions.size() == 1) {
+            System.out.println("Vald produkt: " + suggestions.get(0));
+            return suggestions.get(0);
+        }
+
+        System.out.println("\nFörslag:");
+        for (int i = 0; i < suggestions.size(); i++) {
+            System.out.printf("%2d. %s%n", i + 1, suggestions.get(i));
+        }
+        int choice = input.getInt("Välj produkt (0 = avbryt): ");
+        if (choice < 1 || choice > suggestions.size()) {
+            System.out.println("Avbrutet.");
+            return null;
+        }
+        return suggestions.get(choice - 1);
+    }
+}
@@ -2,7 +2,12 @@ package com.example.menu;
 
 import com.example.helper.InputHelper;
 import com.example.model.Inventory;
+import com.example.model.Money;
+import com.example.model.OrderStatus;
 import com.example.model.Product;
+import com.example.model.RevenueSummary;
+import com.example.model.SalesReport;
+import com.example.repository.CategoryRepository;
 import com.example.service.InventoryService;
 import com.example.service.OrderService;
 import org.slf4j.Logger;
@@ -20,11 +25,14 @@ public class ReportMenu {
     private final InputHelper input;
     private final OrderService orderService;
     private final InventoryService inventoryService;
+    private final CategoryRepository categoryRepository;
 
-    public ReportMenu(InputHelper input, OrderService orderService, InventoryService inventoryService) {
+    public ReportMenu(InputHelper input, OrderService orderService, InventoryService inventoryService,
+                      CategoryRepository categoryRepository) {
         this.input = input;
         this.orderService = orderService;
         this.inventoryService = inventoryService;
+        this.categoryRepository = categoryRepository;
     }
 
     public void run() {
@@ -37,7 +45,8 @@ public class ReportMenu {
                     case 1 -> showTopProducts();
                     case 2 -> showLowStock();
                     case 3 -> showRevenue();
-                    case 4 -> running = false;
+                    case 4 -> showSalesReport();
+                    case 5 -> running = false;
                     default -> System.out.println("Ogiltigt val, försök igen!");
                 }
             } catch (Exception e) {
@@ -52,7 +61,8 @@ public class ReportMenu {
         System.out.println("1. Top 5 bästsäljande produkter");
         System.out.println("2. Lågt lager");
         System.out.println("3. Omsättningsrapport");
-        System.out.println("4. Tillbaka till huvudmeny");
+        System.out.println("4. Försäljningsöversikt (status, bästsäljare, kategorier)");
+        System.out.println("5. Tillbaka till huvudmeny");
     }
 
     private void showTopProducts() {
@@ -120,6 +130,58 @@ public class ReportMenu {
     private void showRevenue() {
         System.out.println("\n--- Omsättningsrapport ---");
 
+        LocalDate[] period = readPeriod();
+        LocalDate startDate = period[0];
+        LocalDate endDate = period[1];
+
+        RevenueSummary summary = orderService.getRevenueSummary(startDate, endDate);
+
+        System.out.println("\n=== OMSÄTTNING ===");
+        System.out.println("Period: " + startDate.format(DATE_FORMATTER) + " till " + endDate.format(DATE_FORMATTER));
+        System.out.println("Antal ordrar: " + summary.orderCount() + " (varav betalda: " + summary.paidOrderCount() + ")");
+        System.out.printf("Total omsättning: %s kr%n", summary.revenue());
+
+        logger.info("Visade omsättning för period {} - {}", startDate, endDate);
+    }
+
+    private void showSalesReport() {
+        System.out.println("\n--- Försäljningsöversikt ---");
+
+        LocalDate[] period = readPeriod();
+        SalesReport report = orderService.getSalesReport(period[0], period[1], 5, categoryRepository.findAllView());
+
+        System.out.println("\n=== FÖRSÄLJNING " + period[0].format(DATE_FORMATTER)
+                + " till " + period[1].format(DATE_FORMATTER) + " ===");
+        System.out.printf("Omsättning (betalda ordrar): %s kr%n", report.revenue());
+
+        System.out.println("\nOrdrar per status:");
+        for (Map.Entry<OrderStatus, Long> entry : report.ordersByStatus().entrySet()) {
+            System.out.printf("  %-10s %8d%n", entry.getKey(), entry.getValue());
+        }
+
+        System.out.println("\nBästsäljare:");
+        if (report.topProducts().isEmpty()) {
+            System.out.println("  Ingen försäljning under perioden.");
+        }
+        int rank = 1;
+        for (Map.Entry<Product, Long> entry : report.topProducts().entrySet()) {
+            System.out.printf("  %d. %-28s %6d st%n", rank++, truncate(entry.getKey().getName(), 28), entry.getValue());
+        }
+
+        if (!report.revenueByCategory().isEmpty()) {
+            System.out.println("\nOmsättning per kategori:");
+            for (Map.Entry<String, Money> entry : report.revenueByCategory().entrySet()) {
+                System.out.printf("  %-20s %12s kr%n", entry.getKey(), entry.getValue());
+            }
+        }
+
+        logger.info("Visade försäljningsöversikt för period {} - {}", period[0], period[1]);
+    }
+
+    /**
+     * Frågar efter från- och till-datum tills båda är giltiga och i rätt ordning
+     */
+    private LocalDate[] readPeriod() {
         LocalDate startDate = null;
         LocalDate endDate = null;
 
@@ -146,15 +208,7 @@ public class ReportMenu {
             }
         }
 
-        double revenue = orderService.getTotalRevenue(startDate, endDate);
-        var orders = orderService.getOrdersByDateRange(startDate, endDate);
-
-        System.out.println("\n=== OMSÄTTNING ===");
-        System.out.println("Period: " + startDate.format(DATE_FORMATTER) + " till " + endDate.format(DATE_FORMATTER));
-        System.out.println("Antal ordrar: " + orders.size());
-        System.out.printf("Total omsättning: %.2f kr%n", revenue);
-
-        logger.info("Visade omsättning för period {} - {}", startDate, endDate);
+        return new LocalDate[]{startDate, endDate};
     }
 
     private String truncate(String str, int maxLength) {
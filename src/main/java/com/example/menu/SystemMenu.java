@@ -1,13 +1,22 @@
 package com.example.menu;
 
 import com.example.helper.InputHelper;
+import com.example.helper.TestDataGenerator;
 import com.example.repository.*;
 import com.example.service.CSVImportService;
+import com.example.storage.BinarySnapshot;
+import com.example.storage.DurableStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 public class SystemMenu {
     private static final Logger logger = LoggerFactory.getLogger(SystemMenu.class);
+    private static final String DEFAULT_SNAPSHOT = "snapshots/data.ehs";
 
     private final InputHelper input;
     private final CSVImportService csvImportService;
@@ -15,19 +24,26 @@ public class SystemMenu {
     private final CustomerRepository customerRepository;
     private final OrderRepository orderRepository;
     private final InventoryRepository inventoryRepository;
+    private final PaymentRepository paymentRepository;
+    // Null om beständig lagring inte är påslagen
+    private final DurableStore durableStore;
 
     public SystemMenu(InputHelper input,
                       CSVImportService csvImportService,
                       ProductRepository productRepository,
                       CustomerRepository customerRepository,
                       OrderRepository orderRepository,
-                      InventoryRepository inventoryRepository) {
+                      InventoryRepository inventoryRepository,
+                      PaymentRepository paymentRepository,
+                      DurableStore durableStore) {
         this.input = input;
         this.csvImportService = csvImportService;
         this.productRepository = productRepository;
         this.customerRepository = customerRepository;
         this.orderRepository = orderRepository;
         this.inventoryRepository = inventoryRepository;
+        this.paymentRepository = paymentRepository;
+        this.durableStore = durableStore;
     }
 
     public void run() {
@@ -38,9 +54,12 @@ public class SystemMenu {
                 int choice = input.getInt("Välj alternativ: ");
                 switch (choice) {
                     case 1 -> csvImportService.importFromMenu();
-                    case 2 -> showDataSummary();
-                    case 3 -> resetAllData();
-                    case 4 -> running = false;
+                    case 2 -> generateScenario();
+                    case 3 -> showDataSummary();
+                    case 4 -> resetAllData();
+                    case 5 -> saveSnapshot();
+                    case 6 -> loadSnapshot();
+                    case 7 -> running = false;
                     default -> System.out.println("Ogiltigt val, försök igen!");
                 }
             } catch (Exception e) {
@@ -53,27 +72,114 @@ public class SystemMenu {
     private void printMenu() {
         System.out.println("\n=== SYSTEMHANTERING ===");
         System.out.println("1. Importera från CSV");
-        System.out.println("2. Visa datamängd");
-        System.out.println("3. Rensa all data");
-        System.out.println("4. Tillbaka till huvudmeny");
+        System.out.println("2. Generera testdata (Medium/Large)");
+        System.out.println("3. Visa datamängd");
+        System.out.println("4. Rensa all data");
+        System.out.println("5. Spara snapshot");
+        System.out.println("6. Läs in snapshot");
+        System.out.println("7. Tillbaka till huvudmeny");
+    }
+
+    private void generateScenario() {
+        System.out.println("\n--- Generera testdata till incoming/ ---");
+        for (TestDataGenerator.Scenario scenario : TestDataGenerator.Scenario.values()) {
+            System.out.printf("%d. %s (%d produkter, %d kunder, %d ordrar)%n",
+                    scenario.ordinal() + 1, scenario.name(),
+                    scenario.getProducts(), scenario.getCustomers(), scenario.getOrders());
+        }
+
+        int choice = input.getInt("Välj scenario: ");
+        if (choice < 1 || choice > TestDataGenerator.Scenario.values().length) {
+            System.out.println("Ogiltigt val.");
+            return;
+        }
+        TestDataGenerator.Scenario scenario = TestDataGenerator.Scenario.values()[choice - 1];
+
+        String seedStr = input.getOptionalString("Seed [" + TestDataGenerator.DEFAULT_SEED + "]: ");
+        long seed = seedStr.isEmpty() ? TestDataGenerator.DEFAULT_SEED : Long.parseLong(seedStr);
+
+        try {
+            new TestDataGenerator(seed).generate(Paths.get("incoming"), scenario);
+            System.out.println("Filer skapade. Importera produkter, kunder och sist ordrar via menyval 1.");
+            logger.info("Genererade scenario {} med seed {}", scenario, seed);
+        } catch (IOException e) {
+            System.out.println("Kunde inte skriva testdata: " + e.getMessage());
+            logger.error("Fel vid generering av testdata", e);
+        }
     }
 
     private void showDataSummary() {
         System.out.println("\n--- Aktuell datamängd ---");
-        System.out.println("Produkter: " + productRepository.count());
+        System.out.println("Produkter: " + productRepository.count()
+                + " (aktiva: " + productRepository.countByActive(true)
+                + ", inaktiva: " + productRepository.countByActive(false) + ")");
         System.out.println("Kunder: " + customerRepository.count());
         System.out.println("Ordrar: " + orderRepository.count());
+        if (productRepository instanceof CachingProductRepository cached) {
+            System.out.println("Produktcache: " + cached.stats());
+        }
+        if (customerRepository instanceof CachingCustomerRepository cached) {
+            System.out.println("Kundcache: " + cached.stats());
+        }
+        if (orderRepository instanceof CachingOrderRepository cached) {
+            System.out.println("Ordercache: " + cached.stats());
+        }
         logger.info("Visade datamängd");
     }
 
+    private void saveSnapshot() {
+        Path file = snapshotPath();
+        try {
+            BinarySnapshot.Result result = BinarySnapshot.write(file, 0, productRepository, customerRepository,
+                    inventoryRepository, orderRepository, paymentRepository);
+            System.out.printf("Snapshot sparad i %s: %d produkter, %d kunder, %d ordrar, %d betalningar (%d kB, %d ms)%n",
+                    file, result.products(), result.customers(), result.orders(), result.payments(),
+                    result.bytes() / 1024, result.elapsed().toMillis());
+        } catch (IOException e) {
+            System.out.println("Kunde inte spara snapshot: " + e.getMessage());
+            logger.error("Fel vid sparande av snapshot till {}", file, e);
+        }
+    }
+
+    private void loadSnapshot() {
+        Path file = snapshotPath();
+        if (!Files.isRegularFile(file)) {
+            System.out.println("Filen finns inte: " + file);
+            return;
+        }
+        String confirm = input.getString("Inläsningen ersätter ALL data. Skriv 'JA' för att fortsätta: ");
+        if (!confirm.equals("JA")) {
+            System.out.println("Inläsning avbruten.");
+            return;
+        }
+
+        clearAllData();
+        try {
+            BinarySnapshot.Result result = BinarySnapshot.load(file, productRepository, customerRepository,
+                    inventoryRepository, orderRepository, paymentRepository);
+            // Inläsningen går förbi loggen, så en ny snapshot i datakatalogen gör den beständig
+            if (durableStore != null) {
+                durableStore.snapshot();
+            }
+            System.out.printf("Snapshot inläst från %s på %d ms: %d produkter, %d kunder, %d ordrar, %d betalningar%n",
+                    file, result.elapsed().toMillis(), result.products(), result.customers(),
+                    result.orders(), result.payments());
+        } catch (IOException e) {
+            System.out.println("Kunde inte läsa in snapshot: " + e.getMessage());
+            logger.error("Fel vid inläsning av snapshot från {}", file, e);
+        }
+    }
+
+    private Path snapshotPath() {
+        String file = input.getOptionalString("Fil [" + DEFAULT_SNAPSHOT + "]: ");
+        return Paths.get(file.isEmpty() ? DEFAULT_SNAPSHOT : file);
+    }
+
     private void resetAllData() {
         String confirm = input.getString("\nVarning! Detta raderar ALL data. Skriv 'RADERA' för att bekräfta: ");
 
         if (confirm.equals("RADERA")) {
-            orderRepository.deleteAll();
-            inventoryRepository.deleteAll();
-            productRepository.deleteAll();
-            customerRepository.deleteAll();
+            clearAllData();
 
             System.out.println("All data raderad!");
             logger.warn("All data raderad via SystemMenu");
@@ -81,4 +187,12 @@ public class SystemMenu {
             System.out.println("Radering avbruten.");
         }
     }
-}
\ No newline at end of file
+
+    private void clearAllData() {
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        productRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+}
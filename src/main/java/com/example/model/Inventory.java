@@ -1,30 +1,47 @@
 package com.example.model;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class Inventory {
     private Long productId;
-    private int inStock;
+    private final AtomicInteger inStock = new AtomicInteger();
 
     public Inventory() {
     }
 
     public Inventory(Long productId, int inStock) {
         this.productId = productId;
-        this.inStock = inStock;
+        this.inStock.set(inStock);
     }
 
     public boolean hasStock(int quantity) {
-        return inStock >= quantity;
+        return inStock.get() >= quantity;
+    }
+
+    /**
+     * Drar av kvantiteten med compare-and-set om tillräckligt finns i lager.
+     * Kontroll och avdrag sker i ett atomärt steg, utan lås.
+     */
+    public boolean tryReserve(int quantity) {
+        while (true) {
+            int current = inStock.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (inStock.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
     }
 
     public void reserve(int quantity) {
-        if (!hasStock(quantity)) {
+        if (!tryReserve(quantity)) {
             throw new IllegalStateException("Inte tillräckligt i lager");
         }
-        this.inStock -= quantity;
     }
 
     public void restock(int quantity) {
-        this.inStock += quantity;
+        inStock.addAndGet(quantity);
     }
 
     // Getters & Setters
@@ -37,18 +54,18 @@ public class Inventory {
     }
 
     public int getInStock() {
-        return inStock;
+        return inStock.get();
     }
 
     public void setInStock(int inStock) {
-        this.inStock = inStock;
+        this.inStock.set(inStock);
     }
 
     @Override
     public String toString() {
         return "Inventory{" +
                 "productId=" + productId +
-                ", inStock=" + inStock +
+                ", inStock=" + inStock.get() +
                 '}';
     }
 }
\ No newline at end of file
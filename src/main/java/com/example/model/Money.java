@@ -0,0 +1,56 @@
+package com.example.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Belopp i kronor lagrat som ett exakt antal ören. Summering och
+ * multiplikation sker med long, så inga avrundningsfel ackumuleras.
+ */
+public record Money(long cents) implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Tolkar t.ex. "59", "59.5" eller "59,50". Fler än två decimaler avrundas half-up.
+     */
+    public static Money parse(String value) {
+        try {
+            BigDecimal amount = new BigDecimal(value.trim().replace(',', '.'));
+            return ofCents(amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Beloppet är för stort: " + value);
+        }
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money times(int quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    /**
+     * Kronor med två decimaler, t.ex. 1234.50
+     */
+    @Override
+    public String toString() {
+        long abs = Math.abs(cents);
+        String kronor = (cents < 0 ? "-" : "") + abs / 100;
+        long ore = abs % 100;
+        return kronor + (ore < 10 ? ".0" : ".") + ore;
+    }
+}
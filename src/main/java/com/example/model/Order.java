@@ -8,12 +8,13 @@ public class Order {
     private Long id;
     private Customer customer;
     private OrderStatus status;
-    private double total;
+    private Money total;
     private LocalDateTime createdAt;
     private List<OrderItem> items;
 
     public Order() {
         this.status = OrderStatus.NEW;
+        this.total = Money.ZERO;
         this.createdAt = LocalDateTime.now();
         this.items = new ArrayList<>();
     }
@@ -21,6 +22,7 @@ public class Order {
     public Order(Customer customer) {
         this.customer = customer;
         this.status = OrderStatus.NEW;
+        this.total = Money.ZERO;
         this.createdAt = LocalDateTime.now();
         this.items = new ArrayList<>();
     }
@@ -36,9 +38,11 @@ public class Order {
     }
 
     public void calculateTotal() {
-        this.total = items.stream()
-                .mapToDouble(OrderItem::getLineTotal)
-                .sum();
+        long cents = 0;
+        for (OrderItem item : items) {
+            cents = Math.addExact(cents, item.getLineTotal().cents());
+        }
+        this.total = Money.ofCents(cents);
     }
 
     // Getters & Setters
@@ -66,11 +70,11 @@ public class Order {
         this.status = status;
     }
 
-    public double getTotal() {
+    public Money getTotal() {
         return total;
     }
 
-    public void setTotal(double total) {
+    public void setTotal(Money total) {
         this.total = total;
     }
 
@@ -93,7 +97,7 @@ public class Order {
 
     @Override
     public String toString() {
-        return String.format("Order #%d - %s - %s - %.2f kr (%d produkter)",
+        return String.format("Order #%d - %s - %s - %s kr (%d produkter)",
                 id, customer.getName(), status, total, items.size());
     }
 }
\ No newline at end of file
@@ -5,8 +5,8 @@ public class OrderItem {
     private Order order;
     private Product product;
     private int quantity;
-    private double unitPrice;
-    private double lineTotal;
+    private Money unitPrice;
+    private Money lineTotal;
 
     public OrderItem() {
     }
@@ -19,7 +19,7 @@ public class OrderItem {
     }
 
     public void calculateLineTotal() {
-        this.lineTotal = this.unitPrice * this.quantity;
+        this.lineTotal = unitPrice != null ? unitPrice.times(quantity) : Money.ZERO;
     }
 
     // Getters & Setters
@@ -58,22 +58,22 @@ public class OrderItem {
         calculateLineTotal();
     }
 
-    public double getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
 
-    public void setUnitPrice(double unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
         calculateLineTotal();
     }
 
-    public double getLineTotal() {
+    public Money getLineTotal() {
         return lineTotal;
     }
 
     @Override
     public String toString() {
-        return String.format("%dx %s @ %.2f kr = %.2f kr",
+        return String.format("%dx %s @ %s kr = %s kr",
                 quantity, product.getName(), unitPrice, lineTotal);
     }
 }
\ No newline at end of file
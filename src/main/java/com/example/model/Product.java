@@ -7,7 +7,7 @@ public class Product {
     private String sku;
     private String name;
     private String description;
-    private double price;
+    private Money price;
     private boolean active;
     private LocalDateTime createdAt;
 
@@ -16,7 +16,7 @@ public class Product {
         this.createdAt = LocalDateTime.now();
     }
 
-    public Product(String sku, String name, String description, double price) {
+    public Product(String sku, String name, String description, Money price) {
         this.sku = sku;
         this.name = name;
         this.description = description;
@@ -58,11 +58,11 @@ public class Product {
         this.description = description;
     }
 
-    public double getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(double price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
@@ -84,7 +84,7 @@ public class Product {
 
     @Override
     public String toString() {
-        return String.format("[%s] %s - %.2f kr%s",
+        return String.format("[%s] %s - %s kr%s",
                 sku, name, price, active ? "" : " (INAKTIV)");
     }
 }
\ No newline at end of file
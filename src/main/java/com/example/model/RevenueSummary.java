@@ -0,0 +1,7 @@
+package com.example.model;
+
+/**
+ * Sammanställning för en period: alla ordrar, betalda ordrar och deras omsättning
+ */
+public record RevenueSummary(long orderCount, long paidOrderCount, Money revenue) {
+}
@@ -0,0 +1,13 @@
+package com.example.model;
+
+import java.util.Map;
+
+/**
+ * Försäljning för en period: omsättning, ordrar per status, bästsäljare (antal)
+ * och omsättning per kategori
+ */
+public record SalesReport(Money revenue,
+                          Map<OrderStatus, Long> ordersByStatus,
+                          Map<Product, Long> topProducts,
+                          Map<String, Money> revenueByCategory) {
+}
@@ -0,0 +1,160 @@
+package com.example.repository;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Begränsad cache med segmenterad LRU: nya nycklar hamnar i ett provsegment och
+ * flyttas till det skyddade segmentet (80 % av platserna) först vid en andra träff.
+ * En lång genomläsning tränger därför bara undan andra engångsnycklar, inte de
+ * som används ofta. Poster äldre än ttl räknas som saknade.
+ * <p>
+ * Alla operationer tar samma lås. Cachen sitter framför databasfrågor som kostar
+ * hundratals mikrosekunder, så ett kort lås per uppslag syns inte.
+ */
+final class BoundedCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maximumSize;
+    private final int protectedSize;
+    private final long ttlNanos;
+
+    // Båda segmenten i LRU-ordning, äldst först
+    private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Entry<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Räknas upp vid varje ändring, se stamp och putIfUnchanged
+    private long version;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    BoundedCache(int maximumSize, Duration ttl) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cachestorleken måste vara positiv");
+        }
+        this.maximumSize = maximumSize;
+        this.protectedSize = Math.max(1, maximumSize * 4 / 5);
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Värdet för nyckeln, eller null om det saknas eller har gått ut
+     */
+    V get(K key) {
+        return get(key, value -> true);
+    }
+
+    /**
+     * Som get, men ett värde som inte längre uppfyller villkoret tas bort och
+     * räknas som miss, t.ex. en produkt som har bytt SKU sedan den cachades
+     */
+    synchronized V get(K key, Predicate<? super V> stillValid) {
+        Entry<V> entry = protectedSegment.get(key);
+        if (entry == null) {
+            entry = probation.remove(key);
+            if (entry != null) {
+                promote(key, entry);
+            }
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAt - System.nanoTime() < 0 || !stillValid.test(entry.value)) {
+            protectedSegment.remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Sparar ett värde som nyss hämtats från lagringen, men bara om ingen nyckel
+     * har ändrats sedan stamp lästes. Annars kan en läsning som startade före en
+     * samtidig save lägga tillbaka den gamla versionen.
+     */
+    synchronized void putIfUnchanged(K key, V value, long stamp) {
+        if (version == stamp) {
+            insert(key, value);
+        }
+    }
+
+    /**
+     * Skriver igenom ett sparat värde
+     */
+    synchronized void update(K key, V value) {
+        version++;
+        insert(key, value);
+    }
+
+    synchronized long stamp() {
+        return version;
+    }
+
+    synchronized void invalidate(K key) {
+        version++;
+        if (protectedSegment.remove(key) == null) {
+            probation.remove(key);
+        }
+    }
+
+    synchronized void invalidateAll() {
+        version++;
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, probation.size() + protectedSegment.size(), maximumSize);
+    }
+
+    private void insert(K key, V value) {
+        Entry<V> entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, entry);
+            return;
+        }
+        probation.remove(key);
+        probation.put(key, entry);
+        evictOverflow();
+    }
+
+    // En andra träff flyttar posten till det skyddade segmentet; är det fullt
+    // flyttas dess äldsta post tillbaka till provsegmentet
+    private void promote(K key, Entry<V> entry) {
+        protectedSegment.put(key, entry);
+        if (protectedSegment.size() > protectedSize) {
+            Iterator<Map.Entry<K, Entry<V>>> oldest = protectedSegment.entrySet().iterator();
+            Map.Entry<K, Entry<V>> demoted = oldest.next();
+            oldest.remove();
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+        evictOverflow();
+    }
+
+    private void evictOverflow() {
+        while (probation.size() + protectedSegment.size() > maximumSize) {
+            LinkedHashMap<K, Entry<V>> victims = probation.isEmpty() ? protectedSegment : probation;
+            Iterator<K> oldest = victims.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+            evictions++;
+        }
+    }
+}
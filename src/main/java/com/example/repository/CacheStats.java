@@ -0,0 +1,18 @@
+package com.example.repository;
+
+/**
+ * Räknare för en cache. Utgångna poster räknas både som miss och som utträngda.
+ */
+public record CacheStats(long hits, long misses, long evictions, int size, int maximumSize) {
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d poster, %d träffar, %d missar (%.1f %% träffar), %d utträngda",
+                size, maximumSize, hits, misses, hitRate() * 100, evictions);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.repository;
+
+import com.example.model.Customer;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Läscache för kunder på id och email, t.ex. för orderimportens email-uppslag
+ * per rad. Fungerar som CachingProductRepository med email i stället för SKU.
+ */
+public class CachingCustomerRepository implements CustomerRepository {
+    private final CustomerRepository delegate;
+    private final BoundedCache<Object, Customer> cache;
+
+    public CachingCustomerRepository(CustomerRepository delegate, int maximumSize, Duration ttl) {
+        this.delegate = delegate;
+        this.cache = new BoundedCache<>(maximumSize, ttl);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        delegate.save(customer);
+        cache.update(customer.getId(), customer);
+        cache.update(customer.getEmail(), customer);
+        return customer;
+    }
+
+    @Override
+    public List<Customer> saveAll(Collection<Customer> customers) {
+        List<Customer> saved = delegate.saveAll(customers);
+        invalidate(customers);
+        return saved;
+    }
+
+    @Override
+    public void restoreAll(Collection<Customer> restored) {
+        delegate.restoreAll(restored);
+        invalidate(restored);
+    }
+
+    @Override
+    public void setJournal(RepositoryJournal journal) {
+        delegate.setJournal(journal);
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        Customer cached = cache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = cache.stamp();
+        Optional<Customer> loaded = delegate.findById(id);
+        loaded.ifPresent(customer -> cache.putIfUnchanged(id, customer, stamp));
+        return loaded;
+    }
+
+    /**
+     * En träff vars email har ändrats sedan den cachades räknas som miss
+     */
+    @Override
+    public Optional<Customer> findByEmail(String email) {
+        Customer cached = cache.get(email, customer -> email.equals(customer.getEmail()));
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = cache.stamp();
+        Optional<Customer> loaded = delegate.findByEmail(email);
+        loaded.ifPresent(customer -> cache.putIfUnchanged(email, customer, stamp));
+        return loaded;
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Collection<Customer> findAllView() {
+        return delegate.findAllView();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Customer> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public List<Customer> findPageAfter(Long afterId, int limit) {
+        return delegate.findPageAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Customer> findByNameContaining(String keyword) {
+        return delegate.findByNameContaining(keyword);
+    }
+
+    @Override
+    public List<Customer> search(String keyword) {
+        return delegate.search(keyword);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        if (cache.get(email, customer -> email.equals(customer.getEmail())) != null) {
+            return true;
+        }
+        return delegate.existsByEmail(email);
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return delegate.findExistingEmails(emails);
+    }
+
+    @Override
+    public void delete(Customer customer) {
+        delegate.delete(customer);
+        cache.invalidate(customer.getId());
+        cache.invalidate(customer.getEmail());
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+        cache.invalidateAll();
+    }
+
+    private void invalidate(Collection<Customer> customers) {
+        for (Customer customer : customers) {
+            cache.invalidate(customer.getId());
+            cache.invalidate(customer.getEmail());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.repository;
+
+import com.example.model.Order;
+import com.example.model.OrderStatus;
+import com.example.model.Product;
+import com.example.model.RevenueSummary;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Läscache för ordrar på id, t.ex. när en order hämtas om vid checkout och
+ * betalning. Listor, sidor och sammanställningar läses alltid från lagringen.
+ */
+public class CachingOrderRepository implements OrderRepository {
+    private final OrderRepository delegate;
+    private final BoundedCache<Long, Order> cache;
+
+    public CachingOrderRepository(OrderRepository delegate, int maximumSize, Duration ttl) {
+        this.delegate = delegate;
+        this.cache = new BoundedCache<>(maximumSize, ttl);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public Order save(Order order) {
+        delegate.save(order);
+        cache.update(order.getId(), order);
+        return order;
+    }
+
+    @Override
+    public List<Order> saveAll(Collection<Order> orders) {
+        List<Order> saved = delegate.saveAll(orders);
+        invalidate(orders);
+        return saved;
+    }
+
+    @Override
+    public void restoreAll(Collection<Order> restored) {
+        delegate.restoreAll(restored);
+        invalidate(restored);
+    }
+
+    @Override
+    public void setJournal(RepositoryJournal journal) {
+        delegate.setJournal(journal);
+    }
+
+    @Override
+    public Optional<Order> findById(Long id) {
+        Order cached = cache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = cache.stamp();
+        Optional<Order> loaded = delegate.findById(id);
+        loaded.ifPresent(order -> cache.putIfUnchanged(id, order, stamp));
+        return loaded;
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Collection<Order> findAllView() {
+        return delegate.findAllView();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Order> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        return delegate.findByStatus(status);
+    }
+
+    @Override
+    public List<Order> findPageAfter(Long afterId, int limit) {
+        return delegate.findPageAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Order> findPageByStatusAfter(OrderStatus status, Long afterId, int limit) {
+        return delegate.findPageByStatusAfter(status, afterId, limit);
+    }
+
+    @Override
+    public List<Order> findByCustomerId(Long customerId) {
+        return delegate.findByCustomerId(customerId);
+    }
+
+    @Override
+    public List<Order> findByDateBetween(LocalDate start, LocalDate end) {
+        return delegate.findByDateBetween(start, end);
+    }
+
+    @Override
+    public Map<Product, Long> findTopSellingProducts(int limit) {
+        return delegate.findTopSellingProducts(limit);
+    }
+
+    @Override
+    public RevenueSummary summarizeBetween(LocalDate start, LocalDate end) {
+        return delegate.summarizeBetween(start, end);
+    }
+
+    @Override
+    public OrderLineStore orderLines() {
+        return delegate.orderLines();
+    }
+
+    @Override
+    public void delete(Order order) {
+        delegate.delete(order);
+        cache.invalidate(order.getId());
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+        cache.invalidateAll();
+    }
+
+    private void invalidate(Collection<Order> orders) {
+        for (Order order : orders) {
+            cache.invalidate(order.getId());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.repository;
+
+import com.example.model.Product;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Läscache framför ett annat produktrepository för uppslag på id och SKU.
+ * Båda nycklarna delar samma cache (Long för id, String för SKU). save skriver
+ * igenom och uppdaterar cachen, delete och massändringar tar bort posterna.
+ * Övriga frågor går direkt till det underliggande repositoryt.
+ */
+public class CachingProductRepository implements ProductRepository {
+    private final ProductRepository delegate;
+    private final BoundedCache<Object, Product> cache;
+
+    public CachingProductRepository(ProductRepository delegate, int maximumSize, Duration ttl) {
+        this.delegate = delegate;
+        this.cache = new BoundedCache<>(maximumSize, ttl);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public Product save(Product product) {
+        // Produkten kan ha bytt SKU; den gamla nyckeln upptäcks vid nästa träff
+        delegate.save(product);
+        cache.update(product.getId(), product);
+        cache.update(product.getSku(), product);
+        return product;
+    }
+
+    @Override
+    public List<Product> saveAll(Collection<Product> products) {
+        List<Product> saved = delegate.saveAll(products);
+        invalidate(products);
+        return saved;
+    }
+
+    @Override
+    public void restoreAll(Collection<Product> restored) {
+        delegate.restoreAll(restored);
+        invalidate(restored);
+    }
+
+    @Override
+    public void setJournal(RepositoryJournal journal) {
+        delegate.setJournal(journal);
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        Product cached = cache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = cache.stamp();
+        Optional<Product> loaded = delegate.findById(id);
+        loaded.ifPresent(product -> cache.putIfUnchanged(id, product, stamp));
+        return loaded;
+    }
+
+    @Override
+    public Optional<Product> findBySku(String sku) {
+        Product cached = cache.get(sku, product -> sku.equals(product.getSku()));
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = cache.stamp();
+        Optional<Product> loaded = delegate.findBySku(sku);
+        loaded.ifPresent(product -> cache.putIfUnchanged(sku, product, stamp));
+        return loaded;
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Collection<Product> findAllView() {
+        return delegate.findAllView();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Product> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public List<Product> findPageAfter(Long afterId, int limit) {
+        return delegate.findPageAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Product> findByNameContaining(String keyword) {
+        return delegate.findByNameContaining(keyword);
+    }
+
+    @Override
+    public List<Product> search(String keyword) {
+        return delegate.search(keyword);
+    }
+
+    @Override
+    public List<Product> findActiveByPrefix(String prefix, int limit) {
+        return delegate.findActiveByPrefix(prefix, limit);
+    }
+
+    @Override
+    public Collection<Product> findByActive(boolean active) {
+        return delegate.findByActive(active);
+    }
+
+    @Override
+    public long countByActive(boolean active) {
+        return delegate.countByActive(active);
+    }
+
+    @Override
+    public boolean existsBySku(String sku) {
+        if (cache.get(sku, product -> sku.equals(product.getSku())) != null) {
+            return true;
+        }
+        return delegate.existsBySku(sku);
+    }
+
+    @Override
+    public Set<String> findExistingSkus(Collection<String> skus) {
+        return delegate.findExistingSkus(skus);
+    }
+
+    @Override
+    public void delete(Product product) {
+        delegate.delete(product);
+        cache.invalidate(product.getId());
+        cache.invalidate(product.getSku());
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+        cache.invalidateAll();
+    }
+
+    private void invalidate(Collection<Product> products) {
+        for (Product product : products) {
+            cache.invalidate(product.getId());
+            cache.invalidate(product.getSku());
+        }
+    }
+}
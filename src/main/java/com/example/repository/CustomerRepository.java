@@ -1,68 +1,75 @@
 package com.example.repository;
 
 import com.example.model.Customer;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
-public class CustomerRepository {
-    private static final Logger logger = LoggerFactory.getLogger(CustomerRepository.class);
+/**
+ * Lagring av kunder. Email är unik; save kastar IllegalArgumentException vid dubblett.
+ */
+public interface CustomerRepository {
 
-    private final Map<Long, Customer> customers = new HashMap<>();
-    private final Map<String, Customer> customersByEmail = new HashMap<>();
-    private Long nextId = 1L;
+    Customer save(Customer customer);
 
-    public Customer save(Customer customer) {
-        if (customer.getId() == null) {
-            customer.setId(nextId++);
-            logger.info("Ny kund skapad med ID: {}", customer.getId());
-        } else {
-            logger.info("Kund uppdaterad med ID: {}", customer.getId());
+    /**
+     * Sparar flera kunder, som standard en i taget via save
+     */
+    default List<Customer> saveAll(Collection<Customer> customers) {
+        List<Customer> saved = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            saved.add(save(customer));
         }
-
-        customers.put(customer.getId(), customer);
-        customersByEmail.put(customer.getEmail(), customer);
-        return customer;
+        return saved;
     }
 
-    public Optional<Customer> findById(Long id) {
-        return Optional.ofNullable(customers.get(id));
-    }
+    /**
+     * Lägger in kunder som redan har id och unika email-adresser
+     */
+    void restoreAll(Collection<Customer> restored);
 
-    public Optional<Customer> findByEmail(String email) {
-        return Optional.ofNullable(customersByEmail.get(email));
-    }
+    void setJournal(RepositoryJournal journal);
 
-    public List<Customer> findAll() {
-        return new ArrayList<>(customers.values());
-    }
+    Optional<Customer> findById(Long id);
 
-    public List<Customer> findByNameContaining(String keyword) {
-        return customers.values().stream()
-                .filter(c -> c.getName().toLowerCase().contains(keyword.toLowerCase()))
-                .collect(Collectors.toList());
-    }
+    Optional<Customer> findByEmail(String email);
 
-    public boolean existsByEmail(String email) {
-        return customersByEmail.containsKey(email);
-    }
+    List<Customer> findAll();
 
-    public void delete(Customer customer) {
-        customers.remove(customer.getId());
-        customersByEmail.remove(customer.getEmail());
-        logger.info("Kund raderad: {}", customer.getEmail());
-    }
+    Collection<Customer> findAllView();
 
-    public long count() {
-        return customers.size();
-    }
+    void forEach(Consumer<? super Customer> action);
 
-    public void deleteAll() {
-        customers.clear();
-        customersByEmail.clear();
-        nextId = 1L;
-        logger.info("Alla kunder raderade");
+    /**
+     * En sida kunder i id-ordning med id större än afterId (null = första sidan)
+     */
+    List<Customer> findPageAfter(Long afterId, int limit);
+
+    List<Customer> findByNameContaining(String keyword);
+
+    /**
+     * Sök i namn och email, bästa träff först
+     */
+    List<Customer> search(String keyword);
+
+    boolean existsByEmail(String email);
+
+    /**
+     * De av email-adresserna som redan finns, standardversionen frågar en i taget
+     */
+    default Set<String> findExistingEmails(Collection<String> emails) {
+        Set<String> existing = new HashSet<>();
+        for (String email : emails) {
+            if (existsByEmail(email)) {
+                existing.add(email);
+            }
+        }
+        return existing;
     }
-}
\ No newline at end of file
+
+    void delete(Customer customer);
+
+    long count();
+
+    void deleteAll();
+}
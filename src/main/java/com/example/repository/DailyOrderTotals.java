@@ -0,0 +1,138 @@
+package com.example.repository;
+
+import com.example.model.Money;
+import com.example.model.RevenueSummary;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Antal ordrar samt antal och omsättning för PAID-ordrar per dag.
+ * Intervallfrågor besvaras med prefixsummor i O(1). Prefixsummorna byggs om
+ * (O(antal dagar)) första gången de läses efter en ändring.
+ */
+class DailyOrderTotals {
+    private final ConcurrentNavigableMap<Long, DayTotals> days = new ConcurrentSkipListMap<>();
+
+    // Ökas efter varje ändring, så en ögonblicksbild vet om den är inaktuell
+    private final AtomicLong version = new AtomicLong();
+    private volatile PrefixSums prefixSums;
+
+    private record DayTotals(long orders, long paidOrders, long paidCents) {
+        static final DayTotals EMPTY = new DayTotals(0, 0, 0);
+
+        DayTotals plus(DayTotals other, int sign) {
+            return new DayTotals(orders + sign * other.orders,
+                    paidOrders + sign * other.paidOrders,
+                    paidCents + sign * other.paidCents);
+        }
+
+        boolean isEmpty() {
+            return orders == 0 && paidOrders == 0 && paidCents == 0;
+        }
+    }
+
+    /**
+     * Kumulativa summor: index i är summan av alla dagar före firstDay + i
+     */
+    private record PrefixSums(long version, long firstDay, long[] orders, long[] paidOrders, long[] paidCents) {
+        private int clamp(long day) {
+            return (int) Math.max(0, Math.min(orders.length - 1, day - firstDay));
+        }
+
+        RevenueSummary between(long fromDay, long toDayExclusive) {
+            int from = clamp(fromDay);
+            int to = clamp(toDayExclusive);
+            return new RevenueSummary(orders[to] - orders[from],
+                    paidOrders[to] - paidOrders[from],
+                    Money.ofCents(paidCents[to] - paidCents[from]));
+        }
+    }
+
+    void add(LocalDate day, boolean paid, long totalCents) {
+        update(day, paid, totalCents, 1);
+    }
+
+    void remove(LocalDate day, boolean paid, long totalCents) {
+        update(day, paid, totalCents, -1);
+    }
+
+    /**
+     * Lägger till summor för många ordrar samma dag på en gång, t.ex. vid inläsning
+     */
+    void add(long epochDay, long orders, long paidOrders, long paidCents) {
+        update(epochDay, new DayTotals(orders, paidOrders, paidCents), 1);
+    }
+
+    RevenueSummary between(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            return new RevenueSummary(0, 0, Money.ZERO);
+        }
+        return currentPrefixSums().between(start.toEpochDay(), end.toEpochDay() + 1);
+    }
+
+    void clear() {
+        days.clear();
+        version.incrementAndGet();
+    }
+
+    private void update(LocalDate day, boolean paid, long totalCents, int sign) {
+        update(day.toEpochDay(), new DayTotals(1, paid ? 1 : 0, paid ? totalCents : 0), sign);
+    }
+
+    private void update(long epochDay, DayTotals delta, int sign) {
+        // compute kan köras om vid konflikt i ConcurrentSkipListMap, därför oföränderliga värden
+        days.compute(epochDay, (key, totals) -> {
+            DayTotals updated = (totals == null ? DayTotals.EMPTY : totals).plus(delta, sign);
+            return updated.isEmpty() ? null : updated;
+        });
+        version.incrementAndGet();
+    }
+
+    private PrefixSums currentPrefixSums() {
+        PrefixSums current = prefixSums;
+        if (current != null && current.version() == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            current = prefixSums;
+            long observed = version.get();
+            if (current != null && current.version() == observed) {
+                return current;
+            }
+            current = rebuild(observed);
+            prefixSums = current;
+            return current;
+        }
+    }
+
+    private PrefixSums rebuild(long observedVersion) {
+        Map.Entry<Long, DayTotals> first = days.firstEntry();
+        Map.Entry<Long, DayTotals> last = days.lastEntry();
+        if (first == null || last == null) {
+            return new PrefixSums(observedVersion, 0, new long[1], new long[1], new long[1]);
+        }
+
+        long firstDay = first.getKey();
+        // Dagar som läggs till under ombyggnaden hamnar i nästa version
+        int length = (int) (last.getKey() - firstDay + 2);
+        long[] orders = new long[length];
+        long[] paidOrders = new long[length];
+        long[] paidCents = new long[length];
+        for (Map.Entry<Long, DayTotals> entry : days.subMap(firstDay, true, last.getKey(), true).entrySet()) {
+            int index = (int) (entry.getKey() - firstDay) + 1;
+            orders[index] = entry.getValue().orders();
+            paidOrders[index] = entry.getValue().paidOrders();
+            paidCents[index] = entry.getValue().paidCents();
+        }
+        for (int i = 1; i < length; i++) {
+            orders[i] += orders[i - 1];
+            paidOrders[i] += paidOrders[i - 1];
+            paidCents[i] += paidCents[i - 1];
+        }
+        return new PrefixSums(observedVersion, firstDay, orders, paidOrders, paidCents);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.repository;
+
+import com.example.model.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class InMemoryCategoryRepository implements CategoryRepository {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryCategoryRepository.class);
+
+    private final Map<Long, Category> categories = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Category> categoriesByName = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1L);
+
+    /**
+     * Sparar kategorin under namnnyckelns lås i categoriesByName, så att båda
+     * kartorna uppdateras tillsammans och samma namn inte kan skapas två gånger.
+     */
+    @Override
+    public Category save(Category category) {
+        categoriesByName.compute(category.getName().toLowerCase(), (name, existing) -> {
+            if (existing != null && existing != category
+                    && (category.getId() == null || !category.getId().equals(existing.getId()))) {
+                throw new IllegalArgumentException("Kategori " + category.getName() + " finns redan");
+            }
+
+            if (category.getId() == null) {
+                category.setId(nextId.getAndIncrement());
+                logger.info("Ny kategori skapad med ID: {}", category.getId());
+            } else {
+                logger.info("Kategori uppdaterad med ID: {}", category.getId());
+            }
+
+            categories.put(category.getId(), category);
+            return category;
+        });
+        return category;
+    }
+
+    @Override
+    public Optional<Category> findById(Long id) {
+        return Optional.ofNullable(categories.get(id));
+    }
+
+    @Override
+    public Optional<Category> findByName(String name) {
+        return Optional.ofNullable(categoriesByName.get(name.toLowerCase()));
+    }
+
+    @Override
+    public List<Category> findAll() {
+        return new ArrayList<>(categories.values());
+    }
+
+    /**
+     * Skrivskyddad vy över kategorierna, utan kopia
+     */
+    @Override
+    public Collection<Category> findAllView() {
+        return Collections.unmodifiableCollection(categories.values());
+    }
+
+    @Override
+    public void forEach(Consumer<? super Category> action) {
+        categories.values().forEach(action);
+    }
+
+    @Override
+    public boolean existsByName(String name) {
+        return categoriesByName.containsKey(name.toLowerCase());
+    }
+
+    @Override
+    public void delete(Category category) {
+        categoriesByName.compute(category.getName().toLowerCase(), (name, existing) -> {
+            categories.remove(category.getId());
+            return existing == null || existing.getId().equals(category.getId()) ? null : existing;
+        });
+        logger.info("Kategori raderad: {}", category.getName());
+    }
+
+    @Override
+    public long count() {
+        return categories.size();
+    }
+
+    @Override
+    public void deleteAll() {
+        categories.clear();
+        categoriesByName.clear();
+        nextId.set(1L);
+        logger.info("Alla kategorier raderade");
+    }
+}
\ No newline at end of file
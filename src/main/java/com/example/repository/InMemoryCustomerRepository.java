@@ -0,0 +1,216 @@
+package com.example.repository;
+
+import com.example.model.Customer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class InMemoryCustomerRepository implements CustomerRepository {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryCustomerRepository.class);
+
+    private final Map<Long, Customer> customers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Customer> customersByEmail = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1L);
+    private volatile RepositoryJournal journal = RepositoryJournal.NONE;
+
+    // Sorterade id för sidvis listning
+    private final NavigableSet<Long> ids = new ConcurrentSkipListSet<>();
+
+    // Trigramindex över namn och email (i den viktordningen)
+    private final TrigramIndex searchIndex = new TrigramIndex();
+
+    /**
+     * Sparar kunden under email-nyckelns lås i customersByEmail, så att båda
+     * kartorna uppdateras tillsammans och samma email inte kan registreras två gånger.
+     */
+    @Override
+    public Customer save(Customer customer) {
+        customersByEmail.compute(customer.getEmail(), (email, existing) -> {
+            requireUnique(customer, existing);
+
+            if (customer.getId() == null) {
+                customer.setId(nextId.getAndIncrement());
+                logger.info("Ny kund skapad med ID: {}", customer.getId());
+            } else {
+                nextId.accumulateAndGet(customer.getId() + 1, Math::max);
+                logger.info("Kund uppdaterad med ID: {}", customer.getId());
+            }
+
+            index(customer);
+            journal.saved(customer);
+            return customer;
+        });
+        journal.sync();
+        return customer;
+    }
+
+    /**
+     * Sparar en batch på samma sätt som InMemoryProductRepository.saveAll: email-adresserna
+     * kontrolleras först, nya kunder får id under email-adressens lås och hela
+     * batchen ger en journalsynk och en loggrad. Som där får batchen inget
+     * sammanhängande block av id, så att en avbruten batch inte lämnar hål i serien.
+     */
+    @Override
+    public List<Customer> saveAll(Collection<Customer> batch) {
+        Set<String> emails = new HashSet<>(batch.size() * 2);
+        int created = 0;
+        for (Customer customer : batch) {
+            if (!emails.add(customer.getEmail())) {
+                throw new IllegalArgumentException("Email " + customer.getEmail() + " förekommer flera gånger i batchen");
+            }
+            requireUnique(customer, customersByEmail.get(customer.getEmail()));
+            if (customer.getId() == null) {
+                created++;
+            }
+        }
+
+        for (Customer customer : batch) {
+            customersByEmail.compute(customer.getEmail(), (email, existing) -> {
+                requireUnique(customer, existing);
+                if (customer.getId() == null) {
+                    customer.setId(nextId.getAndIncrement());
+                } else {
+                    nextId.accumulateAndGet(customer.getId() + 1, Math::max);
+                }
+                index(customer);
+                journal.saved(customer);
+                return customer;
+            });
+        }
+        journal.sync();
+        logger.info("{} kunder sparade ({} nya)", batch.size(), created);
+        return new ArrayList<>(batch);
+    }
+
+    /**
+     * Lägger in kunder med id och unika email-adresser i ett svep, utan journal
+     */
+    @Override
+    public void restoreAll(Collection<Customer> restored) {
+        long maxId = 0;
+        for (Customer customer : restored) {
+            customersByEmail.put(customer.getEmail(), customer);
+            index(customer);
+            maxId = Math.max(maxId, customer.getId());
+        }
+        nextId.accumulateAndGet(maxId + 1, Math::max);
+        logger.info("{} kunder inlästa", restored.size());
+    }
+
+    @Override
+    public void setJournal(RepositoryJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        return Optional.ofNullable(customers.get(id));
+    }
+
+    @Override
+    public Optional<Customer> findByEmail(String email) {
+        return Optional.ofNullable(customersByEmail.get(email));
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return new ArrayList<>(customers.values());
+    }
+
+    /**
+     * Som findAll men utan kopia, en skrivskyddad vy som tål samtidiga sparningar
+     */
+    @Override
+    public Collection<Customer> findAllView() {
+        return Collections.unmodifiableCollection(customers.values());
+    }
+
+    @Override
+    public void forEach(Consumer<? super Customer> action) {
+        customers.values().forEach(action);
+    }
+
+    /**
+     * En sida kunder i id-ordning med id större än afterId (null = första sidan)
+     */
+    @Override
+    public List<Customer> findPageAfter(Long afterId, int limit) {
+        return KeysetPage.after(ids, customers, afterId, limit);
+    }
+
+    @Override
+    public List<Customer> findByNameContaining(String keyword) {
+        return resolve(searchIndex.search(keyword, 1));
+    }
+
+    /**
+     * Sök i namn och email utan hänsyn till skiftläge och å/ä/ö, bästa träff först
+     */
+    @Override
+    public List<Customer> search(String keyword) {
+        return resolve(searchIndex.search(keyword, 2));
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return customersByEmail.containsKey(email);
+    }
+
+    @Override
+    public void delete(Customer customer) {
+        customersByEmail.compute(customer.getEmail(), (email, existing) -> {
+            customers.remove(customer.getId());
+            ids.remove(customer.getId());
+            searchIndex.remove(customer.getId());
+            journal.deleted(Customer.class, customer.getId());
+            return existing == null || existing.getId().equals(customer.getId()) ? null : existing;
+        });
+        journal.sync();
+        logger.info("Kund raderad: {}", customer.getEmail());
+    }
+
+    @Override
+    public long count() {
+        return customers.size();
+    }
+
+    private static void requireUnique(Customer customer, Customer existing) {
+        if (existing != null && existing != customer
+                && (customer.getId() == null || !customer.getId().equals(existing.getId()))) {
+            throw new IllegalArgumentException("Kund med email " + customer.getEmail() + " finns redan");
+        }
+    }
+
+    private void index(Customer customer) {
+        customers.put(customer.getId(), customer);
+        ids.add(customer.getId());
+        searchIndex.put(customer.getId(), customer.getName(), customer.getEmail());
+    }
+
+    private List<Customer> resolve(List<Long> ids) {
+        List<Customer> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Customer customer = customers.get(id);
+            if (customer != null) {
+                result.add(customer);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void deleteAll() {
+        journal.cleared(Customer.class);
+        customers.clear();
+        customersByEmail.clear();
+        ids.clear();
+        searchIndex.clear();
+        nextId.set(1L);
+        logger.info("Alla kunder raderade");
+    }
+}
\ No newline at end of file
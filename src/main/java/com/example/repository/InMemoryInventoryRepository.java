@@ -0,0 +1,116 @@
+package com.example.repository;
+
+import com.example.model.Inventory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+public class InMemoryInventoryRepository implements InventoryRepository {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryInventoryRepository.class);
+
+    private final Map<Long, Inventory> inventory = new ConcurrentHashMap<>();
+    private volatile RepositoryJournal journal = RepositoryJournal.NONE;
+
+    @Override
+    public void setJournal(RepositoryJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Sparar lagerposten. Saldot loggas under produktens lås, så den sista
+     * loggade posten alltid läser saldot efter alla tidigare reservationer.
+     */
+    @Override
+    public Inventory save(Inventory inv) {
+        inventory.compute(inv.getProductId(), (id, existing) -> {
+            journal.saved(inv);
+            return inv;
+        });
+        journal.sync();
+        logger.info("Lager uppdaterat för produkt {}: {} st", inv.getProductId(), inv.getInStock());
+        return inv;
+    }
+
+    /**
+     * Som save för varje post, men med en journalsynk och en loggrad för alla
+     */
+    @Override
+    public List<Inventory> saveAll(Collection<Inventory> batch) {
+        for (Inventory inv : batch) {
+            inventory.compute(inv.getProductId(), (id, existing) -> {
+                journal.saved(inv);
+                return inv;
+            });
+        }
+        journal.sync();
+        logger.info("{} lagerposter sparade", batch.size());
+        return new ArrayList<>(batch);
+    }
+
+    @Override
+    public void restoreAll(Collection<Inventory> restored) {
+        for (Inventory inv : restored) {
+            inventory.put(inv.getProductId(), inv);
+        }
+        logger.info("{} lagerposter inlästa", restored.size());
+    }
+
+    @Override
+    public Optional<Inventory> findByProductId(Long productId) {
+        return Optional.ofNullable(inventory.get(productId));
+    }
+
+    /**
+     * Hämtar lagerposten för produkten, eller skapar en tom post atomärt om ingen finns.
+     */
+    @Override
+    public Inventory findOrCreate(Long productId) {
+        return inventory.computeIfAbsent(productId, id -> new Inventory(id, 0));
+    }
+
+    @Override
+    public List<Inventory> findAll() {
+        return new ArrayList<>(inventory.values());
+    }
+
+    /**
+     * Skrivskyddad vy över lagerposterna, utan kopia
+     */
+    @Override
+    public Collection<Inventory> findAllView() {
+        return Collections.unmodifiableCollection(inventory.values());
+    }
+
+    @Override
+    public void forEach(Consumer<? super Inventory> action) {
+        inventory.values().forEach(action);
+    }
+
+    @Override
+    public List<Inventory> findLowStock(int threshold) {
+        return inventory.values().stream()
+                .filter(inv -> inv.getInStock() < threshold)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void delete(Long productId) {
+        inventory.computeIfPresent(productId, (id, existing) -> {
+            journal.deleted(Inventory.class, id);
+            return null;
+        });
+        journal.sync();
+        logger.info("Lagerpost raderad för produkt: {}", productId);
+    }
+
+    @Override
+    public void deleteAll() {
+        journal.cleared(Inventory.class);
+        inventory.clear();
+        logger.info("Alla lagerposter raderade");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,491 @@
+package com.example.repository;
+
+import com.example.model.Order;
+import com.example.model.OrderItem;
+import com.example.model.OrderStatus;
+import com.example.model.Product;
+import com.example.model.RevenueSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class InMemoryOrderRepository implements OrderRepository {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryOrderRepository.class);
+
+    private final ConcurrentHashMap<Long, Order> orders = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1L);
+    private volatile RepositoryJournal journal = RepositoryJournal.NONE;
+
+    // Alla order-id i ordning, för sidvis listning
+    private final NavigableSet<Long> ids = new ConcurrentSkipListSet<>();
+
+    // Sekundära index: order-id per kund, status och skapad-tidpunkt. Id-mängderna
+    // är sorterade så att en status kan bläddras sidvis på samma sätt som alla ordrar.
+    private final ConcurrentMap<Long, NavigableSet<Long>> orderIdsByCustomer = new ConcurrentHashMap<>();
+    private final ConcurrentMap<OrderStatus, NavigableSet<Long>> orderIdsByStatus = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<LocalDateTime, Set<Long>> orderIdsByCreatedAt = new ConcurrentSkipListMap<>();
+
+    // Nycklarna som varje order senast indexerades med. Order-objekten muteras
+    // (t.ex. setStatus) innan de sparas om, så gamla värden måste sparas här.
+    private final Map<Long, IndexKey> indexedKeys = new ConcurrentHashMap<>();
+
+    // Sålt antal per produkt-id för PAID-ordrar, och samma värden sorterade
+    // med mest sålda först. Båda uppdateras under produktens lås i soldByProduct.
+    private final ConcurrentMap<Long, ProductSales> soldByProduct = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<ProductSales> salesRanking = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(ProductSales::quantity).reversed()
+                    .thenComparing(ProductSales::productId));
+
+    // Antal ordrar och PAID-omsättning per dag, för intervallrapporter
+    private final DailyOrderTotals dailyTotals = new DailyOrderTotals();
+
+    // Orderraderna i kolumnform för analysfrågor som skannar allt
+    private final OrderLineStore orderLines = new OrderLineStore();
+
+    private record ProductSales(Long productId, Product product, long quantity) {
+    }
+
+    private record IndexKey(Long customerId, OrderStatus status, LocalDateTime createdAt, long totalCents) {
+        static IndexKey of(Order order) {
+            Long customerId = order.getCustomer() != null ? order.getCustomer().getId() : null;
+            return new IndexKey(customerId, order.getStatus(), order.getCreatedAt(), order.getTotal().cents());
+        }
+    }
+
+    /**
+     * Sparar ordern. Indexen uppdateras under orderns lås i orders, så samtidiga
+     * sparningar av samma order kan inte lämna indexen i otakt.
+     */
+    @Override
+    public Order save(Order order) {
+        if (order.getId() == null) {
+            order.setId(nextId.getAndIncrement());
+            logger.info("Ny order skapad med ID: {}", order.getId());
+        } else {
+            nextId.accumulateAndGet(order.getId() + 1, Math::max);
+            logger.info("Order uppdaterad med ID: {}", order.getId());
+        }
+
+        orders.compute(order.getId(), (id, existing) -> {
+            // Journalen först: kastar den ändras varken index eller karta
+            journal.saved(order);
+            reindex(order);
+            ids.add(id);
+            return order;
+        });
+        journal.sync();
+        return order;
+    }
+
+    /**
+     * Journalen får varje sparad order med alla rader, under orderns lås
+     */
+    @Override
+    public void setJournal(RepositoryJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Sparar en batch. Nya ordrar får ett sammanhängande block av id och indexeras
+     * i ett svep som i restoreAll, med en journalsynk och en loggrad för hela
+     * batchen. Ordrar som redan har id sparas om en i taget med save. Avbryts
+     * batchen får de nya ordrar som inte hann sparas tillbaka id null, som i
+     * JdbcOrderRepository; deras id i blocket används inte.
+     */
+    @Override
+    public List<Order> saveAll(Collection<Order> batch) {
+        List<Order> created = new ArrayList<>(batch.size());
+        for (Order order : batch) {
+            if (order.getId() == null) {
+                created.add(order);
+            } else {
+                save(order);
+            }
+        }
+
+        long id = nextId.getAndAdd(created.size());
+        for (Order order : created) {
+            order.setId(id++);
+        }
+        try {
+            addAll(created, true);
+        } catch (RuntimeException e) {
+            for (Order order : created) {
+                if (orders.get(order.getId()) != order) {
+                    order.setId(null);
+                }
+            }
+            throw e;
+        } finally {
+            journal.sync();
+        }
+        logger.info("{} ordrar sparade ({} nya)", batch.size(), created.size());
+        return new ArrayList<>(batch);
+    }
+
+    /**
+     * Lägger in ordrar som redan har id, t.ex. från en snapshot, i ett svep.
+     * Journalen anropas inte. Går snabbast om ordrarna kommer i id-ordning.
+     */
+    @Override
+    public void restoreAll(Collection<Order> restored) {
+        addAll(restored, false);
+        logger.info("{} ordrar inlästa", restored.size());
+    }
+
+    /**
+     * Indexerar ordrar som har id. Sålt antal, dagssummor och tidsindex summeras först
+     * lokalt och skrivs sedan en gång per nyckel i stället för en gång per order.
+     * En order som redan finns sparas om med save. Med journaled får journalen
+     * varje ny order under orderns lås, som i save. Avbryts svepet indexeras de
+     * ordrar som hann läggas in ändå, så kartan och indexen stämmer.
+     */
+    private void addAll(Collection<Order> batch, boolean journaled) {
+        Map<Long, List<Long>> idsByCustomer = new HashMap<>();
+        Map<OrderStatus, List<Long>> idsByStatus = new EnumMap<>(OrderStatus.class);
+        Map<LocalDateTime, List<Long>> idsByCreatedAt = new HashMap<>();
+        Map<Long, long[]> dayTotals = new HashMap<>();
+        Map<Product, long[]> sold = new HashMap<>();
+
+        try {
+            addAll(batch, journaled, idsByCustomer, idsByStatus, idsByCreatedAt, dayTotals, sold);
+        } finally {
+            idsByCustomer.forEach((customerId, added) -> addAllToIndex(orderIdsByCustomer, customerId, added));
+            idsByStatus.forEach((status, added) -> addAllToIndex(orderIdsByStatus, status, added));
+            // Tidsindexet fylls på i stigande nyckelordning; ordrar i id-ordning är nästan sorterade redan
+            List<Map.Entry<LocalDateTime, List<Long>>> byTime = new ArrayList<>(idsByCreatedAt.entrySet());
+            byTime.sort(Map.Entry.comparingByKey());
+            for (Map.Entry<LocalDateTime, List<Long>> entry : byTime) {
+                orderIdsByCreatedAt.compute(entry.getKey(), (k, existing) -> {
+                    Set<Long> copy = existing == null ? new HashSet<>(entry.getValue()) : new HashSet<>(existing);
+                    copy.addAll(entry.getValue());
+                    return Collections.unmodifiableSet(copy);
+                });
+            }
+            dayTotals.forEach((day, totals) -> dailyTotals.add(day, totals[0], totals[1], totals[2]));
+            sold.forEach((product, quantity) -> addSold(product, quantity[0]));
+        }
+    }
+
+    // Lägger in ordrarna och samlar indexändringarna i de lokala kartorna
+    private void addAll(Collection<Order> batch, boolean journaled,
+                        Map<Long, List<Long>> idsByCustomer,
+                        Map<OrderStatus, List<Long>> idsByStatus,
+                        Map<LocalDateTime, List<Long>> idsByCreatedAt,
+                        Map<Long, long[]> dayTotals,
+                        Map<Product, long[]> sold) {
+        boolean[] inserted = new boolean[1];
+
+        for (Order order : batch) {
+            Long id = order.getId();
+            // Nyckeln räknas före insättningen, så en order som inte går att indexera inte läggs in
+            IndexKey key = IndexKey.of(order);
+            inserted[0] = false;
+            orders.computeIfAbsent(id, k -> {
+                inserted[0] = true;
+                if (journaled) {
+                    journal.saved(order);
+                }
+                return order;
+            });
+            if (!inserted[0]) {
+                save(order);
+                continue;
+            }
+            nextId.accumulateAndGet(id + 1, Math::max);
+            ids.add(id);
+
+            if (key.customerId() != null) {
+                idsByCustomer.computeIfAbsent(key.customerId(), k -> new ArrayList<>()).add(id);
+            }
+            if (key.status() != null) {
+                idsByStatus.computeIfAbsent(key.status(), k -> new ArrayList<>()).add(id);
+            }
+            boolean paid = key.status() == OrderStatus.PAID;
+            if (key.createdAt() != null) {
+                idsByCreatedAt.computeIfAbsent(key.createdAt(), k -> new ArrayList<>(1)).add(id);
+                long[] day = dayTotals.computeIfAbsent(key.createdAt().toLocalDate().toEpochDay(), k -> new long[3]);
+                day[0]++;
+                if (paid) {
+                    day[1]++;
+                    day[2] += key.totalCents();
+                }
+            }
+            if (paid) {
+                for (OrderItem item : order.getItems()) {
+                    if (item.getProduct() != null && item.getProduct().getId() != null) {
+                        sold.computeIfAbsent(item.getProduct(), k -> new long[1])[0] += item.getQuantity();
+                    }
+                }
+            }
+            orderLines.upsert(order);
+            indexedKeys.put(id, key);
+        }
+    }
+
+    @Override
+    public Optional<Order> findById(Long id) {
+        return Optional.ofNullable(orders.get(id));
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return new ArrayList<>(orders.values());
+    }
+
+    /**
+     * Skrivskyddad vy direkt över ordrarna. Använd findAll om en fast lista behövs.
+     */
+    @Override
+    public Collection<Order> findAllView() {
+        return Collections.unmodifiableCollection(orders.values());
+    }
+
+    @Override
+    public void forEach(Consumer<? super Order> action) {
+        orders.values().forEach(action);
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        return resolve(orderIdsByStatus.get(status));
+    }
+
+    /**
+     * Ordrar i id-ordning efter afterId, högst limit stycken (afterId null = från början)
+     */
+    @Override
+    public List<Order> findPageAfter(Long afterId, int limit) {
+        return KeysetPage.after(ids, orders, afterId, limit);
+    }
+
+    /**
+     * Som findPageAfter men bara ordrar med given status, via statusindexet
+     */
+    @Override
+    public List<Order> findPageByStatusAfter(OrderStatus status, Long afterId, int limit) {
+        NavigableSet<Long> statusIds = orderIdsByStatus.get(status);
+        if (statusIds == null) {
+            return new ArrayList<>();
+        }
+        return KeysetPage.after(statusIds, orders, afterId, limit);
+    }
+
+    @Override
+    public List<Order> findByCustomerId(Long customerId) {
+        return resolve(orderIdsByCustomer.get(customerId));
+    }
+
+    @Override
+    public List<Order> findByDateBetween(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            return new ArrayList<>();
+        }
+
+        List<Order> result = new ArrayList<>();
+        orderIdsByCreatedAt
+                .subMap(start.atStartOfDay(), true, end.plusDays(1).atStartOfDay(), false)
+                .values()
+                .forEach(ids -> result.addAll(resolve(ids)));
+        return result;
+    }
+
+    /**
+     * De mest sålda produkterna i PAID-ordrar, mest sålda först.
+     * Läses direkt ur den löpande rankingen utan att gå igenom ordrarna.
+     */
+    @Override
+    public Map<Product, Long> findTopSellingProducts(int limit) {
+        Map<Product, Long> result = new LinkedHashMap<>();
+        for (ProductSales sales : salesRanking) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.put(sales.product(), sales.quantity());
+        }
+        return result;
+    }
+
+    /**
+     * Antal ordrar samt antal och omsättning för PAID-ordrar skapade mellan start och end (inklusive)
+     */
+    @Override
+    public RevenueSummary summarizeBetween(LocalDate start, LocalDate end) {
+        return dailyTotals.between(start, end);
+    }
+
+    @Override
+    public OrderLineStore orderLines() {
+        return orderLines;
+    }
+
+    @Override
+    public void delete(Order order) {
+        orders.computeIfPresent(order.getId(), (id, existing) -> {
+            unindex(existing);
+            orderLines.markDeleted(id);
+            ids.remove(id);
+            journal.deleted(Order.class, id);
+            return null;
+        });
+        journal.sync();
+        logger.info("Order raderad: {}", order.getId());
+    }
+
+    @Override
+    public long count() {
+        return orders.size();
+    }
+
+    @Override
+    public void deleteAll() {
+        journal.cleared(Order.class);
+        orders.clear();
+        ids.clear();
+        orderIdsByCustomer.clear();
+        orderIdsByStatus.clear();
+        orderIdsByCreatedAt.clear();
+        indexedKeys.clear();
+        soldByProduct.clear();
+        salesRanking.clear();
+        dailyTotals.clear();
+        orderLines.clear();
+        nextId.set(1L);
+        logger.info("Alla orders raderade");
+    }
+
+    private void reindex(Order order) {
+        IndexKey current = IndexKey.of(order);
+        IndexKey previous = indexedKeys.get(order.getId());
+        if (current.equals(previous)) {
+            return;
+        }
+
+        unindex(order);
+
+        Long id = order.getId();
+        if (current.customerId() != null) {
+            addToIndex(orderIdsByCustomer, current.customerId(), id);
+        }
+        if (current.status() != null) {
+            addToIndex(orderIdsByStatus, current.status(), id);
+        }
+        if (current.createdAt() != null) {
+            // ConcurrentSkipListMap.compute kan köras om vid konflikt, därför kopieras mängden
+            orderIdsByCreatedAt.compute(current.createdAt(), (k, ids) -> {
+                Set<Long> copy = ids == null ? new HashSet<>() : new HashSet<>(ids);
+                copy.add(id);
+                return Collections.unmodifiableSet(copy);
+            });
+            dailyTotals.add(current.createdAt().toLocalDate(),
+                    current.status() == OrderStatus.PAID, current.totalCents());
+        }
+        if (current.status() == OrderStatus.PAID) {
+            addSales(order, 1);
+        }
+        orderLines.upsert(order);
+        indexedKeys.put(id, current);
+    }
+
+    private void unindex(Order order) {
+        Long id = order.getId();
+        IndexKey previous = indexedKeys.remove(id);
+        if (previous == null) {
+            return;
+        }
+
+        removeFromIndex(orderIdsByCustomer, previous.customerId(), id);
+        removeFromIndex(orderIdsByStatus, previous.status(), id);
+        if (previous.createdAt() != null) {
+            orderIdsByCreatedAt.computeIfPresent(previous.createdAt(), (k, ids) -> {
+                Set<Long> copy = new HashSet<>(ids);
+                copy.remove(id);
+                return copy.isEmpty() ? null : Collections.unmodifiableSet(copy);
+            });
+            dailyTotals.remove(previous.createdAt().toLocalDate(),
+                    previous.status() == OrderStatus.PAID, previous.totalCents());
+        }
+        if (previous.status() == OrderStatus.PAID) {
+            // Ordern var betald men är det inte längre (eller raderas)
+            addSales(order, -1);
+        }
+    }
+
+    private void addSales(Order order, int sign) {
+        for (OrderItem item : order.getItems()) {
+            Product product = item.getProduct();
+            if (product == null || product.getId() == null) {
+                continue;
+            }
+            addSold(product, (long) sign * item.getQuantity());
+        }
+    }
+
+    private void addSold(Product product, long delta) {
+        soldByProduct.compute(product.getId(), (productId, sales) -> {
+            if (sales != null) {
+                salesRanking.remove(sales);
+            }
+            long quantity = (sales != null ? sales.quantity() : 0) + delta;
+            if (quantity <= 0) {
+                return null;
+            }
+            ProductSales updated = new ProductSales(productId, product, quantity);
+            salesRanking.add(updated);
+            return updated;
+        });
+    }
+
+    private static <K> void addToIndex(ConcurrentMap<K, NavigableSet<Long>> index, K key, Long id) {
+        index.compute(key, (k, ids) -> {
+            NavigableSet<Long> result = ids != null ? ids : new ConcurrentSkipListSet<>();
+            result.add(id);
+            return result;
+        });
+    }
+
+    // Lägger till många id under ett enda lås, i stigande ordning
+    private static <K> void addAllToIndex(ConcurrentMap<K, NavigableSet<Long>> index, K key, List<Long> added) {
+        added.sort(null);
+        index.compute(key, (k, ids) -> {
+            NavigableSet<Long> result = ids != null ? ids : new ConcurrentSkipListSet<>();
+            result.addAll(added);
+            return result;
+        });
+    }
+
+    private static <K> void removeFromIndex(ConcurrentMap<K, NavigableSet<Long>> index, K key, Long id) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private List<Order> resolve(Set<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Order> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Order order = orders.get(id);
+            if (order != null) {
+                result.add(order);
+            }
+        }
+        return result;
+    }
+}
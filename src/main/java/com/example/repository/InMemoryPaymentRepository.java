@@ -0,0 +1,213 @@
+package com.example.repository;
+
+import com.example.model.Payment;
+import com.example.model.PaymentStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class InMemoryPaymentRepository implements PaymentRepository {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryPaymentRepository.class);
+
+    private final ConcurrentHashMap<Long, Payment> payments = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1L);
+    private volatile RepositoryJournal journal = RepositoryJournal.NONE;
+
+    // Sekundära index: sorterade betalnings-id per order-id och betalnings-id per status.
+    // Lägsta id per order är den betalning som gäller; raderas den tar nästa över.
+    private final ConcurrentHashMap<Long, NavigableSet<Long>> paymentIdsByOrderId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<PaymentStatus, Set<Long>> paymentIdsByStatus = new ConcurrentHashMap<>();
+
+    // Order och status som varje betalning senast indexerades med (setStatus sker före save)
+    private final Map<Long, Long> indexedOrderId = new ConcurrentHashMap<>();
+    private final Map<Long, PaymentStatus> indexedStatus = new ConcurrentHashMap<>();
+
+    /**
+     * Sparar betalningen. Indexen uppdateras under betalningens lås i payments.
+     */
+    @Override
+    public Payment save(Payment payment) {
+        if (payment.getId() == null) {
+            payment.setId(nextId.getAndIncrement());
+            logger.info("Ny betalning skapad med ID: {}", payment.getId());
+        } else {
+            nextId.accumulateAndGet(payment.getId() + 1, Math::max);
+            logger.info("Betalning uppdaterad med ID: {}", payment.getId());
+        }
+
+        payments.compute(payment.getId(), (id, existing) -> {
+            indexByOrder(payment);
+            indexByStatus(payment);
+            journal.saved(payment);
+            return payment;
+        });
+        journal.sync();
+        return payment;
+    }
+
+    /**
+     * Inläsning av betalningar med id, t.ex. från en snapshot. Ordrarna ska redan vara inlästa.
+     */
+    @Override
+    public void restoreAll(Collection<Payment> restored) {
+        long maxId = 0;
+        for (Payment payment : restored) {
+            payments.put(payment.getId(), payment);
+            indexByOrder(payment);
+            indexByStatus(payment);
+            maxId = Math.max(maxId, payment.getId());
+        }
+        nextId.accumulateAndGet(maxId + 1, Math::max);
+        logger.info("{} betalningar inlästa", restored.size());
+    }
+
+    @Override
+    public void setJournal(RepositoryJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public Optional<Payment> findById(Long id) {
+        return Optional.ofNullable(payments.get(id));
+    }
+
+    /**
+     * Betalningen med lägst id för ordern
+     */
+    @Override
+    public Optional<Payment> findByOrderId(Long orderId) {
+        NavigableSet<Long> ids = paymentIdsByOrderId.get(orderId);
+        if (ids == null) {
+            return Optional.empty();
+        }
+        for (Long id : ids) {
+            Payment payment = payments.get(id);
+            if (payment != null) {
+                return Optional.of(payment);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Payment> findAll() {
+        return new ArrayList<>(payments.values());
+    }
+
+    /**
+     * Skrivskyddad vy över betalningarna, utan kopia
+     */
+    @Override
+    public Collection<Payment> findAllView() {
+        return Collections.unmodifiableCollection(payments.values());
+    }
+
+    @Override
+    public void forEach(Consumer<? super Payment> action) {
+        payments.values().forEach(action);
+    }
+
+    @Override
+    public List<Payment> findByStatus(PaymentStatus status) {
+        Set<Long> ids = paymentIdsByStatus.get(status);
+        if (ids == null) {
+            return new ArrayList<>();
+        }
+
+        List<Payment> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Payment payment = payments.get(id);
+            if (payment != null) {
+                result.add(payment);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void delete(Payment payment) {
+        payments.computeIfPresent(payment.getId(), (id, existing) -> {
+            unindexOrder(id);
+            unindexStatus(id);
+            journal.deleted(Payment.class, id);
+            return null;
+        });
+        journal.sync();
+        logger.info("Betalning raderad: {}", payment.getId());
+    }
+
+    @Override
+    public void deleteAll() {
+        journal.cleared(Payment.class);
+        payments.clear();
+        paymentIdsByOrderId.clear();
+        indexedOrderId.clear();
+        paymentIdsByStatus.clear();
+        indexedStatus.clear();
+        nextId.set(1L);
+        logger.info("Alla betalningar raderade");
+    }
+
+    private void indexByOrder(Payment payment) {
+        Long orderId = payment.getOrder() != null ? payment.getOrder().getId() : null;
+        if (Objects.equals(indexedOrderId.get(payment.getId()), orderId)) {
+            return;
+        }
+
+        unindexOrder(payment.getId());
+        if (orderId != null) {
+            paymentIdsByOrderId.compute(orderId, (key, ids) -> {
+                NavigableSet<Long> result = ids != null ? ids : new ConcurrentSkipListSet<>();
+                result.add(payment.getId());
+                return result;
+            });
+            indexedOrderId.put(payment.getId(), orderId);
+        }
+    }
+
+    private void unindexOrder(Long id) {
+        Long previous = indexedOrderId.remove(id);
+        if (previous == null) {
+            return;
+        }
+
+        paymentIdsByOrderId.computeIfPresent(previous, (orderId, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private void indexByStatus(Payment payment) {
+        PaymentStatus previous = indexedStatus.get(payment.getId());
+        if (previous == payment.getStatus()) {
+            return;
+        }
+
+        unindexStatus(payment.getId());
+        if (payment.getStatus() != null) {
+            paymentIdsByStatus.compute(payment.getStatus(), (status, ids) -> {
+                Set<Long> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                result.add(payment.getId());
+                return result;
+            });
+            indexedStatus.put(payment.getId(), payment.getStatus());
+        }
+    }
+
+    private void unindexStatus(Long id) {
+        PaymentStatus previous = indexedStatus.remove(id);
+        if (previous == null) {
+            return;
+        }
+
+        paymentIdsByStatus.computeIfPresent(previous, (status, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
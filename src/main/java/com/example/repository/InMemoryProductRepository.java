@@ -0,0 +1,318 @@
+package com.example.repository;
+
+import com.example.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class InMemoryProductRepository implements ProductRepository {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryProductRepository.class);
+
+    private final Map<Long, Product> products = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Product> productsBySku = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1L);
+    private volatile RepositoryJournal journal = RepositoryJournal.NONE;
+
+    // Alla produkt-id i ordning, för sidvis listning
+    private final NavigableSet<Long> ids = new ConcurrentSkipListSet<>();
+
+    // Aktiva respektive inaktiva produkter per id, med antal som hålls i takt
+    private final ConcurrentSkipListMap<Long, Product> activeProducts = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, Product> inactiveProducts = new ConcurrentSkipListMap<>();
+    private final AtomicLong activeCount = new AtomicLong();
+    private final AtomicLong inactiveCount = new AtomicLong();
+
+    // Trigramindex över namn, SKU och beskrivning (i den viktordningen)
+    private final TrigramIndex searchIndex = new TrigramIndex();
+
+    // Prefixindex över SKU, namn och namnets ord, bara för aktiva produkter
+    private final PrefixIndex prefixIndex = new PrefixIndex();
+
+    /**
+     * Sparar produkten. Skrivningen sker under SKU-nyckelns lås i productsBySku,
+     * så samtidiga anrop för samma SKU kan inte ge dubbletter eller olika index.
+     */
+    @Override
+    public Product save(Product product) {
+        productsBySku.compute(product.getSku(), (sku, existing) -> {
+            requireUnique(product, existing);
+
+            if (product.getId() == null) {
+                product.setId(nextId.getAndIncrement());
+                logger.info("Ny produkt skapad med ID: {}", product.getId());
+            } else {
+                // Id kan komma från en återläst logg, nya id får inte krocka med det
+                nextId.accumulateAndGet(product.getId() + 1, Math::max);
+                logger.info("Produkt uppdaterad med ID: {}", product.getId());
+            }
+
+            index(product);
+            journal.saved(product);
+            return product;
+        });
+        journal.sync();
+        return product;
+    }
+
+    /**
+     * Sparar en hel batch. SKU:erna kontrolleras först mot varandra och mot
+     * repositoryt, så en dubblett ger IllegalArgumentException innan något sparats.
+     * Journalen synkas en gång och en loggrad skrivs för hela batchen. Varje
+     * skrivning, och id för nya produkter, sker under SKU:ns lås som i save; tar en
+     * samtidig save samma SKU mellan kontroll och skrivning avbryts batchen där.
+     * De tidigare produkterna är då sparade och resten har kvar id null.
+     * <p>
+     * Batchen får inget sammanhängande block av id, till skillnad från
+     * InMemoryOrderRepository.saveAll. Ett block som reserveras före skrivningarna
+     * lämnar hål i id-serien när batchen avbryts, och här kan det hända vid vilken
+     * SKU som helst. Varje id hämtas därför med getAndIncrement först när produkten
+     * skrivs. Utan samtidiga skrivare blir id:na ändå i följd.
+     */
+    @Override
+    public List<Product> saveAll(Collection<Product> batch) {
+        Set<String> skus = new HashSet<>(batch.size() * 2);
+        int created = 0;
+        for (Product product : batch) {
+            if (!skus.add(product.getSku())) {
+                throw new IllegalArgumentException("SKU " + product.getSku() + " förekommer flera gånger i batchen");
+            }
+            requireUnique(product, productsBySku.get(product.getSku()));
+            if (product.getId() == null) {
+                created++;
+            }
+        }
+
+        for (Product product : batch) {
+            productsBySku.compute(product.getSku(), (sku, existing) -> {
+                requireUnique(product, existing);
+                if (product.getId() == null) {
+                    product.setId(nextId.getAndIncrement());
+                } else {
+                    nextId.accumulateAndGet(product.getId() + 1, Math::max);
+                }
+                index(product);
+                journal.saved(product);
+                return product;
+            });
+        }
+        journal.sync();
+        logger.info("{} produkter sparade ({} nya)", batch.size(), created);
+        return new ArrayList<>(batch);
+    }
+
+    /**
+     * Lägger in produkter som redan har id och unika SKU:er, t.ex. från en snapshot.
+     * Samma index som save, men utan journal och utan en loggrad per produkt.
+     */
+    @Override
+    public void restoreAll(Collection<Product> restored) {
+        long maxId = 0;
+        for (Product product : restored) {
+            productsBySku.put(product.getSku(), product);
+            index(product);
+            maxId = Math.max(maxId, product.getId());
+        }
+        nextId.accumulateAndGet(maxId + 1, Math::max);
+        logger.info("{} produkter inlästa", restored.size());
+    }
+
+    /**
+     * Kopplar in en journal som får alla ändringar. Sätts efter återläsning vid start.
+     */
+    @Override
+    public void setJournal(RepositoryJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return Optional.ofNullable(products.get(id));
+    }
+
+    @Override
+    public Optional<Product> findBySku(String sku) {
+        return Optional.ofNullable(productsBySku.get(sku));
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return new ArrayList<>(products.values());
+    }
+
+    /**
+     * Skrivskyddad vy över alla produkter, utan kopia. Iterationen är svagt
+     * konsistent: den tål samtidiga skrivningar och kan se dem eller inte.
+     */
+    @Override
+    public Collection<Product> findAllView() {
+        return Collections.unmodifiableCollection(products.values());
+    }
+
+    @Override
+    public void forEach(Consumer<? super Product> action) {
+        products.values().forEach(action);
+    }
+
+    /**
+     * Nästa sida produkter sorterade på id, med start efter afterId.
+     * Med afterId null börjar sidan från det lägsta id:t.
+     */
+    @Override
+    public List<Product> findPageAfter(Long afterId, int limit) {
+        return KeysetPage.after(ids, products, afterId, limit);
+    }
+
+    @Override
+    public List<Product> findByNameContaining(String keyword) {
+        return resolve(searchIndex.search(keyword, 1));
+    }
+
+    /**
+     * Sök i namn, SKU och beskrivning utan hänsyn till skiftläge och å/ä/ö.
+     * Träffar i namnet och i början av ord rankas först.
+     */
+    @Override
+    public List<Product> search(String keyword) {
+        return resolve(searchIndex.search(keyword, 3));
+    }
+
+    /**
+     * Aktiva produkter vars SKU, namn eller något ord i namnet börjar med prefixet
+     */
+    @Override
+    public List<Product> findActiveByPrefix(String prefix, int limit) {
+        return resolve(prefixIndex.findByPrefix(prefix, limit));
+    }
+
+    /**
+     * Skrivskyddad vy sorterad på id. Den hålls uppdaterad av save, så ingen kopia
+     * skapas, och den kan itereras samtidigt som produkter sparas.
+     */
+    @Override
+    public Collection<Product> findByActive(boolean active) {
+        return Collections.unmodifiableCollection((active ? activeProducts : inactiveProducts).values());
+    }
+
+    @Override
+    public long countByActive(boolean active) {
+        return active ? activeCount.get() : inactiveCount.get();
+    }
+
+    @Override
+    public boolean existsBySku(String sku) {
+        return productsBySku.containsKey(sku);
+    }
+
+    @Override
+    public void delete(Product product) {
+        productsBySku.compute(product.getSku(), (sku, existing) -> {
+            products.remove(product.getId());
+            ids.remove(product.getId());
+            untrackActive(product.getId());
+            searchIndex.remove(product.getId());
+            prefixIndex.remove(product.getId());
+            journal.deleted(Product.class, product.getId());
+            return existing == null || existing.getId().equals(product.getId()) ? null : existing;
+        });
+        journal.sync();
+        logger.info("Produkt raderad: {}", product.getSku());
+    }
+
+    @Override
+    public long count() {
+        return products.size();
+    }
+
+    private static void requireUnique(Product product, Product existing) {
+        if (existing != null && existing != product
+                && (product.getId() == null || !product.getId().equals(existing.getId()))) {
+            throw new IllegalArgumentException("Produkt med SKU " + product.getSku() + " finns redan");
+        }
+    }
+
+    private void trackActive(Product product) {
+        Long id = product.getId();
+        if (product.isActive()) {
+            if (inactiveProducts.remove(id) != null) {
+                inactiveCount.decrementAndGet();
+            }
+            if (activeProducts.put(id, product) == null) {
+                activeCount.incrementAndGet();
+            }
+        } else {
+            if (activeProducts.remove(id) != null) {
+                activeCount.decrementAndGet();
+            }
+            if (inactiveProducts.put(id, product) == null) {
+                inactiveCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void untrackActive(Long id) {
+        if (activeProducts.remove(id) != null) {
+            activeCount.decrementAndGet();
+        }
+        if (inactiveProducts.remove(id) != null) {
+            inactiveCount.decrementAndGet();
+        }
+    }
+
+    private static List<String> prefixTerms(Product product) {
+        List<String> terms = new ArrayList<>();
+        terms.add(product.getSku());
+        if (product.getName() != null) {
+            terms.add(product.getName());
+            String[] words = product.getName().trim().split("\\s+");
+            for (int i = 1; i < words.length; i++) {
+                terms.add(words[i]);
+            }
+        }
+        return terms;
+    }
+
+    private void index(Product product) {
+        products.put(product.getId(), product);
+        ids.add(product.getId());
+        trackActive(product);
+        searchIndex.put(product.getId(), product.getName(), product.getSku(), product.getDescription());
+        if (product.isActive()) {
+            prefixIndex.put(product.getId(), prefixTerms(product));
+        } else {
+            prefixIndex.remove(product.getId());
+        }
+    }
+
+    private List<Product> resolve(List<Long> ids) {
+        List<Product> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = products.get(id);
+            if (product != null) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void deleteAll() {
+        journal.cleared(Product.class);
+        products.clear();
+        ids.clear();
+        productsBySku.clear();
+        activeProducts.clear();
+        inactiveProducts.clear();
+        activeCount.set(0);
+        inactiveCount.set(0);
+        searchIndex.clear();
+        prefixIndex.clear();
+        nextId.set(1L);
+        logger.info("Alla produkter raderade");
+    }
+}
@@ -1,44 +1,49 @@
 package com.example.repository;
 
 import com.example.model.Inventory;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+
+/**
+ * Lagersaldo per produkt-id. Samma produkt ger samma Inventory-objekt så länge
+ * det finns kvar, så att tryReserve är ett compare-and-set mellan trådar.
+ */
+public interface InventoryRepository {
+
+    Inventory save(Inventory inv);
+
+    /**
+     * Sparar flera lagerposter, som standard en i taget via save
+     */
+    default List<Inventory> saveAll(Collection<Inventory> inventory) {
+        List<Inventory> saved = new ArrayList<>(inventory.size());
+        for (Inventory inv : inventory) {
+            saved.add(save(inv));
+        }
+        return saved;
+    }
 
-public class InventoryRepository {
-    private static final Logger logger = LoggerFactory.getLogger(InventoryRepository.class);
+    void restoreAll(Collection<Inventory> restored);
 
-    private final Map<Long, Inventory> inventory = new HashMap<>();
+    void setJournal(RepositoryJournal journal);
 
-    public Inventory save(Inventory inv) {
-        inventory.put(inv.getProductId(), inv);
-        logger.info("Lager uppdaterat för produkt {}: {} st", inv.getProductId(), inv.getInStock());
-        return inv;
-    }
+    Optional<Inventory> findByProductId(Long productId);
 
-    public Optional<Inventory> findByProductId(Long productId) {
-        return Optional.ofNullable(inventory.get(productId));
-    }
+    /**
+     * Hämtar lagerposten för produkten, eller en ny tom post om ingen finns
+     */
+    Inventory findOrCreate(Long productId);
 
-    public List<Inventory> findAll() {
-        return new ArrayList<>(inventory.values());
-    }
+    List<Inventory> findAll();
 
-    public List<Inventory> findLowStock(int threshold) {
-        return inventory.values().stream()
-                .filter(inv -> inv.getInStock() < threshold)
-                .collect(Collectors.toList());
-    }
+    Collection<Inventory> findAllView();
 
-    public void delete(Long productId) {
-        inventory.remove(productId);
-        logger.info("Lagerpost raderad för produkt: {}", productId);
-    }
+    void forEach(Consumer<? super Inventory> action);
 
-    public void deleteAll() {
-        inventory.clear();
-        logger.info("Alla lagerposter raderade");
-    }
-}
\ No newline at end of file
+    List<Inventory> findLowStock(int threshold);
+
+    void delete(Long productId);
+
+    void deleteAll();
+}
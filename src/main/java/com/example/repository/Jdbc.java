@@ -0,0 +1,216 @@
+package com.example.repository;
+
+import com.example.exception.DataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Det JDBC-repositoryna har gemensamt: lån av anslutning ur poolen, frågor med
+ * bundna parametrar, transaktioner och batchade skrivningar. SQLException blir
+ * DataAccessException, utom unika nycklar som anroparen själv kan känna igen.
+ */
+final class Jdbc {
+    // Antal rader per executeBatch
+    static final int BATCH_SIZE = 1_000;
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    interface RowBinder<T> {
+        void bind(PreparedStatement statement, T row) throws SQLException;
+    }
+
+    interface RowMapper<T> {
+        T map(ResultSet resultSet) throws SQLException;
+    }
+
+    interface Work<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    static final Binder NO_PARAMETERS = statement -> {
+    };
+
+    private final DataSource dataSource;
+
+    Jdbc(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    <T> List<T> query(String sql, Binder binder, RowMapper<T> mapper) {
+        return execute(connection -> query(connection, sql, binder, mapper));
+    }
+
+    <T> Optional<T> queryOne(String sql, Binder binder, RowMapper<T> mapper) {
+        List<T> rows = query(sql, binder, mapper);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    long queryLong(String sql, Binder binder) {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                binder.bind(statement);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? resultSet.getLong(1) : 0L;
+                }
+            }
+        });
+    }
+
+    /**
+     * De av värdena som finns i kolumnen, i en enda fråga med värdena som array
+     */
+    Set<String> existing(String table, String column, Collection<String> values) {
+        if (values.isEmpty()) {
+            return new HashSet<>();
+        }
+        String sql = "SELECT " + column + " FROM " + table + " WHERE " + column + " = ANY(?)";
+        return new HashSet<>(query(sql,
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("VARCHAR", values.toArray())),
+                resultSet -> resultSet.getString(1)));
+    }
+
+    int update(String sql, Binder binder) {
+        return execute(connection -> update(connection, sql, binder));
+    }
+
+    /**
+     * Kör arbetet på en lånad anslutning i autocommit-läge
+     */
+    <T> T execute(Work<T> work) {
+        try (Connection connection = dataSource.getConnection()) {
+            return work.run(connection);
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * Kör arbetet i en transaktion som committas om det går bra och rullas tillbaka annars
+     */
+    <T> T inTransaction(Work<T> work) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    static <T> List<T> query(Connection connection, String sql, Binder binder, RowMapper<T> mapper) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            binder.bind(statement);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<T> rows = new ArrayList<>();
+                while (resultSet.next()) {
+                    rows.add(mapper.map(resultSet));
+                }
+                return rows;
+            }
+        }
+    }
+
+    static int update(Connection connection, String sql, Binder binder) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            binder.bind(statement);
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Skriver alla rader med samma PreparedStatement, BATCH_SIZE rader per executeBatch
+     */
+    static <T> void batch(Connection connection, String sql, Collection<T> rows, RowBinder<T> binder) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int pending = 0;
+            for (T row : rows) {
+                binder.bind(statement, row);
+                statement.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    static boolean isUniqueViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && UNIQUE_VIOLATION.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static DataAccessException failure(SQLException e) {
+        return new DataAccessException("Databasfel: " + e.getMessage(), e);
+    }
+
+    static void setTime(PreparedStatement statement, int index, LocalDateTime time) throws SQLException {
+        statement.setObject(index, time);
+    }
+
+    static LocalDateTime getTime(ResultSet resultSet, String column) throws SQLException {
+        return resultSet.getObject(column, LocalDateTime.class);
+    }
+
+    static void setLongOrNull(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    /**
+     * Kolumnlistan med tabellalias och namn med prefix, t.ex. "p.id AS p_id, ..." för en join
+     */
+    static String aliased(String columns, String alias, String prefix) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (String column : columns.split(", ")) {
+            joiner.add(alias + "." + column + " AS " + prefix + column);
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * LIKE-mönster för att texten finns någonstans, med % och _ i texten escapade
+     */
+    static String contains(String text) {
+        return "%" + escapeLike(text.toLowerCase()) + "%";
+    }
+
+    static String startsWith(String text) {
+        return escapeLike(text.toLowerCase()) + "%";
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
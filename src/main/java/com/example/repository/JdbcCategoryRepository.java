@@ -0,0 +1,157 @@
+package com.example.repository;
+
+import com.example.exception.DataAccessException;
+import com.example.model.Category;
+import com.example.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Kategorier i tabellen categories och deras produkter i category_products.
+ * Namnet jämförs via kolumnen name_key med gemener, som har ett unikt index.
+ */
+public class JdbcCategoryRepository implements CategoryRepository {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcCategoryRepository.class);
+
+    private static final String MERGE = "MERGE INTO categories (id, name, name_key) KEY (id) VALUES (?, ?, ?)";
+    private static final String SELECT = "SELECT c.id, c.name, "
+            + Jdbc.aliased(JdbcProductRepository.COLUMNS, "p", "p_")
+            + " FROM categories c"
+            + " LEFT JOIN category_products cp ON cp.category_id = c.id"
+            + " LEFT JOIN products p ON p.id = cp.product_id";
+
+    private final Jdbc jdbc;
+    private final AtomicLong nextId;
+
+    public JdbcCategoryRepository(DataSource dataSource) {
+        this.jdbc = new Jdbc(dataSource);
+        this.nextId = new AtomicLong(jdbc.queryLong("SELECT COALESCE(MAX(id), 0) + 1 FROM categories", Jdbc.NO_PARAMETERS));
+    }
+
+    /**
+     * Skriver kategorin och ersätter dess produktkopplingar i en transaktion
+     */
+    @Override
+    public Category save(Category category) {
+        boolean created = category.getId() == null;
+        if (created) {
+            category.setId(nextId.getAndIncrement());
+        } else {
+            nextId.accumulateAndGet(category.getId() + 1, Math::max);
+        }
+
+        try {
+            jdbc.inTransaction(connection -> {
+                Jdbc.update(connection, MERGE, statement -> {
+                    statement.setLong(1, category.getId());
+                    statement.setString(2, category.getName());
+                    statement.setString(3, category.getName().toLowerCase());
+                });
+                Jdbc.update(connection, "DELETE FROM category_products WHERE category_id = ?",
+                        statement -> statement.setLong(1, category.getId()));
+                List<Product> linked = category.getProducts().stream()
+                        .filter(product -> product.getId() != null)
+                        .toList();
+                Jdbc.batch(connection, "INSERT INTO category_products (category_id, product_id) VALUES (?, ?)",
+                        linked, (statement, product) -> {
+                            statement.setLong(1, category.getId());
+                            statement.setLong(2, product.getId());
+                        });
+                return null;
+            });
+        } catch (DataAccessException e) {
+            if (created) {
+                category.setId(null);
+            }
+            if (Jdbc.isUniqueViolation(e)) {
+                throw new IllegalArgumentException("Kategori " + category.getName() + " finns redan");
+            }
+            throw e;
+        }
+        logger.info(created ? "Ny kategori skapad med ID: {}" : "Kategori uppdaterad med ID: {}", category.getId());
+        return category;
+    }
+
+    @Override
+    public Optional<Category> findById(Long id) {
+        List<Category> found = load(" WHERE c.id = ?", statement -> statement.setLong(1, id));
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    @Override
+    public Optional<Category> findByName(String name) {
+        List<Category> found = load(" WHERE c.name_key = ?", statement -> statement.setString(1, name.toLowerCase()));
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    @Override
+    public List<Category> findAll() {
+        return load("", Jdbc.NO_PARAMETERS);
+    }
+
+    @Override
+    public Collection<Category> findAllView() {
+        return Collections.unmodifiableList(findAll());
+    }
+
+    @Override
+    public void forEach(Consumer<? super Category> action) {
+        findAll().forEach(action);
+    }
+
+    @Override
+    public boolean existsByName(String name) {
+        return jdbc.queryLong("SELECT COUNT(*) FROM categories WHERE name_key = ?",
+                statement -> statement.setString(1, name.toLowerCase())) > 0;
+    }
+
+    @Override
+    public void delete(Category category) {
+        jdbc.inTransaction(connection -> {
+            Jdbc.update(connection, "DELETE FROM category_products WHERE category_id = ?",
+                    statement -> statement.setLong(1, category.getId()));
+            Jdbc.update(connection, "DELETE FROM categories WHERE id = ?",
+                    statement -> statement.setLong(1, category.getId()));
+            return null;
+        });
+        logger.info("Kategori raderad: {}", category.getName());
+    }
+
+    @Override
+    public long count() {
+        return jdbc.queryLong("SELECT COUNT(*) FROM categories", Jdbc.NO_PARAMETERS);
+    }
+
+    @Override
+    public void deleteAll() {
+        jdbc.inTransaction(connection -> {
+            Jdbc.update(connection, "DELETE FROM category_products", Jdbc.NO_PARAMETERS);
+            Jdbc.update(connection, "DELETE FROM categories", Jdbc.NO_PARAMETERS);
+            return null;
+        });
+        nextId.set(1L);
+        logger.info("Alla kategorier raderade");
+    }
+
+    // En rad per kopplad produkt; raderna för samma kategori slås ihop
+    private List<Category> load(String condition, Jdbc.Binder binder) {
+        Map<Long, Category> categories = new LinkedHashMap<>();
+        jdbc.query(SELECT + condition + " ORDER BY c.id", binder, resultSet -> {
+            Category category = categories.computeIfAbsent(resultSet.getLong("id"), id -> new Category());
+            if (category.getId() == null) {
+                category.setId(resultSet.getLong("id"));
+                category.setName(resultSet.getString("name"));
+            }
+            if (resultSet.getObject("p_id") != null) {
+                category.addProduct(JdbcProductRepository.read(resultSet, "p_"));
+            }
+            return null;
+        });
+        return new ArrayList<>(categories.values());
+    }
+}
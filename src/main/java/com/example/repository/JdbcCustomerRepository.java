@@ -0,0 +1,215 @@
+package com.example.repository;
+
+import com.example.exception.DataAccessException;
+import com.example.model.Customer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Kunder i tabellen customers, med unikt index på email
+ */
+public class JdbcCustomerRepository implements CustomerRepository {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcCustomerRepository.class);
+
+    static final String COLUMNS = "id, email, name, created_at";
+
+    private static final String MERGE = "MERGE INTO customers (" + COLUMNS + ") KEY (id) VALUES (?, ?, ?, ?)";
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM customers";
+
+    private final Jdbc jdbc;
+    private final AtomicLong nextId;
+
+    public JdbcCustomerRepository(DataSource dataSource) {
+        this.jdbc = new Jdbc(dataSource);
+        this.nextId = new AtomicLong(jdbc.queryLong("SELECT COALESCE(MAX(id), 0) + 1 FROM customers", Jdbc.NO_PARAMETERS));
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        boolean created = customer.getId() == null;
+        if (created) {
+            customer.setId(nextId.getAndIncrement());
+        } else {
+            nextId.accumulateAndGet(customer.getId() + 1, Math::max);
+        }
+
+        try {
+            jdbc.update(MERGE, statement -> bind(statement, customer));
+        } catch (DataAccessException e) {
+            if (created) {
+                customer.setId(null);
+            }
+            if (Jdbc.isUniqueViolation(e)) {
+                throw new IllegalArgumentException("Kund med email " + customer.getEmail() + " finns redan");
+            }
+            throw e;
+        }
+        logger.info(created ? "Ny kund skapad med ID: {}" : "Kund uppdaterad med ID: {}", customer.getId());
+        return customer;
+    }
+
+    /**
+     * Batchade MERGE i en transaktion; en dubblett rullar tillbaka hela batchen
+     */
+    @Override
+    public List<Customer> saveAll(Collection<Customer> customers) {
+        List<Customer> created = new ArrayList<>();
+        for (Customer customer : customers) {
+            if (customer.getId() == null) {
+                customer.setId(nextId.getAndIncrement());
+                created.add(customer);
+            } else {
+                nextId.accumulateAndGet(customer.getId() + 1, Math::max);
+            }
+        }
+
+        try {
+            jdbc.inTransaction(connection -> {
+                Jdbc.batch(connection, MERGE, customers, JdbcCustomerRepository::bind);
+                return null;
+            });
+        } catch (DataAccessException e) {
+            created.forEach(customer -> customer.setId(null));
+            if (Jdbc.isUniqueViolation(e)) {
+                throw new IllegalArgumentException("En eller flera email-adresser i batchen finns redan");
+            }
+            throw e;
+        }
+        logger.info("{} kunder sparade ({} nya)", customers.size(), created.size());
+        return new ArrayList<>(customers);
+    }
+
+    @Override
+    public void restoreAll(Collection<Customer> restored) {
+        saveAll(restored);
+    }
+
+    @Override
+    public void setJournal(RepositoryJournal journal) {
+        // Skrivningarna är redan beständiga i databasen
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        return jdbc.queryOne(SELECT + " WHERE id = ?", statement -> statement.setLong(1, id),
+                JdbcCustomerRepository::read);
+    }
+
+    @Override
+    public Optional<Customer> findByEmail(String email) {
+        return jdbc.queryOne(SELECT + " WHERE email = ?", statement -> statement.setString(1, email),
+                JdbcCustomerRepository::read);
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return jdbc.query(SELECT + " ORDER BY id", Jdbc.NO_PARAMETERS, JdbcCustomerRepository::read);
+    }
+
+    @Override
+    public Collection<Customer> findAllView() {
+        return Collections.unmodifiableList(findAll());
+    }
+
+    @Override
+    public void forEach(Consumer<? super Customer> action) {
+        jdbc.execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(SELECT + " ORDER BY id");
+                 ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    action.accept(read(resultSet));
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public List<Customer> findPageAfter(Long afterId, int limit) {
+        return jdbc.query(SELECT + " WHERE id > ? ORDER BY id LIMIT ?", statement -> {
+            statement.setLong(1, afterId != null ? afterId : Long.MIN_VALUE);
+            statement.setInt(2, limit);
+        }, JdbcCustomerRepository::read);
+    }
+
+    @Override
+    public List<Customer> findByNameContaining(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return new ArrayList<>();
+        }
+        return jdbc.query(SELECT + " WHERE LOWER(name) LIKE ? ORDER BY id",
+                statement -> statement.setString(1, Jdbc.contains(keyword.trim())), JdbcCustomerRepository::read);
+    }
+
+    /**
+     * Namnträffar före träffar i email, utan hänsyn till skiftläge
+     */
+    @Override
+    public List<Customer> search(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return new ArrayList<>();
+        }
+        String pattern = Jdbc.contains(keyword.trim());
+        return jdbc.query(SELECT + " " + """
+                 WHERE LOWER(name) LIKE ?1 OR LOWER(email) LIKE ?1
+                 ORDER BY CASE WHEN LOWER(name) LIKE ?1 THEN 0 ELSE 1 END, name, id""",
+                statement -> statement.setString(1, pattern), JdbcCustomerRepository::read);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return jdbc.queryLong("SELECT COUNT(*) FROM customers WHERE email = ?",
+                statement -> statement.setString(1, email)) > 0;
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return jdbc.existing("customers", "email", emails);
+    }
+
+    @Override
+    public void delete(Customer customer) {
+        jdbc.update("DELETE FROM customers WHERE id = ?", statement -> statement.setLong(1, customer.getId()));
+        logger.info("Kund raderad: {}", customer.getEmail());
+    }
+
+    @Override
+    public long count() {
+        return jdbc.queryLong("SELECT COUNT(*) FROM customers", Jdbc.NO_PARAMETERS);
+    }
+
+    @Override
+    public void deleteAll() {
+        jdbc.update("DELETE FROM customers", Jdbc.NO_PARAMETERS);
+        nextId.set(1L);
+        logger.info("Alla kunder raderade");
+    }
+
+    private static void bind(PreparedStatement statement, Customer customer) throws SQLException {
+        statement.setLong(1, customer.getId());
+        statement.setString(2, customer.getEmail());
+        statement.setString(3, customer.getName());
+        Jdbc.setTime(statement, 4, customer.getCreatedAt());
+    }
+
+    static Customer read(ResultSet resultSet) throws SQLException {
+        return read(resultSet, "");
+    }
+
+    static Customer read(ResultSet resultSet, String prefix) throws SQLException {
+        Customer customer = new Customer();
+        customer.setId(resultSet.getLong(prefix + "id"));
+        customer.setEmail(resultSet.getString(prefix + "email"));
+        customer.setName(resultSet.getString(prefix + "name"));
+        customer.setCreatedAt(Jdbc.getTime(resultSet, prefix + "created_at"));
+        return customer;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.repository;
+
+import com.example.model.Inventory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Lagersaldon i tabellen inventory. Inventory-objekten hålls kvar i en
+ * identitetskarta per produkt-id, eftersom tryReserve räknar med att alla
+ * trådar reserverar mot samma objekt; databasen får saldot när posten sparas.
+ */
+public class JdbcInventoryRepository implements InventoryRepository {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcInventoryRepository.class);
+
+    private static final String MERGE = "MERGE INTO inventory (product_id, in_stock) KEY (product_id) VALUES (?, ?)";
+    private static final String SELECT = "SELECT product_id, in_stock FROM inventory";
+
+    private final Jdbc jdbc;
+    private final ConcurrentHashMap<Long, Inventory> live = new ConcurrentHashMap<>();
+
+    public JdbcInventoryRepository(DataSource dataSource) {
+        this.jdbc = new Jdbc(dataSource);
+    }
+
+    /**
+     * Skriver saldot under produktens lås, så den sista skrivningen läser
+     * saldot efter alla tidigare reservationer
+     */
+    @Override
+    public Inventory save(Inventory inv) {
+        live.compute(inv.getProductId(), (id, existing) -> {
+            jdbc.update(MERGE, statement -> bind(statement, inv));
+            return inv;
+        });
+        logger.info("Lager uppdaterat för produkt {}: {} st", inv.getProductId(), inv.getInStock());
+        return inv;
+    }
+
+    /**
+     * Skriver varje rad under sin produkts lås, som save, så att en samtidig reservation
+     * inte kan skrivas över med ett äldre saldo. Raderna är ingen gemensam transaktion:
+     * misslyckas en rad är de tidigare redan skrivna, precis som deras levande objekt.
+     */
+    @Override
+    public List<Inventory> saveAll(Collection<Inventory> inventory) {
+        for (Inventory inv : inventory) {
+            live.compute(inv.getProductId(), (id, existing) -> {
+                jdbc.update(MERGE, statement -> bind(statement, inv));
+                return inv;
+            });
+        }
+        logger.info("{} lagerposter sparade", inventory.size());
+        return new ArrayList<>(inventory);
+    }
+
+    @Override
+    public void restoreAll(Collection<Inventory> restored) {
+        saveAll(restored);
+    }
+
+    @Override
+    public void setJournal(RepositoryJournal journal) {
+        // Saldot skrivs direkt till databasen
+    }
+
+    @Override
+    public Optional<Inventory> findByProductId(Long productId) {
+        Inventory cached = live.get(productId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return Optional.ofNullable(live.computeIfAbsent(productId, this::load));
+    }
+
+    /**
+     * Hämtar posten för produkten eller skapar en tom post i minnet. Raden
+     * skrivs först när posten sparas, som i minnesversionen där en ny post
+     * saknar betydelse tills den fylls på.
+     */
+    @Override
+    public Inventory findOrCreate(Long productId) {
+        return live.computeIfAbsent(productId, id -> {
+            Inventory loaded = load(id);
+            return loaded != null ? loaded : new Inventory(id, 0);
+        });
+    }
+
+    @Override
+    public List<Inventory> findAll() {
+        return toLive(jdbc.query(SELECT + " ORDER BY product_id", Jdbc.NO_PARAMETERS,
+                JdbcInventoryRepository::readRow));
+    }
+
+    @Override
+    public Collection<Inventory> findAllView() {
+        return Collections.unmodifiableList(findAll());
+    }
+
+    @Override
+    public void forEach(Consumer<? super Inventory> action) {
+        findAll().forEach(action);
+    }
+
+    @Override
+    public List<Inventory> findLowStock(int threshold) {
+        return toLive(jdbc.query(SELECT + " WHERE in_stock < ? ORDER BY product_id",
+                statement -> statement.setInt(1, threshold), JdbcInventoryRepository::readRow));
+    }
+
+    @Override
+    public void delete(Long productId) {
+        live.compute(productId, (id, existing) -> {
+            jdbc.update("DELETE FROM inventory WHERE product_id = ?", statement -> statement.setLong(1, id));
+            return null;
+        });
+        logger.info("Lagerpost raderad för produkt: {}", productId);
+    }
+
+    @Override
+    public void deleteAll() {
+        jdbc.update("DELETE FROM inventory", Jdbc.NO_PARAMETERS);
+        live.clear();
+        logger.info("Alla lagerposter raderade");
+    }
+
+    private static void bind(PreparedStatement statement, Inventory inv) throws SQLException {
+        statement.setLong(1, inv.getProductId());
+        statement.setInt(2, inv.getInStock());
+    }
+
+    /**
+     * Byter lästa rader mot de levande objekten; finns det redan ett gäller objektets saldo.
+     * En rad som inte har något objekt läses om under produktens lås, så att en samtidig
+     * delete inte väcks till liv igen av en rad som lästes innan den raderades.
+     */
+    private List<Inventory> toLive(List<Inventory> rows) {
+        List<Inventory> result = new ArrayList<>(rows.size());
+        for (Inventory row : rows) {
+            Inventory inv = live.get(row.getProductId());
+            if (inv == null) {
+                inv = live.computeIfAbsent(row.getProductId(), this::load);
+            }
+            if (inv != null) {
+                result.add(inv);
+            }
+        }
+        return result;
+    }
+
+    // Körs under produktens lås i live, null om raden saknas
+    private Inventory load(Long productId) {
+        return jdbc.queryOne(SELECT + " WHERE product_id = ?", statement -> statement.setLong(1, productId),
+                JdbcInventoryRepository::readRow).orElse(null);
+    }
+
+    private static Inventory readRow(ResultSet resultSet) throws SQLException {
+        return new Inventory(resultSet.getLong("product_id"), resultSet.getInt("in_stock"));
+    }
+}
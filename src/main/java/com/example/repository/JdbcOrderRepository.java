@@ -0,0 +1,442 @@
+package com.example.repository;
+
+import com.example.exception.DataAccessException;
+import com.example.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Ordrar i tabellen orders och deras rader i order_items. Status, kund och
+ * skapad-tidpunkt har egna index; topplistan och periodsummorna räknas av
+ * databasen med GROUP BY och SUM i stället för löpande i minnet.
+ * Kunder och produkter läses med join, så en order kommer alltid komplett.
+ */
+public class JdbcOrderRepository implements OrderRepository {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcOrderRepository.class);
+
+    private static final String MERGE = """
+            MERGE INTO orders (id, customer_id, status, created_at, total_cents) KEY (id)
+            VALUES (?, ?, ?, ?, ?)""";
+    private static final String INSERT_ITEM = """
+            INSERT INTO order_items (order_id, line_no, product_id, quantity, unit_cents)
+            VALUES (?, ?, ?, ?, ?)""";
+    private static final String DELETE_ITEMS = "DELETE FROM order_items WHERE order_id = ?";
+
+    private static final String SELECT = "SELECT o.id, o.status, o.created_at, "
+            + Jdbc.aliased(JdbcCustomerRepository.COLUMNS, "c", "c_")
+            + " FROM orders o LEFT JOIN customers c ON c.id = o.customer_id";
+    private static final String SELECT_ITEMS = "SELECT i.order_id, i.quantity, i.unit_cents, "
+            + Jdbc.aliased(JdbcProductRepository.COLUMNS, "p", "p_")
+            + " FROM order_items i JOIN products p ON p.id = i.product_id"
+            + " WHERE i.order_id = ANY(?) ORDER BY i.order_id, i.line_no";
+
+    private final Jdbc jdbc;
+    private final AtomicLong nextId;
+
+    // Kolumnkopian för rapporterna fylls från databasen första gången den behövs
+    private final OrderLineStore orderLines = new OrderLineStore();
+    private volatile boolean orderLinesLoaded;
+
+    private record Line(long orderId, int lineNo, OrderItem item) {
+    }
+
+    public JdbcOrderRepository(DataSource dataSource) {
+        this.jdbc = new Jdbc(dataSource);
+        this.nextId = new AtomicLong(jdbc.queryLong("SELECT COALESCE(MAX(id), 0) + 1 FROM orders", Jdbc.NO_PARAMETERS));
+    }
+
+    /**
+     * Skriver orderraden och ersätter alla dess rader i en transaktion
+     */
+    @Override
+    public Order save(Order order) {
+        boolean created = order.getId() == null;
+        if (created) {
+            order.setId(nextId.getAndIncrement());
+        } else {
+            nextId.accumulateAndGet(order.getId() + 1, Math::max);
+        }
+
+        try {
+            jdbc.inTransaction(connection -> {
+                Jdbc.update(connection, MERGE, statement -> bind(statement, order));
+                if (!created) {
+                    Jdbc.update(connection, DELETE_ITEMS, statement -> statement.setLong(1, order.getId()));
+                }
+                Jdbc.batch(connection, INSERT_ITEM, lines(List.of(order)), JdbcOrderRepository::bindLine);
+                return null;
+            });
+        } catch (DataAccessException e) {
+            if (created) {
+                order.setId(null);
+            }
+            throw e;
+        }
+        orderLines.upsert(order);
+        logger.info(created ? "Ny order skapad med ID: {}" : "Order uppdaterad med ID: {}", order.getId());
+        return order;
+    }
+
+    /**
+     * Alla ordrar och rader i en transaktion, med en batch för ordrarna och en för raderna
+     */
+    @Override
+    public List<Order> saveAll(Collection<Order> orders) {
+        List<Order> created = new ArrayList<>();
+        List<Order> existing = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.getId() == null) {
+                order.setId(nextId.getAndIncrement());
+                created.add(order);
+            } else {
+                nextId.accumulateAndGet(order.getId() + 1, Math::max);
+                existing.add(order);
+            }
+        }
+
+        try {
+            jdbc.inTransaction(connection -> {
+                Jdbc.batch(connection, MERGE, orders, JdbcOrderRepository::bind);
+                Jdbc.batch(connection, DELETE_ITEMS, existing,
+                        (statement, order) -> statement.setLong(1, order.getId()));
+                Jdbc.batch(connection, INSERT_ITEM, lines(orders), JdbcOrderRepository::bindLine);
+                return null;
+            });
+        } catch (DataAccessException e) {
+            created.forEach(order -> order.setId(null));
+            throw e;
+        }
+        for (Order order : orders) {
+            orderLines.upsert(order);
+        }
+        logger.info("{} ordrar sparade ({} nya)", orders.size(), created.size());
+        return new ArrayList<>(orders);
+    }
+
+    @Override
+    public void restoreAll(Collection<Order> restored) {
+        saveAll(restored);
+    }
+
+    @Override
+    public void setJournal(RepositoryJournal journal) {
+        // Ordrarna skrivs i transaktioner direkt i databasen
+    }
+
+    @Override
+    public Optional<Order> findById(Long id) {
+        List<Order> found = load(" WHERE o.id = ?", statement -> statement.setLong(1, id));
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return load(" ORDER BY o.id", Jdbc.NO_PARAMETERS);
+    }
+
+    /**
+     * Vyn läser ordrarna först när den itereras, en sida på BATCH_SIZE ordrar åt gången
+     */
+    @Override
+    public Collection<Order> findAllView() {
+        return new AllOrdersView();
+    }
+
+    /**
+     * Går igenom ordrarna i id-ordning direkt ur resultatet. Rader läses för
+     * BATCH_SIZE ordrar åt gången, så högst så många ordrar hålls i minnet.
+     */
+    @Override
+    public void forEach(Consumer<? super Order> action) {
+        jdbc.execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(SELECT + " ORDER BY o.id")) {
+                statement.setFetchSize(Jdbc.BATCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    List<Order> chunk = new ArrayList<>(Jdbc.BATCH_SIZE);
+                    Map<Long, Product> products = new HashMap<>();
+                    boolean more = resultSet.next();
+                    while (more) {
+                        chunk.add(read(resultSet));
+                        more = resultSet.next();
+                        if (chunk.size() == Jdbc.BATCH_SIZE || !more) {
+                            loadItems(connection, chunk, products);
+                            chunk.forEach(action);
+                            chunk.clear();
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        return load(" WHERE o.status = ? ORDER BY o.status, o.id", statement -> statement.setString(1, status.name()));
+    }
+
+    @Override
+    public List<Order> findPageAfter(Long afterId, int limit) {
+        return load(" WHERE o.id > ? ORDER BY o.id LIMIT ?", statement -> {
+            statement.setLong(1, afterId != null ? afterId : Long.MIN_VALUE);
+            statement.setInt(2, limit);
+        });
+    }
+
+    /**
+     * Sidan läses i indexet på (status, id). Status står med i ORDER BY för att
+     * H2 ska se att indexet redan ger rätt ordning och sluta efter limit rader.
+     */
+    @Override
+    public List<Order> findPageByStatusAfter(OrderStatus status, Long afterId, int limit) {
+        return load(" WHERE o.status = ? AND o.id > ? ORDER BY o.status, o.id LIMIT ?", statement -> {
+            statement.setString(1, status.name());
+            statement.setLong(2, afterId != null ? afterId : Long.MIN_VALUE);
+            statement.setInt(3, limit);
+        });
+    }
+
+    @Override
+    public List<Order> findByCustomerId(Long customerId) {
+        return load(" WHERE o.customer_id = ? ORDER BY o.customer_id, o.id", statement -> statement.setLong(1, customerId));
+    }
+
+    @Override
+    public List<Order> findByDateBetween(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            return new ArrayList<>();
+        }
+        return load(" WHERE o.created_at >= ? AND o.created_at < ? ORDER BY o.created_at, o.id", statement -> {
+            Jdbc.setTime(statement, 1, start.atStartOfDay());
+            Jdbc.setTime(statement, 2, end.plusDays(1).atStartOfDay());
+        });
+    }
+
+    @Override
+    public Map<Product, Long> findTopSellingProducts(int limit) {
+        String sql = "SELECT " + Jdbc.aliased(JdbcProductRepository.COLUMNS, "p", "p_") + """
+                , t.quantity FROM (
+                    SELECT i.product_id, SUM(i.quantity) AS quantity
+                    FROM order_items i JOIN orders o ON o.id = i.order_id
+                    WHERE o.status = 'PAID'
+                    GROUP BY i.product_id
+                    HAVING SUM(i.quantity) > 0) t
+                JOIN products p ON p.id = t.product_id
+                ORDER BY t.quantity DESC, p.id LIMIT ?""";
+        Map<Product, Long> result = new LinkedHashMap<>();
+        jdbc.query(sql, statement -> statement.setInt(1, limit), resultSet -> {
+            result.put(JdbcProductRepository.read(resultSet, "p_"), resultSet.getLong("quantity"));
+            return null;
+        });
+        return result;
+    }
+
+    @Override
+    public RevenueSummary summarizeBetween(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            return new RevenueSummary(0, 0, Money.ZERO);
+        }
+        String sql = """
+                SELECT COUNT(*),
+                       COUNT(CASE WHEN status = 'PAID' THEN 1 END),
+                       COALESCE(SUM(CASE WHEN status = 'PAID' THEN total_cents END), 0)
+                FROM orders WHERE created_at >= ? AND created_at < ?""";
+        return jdbc.queryOne(sql, statement -> {
+            Jdbc.setTime(statement, 1, start.atStartOfDay());
+            Jdbc.setTime(statement, 2, end.plusDays(1).atStartOfDay());
+        }, resultSet -> new RevenueSummary(resultSet.getLong(1), resultSet.getLong(2),
+                Money.ofCents(resultSet.getLong(3)))).orElseThrow();
+    }
+
+    @Override
+    public OrderLineStore orderLines() {
+        if (!orderLinesLoaded) {
+            synchronized (orderLines) {
+                if (!orderLinesLoaded) {
+                    // upsert av en order som redan finns skriver bara om status och dag
+                    forEach(orderLines::upsert);
+                    orderLinesLoaded = true;
+                }
+            }
+        }
+        return orderLines;
+    }
+
+    @Override
+    public void delete(Order order) {
+        jdbc.inTransaction(connection -> {
+            Jdbc.update(connection, DELETE_ITEMS, statement -> statement.setLong(1, order.getId()));
+            Jdbc.update(connection, "DELETE FROM orders WHERE id = ?", statement -> statement.setLong(1, order.getId()));
+            return null;
+        });
+        orderLines.markDeleted(order.getId());
+        logger.info("Order raderad: {}", order.getId());
+    }
+
+    @Override
+    public long count() {
+        return jdbc.queryLong("SELECT COUNT(*) FROM orders", Jdbc.NO_PARAMETERS);
+    }
+
+    @Override
+    public void deleteAll() {
+        jdbc.inTransaction(connection -> {
+            Jdbc.update(connection, "DELETE FROM order_items", Jdbc.NO_PARAMETERS);
+            Jdbc.update(connection, "DELETE FROM orders", Jdbc.NO_PARAMETERS);
+            return null;
+        });
+        orderLines.clear();
+        nextId.set(1L);
+        logger.info("Alla orders raderade");
+    }
+
+    /**
+     * Läser ordrarna som matchar villkoret och sedan deras rader, högst
+     * BATCH_SIZE ordrar per radfråga. Samma produkt blir samma objekt.
+     */
+    private List<Order> load(String condition, Jdbc.Binder binder) {
+        return jdbc.execute(connection -> {
+            List<Order> orders = Jdbc.query(connection, SELECT + condition, binder, JdbcOrderRepository::read);
+            Map<Long, Product> products = new HashMap<>();
+            for (int from = 0; from < orders.size(); from += Jdbc.BATCH_SIZE) {
+                loadItems(connection, orders.subList(from, Math.min(orders.size(), from + Jdbc.BATCH_SIZE)), products);
+            }
+            return orders;
+        });
+    }
+
+    private static void loadItems(Connection connection, List<Order> orders, Map<Long, Product> products)
+            throws SQLException {
+        Map<Long, Order> byId = new HashMap<>();
+        Map<Long, List<OrderItem>> items = new HashMap<>();
+        for (Order order : orders) {
+            byId.put(order.getId(), order);
+            items.put(order.getId(), new ArrayList<>());
+        }
+
+        Array ids = connection.createArrayOf("BIGINT", byId.keySet().toArray());
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_ITEMS)) {
+            statement.setArray(1, ids);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    long orderId = resultSet.getLong("order_id");
+                    Product product = products.get(resultSet.getLong("p_id"));
+                    if (product == null) {
+                        product = JdbcProductRepository.read(resultSet, "p_");
+                        products.put(product.getId(), product);
+                    }
+                    OrderItem item = new OrderItem();
+                    item.setProduct(product);
+                    item.setUnitPrice(Money.ofCents(resultSet.getLong("unit_cents")));
+                    item.setQuantity(resultSet.getInt("quantity"));
+                    item.setOrder(byId.get(orderId));
+                    items.get(orderId).add(item);
+                }
+            }
+        } finally {
+            ids.free();
+        }
+        for (Order order : orders) {
+            order.setItems(items.get(order.getId()));
+        }
+    }
+
+    private static List<Line> lines(Collection<Order> orders) {
+        List<Line> lines = new ArrayList<>();
+        for (Order order : orders) {
+            int lineNo = 0;
+            for (OrderItem item : order.getItems()) {
+                if (item.getProduct() != null && item.getProduct().getId() != null) {
+                    lines.add(new Line(order.getId(), lineNo++, item));
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static void bind(PreparedStatement statement, Order order) throws SQLException {
+        statement.setLong(1, order.getId());
+        Jdbc.setLongOrNull(statement, 2, order.getCustomer() != null ? order.getCustomer().getId() : null);
+        statement.setString(3, order.getStatus() != null ? order.getStatus().name() : null);
+        Jdbc.setTime(statement, 4, order.getCreatedAt());
+        statement.setLong(5, order.getTotal().cents());
+    }
+
+    private static void bindLine(PreparedStatement statement, Line line) throws SQLException {
+        OrderItem item = line.item();
+        statement.setLong(1, line.orderId());
+        statement.setInt(2, line.lineNo());
+        statement.setLong(3, item.getProduct().getId());
+        statement.setInt(4, item.getQuantity());
+        Jdbc.setLongOrNull(statement, 5, item.getUnitPrice() != null ? item.getUnitPrice().cents() : null);
+    }
+
+    /**
+     * Alla ordrar, lästa med keyset-sidor medan vyn itereras. Ändringar mellan
+     * två sidor syns, precis som i minnesrepositoryts vy.
+     */
+    private final class AllOrdersView extends AbstractCollection<Order> {
+        @Override
+        public Iterator<Order> iterator() {
+            return new Iterator<>() {
+                private Iterator<Order> page = Collections.emptyIterator();
+                private Long lastId;
+                private boolean lastPage;
+
+                @Override
+                public boolean hasNext() {
+                    if (!page.hasNext() && !lastPage) {
+                        List<Order> next = findPageAfter(lastId, Jdbc.BATCH_SIZE);
+                        lastPage = next.size() < Jdbc.BATCH_SIZE;
+                        if (!next.isEmpty()) {
+                            lastId = next.get(next.size() - 1).getId();
+                        }
+                        page = next.iterator();
+                    }
+                    return page.hasNext();
+                }
+
+                @Override
+                public Order next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return page.next();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return Math.toIntExact(count());
+        }
+
+        @Override
+        public void forEach(Consumer<? super Order> action) {
+            JdbcOrderRepository.this.forEach(action);
+        }
+    }
+
+    private static Order read(ResultSet resultSet) throws SQLException {
+        Order order = new Order();
+        order.setId(resultSet.getLong("id"));
+        String status = resultSet.getString("status");
+        order.setStatus(status != null ? OrderStatus.valueOf(status) : null);
+        order.setCreatedAt(Jdbc.getTime(resultSet, "created_at"));
+        if (resultSet.getObject("c_id") != null) {
+            order.setCustomer(JdbcCustomerRepository.read(resultSet, "c_"));
+        }
+        return order;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.repository;
+
+import com.example.exception.DataAccessException;
+import com.example.model.Order;
+import com.example.model.Payment;
+import com.example.model.PaymentMethod;
+import com.example.model.PaymentStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Betalningar i tabellen payments. Ordern hämtas via orderrepositoryt, så
+ * en betalning pekar på en komplett order med rader.
+ */
+public class JdbcPaymentRepository implements PaymentRepository {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcPaymentRepository.class);
+
+    private static final String MERGE = "MERGE INTO payments (id, order_id, method, status, paid_at) KEY (id) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT = "SELECT id, order_id, method, status, paid_at FROM payments";
+
+    private final Jdbc jdbc;
+    private final OrderRepository orderRepository;
+    private final AtomicLong nextId;
+
+    public JdbcPaymentRepository(DataSource dataSource, OrderRepository orderRepository) {
+        this.jdbc = new Jdbc(dataSource);
+        this.orderRepository = orderRepository;
+        this.nextId = new AtomicLong(jdbc.queryLong("SELECT COALESCE(MAX(id), 0) + 1 FROM payments", Jdbc.NO_PARAMETERS));
+    }
+
+    @Override
+    public Payment save(Payment payment) {
+        boolean created = payment.getId() == null;
+        if (created) {
+            payment.setId(nextId.getAndIncrement());
+        } else {
+            nextId.accumulateAndGet(payment.getId() + 1, Math::max);
+        }
+
+        try {
+            jdbc.update(MERGE, statement -> bind(statement, payment));
+        } catch (DataAccessException e) {
+            if (created) {
+                payment.setId(null);
+            }
+            throw e;
+        }
+        logger.info(created ? "Ny betalning skapad med ID: {}" : "Betalning uppdaterad med ID: {}", payment.getId());
+        return payment;
+    }
+
+    @Override
+    public void restoreAll(Collection<Payment> restored) {
+        long maxId = 0;
+        for (Payment payment : restored) {
+            maxId = Math.max(maxId, payment.getId());
+        }
+        jdbc.inTransaction(connection -> {
+            Jdbc.batch(connection, MERGE, restored, JdbcPaymentRepository::bind);
+            return null;
+        });
+        nextId.accumulateAndGet(maxId + 1, Math::max);
+        logger.info("{} betalningar inlästa", restored.size());
+    }
+
+    @Override
+    public void setJournal(RepositoryJournal journal) {
+        // Betalningarna är beständiga i databasen
+    }
+
+    @Override
+    public Optional<Payment> findById(Long id) {
+        return first(load(" WHERE id = ?", statement -> statement.setLong(1, id)));
+    }
+
+    /**
+     * Betalningen med lägst id för ordern, via indexet på (order_id, id)
+     */
+    @Override
+    public Optional<Payment> findByOrderId(Long orderId) {
+        return first(load(" WHERE order_id = ? ORDER BY id LIMIT 1", statement -> statement.setLong(1, orderId)));
+    }
+
+    @Override
+    public List<Payment> findAll() {
+        return load(" ORDER BY id", Jdbc.NO_PARAMETERS);
+    }
+
+    @Override
+    public Collection<Payment> findAllView() {
+        return Collections.unmodifiableList(findAll());
+    }
+
+    @Override
+    public void forEach(Consumer<? super Payment> action) {
+        findAll().forEach(action);
+    }
+
+    @Override
+    public List<Payment> findByStatus(PaymentStatus status) {
+        return load(" WHERE status = ? ORDER BY id", statement -> statement.setString(1, status.name()));
+    }
+
+    @Override
+    public void delete(Payment payment) {
+        jdbc.update("DELETE FROM payments WHERE id = ?", statement -> statement.setLong(1, payment.getId()));
+        logger.info("Betalning raderad: {}", payment.getId());
+    }
+
+    @Override
+    public void deleteAll() {
+        jdbc.update("DELETE FROM payments", Jdbc.NO_PARAMETERS);
+        nextId.set(1L);
+        logger.info("Alla betalningar raderade");
+    }
+
+    // Läser raderna först och slår sedan upp ordrarna, en gång per order-id
+    private List<Payment> load(String condition, Jdbc.Binder binder) {
+        Map<Long, Long> orderIds = new HashMap<>();
+        List<Payment> payments = jdbc.query(SELECT + condition, binder, resultSet -> {
+            Payment payment = read(resultSet);
+            long orderId = resultSet.getLong("order_id");
+            if (!resultSet.wasNull()) {
+                orderIds.put(payment.getId(), orderId);
+            }
+            return payment;
+        });
+
+        Map<Long, Optional<Order>> orders = new HashMap<>();
+        for (Payment payment : payments) {
+            Long orderId = orderIds.get(payment.getId());
+            if (orderId != null) {
+                orders.computeIfAbsent(orderId, orderRepository::findById).ifPresent(payment::setOrder);
+            }
+        }
+        return payments;
+    }
+
+    private static Optional<Payment> first(List<Payment> payments) {
+        return payments.isEmpty() ? Optional.empty() : Optional.of(payments.get(0));
+    }
+
+    private static void bind(PreparedStatement statement, Payment payment) throws SQLException {
+        statement.setLong(1, payment.getId());
+        Jdbc.setLongOrNull(statement, 2, payment.getOrder() != null ? payment.getOrder().getId() : null);
+        statement.setString(3, payment.getMethod() != null ? payment.getMethod().name() : null);
+        statement.setString(4, payment.getStatus() != null ? payment.getStatus().name() : null);
+        Jdbc.setTime(statement, 5, payment.getTimestamp());
+    }
+
+    private static Payment read(ResultSet resultSet) throws SQLException {
+        Payment payment = new Payment();
+        payment.setId(resultSet.getLong("id"));
+        String method = resultSet.getString("method");
+        payment.setMethod(method != null ? PaymentMethod.valueOf(method) : null);
+        String status = resultSet.getString("status");
+        payment.setStatus(status != null ? PaymentStatus.valueOf(status) : null);
+        payment.setTimestamp(Jdbc.getTime(resultSet, "paid_at"));
+        return payment;
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.repository;
+
+import com.example.exception.DataAccessException;
+import com.example.model.Money;
+import com.example.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Produkter i tabellen products. SKU-uppslag går via ett unikt index och
+ * sidvis listning via primärnyckeln. Sökningen är en LIKE-fråga utan hänsyn
+ * till skiftläge, men till skillnad från minnesversionen skiljer den på å/ä/ö och a/o.
+ */
+public class JdbcProductRepository implements ProductRepository {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcProductRepository.class);
+
+    static final String COLUMNS = "id, sku, name, description, price_cents, active, created_at";
+
+    private static final String MERGE = "MERGE INTO products (" + COLUMNS + ") KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM products";
+
+    private final Jdbc jdbc;
+    private final AtomicLong nextId;
+
+    public JdbcProductRepository(DataSource dataSource) {
+        this.jdbc = new Jdbc(dataSource);
+        this.nextId = new AtomicLong(jdbc.queryLong("SELECT COALESCE(MAX(id), 0) + 1 FROM products", Jdbc.NO_PARAMETERS));
+    }
+
+    @Override
+    public Product save(Product product) {
+        boolean created = product.getId() == null;
+        if (created) {
+            product.setId(nextId.getAndIncrement());
+        } else {
+            nextId.accumulateAndGet(product.getId() + 1, Math::max);
+        }
+
+        try {
+            jdbc.update(MERGE, statement -> bind(statement, product));
+        } catch (DataAccessException e) {
+            if (created) {
+                product.setId(null);
+            }
+            if (Jdbc.isUniqueViolation(e)) {
+                throw new IllegalArgumentException("Produkt med SKU " + product.getSku() + " finns redan");
+            }
+            throw e;
+        }
+        logger.info(created ? "Ny produkt skapad med ID: {}" : "Produkt uppdaterad med ID: {}", product.getId());
+        return product;
+    }
+
+    /**
+     * Alla produkter i en transaktion med batchade MERGE. Finns en SKU redan
+     * rullas hela batchen tillbaka och nya produkter får tillbaka id null.
+     */
+    @Override
+    public List<Product> saveAll(Collection<Product> products) {
+        List<Product> created = new ArrayList<>();
+        for (Product product : products) {
+            if (product.getId() == null) {
+                product.setId(nextId.getAndIncrement());
+                created.add(product);
+            } else {
+                nextId.accumulateAndGet(product.getId() + 1, Math::max);
+            }
+        }
+
+        try {
+            jdbc.inTransaction(connection -> {
+                Jdbc.batch(connection, MERGE, products, JdbcProductRepository::bind);
+                return null;
+            });
+        } catch (DataAccessException e) {
+            created.forEach(product -> product.setId(null));
+            if (Jdbc.isUniqueViolation(e)) {
+                throw new IllegalArgumentException("En eller flera SKU:er i batchen finns redan");
+            }
+            throw e;
+        }
+        logger.info("{} produkter sparade ({} nya)", products.size(), created.size());
+        return new ArrayList<>(products);
+    }
+
+    @Override
+    public void restoreAll(Collection<Product> restored) {
+        saveAll(restored);
+    }
+
+    /**
+     * Databasen är själv beständig, så ingen journal behövs
+     */
+    @Override
+    public void setJournal(RepositoryJournal journal) {
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return jdbc.queryOne(SELECT + " WHERE id = ?", statement -> statement.setLong(1, id),
+                JdbcProductRepository::read);
+    }
+
+    @Override
+    public Optional<Product> findBySku(String sku) {
+        return jdbc.queryOne(SELECT + " WHERE sku = ?", statement -> statement.setString(1, sku),
+                JdbcProductRepository::read);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return jdbc.query(SELECT + " ORDER BY id", Jdbc.NO_PARAMETERS, JdbcProductRepository::read);
+    }
+
+    /**
+     * En kopia även här, eftersom raderna måste läsas ur databasen
+     */
+    @Override
+    public Collection<Product> findAllView() {
+        return Collections.unmodifiableList(findAll());
+    }
+
+    @Override
+    public void forEach(Consumer<? super Product> action) {
+        jdbc.execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(SELECT + " ORDER BY id");
+                 ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    action.accept(read(resultSet));
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public List<Product> findPageAfter(Long afterId, int limit) {
+        return jdbc.query(SELECT + " WHERE id > ? ORDER BY id LIMIT ?", statement -> {
+            statement.setLong(1, afterId != null ? afterId : Long.MIN_VALUE);
+            statement.setInt(2, limit);
+        }, JdbcProductRepository::read);
+    }
+
+    @Override
+    public List<Product> findByNameContaining(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return new ArrayList<>();
+        }
+        return jdbc.query(SELECT + " WHERE LOWER(name) LIKE ? ORDER BY id",
+                statement -> statement.setString(1, Jdbc.contains(keyword.trim())), JdbcProductRepository::read);
+    }
+
+    /**
+     * Träffar i namnet först, sedan i SKU och sist i beskrivningen
+     */
+    @Override
+    public List<Product> search(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return new ArrayList<>();
+        }
+        String pattern = Jdbc.contains(keyword.trim());
+        return jdbc.query(SELECT + " " + """
+                 WHERE LOWER(name) LIKE ?1 OR LOWER(sku) LIKE ?1 OR LOWER(description) LIKE ?1
+                 ORDER BY CASE WHEN LOWER(name) LIKE ?1 THEN 0 WHEN LOWER(sku) LIKE ?1 THEN 1 ELSE 2 END, name, id""",
+                statement -> statement.setString(1, pattern), JdbcProductRepository::read);
+    }
+
+    @Override
+    public List<Product> findActiveByPrefix(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        String start = Jdbc.startsWith(prefix.trim());
+        return jdbc.query(SELECT + " " + """
+                 WHERE active AND (LOWER(sku) LIKE ?1 OR LOWER(name) LIKE ?1 OR LOWER(name) LIKE ?2)
+                 ORDER BY LOWER(name), id LIMIT ?3""", statement -> {
+            statement.setString(1, start);
+            statement.setString(2, "% " + start);
+            statement.setInt(3, limit);
+        }, JdbcProductRepository::read);
+    }
+
+    @Override
+    public Collection<Product> findByActive(boolean active) {
+        return jdbc.query(SELECT + " WHERE active = ? ORDER BY id",
+                statement -> statement.setBoolean(1, active), JdbcProductRepository::read);
+    }
+
+    @Override
+    public long countByActive(boolean active) {
+        return jdbc.queryLong("SELECT COUNT(*) FROM products WHERE active = ?",
+                statement -> statement.setBoolean(1, active));
+    }
+
+    @Override
+    public boolean existsBySku(String sku) {
+        return jdbc.queryLong("SELECT COUNT(*) FROM products WHERE sku = ?",
+                statement -> statement.setString(1, sku)) > 0;
+    }
+
+    /**
+     * En fråga för hela batchen, med SKU:erna som en array-parameter
+     */
+    @Override
+    public Set<String> findExistingSkus(Collection<String> skus) {
+        return jdbc.existing("products", "sku", skus);
+    }
+
+    @Override
+    public void delete(Product product) {
+        jdbc.update("DELETE FROM products WHERE id = ?", statement -> statement.setLong(1, product.getId()));
+        logger.info("Produkt raderad: {}", product.getSku());
+    }
+
+    @Override
+    public long count() {
+        return jdbc.queryLong("SELECT COUNT(*) FROM products", Jdbc.NO_PARAMETERS);
+    }
+
+    @Override
+    public void deleteAll() {
+        jdbc.update("DELETE FROM products", Jdbc.NO_PARAMETERS);
+        nextId.set(1L);
+        logger.info("Alla produkter raderade");
+    }
+
+    private static void bind(PreparedStatement statement, Product product) throws SQLException {
+        statement.setLong(1, product.getId());
+        statement.setString(2, product.getSku());
+        statement.setString(3, product.getName());
+        statement.setString(4, product.getDescription());
+        statement.setLong(5, product.getPrice() != null ? product.getPrice().cents() : 0);
+        statement.setBoolean(6, product.isActive());
+        Jdbc.setTime(statement, 7, product.getCreatedAt());
+    }
+
+    static Product read(ResultSet resultSet) throws SQLException {
+        return read(resultSet, "");
+    }
+
+    /**
+     * Läser en produkt vars kolumner har prefixet framför namnet, t.ex. p_id i en join
+     */
+    static Product read(ResultSet resultSet, String prefix) throws SQLException {
+        Product product = new Product();
+        product.setId(resultSet.getLong(prefix + "id"));
+        product.setSku(resultSet.getString(prefix + "sku"));
+        product.setName(resultSet.getString(prefix + "name"));
+        product.setDescription(resultSet.getString(prefix + "description"));
+        product.setPrice(Money.ofCents(resultSet.getLong(prefix + "price_cents")));
+        product.setActive(resultSet.getBoolean(prefix + "active"));
+        product.setCreatedAt(Jdbc.getTime(resultSet, prefix + "created_at"));
+        return product;
+    }
+}
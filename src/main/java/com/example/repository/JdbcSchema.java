@@ -0,0 +1,99 @@
+package com.example.repository;
+
+import com.example.exception.DataAccessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Tabeller och index för JDBC-repositoryna (H2). Skapas om de saknas, så det går
+ * att köra create vid varje start. Id sätts av repositoryna, inte av databasen,
+ * så att en batch kan få sina id innan den skickas.
+ */
+public final class JdbcSchema {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcSchema.class);
+
+    private static final String[] STATEMENTS = {
+            """
+            CREATE TABLE IF NOT EXISTS products (
+                id BIGINT PRIMARY KEY,
+                sku VARCHAR(255) NOT NULL,
+                name VARCHAR(1000),
+                description VARCHAR(4000),
+                price_cents BIGINT NOT NULL,
+                active BOOLEAN NOT NULL,
+                created_at TIMESTAMP(9))""",
+            "CREATE UNIQUE INDEX IF NOT EXISTS products_sku ON products(sku)",
+            "CREATE INDEX IF NOT EXISTS products_active ON products(active, id)",
+            """
+            CREATE TABLE IF NOT EXISTS customers (
+                id BIGINT PRIMARY KEY,
+                email VARCHAR(255) NOT NULL,
+                name VARCHAR(1000),
+                created_at TIMESTAMP(9))""",
+            "CREATE UNIQUE INDEX IF NOT EXISTS customers_email ON customers(email)",
+            """
+            CREATE TABLE IF NOT EXISTS inventory (
+                product_id BIGINT PRIMARY KEY,
+                in_stock INT NOT NULL)""",
+            "CREATE INDEX IF NOT EXISTS inventory_in_stock ON inventory(in_stock)",
+            """
+            CREATE TABLE IF NOT EXISTS orders (
+                id BIGINT PRIMARY KEY,
+                customer_id BIGINT,
+                status VARCHAR(20),
+                created_at TIMESTAMP(9),
+                total_cents BIGINT NOT NULL)""",
+            "CREATE INDEX IF NOT EXISTS orders_status ON orders(status, id)",
+            "CREATE INDEX IF NOT EXISTS orders_customer ON orders(customer_id, id)",
+            "CREATE INDEX IF NOT EXISTS orders_created_at ON orders(created_at)",
+            """
+            CREATE TABLE IF NOT EXISTS order_items (
+                order_id BIGINT NOT NULL,
+                line_no INT NOT NULL,
+                product_id BIGINT NOT NULL,
+                quantity INT NOT NULL,
+                unit_cents BIGINT,
+                PRIMARY KEY (order_id, line_no))""",
+            "CREATE INDEX IF NOT EXISTS order_items_product ON order_items(product_id)",
+            """
+            CREATE TABLE IF NOT EXISTS payments (
+                id BIGINT PRIMARY KEY,
+                order_id BIGINT,
+                method VARCHAR(20),
+                status VARCHAR(20),
+                paid_at TIMESTAMP(9))""",
+            "CREATE INDEX IF NOT EXISTS payments_order ON payments(order_id, id)",
+            "CREATE INDEX IF NOT EXISTS payments_status ON payments(status)",
+            """
+            CREATE TABLE IF NOT EXISTS categories (
+                id BIGINT PRIMARY KEY,
+                name VARCHAR(255) NOT NULL,
+                name_key VARCHAR(255) NOT NULL)""",
+            "CREATE UNIQUE INDEX IF NOT EXISTS categories_name_key ON categories(name_key)",
+            """
+            CREATE TABLE IF NOT EXISTS category_products (
+                category_id BIGINT NOT NULL,
+                product_id BIGINT NOT NULL,
+                PRIMARY KEY (category_id, product_id))"""
+    };
+
+    private JdbcSchema() {
+    }
+
+    public static void create(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : STATEMENTS) {
+                statement.execute(sql);
+            }
+            logger.info("Databasschema kontrollerat ({} satser)", STATEMENTS.length);
+        } catch (SQLException e) {
+            throw new DataAccessException("Kunde inte skapa databasschemat", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+
+/**
+ * Keyset-paginering över ett sorterat id-index: sidan börjar direkt efter
+ * föregående sidas sista id, så kostnaden är O(log n + sidstorlek) oavsett
+ * hur långt in i listan man bläddrat.
+ */
+final class KeysetPage {
+
+    private KeysetPage() {
+    }
+
+    /**
+     * Upp till limit värden med id större än afterId, i id-ordning. afterId null ger första sidan.
+     */
+    static <T> List<T> after(NavigableSet<Long> ids, Map<Long, T> values, Long afterId, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        NavigableSet<Long> tail = afterId == null ? ids : ids.tailSet(afterId, false);
+        List<T> result = new ArrayList<>(Math.min(limit, 1024));
+        for (Long id : tail) {
+            T value = values.get(id);
+            // Id:t kan ha raderats mellan indexet och kartan
+            if (value != null) {
+                result.add(value);
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,401 @@
+package com.example.repository;
+
+import com.example.model.Order;
+import com.example.model.OrderItem;
+import com.example.model.OrderStatus;
+import com.example.model.Product;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Orderrader lagrade kolumnvis i parallella primitiva arrayer, för analysfrågor
+ * som skannar alla rader i en tät loop i stället för att följa Order → OrderItem → Product.
+ * Rader läggs bara till. Status och dag ligger i sidor om PAGE_SIZE rader; när en order
+ * sparas om kopieras de berörda sidorna och publiceras tillsammans med nya kolumner, så
+ * en publicerad rad ändras aldrig. Skrivningar synkroniseras, läsare arbetar mot en
+ * ögonblicksbild av kolumnerna.
+ * En order utan rader får en platshållarrad med produkt -1 och antal 0, så att den
+ * ändå räknas per status men inte bidrar till några summor.
+ * Produkt-id slås upp till Product via en ordbok som fylls när rader läggs till.
+ */
+public class OrderLineStore {
+    private static final byte DELETED = -1;
+    private static final int NO_DAY = Integer.MIN_VALUE;
+    private static final byte PAID = (byte) OrderStatus.PAID.ordinal();
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int PAGE_SHIFT = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    // Radintervall per order-id: {första raden, antal rader}
+    private final Map<Long, int[]> linesByOrder = new HashMap<>();
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY, 0);
+    private volatile Product[] products = new Product[INITIAL_CAPACITY];
+
+    /**
+     * Kolumnerna och antalet använda rader. Växer genom att kopieras till en ny instans.
+     * Rader under size ändras aldrig i en publicerad instans; status och dag skrivs om
+     * via withRewritten, som kopierar sidorna i stället för att skriva i dem.
+     */
+    private static final class Columns {
+        final long[] orderId;
+        final int[] productId;
+        final int[] customerId;
+        final int[] quantity;
+        final long[] unitCents;
+        final int[][] epochDay;
+        final byte[][] status;
+        final int size;
+
+        Columns(int capacity, int size) {
+            this(new long[capacity], new int[capacity], new int[capacity], new int[capacity],
+                    new long[capacity], new int[0][], new byte[0][], size);
+        }
+
+        Columns(long[] orderId, int[] productId, int[] customerId, int[] quantity,
+                long[] unitCents, int[][] epochDay, byte[][] status, int size) {
+            this.orderId = orderId;
+            this.productId = productId;
+            this.customerId = customerId;
+            this.quantity = quantity;
+            this.unitCents = unitCents;
+            this.epochDay = epochDay;
+            this.status = status;
+            this.size = size;
+        }
+
+        int epochDay(int row) {
+            return epochDay[row >>> PAGE_SHIFT][row & PAGE_MASK];
+        }
+
+        byte status(int row) {
+            return status[row >>> PAGE_SHIFT][row & PAGE_MASK];
+        }
+
+        /**
+         * Sätter status och dag för en ny rad, som ännu inte syns för någon läsare
+         */
+        void append(int row, byte rowStatus, int day) {
+            status[row >>> PAGE_SHIFT][row & PAGE_MASK] = rowStatus;
+            epochDay[row >>> PAGE_SHIFT][row & PAGE_MASK] = day;
+        }
+
+        Columns withSize(int newSize) {
+            int pages = (newSize + PAGE_MASK) >>> PAGE_SHIFT;
+            int[][] days = epochDay;
+            byte[][] statuses = status;
+            if (pages > status.length) {
+                days = Arrays.copyOf(epochDay, pages);
+                statuses = Arrays.copyOf(status, pages);
+                for (int page = status.length; page < pages; page++) {
+                    days[page] = new int[PAGE_SIZE];
+                    statuses[page] = new byte[PAGE_SIZE];
+                }
+            }
+
+            int capacity = orderId.length;
+            if (newSize <= capacity) {
+                return new Columns(orderId, productId, customerId, quantity, unitCents, days, statuses, newSize);
+            }
+            int grown = Math.max(newSize, capacity + (capacity >> 1));
+            return new Columns(Arrays.copyOf(orderId, grown), Arrays.copyOf(productId, grown),
+                    Arrays.copyOf(customerId, grown), Arrays.copyOf(quantity, grown),
+                    Arrays.copyOf(unitCents, grown), days, statuses, newSize);
+        }
+
+        /**
+         * Ny instans där raderna [from, to) har fått status och, om day inte är null, dag.
+         * Bara sidorna som rör intervallet kopieras.
+         */
+        Columns withRewritten(int from, int to, byte rowStatus, Integer day) {
+            byte[][] statuses = status.clone();
+            int[][] days = day != null ? epochDay.clone() : epochDay;
+            for (int page = from >>> PAGE_SHIFT; page <= (to - 1) >>> PAGE_SHIFT; page++) {
+                int start = Math.max(from, page << PAGE_SHIFT) & PAGE_MASK;
+                int end = Math.min(to - (page << PAGE_SHIFT), PAGE_SIZE);
+                statuses[page] = statuses[page].clone();
+                Arrays.fill(statuses[page], start, end, rowStatus);
+                if (day != null) {
+                    days[page] = days[page].clone();
+                    Arrays.fill(days[page], start, end, day);
+                }
+            }
+            return new Columns(orderId, productId, customerId, quantity, unitCents, days, statuses, size);
+        }
+    }
+
+    /**
+     * Lägger till orderns rader första gången den sparas, annars uppdateras status och dag.
+     */
+    synchronized void upsert(Order order) {
+        byte status = order.getStatus() != null ? (byte) order.getStatus().ordinal() : DELETED;
+        int day = order.getCreatedAt() != null ? (int) order.getCreatedAt().toLocalDate().toEpochDay() : NO_DAY;
+
+        int[] range = linesByOrder.get(order.getId());
+        if (range != null) {
+            columns = columns.withRewritten(range[0], range[0] + range[1], status, day);
+            return;
+        }
+
+        int start = columns.size;
+        int count = order.getItems().size();
+        int rows = Math.max(count, 1);
+        Columns next = columns.withSize(start + rows);
+        int customerId = order.getCustomer() != null ? toInt(order.getCustomer().getId()) : -1;
+        for (int i = 0; i < rows; i++) {
+            OrderItem item = i < count ? order.getItems().get(i) : null;
+            int row = start + i;
+            next.orderId[row] = order.getId();
+            next.productId[row] = item != null && item.getProduct() != null ? register(item.getProduct()) : -1;
+            next.customerId[row] = customerId;
+            next.quantity[row] = item != null ? item.getQuantity() : 0;
+            next.unitCents[row] = item != null && item.getUnitPrice() != null ? item.getUnitPrice().cents() : 0;
+            next.append(row, status, day);
+        }
+        linesByOrder.put(order.getId(), new int[]{start, rows});
+        columns = next;
+    }
+
+    synchronized void markDeleted(Long orderId) {
+        int[] range = linesByOrder.remove(orderId);
+        if (range != null) {
+            columns = columns.withRewritten(range[0], range[0] + range[1], DELETED, null);
+        }
+    }
+
+    synchronized void clear() {
+        linesByOrder.clear();
+        columns = new Columns(INITIAL_CAPACITY, 0);
+        products = new Product[INITIAL_CAPACITY];
+    }
+
+    public int size() {
+        return columns.size;
+    }
+
+    public Product product(long productId) {
+        Product[] dictionary = products;
+        return productId >= 0 && productId < dictionary.length ? dictionary[(int) productId] : null;
+    }
+
+    /**
+     * Fast vy av raderna som finns just nu, så att flera trådar kan dela upp samma data
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(columns, products.length);
+    }
+
+    public static final class Snapshot {
+        private final Columns c;
+        private final int productSlots;
+
+        private Snapshot(Columns columns, int productSlots) {
+            this.c = columns;
+            this.productSlots = productSlots;
+        }
+
+        public int size() {
+            return c.size;
+        }
+
+        /**
+         * Tomma summor med plats för alla produkter i ögonblicksbilden
+         */
+        public PeriodTotals newTotals() {
+            return new PeriodTotals(productSlots);
+        }
+
+        /**
+         * Summerar raderna [fromRow, toRow) för ordrar skapade mellan fromDay och toDay (epoch-dagar, inklusive)
+         */
+        public PeriodTotals aggregate(int fromRow, int toRow, long fromDay, long toDay) {
+            return aggregateInto(newTotals(), fromRow, toRow, fromDay, toDay);
+        }
+
+        /**
+         * Som aggregate, men lägger till i totals. totals ska komma från newTotals på samma ögonblicksbild.
+         */
+        public PeriodTotals aggregateInto(PeriodTotals totals, int fromRow, int toRow, long fromDay, long toDay) {
+            for (int i = fromRow; i < toRow; i++) {
+                int day = c.epochDay(i);
+                byte status = c.status(i);
+                if (status < 0 || day < fromDay || day > toDay) {
+                    continue;
+                }
+                // En orders rader ligger i följd, så första raden räknar ordern
+                if (i == 0 || c.orderId[i - 1] != c.orderId[i]) {
+                    totals.ordersByStatus[status]++;
+                }
+                if (status == PAID) {
+                    long cents = c.unitCents[i] * c.quantity[i];
+                    totals.revenueCents += cents;
+                    int productId = c.productId[i];
+                    if (productId >= 0) {
+                        totals.quantityByProduct[productId] += c.quantity[i];
+                        totals.revenueByProduct[productId] += cents;
+                    }
+                }
+            }
+            return totals;
+        }
+    }
+
+    /**
+     * Delsummor för en period. Allt är heltal, så sammanslagningens ordning påverkar inte resultatet.
+     */
+    public static final class PeriodTotals {
+        private long revenueCents;
+        private final long[] ordersByStatus = new long[STATUSES.length];
+        private final long[] quantityByProduct;
+        private final long[] revenueByProduct;
+
+        private PeriodTotals(int productSlots) {
+            this.quantityByProduct = new long[productSlots];
+            this.revenueByProduct = new long[productSlots];
+        }
+
+        public PeriodTotals merge(PeriodTotals other) {
+            revenueCents += other.revenueCents;
+            for (int i = 0; i < ordersByStatus.length; i++) {
+                ordersByStatus[i] += other.ordersByStatus[i];
+            }
+            for (int i = 0; i < quantityByProduct.length; i++) {
+                quantityByProduct[i] += other.quantityByProduct[i];
+                revenueByProduct[i] += other.revenueByProduct[i];
+            }
+            return this;
+        }
+
+        public long revenueCents() {
+            return revenueCents;
+        }
+
+        public long ordersWithStatus(OrderStatus status) {
+            return ordersByStatus[status.ordinal()];
+        }
+
+        public int productSlots() {
+            return quantityByProduct.length;
+        }
+
+        public long quantityForProduct(int productId) {
+            return quantityByProduct[productId];
+        }
+
+        public long revenueCentsForProduct(int productId) {
+            return productId >= 0 && productId < revenueByProduct.length ? revenueByProduct[productId] : 0;
+        }
+    }
+
+    /**
+     * Sålt antal per produkt-id i PAID-ordrar, mest sålda först
+     */
+    public Map<Long, Long> topProducts(int limit) {
+        Columns c = columns;
+        long[] sold = new long[maxId(c.productId, c.size) + 1];
+        for (int i = 0; i < c.size; i++) {
+            if (c.status(i) == PAID && c.productId[i] >= 0) {
+                sold[c.productId[i]] += c.quantity[i];
+            }
+        }
+
+        // Minsta först, så heapen håller de limit största
+        PriorityQueue<Integer> top = new PriorityQueue<>((a, b) -> Long.compare(sold[a], sold[b]));
+        for (int id = 0; id < sold.length; id++) {
+            if (sold[id] == 0) {
+                continue;
+            }
+            top.add(id);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        Integer[] ids = top.toArray(new Integer[0]);
+        Arrays.sort(ids, (a, b) -> Long.compare(sold[b], sold[a]));
+        Map<Long, Long> result = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            result.put((long) id, sold[id]);
+        }
+        return result;
+    }
+
+    /**
+     * PAID-omsättning i ören för rader vars order skapades mellan start och end (inklusive)
+     */
+    public long revenueCents(LocalDate start, LocalDate end) {
+        Columns c = columns;
+        long from = start.toEpochDay();
+        long to = end.toEpochDay();
+        long sum = 0;
+        for (int i = 0; i < c.size; i++) {
+            int day = c.epochDay(i);
+            if (c.status(i) == PAID && day >= from && day <= to) {
+                sum += c.unitCents[i] * c.quantity[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * PAID-omsättning i ören per kund-id, indexerat på kund-id
+     */
+    public long[] revenueCentsByCustomer() {
+        Columns c = columns;
+        long[] revenue = new long[maxId(c.customerId, c.size) + 1];
+        for (int i = 0; i < c.size; i++) {
+            if (c.status(i) == PAID && c.customerId[i] >= 0) {
+                revenue[c.customerId[i]] += c.unitCents[i] * c.quantity[i];
+            }
+        }
+        return revenue;
+    }
+
+    /**
+     * PAID-omsättning i ören för en kund
+     */
+    public long revenueCentsForCustomer(Long customerId) {
+        Columns c = columns;
+        int id = toInt(customerId);
+        long sum = 0;
+        for (int i = 0; i < c.size; i++) {
+            if (c.customerId[i] == id && c.status(i) == PAID) {
+                sum += c.unitCents[i] * c.quantity[i];
+            }
+        }
+        return sum;
+    }
+
+    private int register(Product product) {
+        int id = toInt(product.getId());
+        if (id < 0) {
+            return -1;
+        }
+        Product[] dictionary = products;
+        if (id >= dictionary.length) {
+            dictionary = Arrays.copyOf(dictionary, Math.max(id + 1, dictionary.length * 2));
+        }
+        dictionary[id] = product;
+        products = dictionary;
+        return id;
+    }
+
+    private static int maxId(int[] ids, int size) {
+        int max = -1;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, ids[i]);
+        }
+        return max;
+    }
+
+    private static int toInt(Long id) {
+        return id != null ? Math.toIntExact(id) : -1;
+    }
+}
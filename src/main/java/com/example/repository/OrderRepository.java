@@ -2,72 +2,83 @@ package com.example.repository;
 
 import com.example.model.Order;
 import com.example.model.OrderStatus;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.example.model.Product;
+import com.example.model.RevenueSummary;
 
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
-public class OrderRepository {
-    private static final Logger logger = LoggerFactory.getLogger(OrderRepository.class);
+/**
+ * Lagring av ordrar med rader, plus de sammanställningar som rapporterna behöver
+ */
+public interface OrderRepository {
 
-    private final Map<Long, Order> orders = new HashMap<>();
-    private Long nextId = 1L;
+    Order save(Order order);
 
-    public Order save(Order order) {
-        if (order.getId() == null) {
-            order.setId(nextId++);
-            logger.info("Ny order skapad med ID: {}", order.getId());
-        } else {
-            logger.info("Order uppdaterad med ID: {}", order.getId());
+    /**
+     * Sparar flera ordrar, som standard en i taget via save
+     */
+    default List<Order> saveAll(Collection<Order> orders) {
+        List<Order> saved = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            saved.add(save(order));
         }
-
-        orders.put(order.getId(), order);
-        return order;
+        return saved;
     }
 
-    public Optional<Order> findById(Long id) {
-        return Optional.ofNullable(orders.get(id));
-    }
+    /**
+     * Lägger in ordrar som redan har id. Kunder och produkter ska redan vara inlästa.
+     */
+    void restoreAll(Collection<Order> restored);
 
-    public List<Order> findAll() {
-        return new ArrayList<>(orders.values());
-    }
+    void setJournal(RepositoryJournal journal);
 
-    public List<Order> findByStatus(OrderStatus status) {
-        return orders.values().stream()
-                .filter(o -> o.getStatus() == status)
-                .collect(Collectors.toList());
-    }
+    Optional<Order> findById(Long id);
 
-    public List<Order> findByCustomerId(Long customerId) {
-        return orders.values().stream()
-                .filter(o -> o.getCustomer().getId().equals(customerId))
-                .collect(Collectors.toList());
-    }
+    List<Order> findAll();
 
-    public List<Order> findByDateBetween(LocalDate start, LocalDate end) {
-        return orders.values().stream()
-                .filter(o -> {
-                    LocalDate orderDate = o.getCreatedAt().toLocalDate();
-                    return !orderDate.isBefore(start) && !orderDate.isAfter(end);
-                })
-                .collect(Collectors.toList());
-    }
+    Collection<Order> findAllView();
 
-    public void delete(Order order) {
-        orders.remove(order.getId());
-        logger.info("Order raderad: {}", order.getId());
-    }
+    void forEach(Consumer<? super Order> action);
 
-    public long count() {
-        return orders.size();
-    }
+    List<Order> findByStatus(OrderStatus status);
 
-    public void deleteAll() {
-        orders.clear();
-        nextId = 1L;
-        logger.info("Alla orders raderade");
-    }
-}
\ No newline at end of file
+    /**
+     * Ordrar i id-ordning efter afterId, högst limit stycken (afterId null = från början)
+     */
+    List<Order> findPageAfter(Long afterId, int limit);
+
+    /**
+     * Som findPageAfter men bara ordrar med given status
+     */
+    List<Order> findPageByStatusAfter(OrderStatus status, Long afterId, int limit);
+
+    List<Order> findByCustomerId(Long customerId);
+
+    /**
+     * Ordrar skapade mellan start och end, båda dagarna inräknade
+     */
+    List<Order> findByDateBetween(LocalDate start, LocalDate end);
+
+    /**
+     * De mest sålda produkterna i PAID-ordrar, mest sålda först
+     */
+    Map<Product, Long> findTopSellingProducts(int limit);
+
+    /**
+     * Antal ordrar samt antal och omsättning för PAID-ordrar skapade mellan start och end (inklusive)
+     */
+    RevenueSummary summarizeBetween(LocalDate start, LocalDate end);
+
+    /**
+     * Orderraderna i kolumnform, för rapporter som skannar allt
+     */
+    OrderLineStore orderLines();
+
+    void delete(Order order);
+
+    long count();
+
+    void deleteAll();
+}
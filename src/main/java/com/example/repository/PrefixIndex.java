@@ -0,0 +1,69 @@
+package com.example.repository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorterat index för prefixsökning (type-ahead). Varje id lagras under sina
+ * normaliserade termer; ett prefix slås upp med en binärsökning i skiplistan och
+ * de första träffarna läses i ordning, så kostnaden är O(log n + k).
+ */
+class PrefixIndex {
+    // Nyckel: term + '\0' + id, så att flera id kan ha samma term
+    private final ConcurrentSkipListMap<String, Long> entries = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<Long, List<String>> keysById = new ConcurrentHashMap<>();
+
+    /**
+     * Ersätter id:ts termer. Körs under id:ts lås i keysById.
+     */
+    void put(Long id, Collection<String> terms) {
+        keysById.compute(id, (key, previous) -> {
+            if (previous != null) {
+                previous.forEach(entries::remove);
+            }
+            List<String> keys = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                String normalized = TrigramIndex.normalize(term);
+                if (!normalized.isEmpty()) {
+                    String entry = normalized + '\0' + id;
+                    entries.put(entry, id);
+                    keys.add(entry);
+                }
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    void remove(Long id) {
+        keysById.computeIfPresent(id, (key, previous) -> {
+            previous.forEach(entries::remove);
+            return null;
+        });
+    }
+
+    void clear() {
+        entries.clear();
+        keysById.clear();
+    }
+
+    /**
+     * Upp till limit olika id vars termer börjar med prefixet, i termordning
+     */
+    List<Long> findByPrefix(String prefix, int limit) {
+        String normalized = TrigramIndex.normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> result = new LinkedHashSet<>();
+        for (Long id : entries.subMap(normalized, true, normalized + Character.MAX_VALUE, false).values()) {
+            result.add(id);
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(result);
+    }
+}
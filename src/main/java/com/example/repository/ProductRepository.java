@@ -1,74 +1,96 @@
 package com.example.repository;
 
 import com.example.model.Product;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
-public class ProductRepository {
-    private static final Logger logger = LoggerFactory.getLogger(ProductRepository.class);
+/**
+ * Lagring av produkter. SKU är unik; save kastar IllegalArgumentException om en
+ * annan produkt redan har samma SKU.
+ */
+public interface ProductRepository {
 
-    private final Map<Long, Product> products = new HashMap<>();
-    private final Map<String, Product> productsBySku = new HashMap<>();
-    private Long nextId = 1L;
+    Product save(Product product);
 
-    public Product save(Product product) {
-        if (product.getId() == null) {
-            product.setId(nextId++);
-            logger.info("Ny produkt skapad med ID: {}", product.getId());
-        } else {
-            logger.info("Produkt uppdaterad med ID: {}", product.getId());
+    /**
+     * Sparar flera produkter på en gång. Implementationer kan göra det i en enda
+     * omgång mot lagringen; standardversionen anropar save för varje produkt.
+     */
+    default List<Product> saveAll(Collection<Product> products) {
+        List<Product> saved = new ArrayList<>(products.size());
+        for (Product product : products) {
+            saved.add(save(product));
         }
-
-        products.put(product.getId(), product);
-        productsBySku.put(product.getSku(), product);
-        return product;
+        return saved;
     }
 
-    public Optional<Product> findById(Long id) {
-        return Optional.ofNullable(products.get(id));
-    }
+    /**
+     * Lägger in produkter som redan har id och unika SKU:er, t.ex. från en snapshot
+     */
+    void restoreAll(Collection<Product> restored);
 
-    public Optional<Product> findBySku(String sku) {
-        return Optional.ofNullable(productsBySku.get(sku));
-    }
+    /**
+     * Kopplar in en journal som får alla ändringar
+     */
+    void setJournal(RepositoryJournal journal);
 
-    public List<Product> findAll() {
-        return new ArrayList<>(products.values());
-    }
+    Optional<Product> findById(Long id);
 
-    public List<Product> findByNameContaining(String keyword) {
-        return products.values().stream()
-                .filter(p -> p.getName().toLowerCase().contains(keyword.toLowerCase()))
-                .collect(Collectors.toList());
-    }
+    Optional<Product> findBySku(String sku);
 
-    public List<Product> findByActive(boolean active) {
-        return products.values().stream()
-                .filter(p -> p.isActive() == active)
-                .collect(Collectors.toList());
-    }
+    List<Product> findAll();
 
-    public boolean existsBySku(String sku) {
-        return productsBySku.containsKey(sku);
-    }
+    /**
+     * Alla produkter som en skrivskyddad samling, utan kopia där lagringen tillåter det
+     */
+    Collection<Product> findAllView();
 
-    public void delete(Product product) {
-        products.remove(product.getId());
-        productsBySku.remove(product.getSku());
-        logger.info("Produkt raderad: {}", product.getSku());
-    }
+    void forEach(Consumer<? super Product> action);
 
-    public long count() {
-        return products.size();
-    }
+    /**
+     * Nästa sida produkter sorterade på id, med id större än afterId (null = första sidan)
+     */
+    List<Product> findPageAfter(Long afterId, int limit);
+
+    List<Product> findByNameContaining(String keyword);
 
-    public void deleteAll() {
-        products.clear();
-        productsBySku.clear();
-        nextId = 1L;
-        logger.info("Alla produkter raderade");
+    /**
+     * Sök i namn, SKU och beskrivning, bästa träff först
+     */
+    List<Product> search(String keyword);
+
+    /**
+     * Aktiva produkter vars SKU, namn eller något ord i namnet börjar med prefixet
+     */
+    List<Product> findActiveByPrefix(String prefix, int limit);
+
+    /**
+     * Aktiva eller inaktiva produkter sorterade på id
+     */
+    Collection<Product> findByActive(boolean active);
+
+    long countByActive(boolean active);
+
+    boolean existsBySku(String sku);
+
+    /**
+     * De av SKU:erna som redan finns, så att en hel batch kan kontrolleras mot
+     * dubbletter på en gång. Standardversionen frågar en SKU i taget.
+     */
+    default Set<String> findExistingSkus(Collection<String> skus) {
+        Set<String> existing = new HashSet<>();
+        for (String sku : skus) {
+            if (existsBySku(sku)) {
+                existing.add(sku);
+            }
+        }
+        return existing;
     }
-}
\ No newline at end of file
+
+    void delete(Product product);
+
+    long count();
+
+    void deleteAll();
+}
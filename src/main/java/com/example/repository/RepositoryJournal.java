@@ -0,0 +1,28 @@
+package com.example.repository;
+
+/**
+ * Mottagare av alla ändringar i repositoryna, t.ex. en write-ahead-logg.
+ * saved/deleted anropas under entitetens lås i repositoryt, så loggens ordning
+ * per nyckel är densamma som i minnet. sync anropas efter att låset släppts
+ * och väntar tills trådens senaste ändringar är beständiga, om policyn kräver det.
+ */
+public interface RepositoryJournal {
+
+    /**
+     * Journal som inte gör något, används när beständighet inte är påslagen
+     */
+    RepositoryJournal NONE = new RepositoryJournal() {
+    };
+
+    default void saved(Object entity) {
+    }
+
+    default void deleted(Class<?> type, Long id) {
+    }
+
+    default void cleared(Class<?> type) {
+    }
+
+    default void sync() {
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.repository;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Inverterat index över trigram (tre tecken i följd) i ett eller flera textfält per id.
+ * En delsträngssökning slår upp frågans trigram och snittar deras id-listor, så bara
+ * kandidaterna behöver jämföras. Texten normaliseras till gemener utan diakriter
+ * (Åsa → asa, Björn → bjorn), så sökningen är okänslig för både skiftläge och å/ä/ö.
+ * Fälten anges i viktordning: träff i fält 0 rankas före träff i fält 1 osv.
+ */
+class TrigramIndex {
+    // Normaliserade fält per id, används för att verifiera, ranka och avindexera
+    private final ConcurrentMap<Long, String[]> documents = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    private record Hit(Long id, int score, int length) {
+    }
+
+    /**
+     * Indexerar om id med nya fältvärden. Körs under id:ts lås i documents.
+     */
+    void put(Long id, String... fields) {
+        String[] normalized = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            normalized[i] = normalize(fields[i]);
+        }
+
+        documents.compute(id, (key, previous) -> {
+            Set<Long> before = previous != null ? trigrams(previous) : Set.of();
+            Set<Long> after = trigrams(normalized);
+            for (Long trigram : before) {
+                if (!after.contains(trigram)) {
+                    removePosting(trigram, id);
+                }
+            }
+            for (Long trigram : after) {
+                if (!before.contains(trigram)) {
+                    addPosting(trigram, id);
+                }
+            }
+            return normalized;
+        });
+    }
+
+    void remove(Long id) {
+        documents.computeIfPresent(id, (key, previous) -> {
+            for (Long trigram : trigrams(previous)) {
+                removePosting(trigram, id);
+            }
+            return null;
+        });
+    }
+
+    void clear() {
+        documents.clear();
+        postings.clear();
+    }
+
+    /**
+     * Id:n vars fält innehåller frågan, bäst träff först. fieldCount begränsar
+     * sökningen till de första fälten.
+     */
+    List<Long> search(String query, int fieldCount) {
+        String needle = normalize(query);
+        if (needle.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (Long id : candidates(needle)) {
+            String[] fields = documents.get(id);
+            if (fields == null) {
+                continue;
+            }
+            int best = Integer.MAX_VALUE;
+            int length = 0;
+            for (int i = 0; i < Math.min(fieldCount, fields.length); i++) {
+                int match = matchRank(fields[i], needle);
+                if (match >= 0 && i * 4 + match < best) {
+                    best = i * 4 + match;
+                    length = fields[i].length();
+                }
+            }
+            if (best != Integer.MAX_VALUE) {
+                hits.add(new Hit(id, best, length));
+            }
+        }
+
+        hits.sort(Comparator.comparingInt(Hit::score)
+                .thenComparingInt(Hit::length)
+                .thenComparing(Hit::id));
+        List<Long> result = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            result.add(hit.id());
+        }
+        return result;
+    }
+
+    /**
+     * Gemener utan diakriter, t.ex. "Örjan Åberg" → "orjan aberg"
+     */
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        boolean ascii = true;
+        for (int i = 0; i < lower.length() && ascii; i++) {
+            ascii = lower.charAt(i) < 128;
+        }
+        if (ascii) {
+            return lower;
+        }
+
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private Collection<Long> candidates(String needle) {
+        if (needle.length() < 3) {
+            // För kort för trigram, jämför mot alla normaliserade texter
+            return documents.keySet();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (Long trigram : trigrams(new String[]{needle})) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+
+        // Börja med den kortaste listan
+        lists.sort(Comparator.comparingInt(Set::size));
+        List<Long> result = new ArrayList<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            Set<Long> other = lists.get(i);
+            result.removeIf(id -> !other.contains(id));
+        }
+        return result;
+    }
+
+    // 0 = hela fältet, 1 = början av fältet, 2 = början av ett ord, 3 = annan delsträng, -1 = ingen träff
+    private static int matchRank(String field, String needle) {
+        int index = field.indexOf(needle);
+        if (index < 0) {
+            return -1;
+        }
+        if (index == 0) {
+            return field.length() == needle.length() ? 0 : 1;
+        }
+        do {
+            if (!Character.isLetterOrDigit(field.charAt(index - 1))) {
+                return 2;
+            }
+            index = field.indexOf(needle, index + 1);
+        } while (index > 0);
+        return 3;
+    }
+
+    // compute i stället för computeIfAbsent + add, så en mängd som töms samtidigt inte tappar id:t
+    private void addPosting(Long trigram, Long id) {
+        postings.compute(trigram, (k, ids) -> {
+            Set<Long> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            result.add(id);
+            return result;
+        });
+    }
+
+    private void removePosting(Long trigram, Long id) {
+        postings.computeIfPresent(trigram, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Set<Long> trigrams(String[] fields) {
+        Set<Long> result = new HashSet<>();
+        for (String field : fields) {
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                result.add(((long) field.charAt(i) << 32) | ((long) field.charAt(i + 1) << 16) | field.charAt(i + 2));
+            }
+        }
+        return result;
+    }
+}
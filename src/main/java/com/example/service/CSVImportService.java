@@ -1,15 +1,21 @@
 package com.example.service;
 
+import com.example.helper.CsvTokenizer;
 import com.example.model.*;
 import com.example.service.OrderService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.math.BigDecimal;
 import java.nio.file.*;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.util.stream.*;
 import com.example.model.OrderStatus;
 
@@ -18,11 +24,28 @@ import com.example.model.OrderStatus;
 public class CSVImportService {
     private static final Logger logger = LoggerFactory.getLogger(CSVImportService.class);
 
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    public static final int DEFAULT_PROGRESS_INTERVAL = 100_000;
+
     private final OrderService orderService;
     private final ProductService productService;
     private final CustomerService customerService;
     private final InventoryService inventoryService;
 
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int progressInterval = DEFAULT_PROGRESS_INTERVAL;
+
+    private int parallelism = 1;
+
+    private record ImportResult(int saved, int skipped, int lines) {
+    }
+
+    private record ProductRow(Product product, int stock) {
+    }
+
+    private record ParsedChunk<T>(List<T> rows, int records, int skipped, int lastLineNumber) {
+    }
+
     public CSVImportService(OrderService orderService,
                             ProductService productService,
                             CustomerService customerService,
@@ -33,6 +56,36 @@ public class CSVImportService {
         this.inventoryService = inventoryService;
     }
 
+    /**
+     * Antal tolkade rader som hålls i minnet innan de sparas
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batchstorlek måste vara större än 0");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Hur ofta (i antal rader) importen rapporterar hur långt den kommit
+     */
+    public void setProgressInterval(int progressInterval) {
+        if (progressInterval <= 0) {
+            throw new IllegalArgumentException("Rapportintervall måste vara större än 0");
+        }
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Antal tolkartrådar. 1 ger sekventiell import, större värden den parallella pipelinen
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Antal trådar måste vara större än 0");
+        }
+        this.parallelism = parallelism;
+    }
+
     /**
      * Visa meny och importera vald fil
      */
@@ -143,111 +196,87 @@ public class CSVImportService {
     public void importProducts(Path filePath) {
         logger.info("Startar import av produkter från: {}", filePath.getFileName());
 
-        List<Product> products = new ArrayList<>();
-        int lineNumber = 0;
-        int skipped = 0;
-
-        try (Stream<String> lines = Files.lines(filePath)) {
-            Iterator<String> iterator = lines.iterator();
-
-            // Skippa header om den finns
-            if (iterator.hasNext()) {
-                String firstLine = iterator.next();
-                lineNumber++;
-                if (!firstLine.toLowerCase().startsWith("sku")) {
-                    // Första raden är inte header, parsa den
-                    Product product = parseProductLine(firstLine, lineNumber);
-                    if (product != null) {
-                        products.add(product);
-                    } else {
-                        skipped++;
-                    }
-                }
-            }
-
-            // Läs resten av raderna
-            while (iterator.hasNext()) {
-                lineNumber++;
-                String line = iterator.next();
-                Product product = parseProductLine(line, lineNumber);
-                if (product != null) {
-                    products.add(product);
-                } else {
-                    skipped++;
-                }
-            }
-
+        ImportResult result;
+        try {
+            result = importInBatches(filePath, "sku", this::parseProductLine, this::saveProducts,
+                    row -> row.product().getId() != null, "produkt");
         } catch (IOException e) {
             logger.error("Fel vid läsning av fil: {}", filePath, e);
             System.out.println("Fel vid läsning av fil: " + e.getMessage());
             return;
         }
 
-        // Spara produkter
-        int saved = 0;
-        for (Product product : products) {
-            try {
-                Product savedProduct = productService.createProduct(
-                        product.getSku(),
-                        product.getName(),
-                        product.getDescription(),
-                        product.getPrice()
-                );
-
-                // Lägg till lager om det finns (sparas i Product temporärt)
-                if (product.getCreatedAt() != null) { // Hack: använder createdAt för att lagra stock temporärt
-                    // Extrahera stock från beskrivningen (vi måste fixa detta)
-                }
+        System.out.printf("\nImport klar: %d produkter importerade, %d rader skippade%n", result.saved(), result.skipped());
+        logger.info("Import av produkter klar: {} sparade, {} skippade", result.saved(), result.skipped());
+    }
 
-                saved++;
-            } catch (Exception e) {
-                logger.warn("Kunde inte spara produkt {}: {}", product.getSku(), e.getMessage());
-            }
+    /**
+     * Skapar blockets produkter med en createAll och fyller på lagret för de
+     * sparade med en addStockAll. Lagret läggs in även om createAll avbryts
+     * halvvägs, för de produkter som hann sparas.
+     */
+    private int saveProducts(List<ProductRow> rows) {
+        List<Product> products = new ArrayList<>(rows.size());
+        for (ProductRow row : rows) {
+            products.add(row.product());
+        }
+        try {
+            return productService.createAll(products).size();
+        } finally {
+            addStock(rows);
         }
+    }
 
-        System.out.printf("\nImport klar: %d produkter importerade, %d rader skippade%n", saved, skipped);
-        logger.info("Import av produkter klar: {} sparade, {} skippade", saved, skipped);
+    private void addStock(List<ProductRow> rows) {
+        Map<Product, Integer> stock = new LinkedHashMap<>();
+        for (ProductRow row : rows) {
+            // Överhoppade produkter har fortfarande id null
+            if (row.stock() > 0 && row.product().getId() != null) {
+                stock.put(row.product(), row.stock());
+            }
+        }
+        if (!stock.isEmpty()) {
+            inventoryService.addStockAll(stock);
+        }
     }
 
-    private Product parseProductLine(String line, int lineNumber) {
+    private ProductRow parseProductLine(CsvTokenizer row) {
+        int lineNumber = row.lineNumber();
         try {
-            String[] parts = line.split(",", -1);
-            if (parts.length < 4) {
-                logger.warn("Rad {}: För få fält ({}). Förväntade minst 4.", lineNumber, parts.length);
+            if (row.fieldCount() < 4) {
+                logger.warn("Rad {}: För få fält ({}). Förväntade minst 4.", lineNumber, row.fieldCount());
                 return null;
             }
 
-            String sku = parts[0].trim();
-            String name = parts[1].trim();
-            String description = parts[2].trim();
-            String priceStr = parts[3].trim();
+            String sku = row.field(0);
+            String name = row.field(1);
+            String description = row.field(2);
 
-            if (sku.isEmpty() || name.isEmpty() || priceStr.isEmpty()) {
+            if (sku.isEmpty() || name.isEmpty() || row.isEmpty(3)) {
                 logger.warn("Rad {}: Tomma obligatoriska fält", lineNumber);
                 return null;
             }
 
-            double price = Double.parseDouble(priceStr);
+            Money price = Money.ofCents(row.decimalField(3, 2));
 
-            if (price < 0) {
+            if (price.isNegative()) {
                 logger.warn("Rad {}: Negativt pris ({})", lineNumber, price);
                 return null;
             }
 
             Product product = new Product(sku, name, description, price);
 
-            // Om det finns stock-kolumn (kolumn 5)
-            if (parts.length >= 5 && !parts[4].trim().isEmpty()) {
+            // Om det finns stock-kolumn (kolumn 5) läggs lagret in efter att produkten skapats
+            int stock = 0;
+            if (row.fieldCount() >= 5 && !row.isEmpty(4)) {
                 try {
-                    int stock = Integer.parseInt(parts[4].trim());
-                    // Vi måste spara stock separat via InventoryService
-                    // För nu, lägg till det efter att produkten skapats
+                    stock = row.intField(4);
                 } catch (NumberFormatException e) {
                     logger.warn("Rad {}: Ogiltigt lagervärde", lineNumber);
                 }
             }
 
-            return product;
+            return new ProductRow(product, stock);
 
         } catch (NumberFormatException e) {
             logger.warn("Rad {}: Ogiltigt nummerformat", lineNumber);
@@ -265,69 +294,31 @@ public class CSVImportService {
     public void importCustomers(Path filePath) {
         logger.info("Startar import av kunder från: {}", filePath.getFileName());
 
-        List<Customer> customers = new ArrayList<>();
-        int lineNumber = 0;
-        int skipped = 0;
-
-        try (Stream<String> lines = Files.lines(filePath)) {
-            Iterator<String> iterator = lines.iterator();
-
-            // Skippa header om den finns
-            if (iterator.hasNext()) {
-                String firstLine = iterator.next();
-                lineNumber++;
-                if (!firstLine.toLowerCase().startsWith("email")) {
-                    Customer customer = parseCustomerLine(firstLine, lineNumber);
-                    if (customer != null) {
-                        customers.add(customer);
-                    } else {
-                        skipped++;
-                    }
-                }
-            }
-
-            while (iterator.hasNext()) {
-                lineNumber++;
-                String line = iterator.next();
-                Customer customer = parseCustomerLine(line, lineNumber);
-                if (customer != null) {
-                    customers.add(customer);
-                } else {
-                    skipped++;
-                }
-            }
-
+        ImportResult result;
+        try {
+            result = importInBatches(filePath, "email", this::parseCustomerLine,
+                    customers -> customerService.createAll(customers).size(),
+                    customer -> customer.getId() != null, "kund");
         } catch (IOException e) {
             logger.error("Fel vid läsning av fil: {}", filePath, e);
             System.out.println("Fel vid läsning av fil: " + e.getMessage());
             return;
         }
 
-        // Spara kunder
-        int saved = 0;
-        for (Customer customer : customers) {
-            try {
-                customerService.createCustomer(customer.getEmail(), customer.getName());
-                saved++;
-            } catch (Exception e) {
-                logger.warn("Kunde inte spara kund {}: {}", customer.getEmail(), e.getMessage());
-            }
-        }
-
-        System.out.printf("\nImport klar: %d kunder importerade, %d rader skippade%n", saved, skipped);
-        logger.info("Import av kunder klar: {} sparade, {} skippade", saved, skipped);
+        System.out.printf("\nImport klar: %d kunder importerade, %d rader skippade%n", result.saved(), result.skipped());
+        logger.info("Import av kunder klar: {} sparade, {} skippade", result.saved(), result.skipped());
     }
 
-    private Customer parseCustomerLine(String line, int lineNumber) {
+    private Customer parseCustomerLine(CsvTokenizer row) {
+        int lineNumber = row.lineNumber();
         try {
-            String[] parts = line.split(",", -1);
-            if (parts.length < 2) {
-                logger.warn("Rad {}: För få fält ({}). Förväntade 2.", lineNumber, parts.length);
+            if (row.fieldCount() < 2) {
+                logger.warn("Rad {}: För få fält ({}). Förväntade 2.", lineNumber, row.fieldCount());
                 return null;
             }
 
-            String email = parts[0].trim();
-            String name = parts[1].trim();
+            String email = row.field(0);
+            String name = row.field(1);
 
             if (email.isEmpty() || name.isEmpty()) {
                 logger.warn("Rad {}: Tomma fält", lineNumber);
@@ -350,67 +341,252 @@ public class CSVImportService {
     public void importOrders(Path filePath) {
         logger.info("Startar import av order från: {}", filePath.getFileName());
 
-        List<Order> orders = new ArrayList<>();
-        int lineNumber = 0;
+        ImportResult result;
+        try {
+            result = importInBatches(filePath, "ordernumber", this::parseOrderLine,
+                    orders -> orderService.createAllImported(orders).size(),
+                    order -> order.getId() != null, "order");
+        } catch (IOException e) {
+            logger.error("Fel vid läsning av fil: {}", filePath, e);
+            System.out.println("Fel vid läsning av fil: " + e.getMessage());
+            return;
+        }
+
+        System.out.printf("\nImport klar: %d order importerade, %d rader skippade%n",
+                result.saved(), result.skipped());
+        logger.info("Import av order klar: {} sparade, {} skippade", result.saved(), result.skipped());
+    }
+
+    /**
+     * Importerar filen sekventiellt eller, om parallelism är större än 1,
+     * via den parallella pipelinen. Rapporterar rader per sekund när den är klar.
+     */
+    private <T> ImportResult importInBatches(Path filePath,
+                                             String headerPrefix,
+                                             Function<CsvTokenizer, T> parser,
+                                             ToIntFunction<List<T>> saver,
+                                             Predicate<T> persisted,
+                                             String entityName) throws IOException {
+        long start = System.nanoTime();
+
+        ImportResult result = parallelism > 1
+                ? importParallel(filePath, headerPrefix, parser, saver, persisted, entityName)
+                : importSequential(filePath, headerPrefix, parser, saver, persisted, entityName);
+
+        double seconds = Math.max(System.nanoTime() - start, 1L) / 1_000_000_000.0;
+        long rowsPerSecond = Math.round(result.lines() / seconds);
+        System.out.printf("%d rader på %.2f s (%d rader/s, %d trådar)%n",
+                result.lines(), seconds, rowsPerSecond, parallelism);
+        logger.info("Import av {}: {} rader på {} ms ({} rader/s, {} trådar)",
+                entityName, result.lines(), Math.round(seconds * 1000), rowsPerSecond, parallelism);
+        return result;
+    }
+
+    /**
+     * Läser filen post för post och sparar tolkade rader i block om batchSize.
+     * Endast ett block hålls i minnet åt gången, oavsett filstorlek.
+     */
+    private <T> ImportResult importSequential(Path filePath,
+                                              String headerPrefix,
+                                              Function<CsvTokenizer, T> parser,
+                                              ToIntFunction<List<T>> saver,
+                                              Predicate<T> persisted,
+                                              String entityName) throws IOException {
+        List<T> batch = new ArrayList<>(batchSize);
+        int records = 0;
+        int saved = 0;
         int skipped = 0;
 
-        try (Stream<String> lines = Files.lines(filePath)) {
-            Iterator<String> iterator = lines.iterator();
+        try (CsvTokenizer row = CsvTokenizer.open(filePath)) {
+            while (row.next()) {
+                records++;
+
+                if (isHeader(row, headerPrefix)) {
+                    continue;
+                }
+
+                T parsed = parser.apply(row);
+                if (parsed != null) {
+                    batch.add(parsed);
+                } else {
+                    skipped++;
+                }
+
+                if (batch.size() >= batchSize) {
+                    saved += saveBatch(batch, saver, persisted, entityName);
+                }
 
-            // ── Header? ────────────────────────────────
-            if (iterator.hasNext()) {
-                String first = iterator.next();
-                lineNumber++;
-                if (!first.toLowerCase().startsWith("ordernumber")) {
-                    Order order = parseOrderLine(first, lineNumber);
-                    if (order != null) orders.add(order); else skipped++;
+                if (records % progressInterval == 0) {
+                    reportProgress(row.lineNumber(), saved, skipped);
                 }
             }
+        }
+
+        saved += saveBatch(batch, saver, persisted, entityName);
+        return new ImportResult(saved, skipped, records);
+    }
+
+    // Skippa header om den finns
+    private static boolean isHeader(CsvTokenizer row, String headerPrefix) {
+        return row.lineNumber() == 1 && row.startsWithIgnoreCase(0, headerPrefix);
+    }
 
-            // ── Övriga rader ───────────────────────────
-            while (iterator.hasNext()) {
-                lineNumber++;
-                String line = iterator.next();
-                Order order = parseOrderLine(line, lineNumber);
-                if (order != null) orders.add(order); else skipped++;
+    /**
+     * Parallell import i tre steg:
+     * en läsartråd delar den mappade filen i block av hela poster, en pool av tolkartrådar
+     * gör om blocken till objekt och den anropande tråden sparar blocken i
+     * filordning. Kön mellan stegen är begränsad, så minnesåtgången är konstant.
+     */
+    private <T> ImportResult importParallel(Path filePath,
+                                            String headerPrefix,
+                                            Function<CsvTokenizer, T> parser,
+                                            ToIntFunction<List<T>> saver,
+                                            Predicate<T> persisted,
+                                            String entityName) throws IOException {
+        AtomicInteger parserNumber = new AtomicInteger();
+        ExecutorService parsers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "csv-parser-" + parserNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        BlockingQueue<Future<ParsedChunk<T>>> queue = new ArrayBlockingQueue<>(parallelism * 2);
+        Future<ParsedChunk<T>> endOfFile = CompletableFuture.completedFuture(null);
+        AtomicReference<IOException> readError = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            try (CsvTokenizer file = CsvTokenizer.open(filePath)) {
+                CsvTokenizer chunk;
+                while ((chunk = file.nextChunk(batchSize)) != null) {
+                    queue.put(submitChunk(parsers, parser, headerPrefix, chunk));
+                }
+            } catch (IOException e) {
+                readError.set(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    queue.put(endOfFile);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
             }
+        }, "csv-reader");
+        reader.setDaemon(true);
+        reader.start();
 
-        } catch (IOException e) {
-            logger.error("Fel vid läsning av fil: {}", filePath, e);
-            System.out.println("Fel vid läsning av fil: " + e.getMessage());
-            return;
+        int saved = 0;
+        int skipped = 0;
+        int records = 0;
+        int linesDone = 0;
+        try {
+            while (true) {
+                Future<ParsedChunk<T>> next = queue.take();
+                if (next == endOfFile) {
+                    break;
+                }
+
+                ParsedChunk<T> chunk = next.get();
+                records += chunk.records();
+                skipped += chunk.skipped();
+                saved += saveBatch(chunk.rows(), saver, persisted, entityName);
+
+                int before = linesDone;
+                linesDone = chunk.lastLineNumber();
+                if (before / progressInterval != linesDone / progressInterval) {
+                    reportProgress(linesDone, saved, skipped);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reader.interrupt();
+            throw new IOException("Importen avbröts", e);
+        } catch (ExecutionException e) {
+            reader.interrupt();
+            throw new IOException("Fel vid parsning av block", e.getCause());
+        } finally {
+            parsers.shutdownNow();
+        }
+
+        if (readError.get() != null) {
+            throw readError.get();
         }
+        return new ImportResult(saved, skipped, records);
+    }
+
+    private static <T> Future<ParsedChunk<T>> submitChunk(ExecutorService parsers,
+                                                          Function<CsvTokenizer, T> parser,
+                                                          String headerPrefix,
+                                                          CsvTokenizer chunk) {
+        return parsers.submit(() -> {
+            List<T> rows = new ArrayList<>();
+            int records = 0;
+            int skipped = 0;
+            while (chunk.next()) {
+                records++;
+                if (isHeader(chunk, headerPrefix)) {
+                    continue;
+                }
+                T parsed = parser.apply(chunk);
+                if (parsed != null) {
+                    rows.add(parsed);
+                } else {
+                    skipped++;
+                }
+            }
+            return new ParsedChunk<>(rows, records, skipped, chunk.lineNumber());
+        });
+    }
+
+    private void reportProgress(int lineNumber, int saved, int skipped) {
+        System.out.printf("  ... %d rader lästa (%d sparade, %d skippade)%n", lineNumber, saved, skipped);
+        logger.info("Import pågår: {} rader lästa, {} sparade, {} skippade", lineNumber, saved, skipped);
+    }
 
-        // ── Spara ─────────────────────────────────────
+    /**
+     * Sparar ett helt block med ett anrop till tjänstens bulk-API. Enskilda
+     * ogiltiga rader hoppar tjänsten själv över. Misslyckas hela anropet räknas
+     * de rader som hann sparas (persisted, dvs. fick ett id som behölls) och resten
+     * sparas en och en, så att en trasig rad inte tar med sig hela blocket.
+     */
+    private <T> int saveBatch(List<T> batch, ToIntFunction<List<T>> saver, Predicate<T> persisted, String entityName) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
         int saved = 0;
-        for (Order o : orders) {
-            try {
-                orderService.createImportedOrder(o);   // egen metod du skriver
-                saved++;
-            } catch (Exception e) {
-                logger.warn("Kunde inte spara order {}: {}",  o.getId(), e.getMessage());
+        try {
+            saved = saver.applyAsInt(batch);
+        } catch (Exception e) {
+            logger.warn("Kunde inte spara block med {} rader ({}): {} – sparar raderna en och en",
+                    batch.size(), entityName, e.getMessage());
+            for (T row : batch) {
+                if (persisted.test(row)) {
+                    saved++;
+                    continue;
+                }
+                try {
+                    saved += saver.applyAsInt(List.of(row));
+                } catch (Exception rowError) {
+                    logger.warn("Kunde inte spara {}: {}", entityName, rowError.getMessage());
+                }
             }
         }
-
-        System.out.printf("\nImport klar: %d order importerade, %d rader skippade%n",
-                saved, skipped);
-        logger.info("Import av order klar: {} sparade, {} skippade", saved, skipped);
+        batch.clear();
+        return saved;
     }
 
-    private Order parseOrderLine(String line, int lineNumber) {
+    private Order parseOrderLine(CsvTokenizer row) {
+        int lineNumber = row.lineNumber();
         try {
-            String[] parts = line.split(",", 5);   // orderNumber,email,status,createdAt,items
-            if (parts.length < 5) {
-                logger.warn("Rad {}: För få fält ({}). Förväntade 5.", lineNumber, parts.length);
+            // orderNumber,email,status,createdAt,items
+            if (row.fieldCount() < 5) {
+                logger.warn("Rad {}: För få fält ({}). Förväntade 5.", lineNumber, row.fieldCount());
                 return null;
             }
 
-            // 1. Rada ut kolumner
-            /* String orderNo = */ parts[0].trim();   // vi sparar inte orderNumber i modellen
-            String email     = parts[1].trim();
-            String statusStr = parts[2].trim();
-            String createdAt = parts[3].trim();
-            String itemsStr  = parts[4].trim();
+            // 1. Rada ut kolumner (orderNumber sparas inte i modellen)
+            String email     = row.field(1);
+            String statusStr = row.field(2);
+            String itemsStr  = row.field(4);
 
             if (email.isEmpty() || itemsStr.isEmpty()) {
                 logger.warn("Rad {}: Tomma fält", lineNumber);
@@ -436,19 +612,25 @@ public class CSVImportService {
             Order order = new Order();
             order.setCustomer(cust);
             order.setStatus(status);
-            order.setCreatedAt(LocalDateTime.parse(createdAt));
+            order.setCreatedAt(row.dateTimeField(3));
 
             List<OrderItem> orderItems = new ArrayList<>();
-            double total = 0.0;
 
-            for (String part : itemsStr.split("\\|")) {
-                String[] kv = part.split(":");
-                if (kv.length != 2) {
-                    logger.warn("Rad {}: Felaktigt item-format: {}", lineNumber, part);
+            // sku:qty|sku:qty – delas med indexOf i stället för regex-split
+            int partStart = 0;
+            while (partStart < itemsStr.length()) {
+                int partEnd = itemsStr.indexOf('|', partStart);
+                if (partEnd < 0) {
+                    partEnd = itemsStr.length();
+                }
+                int colon = itemsStr.indexOf(':', partStart);
+                if (colon < 0 || colon >= partEnd || itemsStr.lastIndexOf(':', partEnd - 1) != colon) {
+                    logger.warn("Rad {}: Felaktigt item-format: {}", lineNumber, itemsStr.substring(partStart, partEnd));
                     return null;
                 }
-                String sku = kv[0].trim();
-                int qty    = Integer.parseInt(kv[1].trim());
+                String sku = itemsStr.substring(partStart, colon).trim();
+                int qty    = parseIntTrimmed(itemsStr, colon + 1, partEnd);
+                partStart = partEnd + 1;
 
                 Product prod = productService.findBySku(sku).orElse(null);
                 if (prod == null) {
@@ -458,11 +640,10 @@ public class CSVImportService {
 
                 OrderItem oi = new OrderItem(prod, qty);  // konstruktör finns redan
                 orderItems.add(oi);
-                total += oi.getLineTotal();
             }
 
+            // setItems räknar ut totalen i ören
             order.setItems(orderItems);
-            order.setTotal(total);
 
             return order;
 
@@ -471,4 +652,14 @@ public class CSVImportService {
             return null;
         }
     }
+
+    private static int parseIntTrimmed(String text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return Integer.parseInt(text, start, end, 10);
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.example.service;
 
 import com.example.model.Customer;
+import com.example.model.Money;
 import com.example.model.OrderItem;
 import com.example.model.Product;
 import org.slf4j.Logger;
@@ -74,10 +75,12 @@ public class CartService {
         logger.info("Tömde kundvagn för {}", customer.getEmail());
     }
 
-    public double getCartTotal(Customer customer) {
-        return getCart(customer).stream()
-                .mapToDouble(OrderItem::getLineTotal)
-                .sum();
+    public Money getCartTotal(Customer customer) {
+        long cents = 0;
+        for (OrderItem item : getCart(customer)) {
+            cents = Math.addExact(cents, item.getLineTotal().cents());
+        }
+        return Money.ofCents(cents);
     }
 
     public boolean isCartEmpty(Customer customer) {
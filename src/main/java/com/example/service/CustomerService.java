@@ -6,7 +6,11 @@ import com.example.repository.CustomerRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class CustomerService {
     private static final Logger logger = LoggerFactory.getLogger(CustomerService.class);
@@ -32,6 +36,34 @@ public class CustomerService {
         return saved;
     }
 
+    /**
+     * Skapar många nya kunder på en gång, med samma regler som createCustomer.
+     * Befintliga email-adresser hämtas med en fråga för hela batchen; dubbletter
+     * och ogiltiga adresser hoppas över med en varning. Returnerar de sparade.
+     */
+    public List<Customer> createAll(Collection<Customer> customers) {
+        List<String> emails = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            emails.add(customer.getEmail());
+        }
+        Set<String> taken = new HashSet<>(customerRepository.findExistingEmails(emails));
+
+        List<Customer> accepted = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            if (!isValidEmail(customer.getEmail())) {
+                logger.warn("Kund {} hoppades över: ogiltig email-adress", customer.getEmail());
+            } else if (!taken.add(customer.getEmail())) {
+                logger.warn("Kund {} hoppades över: email-adressen finns redan", customer.getEmail());
+            } else {
+                accepted.add(customer);
+            }
+        }
+
+        List<Customer> saved = customerRepository.saveAll(accepted);
+        logger.info("{} kunder skapade, {} överhoppade", saved.size(), customers.size() - saved.size());
+        return saved;
+    }
+
     public Customer getCustomerByEmail(String email) {
         return customerRepository.findByEmail(email)
                 .orElseThrow(() -> new CustomerNotFoundException("Kund med email " + email + " hittades inte"));
@@ -42,12 +74,26 @@ public class CustomerService {
                 .orElseThrow(() -> new CustomerNotFoundException("Kund med ID " + id + " hittades inte"));
     }
 
-    public List<Customer> getAllCustomers() {
-        return customerRepository.findAll();
+    /**
+     * Skrivskyddad vy över alla kunder, ingen kopia skapas
+     */
+    public Collection<Customer> getAllCustomers() {
+        return customerRepository.findAllView();
+    }
+
+    /**
+     * Kunder sidvis i id-ordning, med start efter afterId (null för första sidan)
+     */
+    public List<Customer> getCustomersPage(Long afterId, int limit) {
+        return customerRepository.findPageAfter(afterId, limit);
+    }
+
+    public long countCustomers() {
+        return customerRepository.count();
     }
 
     public List<Customer> searchCustomers(String keyword) {
-        return customerRepository.findByNameContaining(keyword);
+        return customerRepository.search(keyword);
     }
 
     private boolean isValidEmail(String email) {
@@ -2,12 +2,18 @@ package com.example.service;
 
 import com.example.exception.InsufficientStockException;
 import com.example.model.Inventory;
+import com.example.model.Order;
+import com.example.model.OrderItem;
 import com.example.model.Product;
 import com.example.repository.InventoryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class InventoryService {
     private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
@@ -19,8 +25,7 @@ public class InventoryService {
     }
 
     public void addStock(Product product, int quantity) {
-        Inventory inventory = inventoryRepository.findByProductId(product.getId())
-                .orElse(new Inventory(product.getId(), 0));
+        Inventory inventory = inventoryRepository.findOrCreate(product.getId());
 
         inventory.restock(quantity);
         inventoryRepository.save(inventory);
@@ -28,23 +33,130 @@ public class InventoryService {
                 product.getSku(), quantity, inventory.getInStock());
     }
 
+    /**
+     * Fyller på lagret för många produkter, t.ex. vid import. Posterna sparas
+     * med saveAll och hela anropet ger en loggrad.
+     */
+    public void addStockAll(Map<Product, Integer> quantities) {
+        List<Inventory> restocked = new ArrayList<>(quantities.size());
+        long total = 0;
+        for (Map.Entry<Product, Integer> entry : quantities.entrySet()) {
+            Inventory inventory = inventoryRepository.findOrCreate(entry.getKey().getId());
+            inventory.restock(entry.getValue());
+            restocked.add(inventory);
+            total += entry.getValue();
+        }
+        inventoryRepository.saveAll(restocked);
+        logger.info("Lager påfyllt för {} produkter: +{} totalt", restocked.size(), total);
+    }
+
     public void reserveStock(Product product, int quantity) {
         Inventory inventory = inventoryRepository.findByProductId(product.getId())
                 .orElseThrow(() -> new InsufficientStockException(
                         "Ingen lagerpost finns för produkt: " + product.getSku()));
 
-        if (!inventory.hasStock(quantity)) {
+        // Kontroll och avdrag i ett enda compare-and-set, så samtidiga köp inte översäljer
+        if (!inventory.tryReserve(quantity)) {
             throw new InsufficientStockException(
                     String.format("Otillräckligt lager för %s. I lager: %d, Begärt: %d",
                             product.getSku(), inventory.getInStock(), quantity));
         }
 
-        inventory.reserve(quantity);
         inventoryRepository.save(inventory);
         logger.info("Lager reserverat för {}: -{} (kvar: {})",
                 product.getSku(), quantity, inventory.getInStock());
     }
 
+    /**
+     * Reserverar alla rader eller ingen. Kvantiteter summeras per produkt och
+     * reserveras i produkt-id-ordning med compare-and-set. Misslyckas en rad
+     * återställs de redan reserverade, så inget lager läcker och inga lås tas.
+     */
+    public void reserveAll(List<OrderItem> items) {
+        Collection<Inventory> reserved = reserve(items);
+        for (Inventory inventory : reserved) {
+            inventoryRepository.save(inventory);
+        }
+        logger.info("Lager reserverat för {} orderrader ({} produkter)", items.size(), reserved.size());
+    }
+
+    /**
+     * Reserverar lagret för varje order för sig med samma regler som reserveAll.
+     * En order som inte får plats hoppas över med en varning utan att påverka de
+     * andra. Varje berörd lagerpost sparas en gång, efter alla ordrar.
+     * Returnerar ordrarna som fick sitt lager reserverat.
+     */
+    public List<Order> reserveEach(Collection<Order> orders) {
+        List<Order> reserved = new ArrayList<>(orders.size());
+        Map<Long, Inventory> touched = new TreeMap<>();
+        for (Order order : orders) {
+            try {
+                for (Inventory inventory : reserve(order.getItems())) {
+                    touched.put(inventory.getProductId(), inventory);
+                }
+                reserved.add(order);
+            } catch (InsufficientStockException e) {
+                logger.warn("Order för {} hoppades över: {}", describeCustomer(order), e.getMessage());
+            }
+        }
+        inventoryRepository.saveAll(touched.values());
+        logger.info("Lager reserverat för {} av {} ordrar ({} produkter)",
+                reserved.size(), orders.size(), touched.size());
+        return reserved;
+    }
+
+    // Reserverar alla rader eller ingen och returnerar de reserverade lagerposterna osparade
+    private Collection<Inventory> reserve(List<OrderItem> items) {
+        Map<Long, Product> products = new TreeMap<>();
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            Product product = item.getProduct();
+            products.putIfAbsent(product.getId(), product);
+            quantities.merge(product.getId(), item.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, Inventory> inventories = new TreeMap<>();
+        for (Product product : products.values()) {
+            Inventory inventory = inventoryRepository.findByProductId(product.getId())
+                    .orElseThrow(() -> new InsufficientStockException(
+                            "Ingen lagerpost finns för produkt: " + product.getSku()));
+            inventories.put(product.getId(), inventory);
+        }
+
+        List<Long> reserved = new ArrayList<>();
+        for (Map.Entry<Long, Inventory> entry : inventories.entrySet()) {
+            Long productId = entry.getKey();
+            Inventory inventory = entry.getValue();
+            int quantity = quantities.get(productId);
+
+            if (!inventory.tryReserve(quantity)) {
+                for (Long reservedId : reserved) {
+                    inventories.get(reservedId).restock(quantities.get(reservedId));
+                }
+                Product product = products.get(productId);
+                throw new InsufficientStockException(
+                        String.format("Otillräckligt lager för %s. I lager: %d, Begärt: %d",
+                                product.getSku(), inventory.getInStock(), quantity));
+            }
+            reserved.add(productId);
+        }
+
+        return inventories.values();
+    }
+
+    private static String describeCustomer(Order order) {
+        return order.getCustomer() != null ? order.getCustomer().getEmail() : "okänd kund";
+    }
+
+    /**
+     * Lämnar tillbaka lagret för alla rader, t.ex. när en betalning nekas.
+     */
+    public void releaseAll(List<OrderItem> items) {
+        for (OrderItem item : items) {
+            addStock(item.getProduct(), item.getQuantity());
+        }
+    }
+
     public int getStock(Product product) {
         return inventoryRepository.findByProductId(product.getId())
                 .map(Inventory::getInStock)
@@ -8,9 +8,13 @@ import org.slf4j.LoggerFactory;
 
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 public class OrderService {
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
@@ -18,6 +22,9 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final InventoryService inventoryService;
     private final PaymentService paymentService;
+    // Skapas vid första rapporten, så att JDBC-läget inte läser in alla ordrar vid start
+    private ReportEngine reportEngine;
+    private int reportParallelism = 1;
 
     public OrderService(OrderRepository orderRepository,
                         InventoryService inventoryService,
@@ -27,13 +34,36 @@ public class OrderService {
         this.paymentService = paymentService;
     }
 
+    /**
+     * Antal trådar som rapportmotorn summerar orderhistoriken med. 1 = sekventiellt.
+     */
+    public synchronized void setReportParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Antal trådar måste vara större än 0");
+        }
+        if (reportEngine != null) {
+            reportEngine.close();
+            reportEngine = null;
+        }
+        reportParallelism = parallelism;
+    }
+
+    private synchronized ReportEngine reportEngine() {
+        if (reportEngine == null) {
+            reportEngine = new ReportEngine(orderRepository.orderLines(), reportParallelism);
+        }
+        return reportEngine;
+    }
+
     public Order createImportedOrder(Order imported) {
+        // Reservera före sparning, så en order som saknar lager inte blir kvar som PAID
+        if (imported.getStatus() == OrderStatus.PAID) {
+            inventoryService.reserveAll(imported.getItems());
+        }
+
         Order saved = orderRepository.save(imported);
 
         if (saved.getStatus() == OrderStatus.PAID) {
-            for (OrderItem item : saved.getItems()) {
-                inventoryService.reserveStock(item.getProduct(), item.getQuantity());
-            }
             logger.info("Importerad order {} sparad som PAID – lager reducerat.", saved.getId());
         } else {
             logger.info("Importerad order {} sparad med status {}.", saved.getId(), saved.getStatus());
@@ -42,6 +72,48 @@ public class OrderService {
         return saved;
     }
 
+    /**
+     * Sparar många importerade ordrar på en gång. Lagret för PAID-ordrar reserveras
+     * order för order; en order utan lager hoppas över. Resten sparas i filordning
+     * med saveAll. Misslyckas sparningen lämnas lagret tillbaka för de ordrar som
+     * inte hann sparas; repositoryt har då nollställt deras id.
+     */
+    public List<Order> createAllImported(Collection<Order> imported) {
+        List<Order> paid = new ArrayList<>();
+        for (Order order : imported) {
+            if (order.getStatus() == OrderStatus.PAID) {
+                paid.add(order);
+            }
+        }
+        List<Order> reserved = paid.isEmpty() ? paid : inventoryService.reserveEach(paid);
+        Set<Order> skipped = Collections.newSetFromMap(new IdentityHashMap<>());
+        skipped.addAll(paid);
+        reserved.forEach(skipped::remove);
+
+        List<Order> accepted = new ArrayList<>(imported.size() - skipped.size());
+        for (Order order : imported) {
+            if (!skipped.contains(order)) {
+                accepted.add(order);
+            }
+        }
+        List<Order> saved;
+        try {
+            saved = orderRepository.saveAll(accepted);
+        } catch (RuntimeException e) {
+            // Bara ordrar som inte hann sparas får tillbaka sitt lager
+            for (Order order : reserved) {
+                if (order.getId() == null || orderRepository.findById(order.getId()).isEmpty()) {
+                    inventoryService.releaseAll(order.getItems());
+                }
+            }
+            throw e;
+        }
+
+        logger.info("{} importerade ordrar sparade ({} PAID – lager reducerat), {} överhoppade",
+                saved.size(), reserved.size(), imported.size() - saved.size());
+        return saved;
+    }
+
     public Order createOrder(Customer customer, List<OrderItem> items) {
         if (items == null || items.isEmpty()) {
             throw new IllegalArgumentException("Order måste innehålla minst en produkt");
@@ -74,11 +146,9 @@ public class OrderService {
             throw new IllegalStateException("Order kan endast betalas om status är NEW");
         }
 
-        // Reservera lager
+        // Reservera lager för alla rader eller ingen
         try {
-            for (OrderItem item : order.getItems()) {
-                inventoryService.reserveStock(item.getProduct(), item.getQuantity());
-            }
+            inventoryService.reserveAll(order.getItems());
         } catch (Exception e) {
             logger.error("Kunde inte reservera lager för order {}", orderId, e);
             throw new IllegalStateException("Checkout misslyckades: " + e.getMessage());
@@ -94,9 +164,7 @@ public class OrderService {
         } else {
             order.setStatus(OrderStatus.CANCELLED);
             // Återställ lager vid misslyckad betalning
-            for (OrderItem item : order.getItems()) {
-                inventoryService.addStock(item.getProduct(), item.getQuantity());
-            }
+            inventoryService.releaseAll(order.getItems());
             logger.warn("Order {} avbröts - betalning nekad", orderId);
         }
 
@@ -121,8 +189,24 @@ public class OrderService {
                 .orElseThrow(() -> new OrderNotFoundException("Order " + orderId + " hittades inte"));
     }
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    /**
+     * Skrivskyddad vy över alla ordrar, ingen kopia skapas
+     */
+    public Collection<Order> getAllOrders() {
+        return orderRepository.findAllView();
+    }
+
+    /**
+     * Nästa sida ordrar efter afterId. Med status satt bläddras bara ordrar med den statusen.
+     */
+    public List<Order> getOrdersPage(OrderStatus status, Long afterId, int limit) {
+        return status == null
+                ? orderRepository.findPageAfter(afterId, limit)
+                : orderRepository.findPageByStatusAfter(status, afterId, limit);
+    }
+
+    public long countOrders() {
+        return orderRepository.count();
     }
 
     public List<Order> getOrdersByStatus(OrderStatus status) {
@@ -137,29 +221,37 @@ public class OrderService {
         return orderRepository.findByDateBetween(start, end);
     }
 
-    public double getTotalRevenue(LocalDate start, LocalDate end) {
-        return orderRepository.findByDateBetween(start, end).stream()
-                .filter(o -> o.getStatus() == OrderStatus.PAID)
-                .mapToDouble(Order::getTotal)
-                .sum();
+    public Money getTotalRevenue(LocalDate start, LocalDate end) {
+        return getRevenueSummary(start, end).revenue();
+    }
+
+    /**
+     * Läses från dagliga summor i repositoryt, kostar inte mer för långa perioder
+     */
+    public RevenueSummary getRevenueSummary(LocalDate start, LocalDate end) {
+        return orderRepository.summarizeBetween(start, end);
+    }
+
+    /**
+     * Omsättning, ordrar per status, bästsäljare och omsättning per kategori för perioden,
+     * summerat parallellt av rapportmotorn
+     */
+    public SalesReport getSalesReport(LocalDate start, LocalDate end, int topLimit, Collection<Category> categories) {
+        return reportEngine().salesReport(start, end, topLimit, categories);
+    }
+
+    /**
+     * Summan av en kunds betalda ordrar, skannad ur orderradernas kolumner
+     */
+    public Money getCustomerRevenue(Long customerId) {
+        return Money.ofCents(orderRepository.orderLines().revenueCentsForCustomer(customerId));
     }
 
+    /**
+     * Bästsäljare bland PAID-ordrar. Repositoryt håller sålt antal per produkt
+     * uppdaterat när ordrar blir eller slutar vara PAID.
+     */
     public Map<Product, Long> getTopProducts(int limit) {
-        return orderRepository.findAll().stream()
-                .filter(o -> o.getStatus() == OrderStatus.PAID)
-                .flatMap(o -> o.getItems().stream())
-                .collect(Collectors.groupingBy(
-                        OrderItem::getProduct,
-                        Collectors.summingLong(OrderItem::getQuantity)
-                ))
-                .entrySet().stream()
-                .sorted(Map.Entry.<Product, Long>comparingByValue().reversed())
-                .limit(limit)
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        java.util.LinkedHashMap::new
-                ));
-    }
-}
\ No newline at end of file
+        return orderRepository.findTopSellingProducts(limit);
+    }
+}
@@ -2,12 +2,17 @@ package com.example.service;
 
 import com.example.exception.ProductNotFoundException;
 import com.example.model.Customer;
+import com.example.model.Money;
 import com.example.model.Product;
 import com.example.repository.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class ProductService {
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
@@ -18,12 +23,12 @@ public class ProductService {
         this.productRepository = productRepository;
     }
 
-    public Product createProduct(String sku, String name, String description, double price) {
+    public Product createProduct(String sku, String name, String description, Money price) {
         if (productRepository.existsBySku(sku)) {
             throw new IllegalArgumentException("Produkt med SKU " + sku + " finns redan");
         }
 
-        if (price < 0) {
+        if (price == null || price.isNegative()) {
             throw new IllegalArgumentException("Pris kan inte vara negativt");
         }
 
@@ -33,7 +38,36 @@ public class ProductService {
         return saved;
     }
 
-    public Product updateProduct(String sku, String name, String description, Double price) {
+    /**
+     * Skapar många nya produkter på en gång, t.ex. vid import. Dubbletter inom
+     * batchen och mot katalogen hittas med en enda fråga och hoppas över med en
+     * varning, liksom negativa priser. Resten sparas med saveAll. Returnerar de
+     * sparade produkterna; överhoppade behåller id null.
+     */
+    public List<Product> createAll(Collection<Product> products) {
+        List<String> skus = new ArrayList<>(products.size());
+        for (Product product : products) {
+            skus.add(product.getSku());
+        }
+        Set<String> taken = new HashSet<>(productRepository.findExistingSkus(skus));
+
+        List<Product> accepted = new ArrayList<>(products.size());
+        for (Product product : products) {
+            if (product.getPrice() == null || product.getPrice().isNegative()) {
+                logger.warn("Produkt {} hoppades över: pris kan inte vara negativt", product.getSku());
+            } else if (!taken.add(product.getSku())) {
+                logger.warn("Produkt {} hoppades över: SKU:n finns redan", product.getSku());
+            } else {
+                accepted.add(product);
+            }
+        }
+
+        List<Product> saved = productRepository.saveAll(accepted);
+        logger.info("{} produkter skapade, {} överhoppade", saved.size(), products.size() - saved.size());
+        return saved;
+    }
+
+    public Product updateProduct(String sku, String name, String description, Money price) {
         Product product = productRepository.findBySku(sku)
                 .orElseThrow(() -> new ProductNotFoundException("Produkt med SKU " + sku + " hittades inte"));
 
@@ -43,7 +77,7 @@ public class ProductService {
         if (description != null) {
             product.setDescription(description);
         }
-        if (price != null && price >= 0) {
+        if (price != null && !price.isNegative()) {
             product.setPrice(price);
         }
 
@@ -66,16 +100,45 @@ public class ProductService {
                 .orElseThrow(() -> new ProductNotFoundException("Produkt med SKU " + sku + " hittades inte"));
     }
 
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    /**
+     * Skrivskyddad vy över katalogen, ingen kopia skapas
+     */
+    public Collection<Product> getAllProducts() {
+        return productRepository.findAllView();
+    }
+
+    /**
+     * En sida av katalogen i id-ordning. Nästa sida hämtas med sista produktens id som afterId.
+     */
+    public List<Product> getProductsPage(Long afterId, int limit) {
+        return productRepository.findPageAfter(afterId, limit);
+    }
+
+    public long countProducts() {
+        return productRepository.count();
     }
 
-    public List<Product> getActiveProducts() {
+    /**
+     * Skrivskyddad, löpande uppdaterad vy över aktiva produkter
+     */
+    public Collection<Product> getActiveProducts() {
         return productRepository.findByActive(true);
     }
 
+    public long countActiveProducts() {
+        return productRepository.countByActive(true);
+    }
+
+    /**
+     * Type-ahead: upp till limit aktiva produkter vars SKU, namn eller ord i namnet
+     * börjar med prefixet. Indexet uppdateras när produkter skapas, ändras och inaktiveras.
+     */
+    public List<Product> autocomplete(String prefix, int limit) {
+        return productRepository.findActiveByPrefix(prefix, limit);
+    }
+
     public List<Product> searchProducts(String keyword) {
-        return productRepository.findByNameContaining(keyword);
+        return productRepository.search(keyword);
     }
 
     public java.util.Optional<Product> findBySku(String sku) {
@@ -0,0 +1,160 @@
+package com.example.service;
+
+import com.example.model.*;
+import com.example.repository.OrderLineStore;
+import com.example.repository.OrderLineStore.PeriodTotals;
+import com.example.repository.OrderLineStore.Snapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Räknar fram försäljningsrapporter genom att dela upp orderraderna i intervall
+ * som summeras parallellt i en ForkJoinPool. Alla belopp är heltal i ören, så
+ * resultatet blir exakt detsamma oavsett antal trådar.
+ */
+public class ReportEngine implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReportEngine.class);
+
+    private static final int MIN_ROWS_PER_TASK = 1 << 14;
+
+    private final OrderLineStore orderLines;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+
+    /**
+     * Med parallelism 1 körs allt i anropande tråd utan pool
+     */
+    public ReportEngine(OrderLineStore orderLines, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Antal trådar måste vara större än 0");
+        }
+        this.orderLines = orderLines;
+        this.parallelism = parallelism;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        logger.info("Rapportmotor startad med {} trådar", parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Rapport för ordrar skapade mellan start och end (inklusive).
+     * Kategorierna används för omsättning per kategori, en produkt kan ligga i flera.
+     */
+    public SalesReport salesReport(LocalDate start, LocalDate end, int topLimit, Collection<Category> categories) {
+        PeriodTotals totals = aggregate(start, end);
+
+        Map<OrderStatus, Long> ordersByStatus = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            ordersByStatus.put(status, totals.ordersWithStatus(status));
+        }
+
+        Map<String, Money> revenueByCategory = new LinkedHashMap<>();
+        for (Category category : categories) {
+            long cents = 0;
+            for (Product product : category.getProducts()) {
+                if (product.getId() != null) {
+                    cents += totals.revenueCentsForProduct(Math.toIntExact(product.getId()));
+                }
+            }
+            revenueByCategory.put(category.getName(), Money.ofCents(cents));
+        }
+
+        return new SalesReport(Money.ofCents(totals.revenueCents()), ordersByStatus,
+                topProducts(totals, topLimit), revenueByCategory);
+    }
+
+    public PeriodTotals aggregate(LocalDate start, LocalDate end) {
+        Snapshot snapshot = orderLines.snapshot();
+        long fromDay = start.toEpochDay();
+        long toDay = end.toEpochDay();
+        if (pool == null) {
+            return snapshot.aggregate(0, snapshot.size(), fromDay, toDay);
+        }
+
+        // En delsumma per tråd, inte per deluppgift, så att produktarrayerna bara skapas en gång per tråd
+        int rowsPerTask = Math.max(MIN_ROWS_PER_TASK, snapshot.size() / (parallelism * 4) + 1);
+        Map<Thread, PeriodTotals> byThread = new ConcurrentHashMap<>();
+        pool.invoke(new AggregateTask(snapshot, byThread, 0, snapshot.size(), rowsPerTask, fromDay, toDay));
+        PeriodTotals totals = snapshot.newTotals();
+        byThread.values().forEach(totals::merge);
+        return totals;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private Map<Product, Long> topProducts(PeriodTotals totals, int limit) {
+        // Minsta först, så heapen håller de limit mest sålda. Lika antal: lägst id först.
+        Comparator<Integer> bySold = Comparator.<Integer>comparingLong(totals::quantityForProduct)
+                .thenComparing(Comparator.reverseOrder());
+        PriorityQueue<Integer> top = new PriorityQueue<>(bySold);
+        for (int id = 0; id < totals.productSlots(); id++) {
+            if (totals.quantityForProduct(id) == 0) {
+                continue;
+            }
+            top.add(id);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Integer> ids = new ArrayList<>(top);
+        ids.sort(bySold.reversed());
+        Map<Product, Long> result = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            result.put(orderLines.product(id), totals.quantityForProduct(id));
+        }
+        return result;
+    }
+
+    /**
+     * Summerar sitt intervall i den delsumma som hör till tråden den körs i.
+     * En tråd kör en deluppgift i taget, så ingen delsumma skrivs av två trådar.
+     */
+    private static class AggregateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Snapshot snapshot;
+        private final Map<Thread, PeriodTotals> byThread;
+        private final int from;
+        private final int to;
+        private final int rowsPerTask;
+        private final long fromDay;
+        private final long toDay;
+
+        AggregateTask(Snapshot snapshot, Map<Thread, PeriodTotals> byThread, int from, int to,
+                      int rowsPerTask, long fromDay, long toDay) {
+            this.snapshot = snapshot;
+            this.byThread = byThread;
+            this.from = from;
+            this.to = to;
+            this.rowsPerTask = rowsPerTask;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= rowsPerTask) {
+                PeriodTotals totals = byThread.computeIfAbsent(Thread.currentThread(), thread -> snapshot.newTotals());
+                snapshot.aggregateInto(totals, from, to, fromDay, toDay);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new AggregateTask(snapshot, byThread, from, middle, rowsPerTask, fromDay, toDay),
+                    new AggregateTask(snapshot, byThread, middle, to, rowsPerTask, fromDay, toDay));
+        }
+    }
+}
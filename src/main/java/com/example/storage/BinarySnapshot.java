@@ -0,0 +1,764 @@
+package com.example.storage;
+
+import com.example.model.*;
+import com.example.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Kompakt, versionerad binär snapshot av alla repositoryn. Varje entitetstyp lagras
+ * som en sektion med kolumner av fast bredd (alla id, sedan alla priser osv.) och
+ * alla texter (SKU, namn, beskrivningar, email) ligger en gång i en strängtabell som
+ * kolumnerna pekar in i. Filen skrivs sekventiellt med en FileChannel och läses via
+ * minnesmappning, så inläsningen är en genomgång av kolumnerna utan tolkning av text.
+ *
+ * Layout (little-endian):
+ * <pre>
+ * header:   magic "EHS2", version, lsn
+ * sektion:  typ, antal, längd i byte, kolumner
+ * trailer:  "END!", CRC32 av allt före trailern
+ * </pre>
+ */
+public final class BinarySnapshot {
+    private static final Logger logger = LoggerFactory.getLogger(BinarySnapshot.class);
+
+    static final int MAGIC = 0x45485332; // "EHS2"
+    private static final int VERSION = 2;
+    private static final int TRAILER_MAGIC = 0x454E4421; // "END!"
+    private static final int HEADER_BYTES = 16;
+    private static final int SECTION_HEADER_BYTES = 16;
+    private static final int TRAILER_BYTES = 16;
+
+    private static final int STRINGS = 1;
+    private static final int PRODUCTS = 2;
+    private static final int CUSTOMERS = 3;
+    private static final int INVENTORY = 4;
+    private static final int ORDERS = 5;
+    private static final int ORDER_ITEMS = 6;
+    private static final int PAYMENTS = 7;
+
+    private static final int NO_STRING = -1;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Vad som skrevs eller lästes in
+     */
+    public record Result(long lsn, long products, long customers, long orders, long payments,
+                         long bytes, Duration elapsed) {
+        public long entities() {
+            return products + customers + orders + payments;
+        }
+    }
+
+    private record Section(long position, int count, long length) {
+    }
+
+    // ---------------------------------------------------------------- skrivning
+
+    /**
+     * Skriver alla repositoryn till file via en temporär fil som fsyncas och byter namn
+     * atomärt, så en befintlig snapshot aldrig ersätts av en halvskriven.
+     */
+    public static Result write(Path file, long lsn,
+                               ProductRepository productRepository,
+                               CustomerRepository customerRepository,
+                               InventoryRepository inventoryRepository,
+                               OrderRepository orderRepository,
+                               PaymentRepository paymentRepository) throws IOException {
+        long startTime = System.nanoTime();
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        List<Product> products = new ArrayList<>();
+        List<Customer> customers = new ArrayList<>();
+        List<Inventory> inventory = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        List<Payment> payments = new ArrayList<>();
+        productRepository.forEach(products::add);
+        customerRepository.forEach(customers::add);
+        inventoryRepository.forEach(inventory::add);
+        orderRepository.forEach(orders::add);
+        paymentRepository.forEach(payments::add);
+        // I id-ordning går inläsningen till repositorynas sorterade index mycket snabbare
+        products.sort(Comparator.comparing(Product::getId));
+        customers.sort(Comparator.comparing(Customer::getId));
+        inventory.sort(Comparator.comparing(Inventory::getProductId));
+        orders.sort(Comparator.comparing(Order::getId));
+        payments.sort(Comparator.comparing(Payment::getId));
+
+        StringTable strings = new StringTable();
+        int[] productText = new int[products.size() * 3];
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            productText[i * 3] = strings.ref(product.getSku());
+            productText[i * 3 + 1] = strings.ref(product.getName());
+            productText[i * 3 + 2] = strings.ref(product.getDescription());
+        }
+        int[] customerText = new int[customers.size() * 2];
+        for (int i = 0; i < customers.size(); i++) {
+            customerText[i * 2] = strings.ref(customers.get(i).getEmail());
+            customerText[i * 2 + 1] = strings.ref(customers.get(i).getName());
+        }
+
+        Path temp = directory.resolve(file.getFileName() + ".tmp");
+        long bytes;
+        try (ChannelWriter out = new ChannelWriter(FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putLong(lsn);
+
+            writeStrings(out, strings);
+            writeProducts(out, products, productText);
+            writeCustomers(out, customers, customerText);
+            writeInventory(out, inventory);
+            writeOrders(out, orders);
+            writePayments(out, payments);
+
+            long checksum = out.checksum();
+            out.putInt(TRAILER_MAGIC);
+            out.putInt(0);
+            out.putLong(checksum);
+            bytes = out.finish();
+        }
+
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        WriteAheadLog.forceDirectory(directory);
+
+        Result result = new Result(lsn, products.size(), customers.size(), orders.size(), payments.size(),
+                bytes, Duration.ofNanos(System.nanoTime() - startTime));
+        logger.info("Snapshot {} skriven: {} byte, {} entiteter, {} ms",
+                file, bytes, result.entities(), result.elapsed().toMillis());
+        return result;
+    }
+
+    private static void writeStrings(ChannelWriter out, StringTable strings) throws IOException {
+        int count = strings.utf8.size();
+        long blobBytes = 0;
+        for (byte[] utf8 : strings.utf8) {
+            blobBytes += utf8.length;
+        }
+        if (blobBytes > Integer.MAX_VALUE) {
+            throw new IOException("Strängtabellen är för stor för en snapshot");
+        }
+
+        out.sectionHeader(STRINGS, count, (long) (count + 1) * 4 + blobBytes);
+        int offset = 0;
+        out.putInt(offset);
+        for (byte[] utf8 : strings.utf8) {
+            offset += utf8.length;
+            out.putInt(offset);
+        }
+        for (byte[] utf8 : strings.utf8) {
+            out.putBytes(utf8);
+        }
+    }
+
+    private static void writeProducts(ChannelWriter out, List<Product> products, int[] text) throws IOException {
+        int n = products.size();
+        // id, sku, namn, beskrivning, pris, aktiv, skapad (sekunder, nanosekunder)
+        out.sectionHeader(PRODUCTS, n, (long) n * (8 + 4 + 4 + 4 + 8 + 1 + 8 + 4));
+        long[] ids = new long[n];
+        long[] prices = new long[n];
+        byte[] active = new byte[n];
+        LocalDateTime[] created = new LocalDateTime[n];
+        for (int i = 0; i < n; i++) {
+            Product product = products.get(i);
+            ids[i] = product.getId();
+            prices[i] = product.getPrice() != null ? product.getPrice().cents() : 0;
+            active[i] = (byte) (product.isActive() ? 1 : 0);
+            created[i] = product.getCreatedAt();
+        }
+        out.putLongs(ids);
+        for (int field = 0; field < 3; field++) {
+            for (int i = 0; i < n; i++) {
+                out.putInt(text[i * 3 + field]);
+            }
+        }
+        out.putLongs(prices);
+        out.putBytes(active);
+        writeTimes(out, created);
+    }
+
+    private static void writeCustomers(ChannelWriter out, List<Customer> customers, int[] text) throws IOException {
+        int n = customers.size();
+        // id, email, namn, skapad
+        out.sectionHeader(CUSTOMERS, n, (long) n * (8 + 4 + 4 + 8 + 4));
+        long[] ids = new long[n];
+        LocalDateTime[] created = new LocalDateTime[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = customers.get(i).getId();
+            created[i] = customers.get(i).getCreatedAt();
+        }
+        out.putLongs(ids);
+        for (int field = 0; field < 2; field++) {
+            for (int i = 0; i < n; i++) {
+                out.putInt(text[i * 2 + field]);
+            }
+        }
+        writeTimes(out, created);
+    }
+
+    private static void writeInventory(ChannelWriter out, List<Inventory> inventory) throws IOException {
+        int n = inventory.size();
+        out.sectionHeader(INVENTORY, n, (long) n * (8 + 4));
+        long[] productIds = new long[n];
+        int[] stock = new int[n];
+        for (int i = 0; i < n; i++) {
+            productIds[i] = inventory.get(i).getProductId();
+            stock[i] = inventory.get(i).getInStock();
+        }
+        out.putLongs(productIds);
+        out.putInts(stock);
+    }
+
+    private static void writeOrders(ChannelWriter out, List<Order> orders) throws IOException {
+        int n = orders.size();
+        long[] ids = new long[n];
+        long[] customerIds = new long[n];
+        byte[] status = new byte[n];
+        LocalDateTime[] created = new LocalDateTime[n];
+        // Radernas start per order; order i har raderna itemStart[i] till itemStart[i + 1]
+        int[] itemStart = new int[n + 1];
+
+        int itemCapacity = Math.max(16, n * 2);
+        long[] itemProduct = new long[itemCapacity];
+        int[] itemQuantity = new int[itemCapacity];
+        long[] itemCents = new long[itemCapacity];
+        int items = 0;
+
+        for (int i = 0; i < n; i++) {
+            Order order = orders.get(i);
+            ids[i] = order.getId();
+            customerIds[i] = order.getCustomer() != null ? order.getCustomer().getId() : -1;
+            status[i] = (byte) (order.getStatus() != null ? order.getStatus().ordinal() : -1);
+            created[i] = order.getCreatedAt();
+            itemStart[i] = items;
+            for (OrderItem item : order.getItems()) {
+                if (items == itemProduct.length) {
+                    int grown = itemProduct.length + (itemProduct.length >> 1);
+                    itemProduct = Arrays.copyOf(itemProduct, grown);
+                    itemQuantity = Arrays.copyOf(itemQuantity, grown);
+                    itemCents = Arrays.copyOf(itemCents, grown);
+                }
+                itemProduct[items] = item.getProduct().getId();
+                itemQuantity[items] = item.getQuantity();
+                itemCents[items] = item.getUnitPrice() != null ? item.getUnitPrice().cents() : 0;
+                items++;
+            }
+        }
+        itemStart[n] = items;
+
+        // id, kund, status, skapad, radstart (n + 1 värden)
+        out.sectionHeader(ORDERS, n, (long) n * (8 + 8 + 1 + 8 + 4) + (long) (n + 1) * 4);
+        out.putLongs(ids);
+        out.putLongs(customerIds);
+        out.putBytes(status);
+        writeTimes(out, created);
+        out.putInts(itemStart);
+
+        // produkt, antal, styckpris
+        out.sectionHeader(ORDER_ITEMS, items, (long) items * (8 + 4 + 8));
+        out.putLongs(itemProduct, items);
+        out.putInts(itemQuantity, items);
+        out.putLongs(itemCents, items);
+    }
+
+    private static void writePayments(ChannelWriter out, List<Payment> payments) throws IOException {
+        int n = payments.size();
+        // id, order, metod, status, tidpunkt
+        out.sectionHeader(PAYMENTS, n, (long) n * (8 + 8 + 1 + 1 + 8 + 4));
+        long[] ids = new long[n];
+        long[] orderIds = new long[n];
+        byte[] methods = new byte[n];
+        byte[] status = new byte[n];
+        LocalDateTime[] timestamps = new LocalDateTime[n];
+        for (int i = 0; i < n; i++) {
+            Payment payment = payments.get(i);
+            ids[i] = payment.getId();
+            orderIds[i] = payment.getOrder() != null && payment.getOrder().getId() != null
+                    ? payment.getOrder().getId() : -1;
+            methods[i] = (byte) (payment.getMethod() != null ? payment.getMethod().ordinal() : -1);
+            status[i] = (byte) (payment.getStatus() != null ? payment.getStatus().ordinal() : -1);
+            timestamps[i] = payment.getTimestamp();
+        }
+        out.putLongs(ids);
+        out.putLongs(orderIds);
+        out.putBytes(methods);
+        out.putBytes(status);
+        writeTimes(out, timestamps);
+    }
+
+    // Två kolumner: epoksekunder (UTC) och nanosekunder
+    private static void writeTimes(ChannelWriter out, LocalDateTime[] times) throws IOException {
+        for (LocalDateTime time : times) {
+            out.putLong(time != null ? time.toEpochSecond(ZoneOffset.UTC) : NO_TIME);
+        }
+        for (LocalDateTime time : times) {
+            out.putInt(time != null ? time.getNano() : 0);
+        }
+    }
+
+    // ---------------------------------------------------------------- inläsning
+
+    /**
+     * Läser in en snapshot i tomma repositoryn. Kontrollsumman verifieras innan något läggs in.
+     */
+    public static Result load(Path file,
+                              ProductRepository productRepository,
+                              CustomerRepository customerRepository,
+                              InventoryRepository inventoryRepository,
+                              OrderRepository orderRepository,
+                              PaymentRepository paymentRepository) throws IOException {
+        if (productRepository.count() > 0 || customerRepository.count() > 0 || orderRepository.count() > 0) {
+            throw new IllegalStateException("En snapshot kan bara läsas in i tomma repositoryn");
+        }
+
+        long startTime = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES) {
+                throw new IOException("Filen är för liten för att vara en snapshot: " + file);
+            }
+            ByteBuffer header = map(channel, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Inte en snapshot: " + file);
+            }
+            int version = header.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Snapshot-version " + version + " stöds inte: " + file);
+            }
+            long lsn = header.getLong(8);
+            verifyChecksum(channel, size, file);
+
+            Map<Integer, Section> sections = readSections(channel, size - TRAILER_BYTES);
+            String[] strings = readStrings(channel, sections.get(STRINGS));
+
+            List<Product> products = readProducts(channel, sections.get(PRODUCTS), strings);
+            productRepository.restoreAll(products);
+            List<Customer> customers = readCustomers(channel, sections.get(CUSTOMERS), strings);
+            customerRepository.restoreAll(customers);
+            inventoryRepository.restoreAll(readInventory(channel, sections.get(INVENTORY)));
+
+            Map<Long, Product> productsById = new HashMap<>(products.size() * 2);
+            products.forEach(product -> productsById.put(product.getId(), product));
+            Map<Long, Customer> customersById = new HashMap<>(customers.size() * 2);
+            customers.forEach(customer -> customersById.put(customer.getId(), customer));
+            List<Order> orders = readOrders(channel, sections.get(ORDERS), sections.get(ORDER_ITEMS),
+                    productsById, customersById);
+            orderRepository.restoreAll(orders);
+
+            List<Payment> payments = readPayments(channel, sections.get(PAYMENTS), orderRepository);
+            paymentRepository.restoreAll(payments);
+
+            Result result = new Result(lsn, products.size(), customers.size(), orders.size(), payments.size(),
+                    size, Duration.ofNanos(System.nanoTime() - startTime));
+            logger.info("Snapshot {} inläst: {} entiteter på {} ms", file, result.entities(), result.elapsed().toMillis());
+            return result;
+        }
+    }
+
+    /**
+     * True om filen börjar som en snapshot i det här formatet
+     */
+    static boolean isBinarySnapshot(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.size() >= 4 && map(channel, 0, 4).getInt(0) == MAGIC;
+        }
+    }
+
+    private static void verifyChecksum(FileChannel channel, long size, Path file) throws IOException {
+        long dataEnd = size - TRAILER_BYTES;
+        ByteBuffer trailer = map(channel, dataEnd, TRAILER_BYTES);
+        if (trailer.getInt(0) != TRAILER_MAGIC) {
+            throw new IOException("Snapshoten är ofullständig: " + file);
+        }
+
+        CRC32 crc = new CRC32();
+        for (long position = 0; position < dataEnd; position += 1 << 30) {
+            crc.update(map(channel, position, Math.min(1 << 30, dataEnd - position)));
+        }
+        if (crc.getValue() != trailer.getLong(8)) {
+            throw new IOException("Fel kontrollsumma, snapshoten är skadad: " + file);
+        }
+    }
+
+    private static Map<Integer, Section> readSections(FileChannel channel, long dataEnd) throws IOException {
+        Map<Integer, Section> sections = new HashMap<>();
+        long position = HEADER_BYTES;
+        while (position < dataEnd) {
+            ByteBuffer header = map(channel, position, SECTION_HEADER_BYTES);
+            int type = header.getInt(0);
+            int count = header.getInt(4);
+            long length = header.getLong(8);
+            sections.put(type, new Section(position + SECTION_HEADER_BYTES, count, length));
+            position += SECTION_HEADER_BYTES + length;
+        }
+        if (position != dataEnd) {
+            throw new IOException("Sektionerna stämmer inte med filens längd");
+        }
+        return sections;
+    }
+
+    private static String[] readStrings(FileChannel channel, Section section) throws IOException {
+        if (section == null) {
+            return new String[0];
+        }
+        ByteBuffer data = map(channel, section.position(), section.length());
+        int count = section.count();
+        IntBuffer offsets = slice(data, 0, (count + 1) * 4).asIntBuffer();
+        int blobStart = (count + 1) * 4;
+
+        String[] strings = new String[count];
+        byte[] scratch = new byte[256];
+        for (int i = 0; i < count; i++) {
+            int from = offsets.get(i);
+            int length = offsets.get(i + 1) - from;
+            if (scratch.length < length) {
+                scratch = new byte[length];
+            }
+            data.get(blobStart + from, scratch, 0, length);
+            strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static List<Product> readProducts(FileChannel channel, Section section, String[] strings) throws IOException {
+        if (section == null) {
+            return new ArrayList<>();
+        }
+        int n = section.count();
+        ByteBuffer data = map(channel, section.position(), section.length());
+        int offset = 0;
+        LongBuffer ids = slice(data, offset, n * 8).asLongBuffer();
+        offset += n * 8;
+        IntBuffer skus = slice(data, offset, n * 4).asIntBuffer();
+        offset += n * 4;
+        IntBuffer names = slice(data, offset, n * 4).asIntBuffer();
+        offset += n * 4;
+        IntBuffer descriptions = slice(data, offset, n * 4).asIntBuffer();
+        offset += n * 4;
+        LongBuffer prices = slice(data, offset, n * 8).asLongBuffer();
+        offset += n * 8;
+        ByteBuffer active = slice(data, offset, n);
+        offset += n;
+        Times created = new Times(data, offset, n);
+
+        List<Product> products = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Product product = new Product();
+            product.setId(ids.get(i));
+            product.setSku(string(strings, skus.get(i)));
+            product.setName(string(strings, names.get(i)));
+            product.setDescription(string(strings, descriptions.get(i)));
+            product.setPrice(Money.ofCents(prices.get(i)));
+            product.setActive(active.get(i) != 0);
+            product.setCreatedAt(created.get(i));
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static List<Customer> readCustomers(FileChannel channel, Section section, String[] strings) throws IOException {
+        if (section == null) {
+            return new ArrayList<>();
+        }
+        int n = section.count();
+        ByteBuffer data = map(channel, section.position(), section.length());
+        LongBuffer ids = slice(data, 0, n * 8).asLongBuffer();
+        IntBuffer emails = slice(data, n * 8, n * 4).asIntBuffer();
+        IntBuffer names = slice(data, n * 12, n * 4).asIntBuffer();
+        Times created = new Times(data, n * 16, n);
+
+        List<Customer> customers = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Customer customer = new Customer();
+            customer.setId(ids.get(i));
+            customer.setEmail(string(strings, emails.get(i)));
+            customer.setName(string(strings, names.get(i)));
+            customer.setCreatedAt(created.get(i));
+            customers.add(customer);
+        }
+        return customers;
+    }
+
+    private static List<Inventory> readInventory(FileChannel channel, Section section) throws IOException {
+        if (section == null) {
+            return new ArrayList<>();
+        }
+        int n = section.count();
+        ByteBuffer data = map(channel, section.position(), section.length());
+        LongBuffer productIds = slice(data, 0, n * 8).asLongBuffer();
+        IntBuffer stock = slice(data, n * 8, n * 4).asIntBuffer();
+
+        List<Inventory> inventory = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            inventory.add(new Inventory(productIds.get(i), stock.get(i)));
+        }
+        return inventory;
+    }
+
+    private static List<Order> readOrders(FileChannel channel, Section orderSection, Section itemSection,
+                                          Map<Long, Product> products, Map<Long, Customer> customers) throws IOException {
+        if (orderSection == null || itemSection == null) {
+            return new ArrayList<>();
+        }
+        int n = orderSection.count();
+        ByteBuffer data = map(channel, orderSection.position(), orderSection.length());
+        int offset = 0;
+        LongBuffer ids = slice(data, offset, n * 8).asLongBuffer();
+        offset += n * 8;
+        LongBuffer customerIds = slice(data, offset, n * 8).asLongBuffer();
+        offset += n * 8;
+        ByteBuffer status = slice(data, offset, n);
+        offset += n;
+        Times created = new Times(data, offset, n);
+        offset += n * 12;
+        IntBuffer itemStart = slice(data, offset, (n + 1) * 4).asIntBuffer();
+
+        int items = itemSection.count();
+        ByteBuffer itemData = map(channel, itemSection.position(), itemSection.length());
+        LongBuffer itemProduct = slice(itemData, 0, items * 8).asLongBuffer();
+        IntBuffer itemQuantity = slice(itemData, items * 8, items * 4).asIntBuffer();
+        LongBuffer itemCents = slice(itemData, items * 12, items * 8).asLongBuffer();
+
+        OrderStatus[] statuses = OrderStatus.values();
+        List<Order> orders = new ArrayList<>(n);
+        long skipped = 0;
+        for (int i = 0; i < n; i++) {
+            Customer customer = customers.get(customerIds.get(i));
+            if (customer == null) {
+                skipped++;
+                continue;
+            }
+
+            Order order = new Order(customer);
+            order.setId(ids.get(i));
+            byte s = status.get(i);
+            order.setStatus(s >= 0 ? statuses[s] : null);
+            order.setCreatedAt(created.get(i));
+
+            int from = itemStart.get(i);
+            int to = itemStart.get(i + 1);
+            List<OrderItem> orderItems = new ArrayList<>(to - from);
+            for (int row = from; row < to; row++) {
+                Product product = products.get(itemProduct.get(row));
+                if (product == null) {
+                    continue;
+                }
+                OrderItem item = new OrderItem();
+                item.setProduct(product);
+                item.setUnitPrice(Money.ofCents(itemCents.get(row)));
+                item.setQuantity(itemQuantity.get(row));
+                item.setOrder(order);
+                orderItems.add(item);
+            }
+            order.setItems(orderItems);
+            orders.add(order);
+        }
+        if (skipped > 0) {
+            logger.warn("{} ordrar pekade på okända kunder och hoppades över", skipped);
+        }
+        return orders;
+    }
+
+    private static List<Payment> readPayments(FileChannel channel, Section section,
+                                              OrderRepository orderRepository) throws IOException {
+        if (section == null) {
+            return new ArrayList<>();
+        }
+        int n = section.count();
+        ByteBuffer data = map(channel, section.position(), section.length());
+        LongBuffer ids = slice(data, 0, n * 8).asLongBuffer();
+        LongBuffer orderIds = slice(data, n * 8, n * 8).asLongBuffer();
+        ByteBuffer methods = slice(data, n * 16, n);
+        ByteBuffer status = slice(data, n * 17, n);
+        Times timestamps = new Times(data, n * 18, n);
+
+        PaymentMethod[] allMethods = PaymentMethod.values();
+        PaymentStatus[] allStatus = PaymentStatus.values();
+        List<Payment> payments = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Payment payment = new Payment();
+            payment.setId(ids.get(i));
+            payment.setOrder(orderRepository.findById(orderIds.get(i)).orElse(null));
+            byte method = methods.get(i);
+            payment.setMethod(method >= 0 ? allMethods[method] : null);
+            byte s = status.get(i);
+            payment.setStatus(s >= 0 ? allStatus[s] : null);
+            payment.setTimestamp(timestamps.get(i));
+            payments.add(payment);
+        }
+        return payments;
+    }
+
+    private static String string(String[] strings, int ref) {
+        return ref == NO_STRING ? null : strings[ref];
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Sektionen är för stor för att minnesmappas (" + length + " byte)");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static ByteBuffer slice(ByteBuffer data, int offset, int length) {
+        return data.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Två tidskolumner efter varandra: sekunder (long) och nanosekunder (int)
+     */
+    private static final class Times {
+        private final LongBuffer seconds;
+        private final IntBuffer nanos;
+
+        Times(ByteBuffer data, int offset, int n) {
+            this.seconds = slice(data, offset, n * 8).asLongBuffer();
+            this.nanos = slice(data, offset + n * 8, n * 4).asIntBuffer();
+        }
+
+        LocalDateTime get(int i) {
+            long s = seconds.get(i);
+            return s == NO_TIME ? null : LocalDateTime.ofEpochSecond(s, nanos.get(i), ZoneOffset.UTC);
+        }
+    }
+
+    /**
+     * Varje unik text får ett löpnummer och lagras en gång
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final List<byte[]> utf8 = new ArrayList<>();
+
+        int ref(String value) {
+            if (value == null) {
+                return NO_STRING;
+            }
+            Integer ref = refs.get(value);
+            if (ref == null) {
+                ref = utf8.size();
+                refs.put(value, ref);
+                utf8.add(value.getBytes(StandardCharsets.UTF_8));
+            }
+            return ref;
+        }
+    }
+
+    /**
+     * Buffrad sekventiell skrivning till en FileChannel med löpande CRC32
+     */
+    private static final class ChannelWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 crc = new CRC32();
+        private long written;
+
+        ChannelWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void sectionHeader(int type, int count, long length) throws IOException {
+            putInt(type);
+            putInt(count);
+            putLong(length);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putLongs(long[] values) throws IOException {
+            putLongs(values, values.length);
+        }
+
+        void putLongs(long[] values, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                putLong(values[i]);
+            }
+        }
+
+        void putInts(int[] values) throws IOException {
+            putInts(values, values.length);
+        }
+
+        void putInts(int[] values, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                putInt(values[i]);
+            }
+        }
+
+        void putBytes(byte[] values) throws IOException {
+            int offset = 0;
+            while (offset < values.length) {
+                ensure(1);
+                int chunk = Math.min(buffer.remaining(), values.length - offset);
+                buffer.put(values, offset, chunk);
+                offset += chunk;
+            }
+        }
+
+        /**
+         * Skriver ut bufferten och returnerar kontrollsumman för allt hittills
+         */
+        long checksum() throws IOException {
+            flush(true);
+            return crc.getValue();
+        }
+
+        long finish() throws IOException {
+            flush(false);
+            channel.force(true);
+            return written;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush(true);
+            }
+        }
+
+        private void flush(boolean checksum) throws IOException {
+            buffer.flip();
+            if (checksum) {
+                crc.update(buffer.duplicate());
+            }
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
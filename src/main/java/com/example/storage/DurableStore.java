@@ -0,0 +1,169 @@
+package com.example.storage;
+
+import com.example.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gör minnesrepositoryna beständiga med en write-ahead-logg och periodiska snapshots.
+ * Vid start läses senaste snapshot in och loggen efter den spelas upp; därefter
+ * kopplas loggen in i repositoryna så att varje sparning skrivs till disk.
+ */
+public class DurableStore implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(DurableStore.class);
+
+    private final Path directory;
+    private final FsyncPolicy policy;
+    private final long fsyncIntervalMillis;
+    private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final InventoryRepository inventoryRepository;
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+
+    private long nextLsn;
+    private WriteAheadLog log;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Resultat av en återläsning
+     */
+    public record Recovery(long snapshotRecords, long logRecords, Duration elapsed) {
+        public boolean isEmpty() {
+            return snapshotRecords == 0 && logRecords == 0;
+        }
+    }
+
+    public DurableStore(Path directory, FsyncPolicy policy, long fsyncIntervalMillis,
+                        ProductRepository productRepository,
+                        CustomerRepository customerRepository,
+                        InventoryRepository inventoryRepository,
+                        OrderRepository orderRepository,
+                        PaymentRepository paymentRepository) {
+        this.directory = directory;
+        this.policy = policy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.productRepository = productRepository;
+        this.customerRepository = customerRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+    }
+
+    /**
+     * Läser in senaste snapshot och spelar upp loggen efter den. Ska köras före start,
+     * på tomma repositoryn.
+     */
+    public synchronized Recovery recover() throws IOException {
+        if (log != null) {
+            throw new IllegalStateException("Återläsning måste ske innan loggen startas");
+        }
+
+        long startTime = System.nanoTime();
+        RecordCodec codec = new RecordCodec(productRepository, customerRepository,
+                inventoryRepository, orderRepository, paymentRepository);
+
+        long snapshotRecords = 0;
+        long fromLsn = 0;
+        Optional<Path> snapshot = SnapshotFile.latest(directory);
+        if (snapshot.isPresent()) {
+            fromLsn = SnapshotFile.lsnOf(snapshot.get());
+            snapshotRecords = SnapshotFile.load(snapshot.get(), codec, productRepository, customerRepository,
+                    inventoryRepository, orderRepository, paymentRepository);
+        }
+
+        long[] logRecords = {0};
+        nextLsn = WriteAheadLog.replay(directory, fromLsn, body -> {
+            codec.apply(body);
+            logRecords[0]++;
+        });
+
+        Recovery recovery = new Recovery(snapshotRecords, logRecords[0],
+                Duration.ofNanos(System.nanoTime() - startTime));
+        logger.info("Återläsning klar på {} ms: {} poster från snapshot, {} från loggen",
+                recovery.elapsed().toMillis(), snapshotRecords, logRecords[0]);
+        return recovery;
+    }
+
+    /**
+     * Öppnar loggen och kopplar in den i repositoryna
+     */
+    public synchronized void start() throws IOException {
+        if (log != null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        log = WriteAheadLog.open(directory, policy, fsyncIntervalMillis, nextLsn);
+        attach(new WalJournal(log, policy));
+    }
+
+    /**
+     * Tar en snapshot med jämna mellanrum i en bakgrundstråd
+     */
+    public synchronized void scheduleSnapshots(Duration interval) {
+        if (scheduler != null || interval.isZero() || interval.isNegative()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (Exception e) {
+                logger.error("Snapshot misslyckades", e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Roterar loggen, skriver alla repositoryn till en snapshot och tar bort
+     * loggsegment som snapshoten ersätter. Returnerar antal poster i snapshoten.
+     */
+    public synchronized long snapshot() throws IOException {
+        if (log == null) {
+            throw new IllegalStateException("Loggen är inte startad");
+        }
+
+        long startTime = System.nanoTime();
+        long lsn = log.rotate();
+        long records = SnapshotFile.write(directory, lsn, productRepository, customerRepository,
+                inventoryRepository, orderRepository, paymentRepository);
+        log.deleteSegmentsBefore(lsn);
+        logger.info("Snapshot vid LSN {} skriven på {} ms ({} poster)",
+                lsn, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), records);
+        return records;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        if (log != null) {
+            attach(RepositoryJournal.NONE);
+            log.close();
+            log = null;
+        }
+    }
+
+    private void attach(RepositoryJournal journal) {
+        productRepository.setJournal(journal);
+        customerRepository.setJournal(journal);
+        inventoryRepository.setJournal(journal);
+        orderRepository.setJournal(journal);
+        paymentRepository.setJournal(journal);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.storage;
+
+import java.util.Locale;
+
+/**
+ * När loggen tvingas ut till disk med FileChannel.force.
+ */
+public enum FsyncPolicy {
+    /** Varje sparning väntar på fsync. Samtidiga skrivare delar på samma fsync (group commit). */
+    ALWAYS,
+    /** Fsync i bakgrunden med ett fast intervall. Vid krasch kan det senaste intervallet gå förlorat. */
+    INTERVAL,
+    /** Ingen fsync, operativsystemet bestämmer när data hamnar på disk. */
+    NEVER;
+
+    public static FsyncPolicy parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
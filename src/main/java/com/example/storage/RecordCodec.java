@@ -0,0 +1,289 @@
+package com.example.storage;
+
+import com.example.model.*;
+import com.example.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binär kodning av repository-ändringar. Samma poster används i loggen och i
+ * snapshots. En sparning innehåller hela entitetens tillstånd, så att spela upp
+ * samma post två gånger ger samma resultat.
+ */
+class RecordCodec {
+    private static final Logger logger = LoggerFactory.getLogger(RecordCodec.class);
+
+    static final byte END = 0;
+    private static final byte PRODUCT_SAVED = 1;
+    private static final byte PRODUCT_DELETED = 2;
+    private static final byte CUSTOMER_SAVED = 3;
+    private static final byte CUSTOMER_DELETED = 4;
+    private static final byte INVENTORY_SAVED = 5;
+    private static final byte INVENTORY_DELETED = 6;
+    private static final byte ORDER_SAVED = 7;
+    private static final byte ORDER_DELETED = 8;
+    private static final byte PAYMENT_SAVED = 9;
+    private static final byte PAYMENT_DELETED = 10;
+    private static final byte CLEARED = 11;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final InventoryRepository inventoryRepository;
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+
+    RecordCodec(ProductRepository productRepository,
+                CustomerRepository customerRepository,
+                InventoryRepository inventoryRepository,
+                OrderRepository orderRepository,
+                PaymentRepository paymentRepository) {
+        this.productRepository = productRepository;
+        this.customerRepository = customerRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+    }
+
+    static byte[] encodeSaved(Object entity) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            if (entity instanceof Product product) {
+                out.writeByte(PRODUCT_SAVED);
+                out.writeLong(product.getId());
+                writeString(out, product.getSku());
+                writeString(out, product.getName());
+                writeString(out, product.getDescription());
+                out.writeLong(product.getPrice() != null ? product.getPrice().cents() : 0);
+                out.writeBoolean(product.isActive());
+                writeTime(out, product.getCreatedAt());
+            } else if (entity instanceof Customer customer) {
+                out.writeByte(CUSTOMER_SAVED);
+                out.writeLong(customer.getId());
+                writeString(out, customer.getEmail());
+                writeString(out, customer.getName());
+                writeTime(out, customer.getCreatedAt());
+            } else if (entity instanceof Inventory inventory) {
+                out.writeByte(INVENTORY_SAVED);
+                out.writeLong(inventory.getProductId());
+                out.writeInt(inventory.getInStock());
+            } else if (entity instanceof Order order) {
+                out.writeByte(ORDER_SAVED);
+                out.writeLong(order.getId());
+                out.writeLong(order.getCustomer() != null ? order.getCustomer().getId() : -1);
+                out.writeByte(order.getStatus() != null ? order.getStatus().ordinal() : -1);
+                writeTime(out, order.getCreatedAt());
+                List<OrderItem> items = order.getItems();
+                out.writeInt(items.size());
+                for (OrderItem item : items) {
+                    out.writeLong(item.getProduct().getId());
+                    out.writeInt(item.getQuantity());
+                    out.writeLong(item.getUnitPrice() != null ? item.getUnitPrice().cents() : 0);
+                }
+            } else if (entity instanceof Payment payment) {
+                out.writeByte(PAYMENT_SAVED);
+                out.writeLong(payment.getId());
+                out.writeLong(payment.getOrder() != null && payment.getOrder().getId() != null
+                        ? payment.getOrder().getId() : -1);
+                out.writeByte(payment.getMethod() != null ? payment.getMethod().ordinal() : -1);
+                out.writeByte(payment.getStatus() != null ? payment.getStatus().ordinal() : -1);
+                writeTime(out, payment.getTimestamp());
+            } else {
+                throw new IllegalArgumentException("Okänd entitet: " + entity.getClass().getName());
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static byte[] encodeDeleted(Class<?> type, Long id) {
+        byte[] body = new byte[9];
+        body[0] = deletedKind(type);
+        for (int i = 0; i < 8; i++) {
+            body[1 + i] = (byte) (id >>> (56 - 8 * i));
+        }
+        return body;
+    }
+
+    static byte[] encodeCleared(Class<?> type) {
+        // Raderingstypen pekar ut vilket repository som tömts
+        return new byte[]{CLEARED, deletedKind(type)};
+    }
+
+    private static byte deletedKind(Class<?> type) {
+        if (type == Product.class) {
+            return PRODUCT_DELETED;
+        } else if (type == Customer.class) {
+            return CUSTOMER_DELETED;
+        } else if (type == Inventory.class) {
+            return INVENTORY_DELETED;
+        } else if (type == Order.class) {
+            return ORDER_DELETED;
+        } else if (type == Payment.class) {
+            return PAYMENT_DELETED;
+        }
+        throw new IllegalArgumentException("Okänd entitetstyp: " + type.getName());
+    }
+
+    /**
+     * Spelar upp en post mot repositoryna
+     */
+    void apply(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        byte kind = in.readByte();
+        switch (kind) {
+            case PRODUCT_SAVED -> applyProduct(in);
+            case CUSTOMER_SAVED -> applyCustomer(in);
+            case INVENTORY_SAVED -> {
+                Inventory inventory = inventoryRepository.findOrCreate(in.readLong());
+                inventory.setInStock(in.readInt());
+                inventoryRepository.save(inventory);
+            }
+            case ORDER_SAVED -> applyOrder(in);
+            case PAYMENT_SAVED -> applyPayment(in);
+            case PRODUCT_DELETED -> productRepository.findById(in.readLong()).ifPresent(productRepository::delete);
+            case CUSTOMER_DELETED -> customerRepository.findById(in.readLong()).ifPresent(customerRepository::delete);
+            case INVENTORY_DELETED -> inventoryRepository.delete(in.readLong());
+            case ORDER_DELETED -> orderRepository.findById(in.readLong()).ifPresent(orderRepository::delete);
+            case PAYMENT_DELETED -> paymentRepository.findById(in.readLong()).ifPresent(paymentRepository::delete);
+            case CLEARED -> applyCleared(in.readByte());
+            default -> throw new IOException("Okänd posttyp: " + kind);
+        }
+    }
+
+    private void applyProduct(DataInput in) throws IOException {
+        long id = in.readLong();
+        Product product = productRepository.findById(id).orElseGet(Product::new);
+        product.setId(id);
+        product.setSku(readString(in));
+        product.setName(readString(in));
+        product.setDescription(readString(in));
+        product.setPrice(Money.ofCents(in.readLong()));
+        product.setActive(in.readBoolean());
+        product.setCreatedAt(readTime(in));
+        productRepository.save(product);
+    }
+
+    private void applyCustomer(DataInput in) throws IOException {
+        long id = in.readLong();
+        Customer customer = customerRepository.findById(id).orElseGet(Customer::new);
+        customer.setId(id);
+        customer.setEmail(readString(in));
+        customer.setName(readString(in));
+        customer.setCreatedAt(readTime(in));
+        customerRepository.save(customer);
+    }
+
+    private void applyOrder(DataInput in) throws IOException {
+        long id = in.readLong();
+        long customerId = in.readLong();
+        byte status = in.readByte();
+        LocalDateTime createdAt = readTime(in);
+        int itemCount = in.readInt();
+
+        Order order = orderRepository.findById(id).orElseGet(Order::new);
+        List<OrderItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            long productId = in.readLong();
+            int quantity = in.readInt();
+            long unitCents = in.readLong();
+            Product product = productRepository.findById(productId).orElse(null);
+            if (product == null) {
+                logger.warn("Order {} pekar på okänd produkt {}, raden hoppas över", id, productId);
+                continue;
+            }
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setUnitPrice(Money.ofCents(unitCents));
+            item.setQuantity(quantity);
+            item.setOrder(order);
+            items.add(item);
+        }
+
+        Customer customer = customerRepository.findById(customerId).orElse(null);
+        if (customer == null) {
+            logger.warn("Order {} pekar på okänd kund {}, ordern hoppas över", id, customerId);
+            return;
+        }
+
+        order.setId(id);
+        order.setCustomer(customer);
+        order.setStatus(status >= 0 ? OrderStatus.values()[status] : null);
+        order.setCreatedAt(createdAt);
+        order.setItems(items);
+        orderRepository.save(order);
+    }
+
+    private void applyPayment(DataInput in) throws IOException {
+        long id = in.readLong();
+        long orderId = in.readLong();
+        byte method = in.readByte();
+        byte status = in.readByte();
+
+        Payment payment = paymentRepository.findById(id).orElseGet(Payment::new);
+        payment.setId(id);
+        payment.setOrder(orderRepository.findById(orderId).orElse(null));
+        payment.setMethod(method >= 0 ? PaymentMethod.values()[method] : null);
+        payment.setStatus(status >= 0 ? PaymentStatus.values()[status] : null);
+        payment.setTimestamp(readTime(in));
+        paymentRepository.save(payment);
+    }
+
+    private void applyCleared(byte deletedKind) throws IOException {
+        switch (deletedKind) {
+            case PRODUCT_DELETED -> productRepository.deleteAll();
+            case CUSTOMER_DELETED -> customerRepository.deleteAll();
+            case INVENTORY_DELETED -> inventoryRepository.deleteAll();
+            case ORDER_DELETED -> orderRepository.deleteAll();
+            case PAYMENT_DELETED -> paymentRepository.deleteAll();
+            default -> throw new IOException("Okänt repository i rensningspost: " + deletedKind);
+        }
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeTime(DataOutput out, LocalDateTime time) throws IOException {
+        if (time == null) {
+            out.writeLong(NO_TIME);
+            return;
+        }
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInput in) throws IOException {
+        long seconds = in.readLong();
+        if (seconds == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(seconds, in.readInt(), ZoneOffset.UTC);
+    }
+}
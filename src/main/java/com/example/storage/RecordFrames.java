@@ -0,0 +1,59 @@
+package com.example.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Ramformat för poster på disk: längd (int), CRC32 av innehållet (int), innehåll.
+ * En avbruten skrivning känns igen på att längden eller kontrollsumman inte stämmer.
+ */
+final class RecordFrames {
+    static final int HEADER_BYTES = 8;
+    private static final int MAX_BODY_BYTES = 64 << 20;
+
+    private RecordFrames() {
+    }
+
+    static void write(ByteBuffer target, byte[] body) {
+        target.putInt(body.length);
+        target.putInt(checksum(body));
+        target.put(body);
+    }
+
+    static void write(DataOutput out, byte[] body) throws IOException {
+        out.writeInt(body.length);
+        out.writeInt(checksum(body));
+        out.write(body);
+    }
+
+    /**
+     * Nästa posts innehåll, eller null vid filslut eller en trasig/avbruten post
+     */
+    static byte[] read(DataInput in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+
+        try {
+            int expected = in.readInt();
+            if (length <= 0 || length > MAX_BODY_BYTES) {
+                return null;
+            }
+            byte[] body = new byte[length];
+            in.readFully(body);
+            return checksum(body) == expected ? body : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static int checksum(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+}
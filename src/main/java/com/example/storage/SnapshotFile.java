@@ -0,0 +1,123 @@
+package com.example.storage;
+
+import com.example.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Snapshots i datakatalogen, tagna vid en loggrotation. Filen heter efter LSN där
+ * loggen ska fortsätta spelas upp. Snapshoten tas medan systemet kör: ändringar under
+ * skrivningen finns också i loggen efter LSN, och eftersom varje loggpost är hela
+ * tillståndet blir resultatet rätt. Nya snapshots skrivs i {@link BinarySnapshot}-formatet;
+ * äldre filer i postformatet (version 1) kan fortfarande läsas.
+ */
+final class SnapshotFile {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotFile.class);
+
+    private static final int RECORD_MAGIC = 0x45485331; // "EHS1"
+    private static final int RECORD_VERSION = 1;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Skriver en ny snapshot och tar bort äldre. Returnerar antal entiteter.
+     */
+    static long write(Path directory, long lsn,
+                      ProductRepository productRepository,
+                      CustomerRepository customerRepository,
+                      InventoryRepository inventoryRepository,
+                      OrderRepository orderRepository,
+                      PaymentRepository paymentRepository) throws IOException {
+        BinarySnapshot.Result result = BinarySnapshot.write(directory.resolve(fileName(lsn)), lsn,
+                productRepository, customerRepository, inventoryRepository, orderRepository, paymentRepository);
+        deleteOlderThan(directory, lsn);
+        return result.entities();
+    }
+
+    static Optional<Path> latest(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(SnapshotFile::isSnapshot)
+                    .max((a, b) -> Long.compare(lsnOf(a), lsnOf(b)));
+        }
+    }
+
+    /**
+     * Läser in snapshoten i repositoryna. Returnerar antal entiteter eller poster.
+     */
+    static long load(Path file, RecordCodec codec,
+                     ProductRepository productRepository,
+                     CustomerRepository customerRepository,
+                     InventoryRepository inventoryRepository,
+                     OrderRepository orderRepository,
+                     PaymentRepository paymentRepository) throws IOException {
+        if (BinarySnapshot.isBinarySnapshot(file)) {
+            return BinarySnapshot.load(file, productRepository, customerRepository,
+                    inventoryRepository, orderRepository, paymentRepository).entities();
+        }
+        return loadRecords(file, codec);
+    }
+
+    // Version 1: samma postformat som loggen, avslutat med en END-post
+    private static long loadRecords(Path file, RecordCodec codec) throws IOException {
+        long records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != RECORD_MAGIC) {
+                throw new IOException("Inte en snapshot: " + file);
+            }
+            int version = in.readInt();
+            if (version != RECORD_VERSION) {
+                throw new IOException("Snapshot-version " + version + " stöds inte: " + file);
+            }
+            in.readLong();
+
+            byte[] body;
+            while ((body = RecordFrames.read(in)) != null) {
+                if (body.length == 1 && body[0] == RecordCodec.END) {
+                    logger.info("Snapshot {} inläst: {} poster", file.getFileName(), records);
+                    return records;
+                }
+                codec.apply(body);
+                records++;
+            }
+        }
+        throw new IOException("Snapshoten är ofullständig eller skadad: " + file);
+    }
+
+    static long lsnOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static void deleteOlderThan(Path directory, long lsn) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(SnapshotFile::isSnapshot).toList()) {
+                if (lsnOf(file) < lsn) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static boolean isSnapshot(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static String fileName(long lsn) {
+        return String.format("%s%020d%s", PREFIX, lsn, SUFFIX);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.storage;
+
+import com.example.repository.RepositoryJournal;
+
+/**
+ * Skriver repositorynas ändringar till write-ahead-loggen. Posten kodas i
+ * anropande tråd under entitetens lås, så den speglar just den sparningen.
+ */
+class WalJournal implements RepositoryJournal {
+    private final WriteAheadLog log;
+    private final boolean waitForFsync;
+    private final ThreadLocal<long[]> lastLsn = ThreadLocal.withInitial(() -> new long[]{-1});
+
+    WalJournal(WriteAheadLog log, FsyncPolicy policy) {
+        this.log = log;
+        this.waitForFsync = policy == FsyncPolicy.ALWAYS;
+    }
+
+    @Override
+    public void saved(Object entity) {
+        append(RecordCodec.encodeSaved(entity));
+    }
+
+    @Override
+    public void deleted(Class<?> type, Long id) {
+        append(RecordCodec.encodeDeleted(type, id));
+    }
+
+    @Override
+    public void cleared(Class<?> type) {
+        append(RecordCodec.encodeCleared(type));
+        sync();
+    }
+
+    @Override
+    public void sync() {
+        if (waitForFsync) {
+            long[] lsn = lastLsn.get();
+            if (lsn[0] >= 0) {
+                log.awaitDurable(lsn[0]);
+                lsn[0] = -1;
+            }
+        }
+    }
+
+    private void append(byte[] body) {
+        long lsn = log.append(body);
+        if (waitForFsync) {
+            lastLsn.get()[0] = lsn;
+        }
+    }
+}
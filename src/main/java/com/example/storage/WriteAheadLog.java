@@ -0,0 +1,341 @@
+package com.example.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append-only logg över repository-ändringar, uppdelad i segment som heter efter
+ * sitt första löpnummer (LSN). Anropande trådar lägger bara posten i en buffert;
+ * en enda skrivartråd skriver allt som samlats sedan förra varvet med en
+ * sekventiell write och en gemensam force (group commit).
+ */
+public class WriteAheadLog implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    // Skrivare får vänta om skrivartråden ligger så här långt efter
+    private static final int MAX_PENDING_BYTES = 16 << 20;
+
+    private final Path directory;
+    private final FsyncPolicy policy;
+    private final long fsyncIntervalNanos;
+    private final Thread writer;
+
+    // Skyddas av this
+    private ByteBuffer pending = ByteBuffer.allocate(1 << 16);
+    private ByteBuffer spare = ByteBuffer.allocate(1 << 16);
+    private long nextLsn;
+    private long durableLsn;
+    private boolean rotateRequested;
+    private long rotatedAt;
+    private boolean closed;
+    private boolean stopped;
+    private IOException failure;
+
+    // Används bara av skrivartråden
+    private FileChannel channel;
+    private long lastForce = System.nanoTime();
+    private boolean unforced;
+
+    private WriteAheadLog(Path directory, FsyncPolicy policy, long fsyncIntervalMillis, long nextLsn) throws IOException {
+        this.directory = directory;
+        this.policy = policy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, fsyncIntervalMillis));
+        this.nextLsn = nextLsn;
+        this.durableLsn = nextLsn;
+        this.channel = openSegment(nextLsn);
+        this.writer = new Thread(this::runWriter, "wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Öppnar loggen för skrivning i ett nytt segment som börjar på nextLsn.
+     * Befintliga segment ska redan ha spelats upp med replay.
+     */
+    public static WriteAheadLog open(Path directory, FsyncPolicy policy, long fsyncIntervalMillis,
+                                     long nextLsn) throws IOException {
+        Files.createDirectories(directory);
+        WriteAheadLog log = new WriteAheadLog(directory, policy, fsyncIntervalMillis, nextLsn);
+        logger.info("Write-ahead-logg öppnad i {} från LSN {} (fsync: {})", directory, nextLsn, policy);
+        return log;
+    }
+
+    /**
+     * Spelar upp alla poster från och med fromLsn i LSN-ordning. En avbruten post i
+     * slutet av ett segment (t.ex. efter en krasch) kapas bort. Returnerar nästa LSN.
+     */
+    public static long replay(Path directory, long fromLsn, RecordHandler handler) throws IOException {
+        List<Long> starts = segmentStarts(directory);
+        long lsn = fromLsn;
+        for (int i = 0; i < starts.size(); i++) {
+            long start = starts.get(i);
+            if (i + 1 < starts.size() && starts.get(i + 1) <= fromLsn) {
+                continue;
+            }
+            if (start > lsn) {
+                logger.warn("Glapp i loggen: LSN {} till {} saknas", lsn, start - 1);
+                lsn = start;
+            }
+            lsn = replaySegment(directory.resolve(segmentName(start)), start, lsn, handler);
+        }
+        return lsn;
+    }
+
+    /**
+     * Lägger posten i skrivbufferten. Returnerar postens LSN, som kan skickas till awaitDurable.
+     */
+    public synchronized long append(byte[] body) {
+        while (pending.position() > MAX_PENDING_BYTES && failure == null && !closed) {
+            waitUninterruptibly(0);
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Loggen kan inte skrivas", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Loggen är stängd");
+        }
+
+        int needed = RecordFrames.HEADER_BYTES + body.length;
+        if (pending.remaining() < needed) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + needed));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        boolean wasEmpty = pending.position() == 0;
+        RecordFrames.write(pending, body);
+        if (wasEmpty) {
+            notifyAll();
+        }
+        return nextLsn++;
+    }
+
+    /**
+     * Väntar tills posten med givet LSN har tvingats ut till disk
+     */
+    public synchronized void awaitDurable(long lsn) {
+        while (durableLsn <= lsn && failure == null && !stopped) {
+            waitUninterruptibly(0);
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Loggen kan inte skrivas", failure);
+        }
+    }
+
+    /**
+     * Avslutar nuvarande segment och börjar ett nytt. Returnerar det nya segmentets
+     * första LSN: allt före det ligger i äldre segment och är tvingat till disk.
+     */
+    public synchronized long rotate() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Loggen är stängd");
+        }
+        rotateRequested = true;
+        notifyAll();
+        while (rotateRequested && failure == null) {
+            waitUninterruptibly(0);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return rotatedAt;
+    }
+
+    /**
+     * Tar bort segment vars alla poster ligger före lsn, t.ex. efter en snapshot
+     */
+    public void deleteSegmentsBefore(long lsn) throws IOException {
+        List<Long> starts = segmentStarts(directory);
+        for (int i = 0; i + 1 < starts.size(); i++) {
+            if (starts.get(i + 1) <= lsn) {
+                Files.deleteIfExists(directory.resolve(segmentName(starts.get(i))));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Write-ahead-logg stängd vid LSN {}", nextLsn);
+    }
+
+    public interface RecordHandler {
+        void accept(byte[] body) throws IOException;
+    }
+
+    private void runWriter() {
+        try {
+            while (true) {
+                ByteBuffer batch;
+                long batchEnd;
+                boolean rotate;
+                boolean closing;
+                synchronized (this) {
+                    while (pending.position() == 0 && !rotateRequested && !closed && !forceDue()) {
+                        waitUninterruptibly(unforced ? remainingIntervalMillis() : 0);
+                    }
+                    batch = pending;
+                    pending = spare;
+                    spare = batch;
+                    batchEnd = nextLsn;
+                    rotate = rotateRequested;
+                    closing = closed;
+                    // Skrivare som väntade på buffertutrymme kan fortsätta
+                    notifyAll();
+                }
+
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                boolean wrote = batch.position() > 0;
+                batch.clear();
+                unforced |= wrote;
+
+                boolean force = unforced && (policy == FsyncPolicy.ALWAYS || rotate || closing || forceDue());
+                if (force) {
+                    channel.force(false);
+                    lastForce = System.nanoTime();
+                    unforced = false;
+                }
+                if (rotate) {
+                    channel.close();
+                    channel = openSegment(batchEnd);
+                }
+
+                synchronized (this) {
+                    if (force) {
+                        durableLsn = batchEnd;
+                    }
+                    if (rotate) {
+                        rotateRequested = false;
+                        rotatedAt = batchEnd;
+                    }
+                    notifyAll();
+                    if (closing && pending.position() == 0) {
+                        break;
+                    }
+                }
+            }
+            channel.close();
+        } catch (IOException e) {
+            logger.error("Skrivning till write-ahead-loggen misslyckades", e);
+            synchronized (this) {
+                failure = e;
+            }
+        } finally {
+            synchronized (this) {
+                stopped = true;
+                notifyAll();
+            }
+        }
+    }
+
+    // Bara INTERVAL tvingar ut data på tid, ALWAYS gör det varje varv och NEVER aldrig
+    private boolean forceDue() {
+        return policy == FsyncPolicy.INTERVAL && unforced && System.nanoTime() - lastForce >= fsyncIntervalNanos;
+    }
+
+    private long remainingIntervalMillis() {
+        if (policy != FsyncPolicy.INTERVAL) {
+            return 0;
+        }
+        long remaining = fsyncIntervalNanos - (System.nanoTime() - lastForce);
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining));
+    }
+
+    private void waitUninterruptibly(long millis) {
+        try {
+            wait(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private FileChannel openSegment(long startLsn) throws IOException {
+        FileChannel segment = FileChannel.open(directory.resolve(segmentName(startLsn)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        forceDirectory(directory);
+        return segment;
+    }
+
+    /**
+     * Gör att en ny eller omdöpt fil i katalogen överlever en krasch (fungerar på Linux, ignoreras annars)
+     */
+    static void forceDirectory(Path directory) {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            logger.debug("Kunde inte fsynca katalogen {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static long replaySegment(Path file, long startLsn, long fromLsn, RecordHandler handler) throws IOException {
+        long lsn = startLsn;
+        long validBytes = 0;
+        try (FileChannel segment = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(segment), 1 << 16));
+            byte[] body;
+            while ((body = RecordFrames.read(in)) != null) {
+                if (lsn >= fromLsn) {
+                    handler.accept(body);
+                }
+                lsn++;
+                validBytes += RecordFrames.HEADER_BYTES + body.length;
+            }
+
+            if (validBytes < segment.size()) {
+                logger.warn("Kapar avbruten post i slutet av {} ({} byte)", file.getFileName(),
+                        segment.size() - validBytes);
+                segment.truncate(validBytes);
+                segment.force(true);
+            }
+        }
+        return Math.max(lsn, fromLsn);
+    }
+
+    private static List<Long> segmentStarts(Path directory) throws IOException {
+        List<Long> starts = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return starts;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .forEach(starts::add);
+        }
+        return starts;
+    }
+
+    private static String segmentName(long startLsn) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, startLsn, SEGMENT_SUFFIX);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.helper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTokenizerTest {
+    private static final String ROWS = """
+            sku,name,description,price,stock
+            SKU-1,  Kaffe  ,"Mörkrost, 500 g",59.50,10
+            SKU-2,"Te ""Earl Grey\""","Två rader
+            i beskrivningen",35,0
+            SKU-3,Socker,,12.5,7\r
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        try (CsvTokenizer row = CsvTokenizer.open(write(ROWS.getBytes(StandardCharsets.UTF_8)))) {
+            assertTrue(row.next());
+            assertEquals(5, row.fieldCount());
+
+            assertTrue(row.next());
+            assertEquals(2, row.lineNumber());
+            assertEquals("Kaffe", row.field(1));
+            assertEquals("Mörkrost, 500 g", row.field(2));
+            assertEquals(5_950, row.decimalField(3, 2));
+            assertEquals(10, row.intField(4));
+
+            assertTrue(row.next());
+            assertEquals(3, row.lineNumber());
+            assertEquals("Te \"Earl Grey\"", row.field(1));
+            assertEquals("Två rader\ni beskrivningen", row.field(2));
+            assertEquals(3_500, row.decimalField(3, 2));
+
+            assertTrue(row.next());
+            assertEquals(5, row.lineNumber());
+            assertTrue(row.isEmpty(2));
+            assertEquals(1_250, row.decimalField(3, 2));
+            assertEquals(7, row.intField(4));
+
+            assertFalse(row.next());
+        }
+    }
+
+    @Test
+    void byteOrderMarkIsSkipped() throws IOException {
+        byte[] text = "sku,name\nSKU-1,Kaffe\n".getBytes(StandardCharsets.UTF_8);
+        byte[] withBom = new byte[text.length + 3];
+        withBom[0] = (byte) 0xEF;
+        withBom[1] = (byte) 0xBB;
+        withBom[2] = (byte) 0xBF;
+        System.arraycopy(text, 0, withBom, 3, text.length);
+
+        try (CsvTokenizer row = CsvTokenizer.open(write(withBom))) {
+            assertTrue(row.next());
+            assertEquals("sku", row.field(0));
+            assertTrue(row.startsWithIgnoreCase(0, "SKU"));
+        }
+    }
+
+    @Test
+    void dateTimeFieldReadsBothIsoLengths() throws IOException {
+        String csv = "2025-01-01T10:00,2025-01-01T10:00:30,2025-01-01T10:00:30.5\n";
+        try (CsvTokenizer row = CsvTokenizer.open(write(csv.getBytes(StandardCharsets.UTF_8)))) {
+            assertTrue(row.next());
+            assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), row.dateTimeField(0));
+            assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0, 30), row.dateTimeField(1));
+            assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0, 30, 500_000_000), row.dateTimeField(2));
+        }
+    }
+
+    /**
+     * Blocken får bara delas mellan poster. En post med radbrytning inom citattecken
+     * ska hamna hel i ett block, och blocken tillsammans ska ge samma poster och
+     * radnummer som en läsning rakt igenom filen, oavsett blockstorlek.
+     */
+    @Test
+    void chunksNeverSplitARecord() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            csv.append("SKU-").append(i).append(',');
+            csv.append(i % 3 == 0 ? "\"Rad ett\nrad två, " + i + "\"" : "Produkt " + i);
+            csv.append(',').append(i).append('\n');
+        }
+        Path file = write(csv.toString().getBytes(StandardCharsets.UTF_8));
+
+        List<String> expected = new ArrayList<>();
+        try (CsvTokenizer row = CsvTokenizer.open(file)) {
+            while (row.next()) {
+                expected.add(describe(row));
+            }
+        }
+        assertEquals(50, expected.size());
+
+        for (int chunkSize : new int[]{1, 2, 7, 50, 100}) {
+            List<String> chunked = new ArrayList<>();
+            try (CsvTokenizer reader = CsvTokenizer.open(file)) {
+                CsvTokenizer chunk;
+                while ((chunk = reader.nextChunk(chunkSize)) != null) {
+                    int records = 0;
+                    while (chunk.next()) {
+                        chunked.add(describe(chunk));
+                        records++;
+                    }
+                    assertTrue(records > 0 && records <= chunkSize);
+                }
+            }
+            assertEquals(expected, chunked, "Blockstorlek " + chunkSize);
+        }
+    }
+
+    private static String describe(CsvTokenizer row) {
+        StringBuilder line = new StringBuilder().append(row.lineNumber());
+        for (int field = 0; field < row.fieldCount(); field++) {
+            line.append('|').append(row.field(field));
+        }
+        return line.toString();
+    }
+
+    private Path write(byte[] content) throws IOException {
+        Path file = directory.resolve("data.csv");
+        Files.write(file, content);
+        return file;
+    }
+}
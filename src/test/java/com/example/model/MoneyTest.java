@@ -0,0 +1,50 @@
+package com.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void parseAcceptsWholeKronorAndBothDecimalSeparators() {
+        assertEquals(5_900, Money.parse("59").cents());
+        assertEquals(5_950, Money.parse("59.5").cents());
+        assertEquals(5_950, Money.parse(" 59,50 ").cents());
+        assertEquals(-1_005, Money.parse("-10.05").cents());
+        assertSame(Money.ZERO, Money.parse("0.00"));
+    }
+
+    @Test
+    void parseRoundsExtraDecimalsHalfUp() {
+        assertEquals(1_000, Money.parse("9.995").cents());
+        assertEquals(999, Money.parse("9.994").cents());
+        assertEquals(-1_000, Money.parse("-9.995").cents());
+    }
+
+    @Test
+    void parseRejectsInvalidAndTooLargeAmounts() {
+        assertThrows(NumberFormatException.class, () -> Money.parse("tio"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("100000000000000000000"));
+    }
+
+    @Test
+    void toStringAlwaysHasTwoDecimals() {
+        assertEquals("1234.50", Money.ofCents(123_450).toString());
+        assertEquals("0.05", Money.ofCents(5).toString());
+        assertEquals("-0.05", Money.ofCents(-5).toString());
+        assertEquals("0.00", Money.ZERO.toString());
+        assertEquals(Money.parse("1234.50"), Money.parse(Money.ofCents(123_450).toString()));
+    }
+
+    /**
+     * Summering i ören ger exakt resultat där double ger 0.30000000000000004
+     */
+    @Test
+    void arithmeticIsExactAndDetectsOverflow() {
+        assertEquals(Money.ofCents(30), Money.parse("0.10").plus(Money.parse("0.20")));
+        assertEquals(Money.ofCents(29_997), Money.parse("99.99").times(3));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE / 2).times(3));
+    }
+}
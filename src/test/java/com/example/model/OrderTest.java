@@ -0,0 +1,37 @@
+package com.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderTest {
+
+    @Test
+    void newOrderStartsAtZero() {
+        assertSame(Money.ZERO, new Order().getTotal());
+        assertSame(Money.ZERO, new Order(new Customer("kund@example.com", "Kund")).getTotal());
+    }
+
+    @Test
+    void totalFollowsItemsInCents() {
+        Order order = new Order();
+        OrderItem coffee = new OrderItem(new Product("SKU-1", "Kaffe", "", Money.parse("59.90")), 3);
+        OrderItem tea = new OrderItem(new Product("SKU-2", "Te", "", Money.parse("0.10")), 2);
+        order.addItem(coffee);
+        order.addItem(tea);
+        assertEquals(Money.ofCents(17_990), order.getTotal());
+
+        coffee.setQuantity(1);
+        order.calculateTotal();
+        assertEquals(Money.ofCents(6_010), order.getTotal());
+
+        order.removeItem(coffee);
+        assertEquals(Money.ofCents(20), order.getTotal());
+
+        order.setItems(new ArrayList<>(List.of()));
+        assertSame(Money.ZERO, order.getTotal());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+    private static final Duration LONG_TTL = Duration.ofMinutes(5);
+
+    @Test
+    void leastRecentlyUsedProbationKeyIsEvictedFirst() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(3, LONG_TTL);
+        cache.update("a", 1);
+        cache.update("b", 2);
+        cache.update("c", 3);
+        cache.update("d", 4);
+
+        assertNull(cache.get("a"));
+        assertEquals(Integer.valueOf(2), cache.get("b"));
+        assertEquals(3, cache.stats().size());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    /**
+     * En nyckel som träffats två gånger ligger i det skyddade segmentet och
+     * överlever en genomläsning av engångsnycklar
+     */
+    @Test
+    void frequentlyUsedKeySurvivesAScan() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(5, LONG_TTL);
+        cache.update("het", 0);
+        assertEquals(Integer.valueOf(0), cache.get("het"));
+
+        for (int i = 0; i < 100; i++) {
+            cache.update("engång " + i, i);
+        }
+        assertEquals(Integer.valueOf(0), cache.get("het"));
+        assertNull(cache.get("engång 0"));
+        assertEquals(Integer.valueOf(99), cache.get("engång 99"));
+        assertEquals(5, cache.stats().size());
+    }
+
+    @Test
+    void expiredEntryCountsAsMissAndIsRemoved() throws InterruptedException {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10, Duration.ofMillis(1));
+        cache.update("a", 1);
+        Thread.sleep(10);
+
+        assertNull(cache.get("a"));
+        CacheStats stats = cache.stats();
+        assertEquals(0, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0, stats.size());
+
+        BoundedCache<String, Integer> longLived = new BoundedCache<>(10, LONG_TTL);
+        longLived.update("a", 1);
+        Thread.sleep(10);
+        assertEquals(Integer.valueOf(1), longLived.get("a"));
+    }
+
+    @Test
+    void entryFailingValidityCheckIsDropped() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, LONG_TTL);
+        cache.update("SKU-1", "SKU-2");
+
+        assertNull(cache.get("SKU-1", "SKU-1"::equals));
+        assertNull(cache.get("SKU-1"));
+    }
+
+    /**
+     * En läsning som startade före en skrivning får inte lägga tillbaka det gamla
+     * värdet, varken efter update eller efter invalidate
+     */
+    @Test
+    void putIfUnchangedRejectsStaleWrites() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, LONG_TTL);
+
+        long stamp = cache.stamp();
+        cache.update("a", "ny");
+        cache.putIfUnchanged("a", "gammal", stamp);
+        assertEquals("ny", cache.get("a"));
+
+        stamp = cache.stamp();
+        cache.invalidate("a");
+        cache.putIfUnchanged("a", "gammal", stamp);
+        assertNull(cache.get("a"));
+
+        stamp = cache.stamp();
+        cache.putIfUnchanged("a", "aktuell", stamp);
+        assertEquals("aktuell", cache.get("a"));
+    }
+
+    @Test
+    void invalidateAllEmptiesBothSegments() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10, LONG_TTL);
+        cache.update("a", 1);
+        cache.get("a");
+        cache.update("b", 2);
+
+        cache.invalidateAll();
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(0, cache.stats().size());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.repository;
+
+import com.example.model.Money;
+import com.example.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingProductRepositoryTest {
+    private final CountingProductRepository delegate = new CountingProductRepository();
+    private final CachingProductRepository repository = new CachingProductRepository(delegate, 100, Duration.ofMinutes(5));
+
+    @Test
+    void repeatedLookupsAreServedFromCache() {
+        Product product = delegate.save(new Product("SKU-1", "Kaffe", "", Money.ofCents(100)));
+
+        assertSame(product, repository.findBySku("SKU-1").orElseThrow());
+        assertSame(product, repository.findBySku("SKU-1").orElseThrow());
+        assertSame(product, repository.findById(product.getId()).orElseThrow());
+        assertSame(product, repository.findById(product.getId()).orElseThrow());
+        // En hämtning per nyckel, id och SKU cachas var för sig
+        assertEquals(2, delegate.lookups);
+        assertEquals(2, repository.stats().hits());
+    }
+
+    @Test
+    void saveAllInvalidatesIdAndSku() {
+        Product product = repository.save(new Product("SKU-1", "Kaffe", "", Money.ofCents(100)));
+        repository.findById(product.getId());
+        repository.findBySku("SKU-1");
+        assertEquals(0, delegate.lookups);
+
+        product.setPrice(Money.ofCents(200));
+        repository.saveAll(List.of(product));
+
+        repository.findById(product.getId());
+        repository.findBySku("SKU-1");
+        assertEquals(2, delegate.lookups);
+    }
+
+    @Test
+    void deleteInvalidatesIdAndSku() {
+        Product product = repository.save(new Product("SKU-1", "Kaffe", "", Money.ofCents(100)));
+        repository.findById(product.getId());
+
+        repository.delete(product);
+
+        assertTrue(repository.findById(product.getId()).isEmpty());
+        assertTrue(repository.findBySku("SKU-1").isEmpty());
+        assertFalse(repository.existsBySku("SKU-1"));
+    }
+
+    /**
+     * Har produkten bytt SKU ska den gamla SKU:n inte längre ge träff ur cachen,
+     * utan frågan går vidare till det underliggande repositoryt
+     */
+    @Test
+    void renamedSkuIsNotServedFromCache() {
+        Product product = repository.save(new Product("SKU-1", "Kaffe", "", Money.ofCents(100)));
+        product.setSku("SKU-2");
+        repository.save(product);
+
+        repository.findBySku("SKU-1");
+        assertEquals(1, delegate.lookups);
+        assertEquals(1, repository.stats().misses());
+        assertSame(product, repository.findBySku("SKU-2").orElseThrow());
+        assertEquals(1, delegate.lookups);
+    }
+
+    @Test
+    void deleteAllEmptiesCache() {
+        repository.save(new Product("SKU-1", "Kaffe", "", Money.ofCents(100)));
+        repository.deleteAll();
+
+        assertTrue(repository.findBySku("SKU-1").isEmpty());
+        assertEquals(0, repository.stats().size());
+    }
+
+    private static final class CountingProductRepository extends InMemoryProductRepository {
+        int lookups;
+
+        @Override
+        public Optional<Product> findById(Long id) {
+            lookups++;
+            return super.findById(id);
+        }
+
+        @Override
+        public Optional<Product> findBySku(String sku) {
+            lookups++;
+            return super.findBySku(sku);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.repository;
+
+import com.example.model.Money;
+import com.example.model.RevenueSummary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DailyOrderTotalsTest {
+    private static final LocalDate FIRST = LocalDate.of(2025, 1, 1);
+    private static final int DAYS = 60;
+
+    private final DailyOrderTotals totals = new DailyOrderTotals();
+    private final long[] orders = new long[DAYS];
+    private final long[] paidOrders = new long[DAYS];
+    private final long[] paidCents = new long[DAYS];
+
+    /**
+     * Varje intervall, även de som börjar före första eller slutar efter sista
+     * dagen med ordrar, ska ge samma summa som en rak summering av dagarna
+     */
+    @Test
+    void rangeQueriesMatchDayByDaySums() {
+        Random random = new Random(3);
+        for (int i = 0; i < 2_000; i++) {
+            add(10 + random.nextInt(30), random.nextBoolean(), 100 + random.nextInt(10_000));
+        }
+        assertAllRanges();
+    }
+
+    /**
+     * Prefixsummorna byggs om efter ändringar, också när en dag töms helt
+     * eller en ny dag hamnar utanför det tidigare intervallet
+     */
+    @Test
+    void prefixSumsFollowLaterChanges() {
+        add(20, true, 1_000);
+        add(20, false, 500);
+        add(25, true, 2_000);
+        assertAllRanges();
+
+        remove(20, true, 1_000);
+        remove(20, false, 500);
+        add(5, true, 700);
+        add(50, false, 300);
+        assertAllRanges();
+
+        totals.add(FIRST.plusDays(40).toEpochDay(), 3, 2, 900);
+        orders[40] += 3;
+        paidOrders[40] += 2;
+        paidCents[40] += 900;
+        assertAllRanges();
+
+        totals.clear();
+        assertEquals(new RevenueSummary(0, 0, Money.ZERO), totals.between(FIRST, FIRST.plusDays(DAYS)));
+    }
+
+    @Test
+    void reversedRangeIsEmpty() {
+        add(10, true, 1_000);
+        assertEquals(new RevenueSummary(0, 0, Money.ZERO), totals.between(FIRST.plusDays(11), FIRST.plusDays(9)));
+    }
+
+    private void add(int day, boolean paid, long cents) {
+        totals.add(FIRST.plusDays(day), paid, cents);
+        orders[day]++;
+        if (paid) {
+            paidOrders[day]++;
+            paidCents[day] += cents;
+        }
+    }
+
+    private void remove(int day, boolean paid, long cents) {
+        totals.remove(FIRST.plusDays(day), paid, cents);
+        orders[day]--;
+        if (paid) {
+            paidOrders[day]--;
+            paidCents[day] -= cents;
+        }
+    }
+
+    private void assertAllRanges() {
+        for (int from = 0; from < DAYS; from++) {
+            long count = 0;
+            long paid = 0;
+            long cents = 0;
+            for (int to = from; to < DAYS; to++) {
+                count += orders[to];
+                paid += paidOrders[to];
+                cents += paidCents[to];
+                assertEquals(new RevenueSummary(count, paid, Money.ofCents(cents)),
+                        totals.between(FIRST.plusDays(from), FIRST.plusDays(to)), "Dag " + from + " till " + to);
+            }
+        }
+    }
+}
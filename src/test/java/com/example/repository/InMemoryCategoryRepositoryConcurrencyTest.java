@@ -0,0 +1,66 @@
+package com.example.repository;
+
+import com.example.Concurrently;
+import com.example.model.Category;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryCategoryRepositoryConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int NAMES = 500;
+
+    private final InMemoryCategoryRepository repository = new InMemoryCategoryRepository();
+
+    /**
+     * Alla trådar försöker skapa samma namn, med olika skiftläge. Varje namn ska
+     * vinnas av exakt en tråd. Sedan raderas och sparas om kategorier samtidigt,
+     * och namnindexet ska peka på samma kategorier som id-kartan.
+     */
+    @Test
+    void concurrentSavesOfSameNameCreateExactlyOneCategory() throws Exception {
+        Map<String, Category> winners = new ConcurrentHashMap<>();
+        Set<Long> assignedIds = ConcurrentHashMap.newKeySet();
+
+        Concurrently.run(THREADS, thread -> {
+            for (int i = 0; i < NAMES; i++) {
+                String name = thread % 2 == 0 ? "Kategori " + i : "KATEGORI " + i;
+                try {
+                    Category category = repository.save(new Category(name));
+                    assertNull(winners.put(name.toLowerCase(), category), "Två trådar fick skapa " + name);
+                    assertTrue(assignedIds.add(category.getId()));
+                } catch (IllegalArgumentException e) {
+                    // Namnet togs av en annan tråd
+                }
+            }
+        });
+        assertEquals(NAMES, winners.size());
+        assertEquals(NAMES, assignedIds.size());
+
+        List<Category> created = new ArrayList<>(winners.values());
+        Concurrently.run(THREADS, thread -> {
+            for (int i = thread; i < created.size(); i += THREADS) {
+                Category category = created.get(i);
+                if (i % 3 == 0) {
+                    repository.delete(category);
+                } else {
+                    repository.save(category);
+                }
+            }
+        });
+
+        for (int i = 0; i < created.size(); i++) {
+            Category category = created.get(i);
+            boolean kept = i % 3 != 0;
+            assertEquals(kept, repository.findById(category.getId()).isPresent());
+            assertEquals(kept, repository.existsByName(category.getName()));
+            if (kept) {
+                assertSame(category, repository.findByName(category.getName()).orElseThrow());
+            }
+        }
+        assertEquals(created.size() - (created.size() + 2) / 3, repository.count());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.repository;
+
+import com.example.Concurrently;
+import com.example.model.Customer;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryCustomerRepositoryConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 2_000;
+
+    private final InMemoryCustomerRepository repository = new InMemoryCustomerRepository();
+
+    @Test
+    void concurrentSaveAndDeleteKeepIdsUniqueAndEmailIndexConsistent() throws Exception {
+        Set<Long> assignedIds = ConcurrentHashMap.newKeySet();
+        Map<String, Customer> deleted = new ConcurrentHashMap<>();
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger sharedWinners = new AtomicInteger();
+
+        Concurrently.run(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Customer> own = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++) {
+                Customer customer = repository.save(new Customer("kund" + thread + "-" + i + "@example.com", "Kund " + i));
+                assertTrue(assignedIds.add(customer.getId()), "Id " + customer.getId() + " delades ut två gånger");
+                created.incrementAndGet();
+                own.add(customer);
+
+                if (random.nextInt(4) == 0) {
+                    Customer renamed = own.get(random.nextInt(own.size()));
+                    renamed.setName("Ny " + renamed.getName());
+                    repository.save(renamed);
+                }
+                if (random.nextInt(5) == 0) {
+                    Customer victim = own.remove(random.nextInt(own.size()));
+                    repository.delete(victim);
+                    deleted.put(victim.getEmail(), victim);
+                }
+                if (i % 100 == 0) {
+                    try {
+                        repository.save(new Customer("delad@example.com", "Delad"));
+                        sharedWinners.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        // En annan tråd har redan adressen
+                    }
+                }
+            }
+        });
+
+        assertEquals(1, sharedWinners.get(), "Exakt en tråd ska få spara delad@example.com");
+        assertEquals(created.get(), assignedIds.size());
+
+        List<Customer> all = repository.findAll();
+        assertEquals(created.get() + 1 - deleted.size(), all.size());
+        assertEquals(all.size(), repository.count());
+
+        Set<Long> ids = new HashSet<>();
+        for (Customer customer : all) {
+            assertTrue(ids.add(customer.getId()));
+            assertSame(customer, repository.findById(customer.getId()).orElseThrow());
+            assertSame(customer, repository.findByEmail(customer.getEmail()).orElseThrow());
+        }
+        for (Customer customer : deleted.values()) {
+            assertTrue(repository.findById(customer.getId()).isEmpty());
+            assertFalse(repository.existsByEmail(customer.getEmail()));
+        }
+        assertEquals(all.size(), repository.findPageAfter(null, Integer.MAX_VALUE).size());
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.repository;
+
+import com.example.Concurrently;
+import com.example.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryOrderRepositoryConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 2_000;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final int DAYS = 30;
+
+    private final InMemoryOrderRepository repository = new InMemoryOrderRepository();
+    private final List<Customer> customers = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+
+    /**
+     * Trådarna skapar ordrar, byter status och datum på egna ordrar och raderar
+     * några. Efteråt ska id vara unika och kund-, status- och datumindexen, dagssummorna
+     * och försäljningsrankingen ge samma svar som en genomgång av alla ordrar.
+     */
+    @Test
+    void concurrentSaveAndDeleteKeepIdsUniqueAndIndexesConsistent() throws Exception {
+        for (long id = 1; id <= 20; id++) {
+            Customer customer = new Customer("kund" + id + "@example.com", "Kund " + id);
+            customer.setId(id);
+            customers.add(customer);
+            Product product = new Product("SKU" + id, "Produkt " + id, "", Money.ofCents(100 * id));
+            product.setId(id);
+            products.add(product);
+        }
+
+        Set<Long> assignedIds = ConcurrentHashMap.newKeySet();
+        Set<Long> deletedIds = ConcurrentHashMap.newKeySet();
+
+        Concurrently.run(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Order> own = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++) {
+                Order order = repository.save(newOrder(random));
+                assertTrue(assignedIds.add(order.getId()), "Id " + order.getId() + " delades ut två gånger");
+                own.add(order);
+
+                if (random.nextInt(3) == 0) {
+                    Order changed = own.get(random.nextInt(own.size()));
+                    changed.setStatus(randomStatus(random));
+                    changed.setCreatedAt(randomTime(random));
+                    repository.save(changed);
+                }
+                if (random.nextInt(5) == 0) {
+                    Order victim = own.remove(random.nextInt(own.size()));
+                    repository.delete(victim);
+                    deletedIds.add(victim.getId());
+                }
+            }
+        });
+
+        assertEquals(THREADS * OPERATIONS, assignedIds.size());
+        List<Order> all = repository.findAll();
+        assertEquals(assignedIds.size() - deletedIds.size(), all.size());
+        for (Order order : all) {
+            assertFalse(deletedIds.contains(order.getId()));
+            assertSame(order, repository.findById(order.getId()).orElseThrow());
+        }
+        for (Long id : deletedIds) {
+            assertTrue(repository.findById(id).isEmpty());
+        }
+
+        for (Customer customer : customers) {
+            assertEquals(idsOf(all, order -> order.getCustomer() == customer),
+                    idsOf(repository.findByCustomerId(customer.getId())), "Kundindex för " + customer.getId());
+        }
+        for (OrderStatus status : OrderStatus.values()) {
+            assertEquals(idsOf(all, order -> order.getStatus() == status),
+                    idsOf(repository.findByStatus(status)), "Statusindex för " + status);
+        }
+        for (int day = 0; day < DAYS; day++) {
+            LocalDate date = FIRST_DAY.plusDays(day);
+            List<Order> onDay = all.stream().filter(order -> order.getCreatedAt().toLocalDate().equals(date)).toList();
+            assertEquals(idsOf(onDay, order -> true), idsOf(repository.findByDateBetween(date, date)), "Datumindex för " + date);
+
+            RevenueSummary summary = repository.summarizeBetween(date, date);
+            List<Order> paid = onDay.stream().filter(order -> order.getStatus() == OrderStatus.PAID).toList();
+            assertEquals(onDay.size(), summary.orderCount());
+            assertEquals(paid.size(), summary.paidOrderCount());
+            assertEquals(paid.stream().mapToLong(order -> order.getTotal().cents()).sum(), summary.revenue().cents());
+        }
+
+        Map<Long, Long> sold = new HashMap<>();
+        for (Order order : all) {
+            if (order.getStatus() == OrderStatus.PAID) {
+                for (OrderItem item : order.getItems()) {
+                    sold.merge(item.getProduct().getId(), (long) item.getQuantity(), Long::sum);
+                }
+            }
+        }
+        Map<Long, Long> ranked = new HashMap<>();
+        repository.findTopSellingProducts(products.size()).forEach((product, quantity) -> ranked.put(product.getId(), quantity));
+        assertEquals(sold, ranked);
+    }
+
+    private Order newOrder(ThreadLocalRandom random) {
+        Order order = new Order(customers.get(random.nextInt(customers.size())));
+        int lines = 1 + random.nextInt(3);
+        for (int l = 0; l < lines; l++) {
+            OrderItem item = new OrderItem(products.get(random.nextInt(products.size())), 1 + random.nextInt(3));
+            item.setOrder(order);
+            order.addItem(item);
+        }
+        order.setStatus(randomStatus(random));
+        order.setCreatedAt(randomTime(random));
+        return order;
+    }
+
+    private static OrderStatus randomStatus(ThreadLocalRandom random) {
+        OrderStatus[] statuses = OrderStatus.values();
+        return statuses[random.nextInt(statuses.length)];
+    }
+
+    private static LocalDateTime randomTime(ThreadLocalRandom random) {
+        return FIRST_DAY.atStartOfDay().plusMinutes(random.nextInt(DAYS * 24 * 60));
+    }
+
+    private static Set<Long> idsOf(List<Order> orders) {
+        return idsOf(orders, order -> true);
+    }
+
+    private static Set<Long> idsOf(List<Order> orders, Predicate<Order> filter) {
+        return orders.stream().filter(filter).map(Order::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.repository;
+
+import com.example.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryOrderRepositoryTest {
+    private final InMemoryOrderRepository repository = new InMemoryOrderRepository();
+
+    @Test
+    void failedJournalWriteLeavesIndexesUnchanged() {
+        Customer customer = new Customer("kund@example.com", "Kund");
+        customer.setId(1L);
+        Order order = repository.save(new Order(customer));
+
+        repository.setJournal(new RepositoryJournal() {
+            @Override
+            public void saved(Object entity) {
+                throw new IllegalStateException("Disken är full");
+            }
+        });
+        order.setStatus(OrderStatus.PAID);
+        assertThrows(IllegalStateException.class, () -> repository.save(order));
+
+        assertEquals(1, repository.findByStatus(OrderStatus.NEW).size());
+        assertTrue(repository.findByStatus(OrderStatus.PAID).isEmpty());
+        assertEquals(0, repository.summarizeBetween(order.getCreatedAt().toLocalDate(),
+                order.getCreatedAt().toLocalDate()).paidOrderCount());
+    }
+
+    /**
+     * Journalen kastar vid fjärde ordern. De tre första ska vara sparade och indexerade,
+     * resten ska ha kvar id null så att anroparen kan spara dem igen.
+     */
+    @Test
+    void interruptedSaveAllResetsIdsOfOrdersThatWereNotStored() {
+        Customer customer = new Customer("kund@example.com", "Kund");
+        customer.setId(1L);
+        int[] saved = {0};
+        repository.setJournal(new RepositoryJournal() {
+            @Override
+            public void saved(Object entity) {
+                if (++saved[0] == 4) {
+                    throw new IllegalStateException("Disken är full");
+                }
+            }
+        });
+
+        List<Order> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(new Order(customer));
+        }
+        assertThrows(IllegalStateException.class, () -> repository.saveAll(batch));
+
+        for (int i = 0; i < 10; i++) {
+            Order order = batch.get(i);
+            if (i < 3) {
+                assertSame(order, repository.findById(order.getId()).orElseThrow());
+            } else {
+                assertNull(order.getId(), "Order " + i + " sparades inte men fick id");
+            }
+        }
+        assertEquals(3, repository.count());
+        assertEquals(3, repository.findByCustomerId(1L).size());
+        assertEquals(3, repository.findByStatus(OrderStatus.NEW).size());
+
+        repository.setJournal(RepositoryJournal.NONE);
+        repository.saveAll(batch.subList(3, 10));
+        assertEquals(10, repository.count());
+        assertEquals(10, repository.findByStatus(OrderStatus.NEW).size());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.repository;
+
+import com.example.model.Order;
+import com.example.model.Payment;
+import com.example.model.PaymentMethod;
+import com.example.model.PaymentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryPaymentRepositoryTest {
+
+    private static Order order(long id) {
+        Order order = new Order();
+        order.setId(id);
+        return order;
+    }
+
+    @Test
+    void findByOrderIdReturnsLowestRemainingPayment() {
+        InMemoryPaymentRepository repository = new InMemoryPaymentRepository();
+        Order order = order(1L);
+        Payment first = repository.save(new Payment(order, PaymentMethod.CARD));
+        Payment second = repository.save(new Payment(order, PaymentMethod.CARD));
+
+        assertSame(first, repository.findByOrderId(1L).orElseThrow());
+
+        repository.delete(first);
+        assertSame(second, repository.findByOrderId(1L).orElseThrow());
+
+        repository.delete(second);
+        assertTrue(repository.findByOrderId(1L).isEmpty());
+    }
+
+    @Test
+    void movingPaymentToAnotherOrderUpdatesIndex() {
+        InMemoryPaymentRepository repository = new InMemoryPaymentRepository();
+        Payment payment = repository.save(new Payment(order(1L), PaymentMethod.CARD));
+
+        payment.setOrder(order(2L));
+        repository.save(payment);
+
+        assertTrue(repository.findByOrderId(1L).isEmpty());
+        assertSame(payment, repository.findByOrderId(2L).orElseThrow());
+    }
+
+    @Test
+    void statusChangeMovesPaymentBetweenStatusBuckets() {
+        InMemoryPaymentRepository repository = new InMemoryPaymentRepository();
+        Payment payment = repository.save(new Payment(order(1L), PaymentMethod.CARD));
+        assertEquals(List.of(payment), repository.findByStatus(PaymentStatus.PENDING));
+
+        payment.setStatus(PaymentStatus.APPROVED);
+        repository.save(payment);
+
+        assertTrue(repository.findByStatus(PaymentStatus.PENDING).isEmpty());
+        assertEquals(List.of(payment), repository.findByStatus(PaymentStatus.APPROVED));
+
+        repository.delete(payment);
+        assertTrue(repository.findByStatus(PaymentStatus.APPROVED).isEmpty());
+    }
+
+    /**
+     * Uppslag per order ska gå via order-id-indexet. En linjär sökning måste läsa
+     * ordern på varje betalning; via indexet läses ingen betalnings order alls.
+     */
+    @Test
+    void findByOrderIdUsesIndexInsteadOfScanningPayments() {
+        InMemoryPaymentRepository repository = new InMemoryPaymentRepository();
+        int[] orderReads = {0};
+        int payments = 10_000;
+        for (long id = 1; id <= payments; id++) {
+            repository.save(new Payment(order(id), PaymentMethod.CARD) {
+                @Override
+                public Order getOrder() {
+                    orderReads[0]++;
+                    return super.getOrder();
+                }
+            });
+        }
+
+        orderReads[0] = 0;
+        for (long orderId = 1; orderId <= payments; orderId += 97) {
+            Payment payment = repository.findByOrderId(orderId).orElseThrow();
+            assertEquals(orderId, payment.getOrder().getId().longValue());
+            orderReads[0]--;
+        }
+        assertTrue(repository.findByOrderId(payments + 1L).isEmpty());
+        assertEquals(0, orderReads[0], "Uppslag läste ordern på andra betalningar");
+    }
+}
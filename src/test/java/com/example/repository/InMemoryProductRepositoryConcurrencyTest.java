@@ -0,0 +1,161 @@
+package com.example.repository;
+
+import com.example.Concurrently;
+import com.example.model.Money;
+import com.example.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryProductRepositoryConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 2_000;
+
+    private final InMemoryProductRepository repository = new InMemoryProductRepository();
+
+    /**
+     * Trådarna skapar, ändrar och raderar egna produkter och tävlar om samma SKU.
+     * Efteråt ska varje id vara unikt och SKU-, aktiv- och sökindexen stämma med
+     * huvudkartan.
+     */
+    @Test
+    void concurrentSaveAndDeleteKeepIdsUniqueAndIndexesConsistent() throws Exception {
+        Set<Long> assignedIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger created = new AtomicInteger();
+        Map<String, Product> deleted = new ConcurrentHashMap<>();
+        AtomicInteger hotWinners = new AtomicInteger();
+
+        Concurrently.run(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Product> own = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++) {
+                Product product = repository.save(new Product("T" + thread + "-" + i, "Produkt " + thread + " " + i,
+                        "Beskrivning", Money.ofCents(100 + i)));
+                assertTrue(assignedIds.add(product.getId()), "Id " + product.getId() + " delades ut två gånger");
+                created.incrementAndGet();
+                own.add(product);
+
+                if (random.nextInt(4) == 0) {
+                    Product changed = own.get(random.nextInt(own.size()));
+                    changed.setActive(!changed.isActive());
+                    repository.save(changed);
+                }
+                if (random.nextInt(5) == 0) {
+                    Product victim = own.remove(random.nextInt(own.size()));
+                    repository.delete(victim);
+                    deleted.put(victim.getSku(), victim);
+                }
+                if (i % 100 == 0) {
+                    try {
+                        repository.save(new Product("HOT", "Het produkt", "", Money.ofCents(1)));
+                        hotWinners.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        // En annan tråd har redan SKU:n
+                    }
+                }
+            }
+        });
+
+        assertEquals(1, hotWinners.get(), "Exakt en tråd ska få spara SKU HOT");
+        assertEquals(created.get(), assignedIds.size());
+        assertFalse(assignedIds.contains(repository.findBySku("HOT").orElseThrow().getId()));
+
+        List<Product> all = repository.findAll();
+        assertEquals(created.get() + 1 - deleted.size(), all.size());
+        assertEquals(all.size(), repository.count());
+
+        Set<Long> ids = new HashSet<>();
+        long active = 0;
+        for (Product product : all) {
+            assertTrue(ids.add(product.getId()));
+            assertSame(product, repository.findById(product.getId()).orElseThrow());
+            assertSame(product, repository.findBySku(product.getSku()).orElseThrow());
+            if (product.isActive()) {
+                active++;
+            }
+        }
+        for (Product product : deleted.values()) {
+            assertTrue(repository.findById(product.getId()).isEmpty());
+            assertFalse(repository.existsBySku(product.getSku()));
+        }
+
+        assertEquals(active, repository.countByActive(true));
+        assertEquals(all.size() - active, repository.countByActive(false));
+        assertEquals(active, repository.findByActive(true).size());
+        for (Product product : repository.findByActive(true)) {
+            assertTrue(product.isActive());
+        }
+        for (Product product : repository.findByActive(false)) {
+            assertFalse(product.isActive());
+        }
+        assertEquals(all.size(), repository.findPageAfter(null, Integer.MAX_VALUE).size());
+
+        for (Product product : all.subList(0, 50)) {
+            assertTrue(repository.search(product.getSku()).contains(product));
+        }
+        for (Product product : deleted.values().stream().limit(50).toList()) {
+            assertFalse(repository.search(product.getSku()).contains(product));
+        }
+    }
+
+    /**
+     * En enstaka sparning tar batchens sista SKU när batchen redan börjat skriva, så
+     * batchen avbryts halvvägs. Efteråt ska id vara 1..antal utan hål, och produkterna
+     * som inte sparades ska ha kvar id null.
+     */
+    @Test
+    void interruptedSaveAllLeavesNoHolesOrStrayIds() throws Exception {
+        List<Product> submitted = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failedBatches = new AtomicInteger();
+
+        Concurrently.run(THREADS, thread -> {
+            int pair = thread / 2;
+            for (int i = 0; i < 20; i++) {
+                String contested = "RACE-" + pair + "-" + i;
+                if (thread % 2 == 0) {
+                    // Vänta tills batchen passerat kontrollen och skrivit sin första produkt
+                    while (!repository.existsBySku("B" + pair + "-" + i + "-0")) {
+                        Thread.onSpinWait();
+                    }
+                    Product single = new Product(contested, "Enstaka", "", Money.ofCents(1));
+                    submitted.add(single);
+                    try {
+                        repository.save(single);
+                    } catch (IllegalArgumentException e) {
+                        // Batchen hann först
+                    }
+                    continue;
+                }
+                List<Product> batch = new ArrayList<>();
+                for (int k = 0; k < 500; k++) {
+                    batch.add(new Product("B" + pair + "-" + i + "-" + k, "Batch", "", Money.ofCents(1)));
+                }
+                batch.add(new Product(contested, "Batch", "", Money.ofCents(1)));
+                submitted.addAll(batch);
+                try {
+                    repository.saveAll(batch);
+                } catch (IllegalArgumentException e) {
+                    failedBatches.incrementAndGet();
+                }
+            }
+        });
+
+        assertTrue(failedBatches.get() > 0, "Några batcher ska ha avbrutits halvvägs");
+        Set<Long> ids = new HashSet<>();
+        for (Product product : submitted) {
+            if (product.getId() == null) {
+                assertTrue(repository.findBySku(product.getSku()).map(found -> found != product).orElse(true));
+            } else {
+                assertTrue(ids.add(product.getId()));
+                assertSame(product, repository.findById(product.getId()).orElseThrow());
+            }
+        }
+        assertEquals(repository.count(), ids.size());
+        assertEquals((long) ids.size(), Collections.max(ids).longValue(), "Hål i id-serien");
+    }
+}
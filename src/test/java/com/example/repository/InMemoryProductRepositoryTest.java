@@ -0,0 +1,82 @@
+package com.example.repository;
+
+import com.example.model.Money;
+import com.example.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryProductRepositoryTest {
+    private final InMemoryProductRepository repository = new InMemoryProductRepository();
+
+    /**
+     * Vyn från findByActive är levande: den följer sparningar utan att hämtas om,
+     * är sorterad på id och går inte att ändra via vyn
+     */
+    @Test
+    void activeViewFollowsSavesAndDeletes() {
+        Collection<Product> active = repository.findByActive(true);
+        Collection<Product> inactive = repository.findByActive(false);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            products.add(repository.save(new Product("SKU-" + i, "Produkt " + i, "", Money.ofCents(100))));
+        }
+        assertEquals(products, List.copyOf(active));
+        assertTrue(inactive.isEmpty());
+        assertEquals(5, repository.countByActive(true));
+
+        Product disabled = products.get(2);
+        disabled.setActive(false);
+        repository.save(disabled);
+        assertEquals(List.of(products.get(0), products.get(1), products.get(3), products.get(4)), List.copyOf(active));
+        assertEquals(List.of(disabled), List.copyOf(inactive));
+        assertEquals(4, repository.countByActive(true));
+        assertEquals(1, repository.countByActive(false));
+
+        disabled.setActive(true);
+        repository.save(disabled);
+        assertEquals(products, List.copyOf(active));
+        assertEquals(0, repository.countByActive(false));
+
+        repository.delete(products.get(0));
+        assertFalse(active.contains(products.get(0)));
+        assertEquals(4, repository.countByActive(true));
+
+        assertThrows(UnsupportedOperationException.class, () -> active.remove(products.get(1)));
+
+        repository.deleteAll();
+        assertTrue(active.isEmpty());
+        assertEquals(0, repository.countByActive(true));
+    }
+
+    /**
+     * Att spara produkter medan vyn itereras ska inte ge ConcurrentModificationException
+     */
+    @Test
+    void activeViewCanBeIteratedWhileSaving() {
+        for (int i = 0; i < 100; i++) {
+            repository.save(new Product("SKU-" + i, "Produkt " + i, "", Money.ofCents(100)));
+        }
+
+        // Varannan produkt stängs av, och nya läggs till med högre id medan vyn itereras
+        int seen = 0;
+        for (Product product : repository.findByActive(true)) {
+            if (product.getId() % 2 == 0) {
+                product.setActive(false);
+                repository.save(product);
+            }
+            if (seen < 50) {
+                repository.save(new Product("NY-" + seen, "Ny", "", Money.ofCents(100)));
+            }
+            seen++;
+        }
+        assertTrue(seen >= 100);
+        assertEquals(150, repository.count());
+        assertEquals(repository.count() - repository.countByActive(false), repository.countByActive(true));
+        assertTrue(repository.findByActive(false).stream().noneMatch(Product::isActive));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.repository;
+
+import com.example.model.Customer;
+import com.example.model.Order;
+import com.example.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPageTest {
+
+    /**
+     * Sidorna bläddras med sista id:t från förra sidan och ska tillsammans ge
+     * alla värden en gång, i id-ordning
+     */
+    @Test
+    void pagesFollowEachOtherWithoutGapsOrRepeats() {
+        NavigableSet<Long> ids = new ConcurrentSkipListSet<>();
+        Map<Long, String> values = new ConcurrentHashMap<>();
+        for (long id = 1; id <= 25; id++) {
+            ids.add(id * 2);
+            values.put(id * 2, "värde " + id * 2);
+        }
+
+        List<String> all = new ArrayList<>();
+        Long afterId = null;
+        int pages = 0;
+        while (true) {
+            List<String> page = KeysetPage.after(ids, values, afterId, 10);
+            if (page.isEmpty()) {
+                break;
+            }
+            assertTrue(page.size() <= 10);
+            all.addAll(page);
+            afterId = Long.parseLong(page.get(page.size() - 1).substring("värde ".length()));
+            pages++;
+        }
+        assertEquals(3, pages);
+        assertEquals(25, all.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals("värde " + (i + 1) * 2, all.get(i));
+        }
+
+        // afterId behöver inte finnas i indexet
+        assertEquals(List.of("värde 12", "värde 14"), KeysetPage.after(ids, values, 11L, 2));
+        assertTrue(KeysetPage.after(ids, values, 50L, 10).isEmpty());
+        assertTrue(KeysetPage.after(ids, values, null, 0).isEmpty());
+    }
+
+    /**
+     * Ett id som finns kvar i indexet men redan raderats ur kartan hoppas över,
+     * och sidan fylls ändå upp till limit
+     */
+    @Test
+    void idsMissingFromMapAreSkipped() {
+        NavigableSet<Long> ids = new ConcurrentSkipListSet<>(List.of(1L, 2L, 3L, 4L, 5L));
+        Map<Long, String> values = new ConcurrentHashMap<>(Map.of(1L, "a", 3L, "c", 4L, "d", 5L, "e"));
+
+        assertEquals(List.of("a", "c", "d"), KeysetPage.after(ids, values, null, 3));
+    }
+
+    @Test
+    void statusPagesOnlyContainThatStatus() {
+        InMemoryOrderRepository orders = new InMemoryOrderRepository();
+        Customer customer = new Customer("kund@example.com", "Kund");
+        customer.setId(1L);
+        List<Long> paid = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Order order = new Order(customer);
+            order.setStatus(i % 3 == 0 ? OrderStatus.PAID : OrderStatus.NEW);
+            orders.save(order);
+            if (order.getStatus() == OrderStatus.PAID) {
+                paid.add(order.getId());
+            }
+        }
+
+        List<Long> seen = new ArrayList<>();
+        Long afterId = null;
+        List<Order> page;
+        while (!(page = orders.findPageByStatusAfter(OrderStatus.PAID, afterId, 4)).isEmpty()) {
+            for (Order order : page) {
+                assertEquals(OrderStatus.PAID, order.getStatus());
+                seen.add(order.getId());
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+        assertEquals(paid, seen);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.repository;
+
+import com.example.Concurrently;
+import com.example.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderLineStoreTest {
+    private static final int ORDERS = 3_000;
+    private static final int LINES = 3;
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 1);
+    private static final long FROM = DAY.toEpochDay();
+    private static final long TO = DAY.plusDays(1).toEpochDay();
+
+    private final OrderLineStore store = new OrderLineStore();
+    private final Customer customer = customer();
+    private final Product product = product();
+
+    @Test
+    void snapshotKeepsValuesFromWhenItWasTaken() {
+        Order order = newOrder(1L);
+        store.upsert(order);
+        OrderLineStore.Snapshot before = store.snapshot();
+
+        order.setStatus(OrderStatus.PAID);
+        order.setCreatedAt(DAY.plusDays(1).atStartOfDay());
+        store.upsert(order);
+        OrderLineStore.Snapshot paid = store.snapshot();
+        store.markDeleted(order.getId());
+
+        OrderLineStore.PeriodTotals old = before.aggregate(0, before.size(), FROM, FROM);
+        assertEquals(1, old.ordersWithStatus(OrderStatus.NEW));
+        assertEquals(0, old.revenueCents());
+        assertEquals(LINES * 100, paid.aggregate(0, paid.size(), TO, TO).revenueCents());
+        assertEquals(0, paid.aggregate(0, paid.size(), FROM, FROM).ordersWithStatus(OrderStatus.NEW));
+        assertEquals(0, store.snapshot().aggregate(0, store.snapshot().size(), FROM, TO).ordersWithStatus(OrderStatus.PAID));
+    }
+
+    /**
+     * En order utan rader ska räknas per status men inte ge någon omsättning
+     */
+    @Test
+    void orderWithoutLinesIsCountedByStatus() {
+        Order empty = new Order(customer);
+        empty.setId(1L);
+        empty.setCreatedAt(DAY.atStartOfDay());
+        empty.setStatus(OrderStatus.PAID);
+        store.upsert(empty);
+        Order order = newOrder(2L);
+        order.setStatus(OrderStatus.PAID);
+        store.upsert(order);
+
+        OrderLineStore.Snapshot snapshot = store.snapshot();
+        OrderLineStore.PeriodTotals totals = snapshot.aggregate(0, snapshot.size(), FROM, FROM);
+        assertEquals(2, totals.ordersWithStatus(OrderStatus.PAID));
+        assertEquals(LINES * 100, totals.revenueCents());
+        assertEquals(LINES, store.topProducts(5).get(product.getId()).longValue());
+
+        empty.setStatus(OrderStatus.CANCELLED);
+        store.upsert(empty);
+        snapshot = store.snapshot();
+        totals = snapshot.aggregate(0, snapshot.size(), FROM, FROM);
+        assertEquals(1, totals.ordersWithStatus(OrderStatus.PAID));
+        assertEquals(1, totals.ordersWithStatus(OrderStatus.CANCELLED));
+
+        store.markDeleted(empty.getId());
+        snapshot = store.snapshot();
+        assertEquals(0, snapshot.aggregate(0, snapshot.size(), FROM, FROM).ordersWithStatus(OrderStatus.CANCELLED));
+    }
+
+    /**
+     * En skrivare växlar ordrar mellan NEW och PAID medan läsare summerar ögonblicksbilder.
+     * Ordrar över sidgränser ska aldrig synas halvt omskrivna: varje PAID-order bidrar
+     * med alla sina rader till omsättningen.
+     */
+    @Test
+    void readersNeverSeeHalfRewrittenOrders() throws Exception {
+        List<Order> orders = new ArrayList<>();
+        for (long id = 1; id <= ORDERS; id++) {
+            Order order = newOrder(id);
+            store.upsert(order);
+            orders.add(order);
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Concurrently.run(4, thread -> {
+            if (thread == 0) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    Order order = orders.get(random.nextInt(ORDERS));
+                    order.setStatus(order.getStatus() == OrderStatus.PAID ? OrderStatus.NEW : OrderStatus.PAID);
+                    order.setCreatedAt((random.nextBoolean() ? DAY : DAY.plusDays(1)).atStartOfDay());
+                    store.upsert(order);
+                }
+                writing.set(false);
+                return;
+            }
+            while (writing.get()) {
+                OrderLineStore.Snapshot snapshot = store.snapshot();
+                OrderLineStore.PeriodTotals totals = snapshot.aggregate(0, snapshot.size(), FROM, TO);
+                long paid = totals.ordersWithStatus(OrderStatus.PAID);
+                assertEquals(paid * LINES * 100, totals.revenueCents(), "Halvt omskriven order i ögonblicksbilden");
+                assertEquals(ORDERS, paid + totals.ordersWithStatus(OrderStatus.NEW));
+            }
+        });
+    }
+
+    private Order newOrder(long id) {
+        Order order = new Order(customer);
+        order.setId(id);
+        order.setCreatedAt(DAY.atStartOfDay());
+        for (int l = 0; l < LINES; l++) {
+            OrderItem item = new OrderItem(product, 1);
+            item.setOrder(order);
+            order.addItem(item);
+        }
+        return order;
+    }
+
+    private static Customer customer() {
+        Customer customer = new Customer("kund@example.com", "Kund");
+        customer.setId(1L);
+        return customer;
+    }
+
+    private static Product product() {
+        Product product = new Product("SKU1", "Produkt", "", Money.ofCents(100));
+        product.setId(1L);
+        return product;
+    }
+}
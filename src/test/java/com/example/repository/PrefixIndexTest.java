@@ -0,0 +1,65 @@
+package com.example.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+    private final PrefixIndex index = new PrefixIndex();
+
+    @Test
+    void hitsComeInTermOrderUpToLimit() {
+        index.put(1L, List.of("Kaffefilter"));
+        index.put(2L, List.of("Kaffe"));
+        index.put(3L, List.of("Kakao"));
+        index.put(4L, List.of("Kaffebryggare"));
+        index.put(5L, List.of("Te"));
+
+        assertEquals(List.of(2L, 4L, 1L), index.findByPrefix("kaff", 10));
+        assertEquals(List.of(2L, 4L, 1L, 3L), index.findByPrefix("KA", 10));
+        assertEquals(List.of(2L, 4L), index.findByPrefix("ka", 2));
+        assertTrue(index.findByPrefix("kaffo", 10).isEmpty());
+        assertTrue(index.findByPrefix("", 10).isEmpty());
+        assertTrue(index.findByPrefix("ka", 0).isEmpty());
+    }
+
+    /**
+     * Ett id med flera termer som matchar ska bara komma med en gång och räknas en gång mot limit
+     */
+    @Test
+    void idWithSeveralMatchingTermsIsReturnedOnce() {
+        index.put(1L, List.of("Kaffe", "Kaffebönor", "SKU-KAF"));
+        index.put(2L, List.of("Kaffekopp"));
+
+        assertEquals(List.of(1L, 2L), index.findByPrefix("kaffe", 2));
+    }
+
+    @Test
+    void swedishLettersAreFolded() {
+        index.put(1L, List.of("Ölglas"));
+        index.put(2L, List.of("Äppelmust"));
+        index.put(3L, List.of("Åkerbär"));
+
+        assertEquals(List.of(1L), index.findByPrefix("olg", 10));
+        assertEquals(List.of(1L), index.findByPrefix("ÖLG", 10));
+        assertEquals(List.of(2L), index.findByPrefix("äpp", 10));
+        assertEquals(List.of(3L), index.findByPrefix("aker", 10));
+    }
+
+    @Test
+    void putReplacesTermsAndRemoveDropsThem() {
+        index.put(1L, List.of("Kaffe"));
+        index.put(1L, List.of("Choklad"));
+        assertTrue(index.findByPrefix("kaf", 10).isEmpty());
+        assertEquals(List.of(1L), index.findByPrefix("cho", 10));
+
+        index.remove(1L);
+        assertTrue(index.findByPrefix("cho", 10).isEmpty());
+
+        index.put(2L, List.of("Te"));
+        index.clear();
+        assertTrue(index.findByPrefix("te", 10).isEmpty());
+    }
+}
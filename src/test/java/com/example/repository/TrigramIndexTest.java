@@ -0,0 +1,72 @@
+package com.example.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+    private final TrigramIndex index = new TrigramIndex();
+
+    /**
+     * Hela fältet före början av fältet, före början av ett ord, före annan delsträng.
+     * Lika träff: kortare fält först, sedan lägre id.
+     */
+    @Test
+    void hitsAreRankedByMatchPosition() {
+        index.put(1L, "Mörkrost kaffe");
+        index.put(2L, "Kaffe");
+        index.put(3L, "Kaffebönor");
+        index.put(4L, "Snabbkaffe");
+        index.put(5L, "Kaffefilter");
+        index.put(6L, "Te");
+
+        assertEquals(List.of(2L, 3L, 5L, 1L, 4L), index.search("kaffe", 1));
+    }
+
+    @Test
+    void earlierFieldOutranksLaterField() {
+        index.put(1L, "Termos", "Håller kaffe varmt");
+        index.put(2L, "Kaffe", "Mörkrost");
+        index.put(3L, "Kaffekopp", "");
+
+        assertEquals(List.of(2L, 3L, 1L), index.search("kaffe", 2));
+        assertEquals(List.of(2L, 3L), index.search("kaffe", 1));
+    }
+
+    @Test
+    void caseAndSwedishLettersAreFolded() {
+        index.put(1L, "Björn Åström");
+        index.put(2L, "Åsa Öberg");
+        index.put(3L, "Bjorn Astrom");
+
+        assertEquals(List.of(1L, 3L), index.search("BJÖRN", 1));
+        assertEquals(List.of(1L, 3L), index.search("astrom", 1));
+        assertEquals(List.of(2L), index.search("ÖBERG", 1));
+        assertEquals(List.of(2L), index.search("asa", 1));
+        assertEquals("orjan aberg", TrigramIndex.normalize("Örjan Åberg"));
+    }
+
+    @Test
+    void shortQueriesAreComparedDirectly() {
+        index.put(1L, "Te");
+        index.put(2L, "Grönt te");
+        index.put(3L, "Kaffe");
+
+        assertEquals(List.of(1L, 2L), index.search("TE", 1));
+        assertTrue(index.search("", 1).isEmpty());
+    }
+
+    @Test
+    void reindexAndRemoveDropOldTrigrams() {
+        index.put(1L, "Kaffe");
+        index.put(1L, "Choklad");
+        assertTrue(index.search("kaffe", 1).isEmpty());
+        assertEquals(List.of(1L), index.search("choklad", 1));
+
+        index.remove(1L);
+        assertTrue(index.search("choklad", 1).isEmpty());
+        assertTrue(index.search("ch", 1).isEmpty());
+    }
+}
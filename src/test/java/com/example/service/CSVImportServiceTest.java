@@ -0,0 +1,151 @@
+package com.example.service;
+
+import com.example.model.*;
+import com.example.repository.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CSVImportServiceTest {
+    private static final int ROWS = 25;
+    private static final int BATCH_SIZE = 10;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Första blocket avbryts efter att några produkter sparats, som när en samtidig
+     * sparning tar en SKU mitt i blocket. De sparade ska räknas och få sitt lager,
+     * resten sparas en och en, och den produkt som inte går att spara hoppas över.
+     */
+    @Test
+    void failedBlockCountsSavedRowsAndSavesTheRestOneByOne() throws Exception {
+        FailingProductRepository products = new FailingProductRepository();
+        InventoryService inventoryService = new InventoryService(new InMemoryInventoryRepository());
+        CSVImportService importService = new CSVImportService(null, new ProductService(products), null, inventoryService);
+        importService.setBatchSize(BATCH_SIZE);
+
+        StringBuilder csv = new StringBuilder("sku,name,description,price,stock\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("SKU-").append(i).append(",Produkt ").append(i).append(",Beskrivning,")
+                    .append(10 + i).append(".50,").append(100 + i).append('\n');
+        }
+        Path file = directory.resolve("products.csv");
+        Files.writeString(file, csv.toString());
+
+        String output = captureOutput(() -> importService.importProducts(file));
+
+        assertTrue(output.contains("Import klar: " + (ROWS - 1) + " produkter importerade"), output);
+        assertEquals(ROWS - 1, products.count());
+        for (int i = 0; i < ROWS; i++) {
+            String sku = "SKU-" + i;
+            if (sku.equals(FailingProductRepository.BROKEN)) {
+                assertFalse(products.existsBySku(sku));
+                continue;
+            }
+            Product product = products.findBySku(sku).orElseThrow();
+            assertEquals(100 + i, inventoryService.getStock(product), "Lager för " + sku);
+        }
+    }
+
+    /**
+     * Orderrepositoryts journal kastar mitt i första blocket. De ordrar som hann sparas
+     * ska räknas och behålla sitt reserverade lager, resten ska få tillbaka lagret,
+     * sparas igen en och en och få egna id.
+     */
+    @Test
+    void failedOrderBlockKeepsStockInStepWithStoredOrders() throws Exception {
+        InMemoryProductRepository products = new InMemoryProductRepository();
+        InMemoryCustomerRepository customers = new InMemoryCustomerRepository();
+        InMemoryOrderRepository orders = new InMemoryOrderRepository();
+        InventoryService inventoryService = new InventoryService(new InMemoryInventoryRepository());
+        OrderService orderService = new OrderService(orders, inventoryService,
+                new PaymentService(new InMemoryPaymentRepository()));
+        CSVImportService importService = new CSVImportService(orderService, new ProductService(products),
+                new CustomerService(customers), inventoryService);
+        importService.setBatchSize(BATCH_SIZE);
+
+        Product product = products.save(new Product("SKU-1", "Produkt", "", Money.ofCents(1_000)));
+        inventoryService.addStock(product, 100);
+        customers.save(new Customer("kund@example.com", "Kund"));
+
+        int[] journaled = {0};
+        orders.setJournal(new RepositoryJournal() {
+            @Override
+            public void saved(Object entity) {
+                if (++journaled[0] == 4) {
+                    throw new IllegalStateException("Disken är full");
+                }
+            }
+        });
+
+        StringBuilder csv = new StringBuilder("orderNumber,customerEmail,status,createdAt,items\n");
+        int paid = 0;
+        for (int i = 0; i < ROWS; i++) {
+            OrderStatus status = i % 5 == 4 ? OrderStatus.NEW : OrderStatus.PAID;
+            if (status == OrderStatus.PAID) {
+                paid++;
+            }
+            csv.append("ORD-").append(i).append(",kund@example.com,").append(status)
+                    .append(",2025-01-01T10:00:00,SKU-1:2\n");
+        }
+        Path file = directory.resolve("orders.csv");
+        Files.writeString(file, csv.toString());
+
+        String output = captureOutput(() -> importService.importOrders(file));
+
+        assertTrue(output.contains("Import klar: " + ROWS + " order importerade"), output);
+        assertEquals(ROWS, orders.count());
+        assertEquals(paid, orders.findByStatus(OrderStatus.PAID).size());
+        assertEquals(100 - 2 * paid, inventoryService.getStock(product));
+
+        Set<Long> ids = new HashSet<>();
+        for (Order order : orders.findAll()) {
+            assertTrue(ids.add(order.getId()));
+            assertSame(order, orders.findById(order.getId()).orElseThrow());
+        }
+    }
+
+    private static String captureOutput(Runnable action) {
+        PrintStream original = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        try {
+            action.run();
+        } finally {
+            System.setOut(original);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sparar de tre första produkterna i första blocket och kastar sedan, och vägrar
+     * alltid att spara BROKEN
+     */
+    private static final class FailingProductRepository extends InMemoryProductRepository {
+        static final String BROKEN = "SKU-5";
+        private boolean failed;
+
+        @Override
+        public List<Product> saveAll(Collection<Product> batch) {
+            List<Product> rows = new ArrayList<>(batch);
+            if (!failed && rows.size() > 3) {
+                failed = true;
+                super.saveAll(rows.subList(0, 3));
+                throw new IllegalArgumentException("Produkt med SKU " + rows.get(3).getSku() + " finns redan");
+            }
+            if (rows.stream().anyMatch(product -> product.getSku().equals(BROKEN))) {
+                throw new IllegalArgumentException("Produkt med SKU " + BROKEN + " finns redan");
+            }
+            return super.saveAll(rows);
+        }
+    }
+}
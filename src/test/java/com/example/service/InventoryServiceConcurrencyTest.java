@@ -0,0 +1,112 @@
+package com.example.service;
+
+import com.example.Concurrently;
+import com.example.exception.InsufficientStockException;
+import com.example.model.Money;
+import com.example.model.OrderItem;
+import com.example.model.Product;
+import com.example.repository.InMemoryInventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryServiceConcurrencyTest {
+    private static final int PRODUCTS = 5;
+    private static final int INITIAL_STOCK = 2_000;
+    private static final int THREADS = 8;
+    private static final int CHECKOUTS = 2_000;
+
+    private InventoryService inventoryService;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = new InventoryService(new InMemoryInventoryRepository());
+        for (long id = 1; id <= PRODUCTS; id++) {
+            Product product = new Product("SKU" + id, "Produkt " + id, "", Money.ofCents(100));
+            product.setId(id);
+            products.add(product);
+            inventoryService.addStock(product, INITIAL_STOCK);
+        }
+    }
+
+    /**
+     * Trådarna köper flera SKU:er per order i slumpad ordning tills lagret tar slut,
+     * så många anrop misslyckas halvvägs och måste rulla tillbaka. Reserverat plus
+     * kvar ska alltid vara det ursprungliga saldot och inget saldo får bli negativt.
+     */
+    @Test
+    void concurrentReserveAllConservesStock() throws Exception {
+        AtomicLongArray reserved = new AtomicLongArray(PRODUCTS);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        Concurrently.run(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < CHECKOUTS; i++) {
+                List<OrderItem> items = new ArrayList<>();
+                int lines = 1 + random.nextInt(4);
+                for (int l = 0; l < lines; l++) {
+                    items.add(new OrderItem(products.get(random.nextInt(PRODUCTS)), 1 + random.nextInt(3)));
+                }
+
+                try {
+                    inventoryService.reserveAll(items);
+                    for (OrderItem item : items) {
+                        reserved.addAndGet(index(item.getProduct()), item.getQuantity());
+                    }
+                    succeeded.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    failed.incrementAndGet();
+                }
+
+                for (OrderItem item : items) {
+                    assertTrue(inventoryService.getStock(item.getProduct()) >= 0, "Negativt saldo för " + item.getProduct().getSku());
+                }
+            }
+        });
+
+        assertTrue(succeeded.get() > 0);
+        assertTrue(failed.get() > 0, "Lagret ska ta slut så att återställningen prövas");
+        for (Product product : products) {
+            int remaining = inventoryService.getStock(product);
+            assertTrue(remaining >= 0);
+            assertEquals(INITIAL_STOCK, reserved.get(index(product)) + remaining, "Lagret läckte för " + product.getSku());
+        }
+    }
+
+    @Test
+    void failedLineRollsBackEarlierLines() {
+        Product plenty = products.get(0);
+        Product scarce = products.get(1);
+        inventoryService.reserveAll(List.of(new OrderItem(scarce, INITIAL_STOCK - 1)));
+
+        // Den knappa produkten står först i listan men reserveras sist (id-ordning)
+        List<OrderItem> items = List.of(new OrderItem(scarce, 2), new OrderItem(plenty, 5), new OrderItem(plenty, 5));
+        assertThrows(InsufficientStockException.class, () -> inventoryService.reserveAll(items));
+
+        assertEquals(INITIAL_STOCK, inventoryService.getStock(plenty));
+        assertEquals(1, inventoryService.getStock(scarce));
+    }
+
+    @Test
+    void missingInventoryReservesNothing() {
+        Product unstocked = new Product("SAKNAS", "Saknas", "", Money.ofCents(100));
+        unstocked.setId(99L);
+        List<OrderItem> items = List.of(new OrderItem(products.get(0), 3), new OrderItem(unstocked, 1));
+
+        assertThrows(InsufficientStockException.class, () -> inventoryService.reserveAll(items));
+        assertEquals(INITIAL_STOCK, inventoryService.getStock(products.get(0)));
+    }
+
+    private static int index(Product product) {
+        return (int) (product.getId() - 1);
+    }
+}
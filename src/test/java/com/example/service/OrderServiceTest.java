@@ -0,0 +1,59 @@
+package com.example.service;
+
+import com.example.model.*;
+import com.example.repository.InMemoryInventoryRepository;
+import com.example.repository.InMemoryOrderRepository;
+import com.example.repository.InMemoryPaymentRepository;
+import com.example.repository.OrderLineStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderServiceTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 1);
+
+    /**
+     * Kolumnkopian läses in först när en rapport begärs. I JDBC-läget betyder det
+     * att alla ordrar hämtas, så det får inte hända redan när tjänsten skapas.
+     */
+    @Test
+    void reportEngineIsCreatedAtFirstReport() {
+        CountingOrderRepository orders = new CountingOrderRepository();
+        OrderService orderService = new OrderService(orders,
+                new InventoryService(new InMemoryInventoryRepository()),
+                new PaymentService(new InMemoryPaymentRepository()));
+        orderService.setReportParallelism(2);
+        assertEquals(0, orders.orderLinesCalls);
+
+        Customer customer = new Customer("kund@example.com", "Kund");
+        customer.setId(1L);
+        Order order = new Order(customer);
+        order.setCreatedAt(DAY.atStartOfDay());
+        Product product = new Product("SKU-1", "Produkt", "", Money.ofCents(1_000));
+        product.setId(1L);
+        OrderItem item = new OrderItem(product, 1);
+        item.setOrder(order);
+        order.addItem(item);
+        orders.save(order);
+
+        SalesReport report = orderService.getSalesReport(DAY, DAY, 5, List.of());
+        assertEquals(1L, report.ordersByStatus().get(OrderStatus.NEW).longValue());
+        assertEquals(1, orders.orderLinesCalls);
+
+        orderService.getSalesReport(DAY, DAY, 5, List.of());
+        assertEquals(1, orders.orderLinesCalls);
+    }
+
+    private static final class CountingOrderRepository extends InMemoryOrderRepository {
+        int orderLinesCalls;
+
+        @Override
+        public OrderLineStore orderLines() {
+            orderLinesCalls++;
+            return super.orderLines();
+        }
+    }
+}
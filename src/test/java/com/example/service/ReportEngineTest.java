@@ -0,0 +1,60 @@
+package com.example.service;
+
+import com.example.model.*;
+import com.example.repository.InMemoryOrderRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportEngineTest {
+    private static final int ORDERS = 20_000;
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    /**
+     * Med flera trådar delas raderna upp i många deluppgifter som summerar i en
+     * delsumma per tråd. Rapporten ska bli exakt densamma som den sekventiella.
+     */
+    @Test
+    void parallelReportMatchesSequential() {
+        InMemoryOrderRepository orders = new InMemoryOrderRepository();
+        Random random = new Random(7);
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            Product product = new Product("SKU-" + id, "Produkt " + id, "", Money.ofCents(100 * id));
+            product.setId(id);
+            products.add(product);
+        }
+        Customer customer = new Customer("kund@example.com", "Kund");
+        customer.setId(1L);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(customer);
+            order.setCreatedAt(START.plusDays(random.nextInt(60)).atStartOfDay());
+            order.setStatus(OrderStatus.values()[random.nextInt(OrderStatus.values().length)]);
+            for (int l = 0; l < random.nextInt(4); l++) {
+                OrderItem item = new OrderItem(products.get(random.nextInt(products.size())), 1 + random.nextInt(3));
+                item.setOrder(order);
+                order.addItem(item);
+            }
+            orders.save(order);
+        }
+        Category category = new Category("Udda");
+        for (int i = 0; i < products.size(); i += 2) {
+            category.addProduct(products.get(i));
+        }
+
+        LocalDate end = START.plusDays(29);
+        try (ReportEngine sequential = new ReportEngine(orders.orderLines(), 1);
+             ReportEngine parallel = new ReportEngine(orders.orderLines(), 4)) {
+            SalesReport expected = sequential.salesReport(START, end, 10, List.of(category));
+            assertEquals(expected, parallel.salesReport(START, end, 10, List.of(category)));
+
+            long counted = expected.ordersByStatus().values().stream().mapToLong(Long::longValue).sum();
+            assertEquals(orders.findByDateBetween(START, end).size(), counted);
+        }
+    }
+}
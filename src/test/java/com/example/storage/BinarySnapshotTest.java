@@ -0,0 +1,115 @@
+package com.example.storage;
+
+import com.example.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 12, 0, 30, 123_456_789);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Allt som skrivs ska läsas tillbaka lika: null-texter, å/ä/ö, inaktiva produkter,
+     * tider med nanosekunder, ordrar utan rader och betalningar per order
+     */
+    @Test
+    void roundTripRestoresEveryRepository() throws IOException {
+        DurableStoreTest.Repositories source = filled();
+        Path file = directory.resolve("snapshot.bin");
+
+        BinarySnapshot.Result written = BinarySnapshot.write(file, 42, source.products, source.customers,
+                source.inventory, source.orders, source.payments);
+        assertTrue(BinarySnapshot.isBinarySnapshot(file));
+
+        DurableStoreTest.Repositories restored = new DurableStoreTest.Repositories();
+        BinarySnapshot.Result loaded = BinarySnapshot.load(file, restored.products, restored.customers,
+                restored.inventory, restored.orders, restored.payments);
+
+        assertEquals(42, loaded.lsn());
+        assertEquals(written.entities(), loaded.entities());
+        assertEquals(source.describe(), restored.describe());
+
+        // Index och id-sekvenser ska fungera efter inläsningen
+        Product sku = restored.products.findBySku("SKU-3").orElseThrow();
+        assertEquals("Kaffe 3 – mörkrost", sku.getName());
+        assertEquals(source.orders.findByStatus(OrderStatus.PAID).size(),
+                restored.orders.findByStatus(OrderStatus.PAID).size());
+        Product added = restored.products.save(new Product("NY", "Ny", "", Money.ofCents(1)));
+        assertTrue(added.getId() > source.products.count());
+    }
+
+    @Test
+    void damagedSnapshotIsRejectedBeforeAnythingIsLoaded() throws IOException {
+        DurableStoreTest.Repositories source = filled();
+        Path file = directory.resolve("snapshot.bin");
+        BinarySnapshot.write(file, 1, source.products, source.customers, source.inventory, source.orders, source.payments);
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+
+        DurableStoreTest.Repositories restored = new DurableStoreTest.Repositories();
+        IOException e = assertThrows(IOException.class, () -> BinarySnapshot.load(file, restored.products,
+                restored.customers, restored.inventory, restored.orders, restored.payments));
+        assertTrue(e.getMessage().contains("kontrollsumma"), e.getMessage());
+        assertEquals(0, restored.products.count());
+    }
+
+    @Test
+    void loadRequiresEmptyRepositories() throws IOException {
+        DurableStoreTest.Repositories source = filled();
+        Path file = directory.resolve("snapshot.bin");
+        BinarySnapshot.write(file, 1, source.products, source.customers, source.inventory, source.orders, source.payments);
+
+        assertThrows(IllegalStateException.class, () -> BinarySnapshot.load(file, source.products,
+                source.customers, source.inventory, source.orders, source.payments));
+    }
+
+    private static DurableStoreTest.Repositories filled() {
+        DurableStoreTest.Repositories data = new DurableStoreTest.Repositories();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Product product = new Product("SKU-" + i, "Kaffe " + i + " – mörkrost", i % 4 == 0 ? null : "Beskrivning " + i,
+                    Money.ofCents(1_000 + i));
+            product.setCreatedAt(START.plusMinutes(i));
+            product.setActive(i % 5 != 0);
+            products.add(data.products.save(product));
+            data.inventory.save(new Inventory(product.getId(), i * 3));
+        }
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Customer customer = new Customer("kund" + i + "@example.com", "Åsa Öberg " + i);
+            customer.setCreatedAt(START.plusSeconds(i));
+            customers.add(data.customers.save(customer));
+        }
+        for (int i = 0; i < 30; i++) {
+            Order order = new Order(customers.get(i % customers.size()));
+            order.setCreatedAt(START.plusHours(i));
+            for (int l = 0; l < i % 4; l++) {
+                OrderItem item = new OrderItem(products.get((i + l) % products.size()), 1 + l);
+                item.setOrder(order);
+                order.addItem(item);
+            }
+            order.setStatus(OrderStatus.values()[i % OrderStatus.values().length]);
+            data.orders.save(order);
+            if (order.getStatus() == OrderStatus.PAID) {
+                Payment payment = new Payment(order, PaymentMethod.values()[i % PaymentMethod.values().length]);
+                payment.setTimestamp(START.plusHours(i).plusMinutes(1));
+                payment.setStatus(PaymentStatus.APPROVED);
+                data.payments.save(payment);
+            }
+        }
+        return data;
+    }
+}
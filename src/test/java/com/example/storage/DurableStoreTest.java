@@ -0,0 +1,203 @@
+package com.example.storage;
+
+import com.example.model.*;
+import com.example.repository.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableStoreTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 12, 0, 30, 123_456_789);
+
+    @TempDir
+    Path directory;
+
+    private final Repositories source = new Repositories();
+
+    /**
+     * Skriver data, tar en snapshot halvvägs, skriver mer och avbryter sista posten
+     * mitt i. En återläsning i tomma repositoryn ska ge samma innehåll som källan
+     * hade före den avbrutna posten.
+     */
+    @ParameterizedTest
+    @EnumSource(FsyncPolicy.class)
+    void recoveryFromSnapshotAndCutOffLogMatchesSource(FsyncPolicy policy) throws IOException {
+        List<String> expected = writeAndCrash(policy, true);
+
+        Repositories recovered = new Repositories();
+        DurableStore.Recovery recovery = recovered.store(directory, policy).recover();
+        assertTrue(recovery.snapshotRecords() > 0);
+        assertTrue(recovery.logRecords() > 0);
+        assertEquals(expected, recovered.describe());
+    }
+
+    @ParameterizedTest
+    @EnumSource(FsyncPolicy.class)
+    void recoveryFromLogOnlyMatchesSource(FsyncPolicy policy) throws IOException {
+        List<String> expected = writeAndCrash(policy, false);
+
+        Repositories recovered = new Repositories();
+        DurableStore.Recovery recovery = recovered.store(directory, policy).recover();
+        assertEquals(0, recovery.snapshotRecords());
+        assertEquals(expected, recovered.describe());
+    }
+
+    /**
+     * En återläst butik ska kunna fortsätta skriva, och nästa återläsning ska se både
+     * det gamla och det nya.
+     */
+    @ParameterizedTest
+    @EnumSource(FsyncPolicy.class)
+    void recoveredStoreKeepsLoggingAfterTheCut(FsyncPolicy policy) throws IOException {
+        writeAndCrash(policy, true);
+
+        Repositories recovered = new Repositories();
+        DurableStore store = recovered.store(directory, policy);
+        store.recover();
+        store.start();
+        Product added = recovered.products.save(new Product("NY-1", "Ny", "", Money.ofCents(4_200)));
+        recovered.inventory.save(new Inventory(added.getId(), 7));
+        store.close();
+
+        Repositories again = new Repositories();
+        again.store(directory, policy).recover();
+        assertEquals(recovered.describe(), again.describe());
+    }
+
+    /**
+     * Fyller källan via en startad DurableStore och kapar sista posten i loggen,
+     * som om processen dött mitt i skrivningen. Returnerar källans innehåll före den posten.
+     */
+    private List<String> writeAndCrash(FsyncPolicy policy, boolean snapshotHalfway) throws IOException {
+        DurableStore store = source.store(directory, policy);
+        assertTrue(store.recover().isEmpty());
+        store.start();
+
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>();
+        List<Customer> customers = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Product product = new Product("SKU-" + i, "Produkt " + i, i % 3 == 0 ? null : "Beskrivning " + i,
+                    Money.ofCents(100 + random.nextInt(10_000)));
+            product.setCreatedAt(START.plusMinutes(i));
+            products.add(source.products.save(product));
+            source.inventory.save(new Inventory(product.getId(), random.nextInt(500)));
+        }
+        for (int i = 0; i < 100; i++) {
+            Customer customer = new Customer("kund" + i + "@example.com", "Kund " + i);
+            customer.setCreatedAt(START.plusSeconds(i));
+            customers.add(source.customers.save(customer));
+        }
+        for (int i = 0; i < 300; i++) {
+            if (snapshotHalfway && i == 150) {
+                store.snapshot();
+            }
+            Order order = new Order(customers.get(random.nextInt(customers.size())));
+            order.setCreatedAt(START.plusHours(i));
+            for (int l = 0; l <= random.nextInt(4); l++) {
+                OrderItem item = new OrderItem(products.get(random.nextInt(150)), 1 + random.nextInt(5));
+                item.setOrder(order);
+                order.addItem(item);
+            }
+            orders.add(source.orders.save(order));
+            if (i % 3 == 0) {
+                order.setStatus(OrderStatus.PAID);
+                source.orders.save(order);
+                Payment payment = new Payment(order, PaymentMethod.values()[i % PaymentMethod.values().length]);
+                payment.setTimestamp(START.plusHours(i).plusMinutes(1));
+                payment.setStatus(PaymentStatus.APPROVED);
+                source.payments.save(payment);
+            }
+        }
+
+        // Ändringar och raderingar efter snapshoten
+        for (int i = 150; i < 200; i++) {
+            Product product = products.get(i);
+            if (i % 2 == 0) {
+                source.products.delete(product);
+                source.inventory.delete(product.getId());
+            } else {
+                product.setActive(false);
+                product.setPrice(product.getPrice().plus(Money.ofCents(1)));
+                source.products.save(product);
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            Order cancelled = orders.get(random.nextInt(orders.size()));
+            cancelled.setStatus(OrderStatus.CANCELLED);
+            source.orders.save(cancelled);
+        }
+        source.orders.delete(orders.get(1));
+        source.customers.delete(customers.get(99));
+
+        List<String> beforeCrash = source.describe();
+        source.products.save(new Product("SISTA", "Avbruten", "", Money.ofCents(1)));
+        store.close();
+
+        Path segment = lastSegment();
+        WriteAheadLogTest.truncate(segment, Files.size(segment) - 5);
+        return beforeCrash;
+    }
+
+    private Path lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log"))
+                    .max(Comparator.comparing(Path::toString))
+                    .orElseThrow();
+        }
+    }
+
+    static final class Repositories {
+        final InMemoryProductRepository products = new InMemoryProductRepository();
+        final InMemoryCustomerRepository customers = new InMemoryCustomerRepository();
+        final InMemoryInventoryRepository inventory = new InMemoryInventoryRepository();
+        final InMemoryOrderRepository orders = new InMemoryOrderRepository();
+        final InMemoryPaymentRepository payments = new InMemoryPaymentRepository();
+
+        DurableStore store(Path directory, FsyncPolicy policy) {
+            return new DurableStore(directory, policy, 5, products, customers, inventory, orders, payments);
+        }
+
+        /**
+         * Allt innehåll som sorterade textrader, så att två uppsättningar kan jämföras med equals
+         */
+        List<String> describe() {
+            List<String> lines = new ArrayList<>();
+            for (Product p : products.findAll()) {
+                lines.add("produkt " + p.getId() + "|" + p.getSku() + "|" + p.getName() + "|" + p.getDescription()
+                        + "|" + p.getPrice().cents() + "|" + p.isActive() + "|" + p.getCreatedAt());
+            }
+            for (Customer c : customers.findAll()) {
+                lines.add("kund " + c.getId() + "|" + c.getEmail() + "|" + c.getName() + "|" + c.getCreatedAt());
+            }
+            for (Inventory i : inventory.findAll()) {
+                lines.add("lager " + i.getProductId() + "|" + i.getInStock());
+            }
+            for (Order o : orders.findAll()) {
+                StringBuilder line = new StringBuilder("order " + o.getId() + "|" + o.getCustomer().getId()
+                        + "|" + o.getStatus() + "|" + o.getCreatedAt() + "|" + o.getTotal().cents());
+                for (OrderItem item : o.getItems()) {
+                    line.append("|").append(item.getProduct().getId()).append("x").append(item.getQuantity())
+                            .append("@").append(item.getUnitPrice().cents());
+                }
+                lines.add(line.toString());
+            }
+            for (Payment p : payments.findAll()) {
+                lines.add("betalning " + p.getId() + "|" + p.getOrder().getId() + "|" + p.getMethod()
+                        + "|" + p.getStatus() + "|" + p.getTimestamp());
+            }
+            lines.sort(null);
+            return lines;
+        }
+    }
+}
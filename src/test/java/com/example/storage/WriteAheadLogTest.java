@@ -0,0 +1,125 @@
+package com.example.storage;
+
+import com.example.Concurrently;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+    private static final int RECORDS = 1_000;
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(FsyncPolicy.class)
+    void replayReturnsEveryRecordInOrderAcrossSegments(FsyncPolicy policy) throws IOException {
+        List<String> written = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(directory, policy, 5, 0)) {
+            for (int i = 0; i < RECORDS; i++) {
+                written.add("post " + i);
+                assertEquals(i, log.append(bytes("post " + i)));
+                if (i == RECORDS / 2) {
+                    assertEquals(i + 1, log.rotate());
+                }
+            }
+        }
+
+        List<String> replayed = new ArrayList<>();
+        assertEquals(RECORDS, WriteAheadLog.replay(directory, 0, body -> replayed.add(text(body))));
+        assertEquals(written, replayed);
+
+        List<String> tail = new ArrayList<>();
+        assertEquals(RECORDS, WriteAheadLog.replay(directory, 700, body -> tail.add(text(body))));
+        assertEquals(written.subList(700, RECORDS), tail);
+    }
+
+    /**
+     * En krasch mitt i en skrivning lämnar en halv post sist i segmentet. Den ska
+     * kapas bort vid uppspelning, och loggen ska kunna fortsätta efter sista hela posten.
+     */
+    @ParameterizedTest
+    @EnumSource(FsyncPolicy.class)
+    void recordCutOffMidWriteIsDroppedAndLogContinues(FsyncPolicy policy) throws IOException {
+        try (WriteAheadLog log = WriteAheadLog.open(directory, policy, 5, 0)) {
+            for (int i = 0; i < RECORDS; i++) {
+                log.append(bytes("post " + i));
+            }
+        }
+        Path segment = lastSegment();
+        long complete = Files.size(segment);
+        truncate(segment, complete - 3);
+
+        List<String> replayed = new ArrayList<>();
+        long nextLsn = WriteAheadLog.replay(directory, 0, body -> replayed.add(text(body)));
+        assertEquals(RECORDS - 1, nextLsn);
+        assertEquals(RECORDS - 1, replayed.size());
+        assertEquals("post " + (RECORDS - 2), replayed.get(replayed.size() - 1));
+        assertEquals(complete - RecordFrames.HEADER_BYTES - bytes("post " + (RECORDS - 1)).length, Files.size(segment));
+
+        try (WriteAheadLog log = WriteAheadLog.open(directory, policy, 5, nextLsn)) {
+            assertEquals(nextLsn, log.append(bytes("efter krasch")));
+        }
+        replayed.clear();
+        assertEquals(RECORDS, WriteAheadLog.replay(directory, 0, body -> replayed.add(text(body))));
+        assertEquals("efter krasch", replayed.get(RECORDS - 1));
+    }
+
+    @ParameterizedTest
+    @EnumSource(FsyncPolicy.class)
+    void concurrentAppendsGetUniqueLsnsAndAreAllReplayed(FsyncPolicy policy) throws Exception {
+        Map<Long, String> byLsn = new ConcurrentHashMap<>();
+        try (WriteAheadLog log = WriteAheadLog.open(directory, policy, 5, 0)) {
+            Concurrently.run(8, thread -> {
+                for (int i = 0; i < RECORDS; i++) {
+                    String body = "tråd " + thread + " post " + i;
+                    long lsn = log.append(bytes(body));
+                    assertNull(byLsn.put(lsn, body), "LSN " + lsn + " delades ut två gånger");
+                    if (policy == FsyncPolicy.ALWAYS && i % 100 == 0) {
+                        log.awaitDurable(lsn);
+                    }
+                }
+            });
+        }
+
+        List<String> replayed = new ArrayList<>();
+        assertEquals(8L * RECORDS, WriteAheadLog.replay(directory, 0, body -> replayed.add(text(body))));
+        for (int lsn = 0; lsn < replayed.size(); lsn++) {
+            assertEquals(byLsn.get((long) lsn), replayed.get(lsn));
+        }
+    }
+
+    private Path lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log"))
+                    .max(Comparator.comparing(Path::toString))
+                    .orElseThrow();
+        }
+    }
+
+    static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}